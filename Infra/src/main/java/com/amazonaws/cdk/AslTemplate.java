@@ -0,0 +1,53 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ */
+
+package com.amazonaws.cdk;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Amazon States Language definition with &lt;&lt;PLACEHOLDER&gt;&gt; values filled in before deployment.
+ * Used by the stack and by the local state machine simulator so both render the same definition.
+ */
+public class AslTemplate {
+    public static final String INTAKE = "../StepFunction/IntakeProcess/AmazonConnectAgentlessOutboundCampaign-Intake.asl.json";
+    public static final String OUTREACH = "../StepFunction/OutreachProcess/AmazonConnectAgentlessOutboundCampaign-Outreach.asl.json";
+
+    private static final Pattern PLACEHOLDER = Pattern.compile("<<[A-Za-z0-9_-]+>>");
+
+    private String definition;
+
+    private AslTemplate(String definition) {
+        this.definition = definition;
+    }
+
+    public static AslTemplate load(String path) throws IOException {
+        return new AslTemplate(Files.readString(Path.of(path)));
+    }
+
+    // Replaces <<placeholder>> wherever it appears, including inside longer strings.
+    public AslTemplate with(String placeholder, String value) {
+        definition = definition.replace("<<" + placeholder + ">>", value);
+        return this;
+    }
+
+    // Replaces the quoted "<<placeholder>>" string so the value lands in the definition as a JSON number.
+    public AslTemplate withNumber(String placeholder, String value) {
+        definition = definition.replace("\"<<" + placeholder + ">>\"", value);
+        return this;
+    }
+
+    public String render() {
+        Matcher unresolved = PLACEHOLDER.matcher(definition);
+        if (unresolved.find()) {
+            throw new IllegalStateException("State machine definition still contains placeholder " + unresolved.group());
+        }
+        return definition;
+    }
+}
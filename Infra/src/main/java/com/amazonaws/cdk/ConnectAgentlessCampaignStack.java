@@ -8,22 +8,50 @@ package com.amazonaws.cdk;
 import io.github.cdklabs.cdknag.NagPackSuppression;
 import io.github.cdklabs.cdknag.NagSuppressions;
 import software.amazon.awscdk.*;
+import software.amazon.awscdk.services.cloudwatch.Alarm;
+import software.amazon.awscdk.services.cloudwatch.AlarmStatusWidget;
+import software.amazon.awscdk.services.cloudwatch.ComparisonOperator;
+import software.amazon.awscdk.services.cloudwatch.Dashboard;
+import software.amazon.awscdk.services.cloudwatch.GraphWidget;
+import software.amazon.awscdk.services.cloudwatch.IMetric;
+import software.amazon.awscdk.services.cloudwatch.MathExpression;
+import software.amazon.awscdk.services.cloudwatch.Metric;
+import software.amazon.awscdk.services.cloudwatch.MetricOptions;
+import software.amazon.awscdk.services.cloudwatch.TreatMissingData;
 import software.amazon.awscdk.services.connect.CfnContactFlow;
 import software.amazon.awscdk.services.connect.CfnInstance;
 import software.amazon.awscdk.services.connect.CfnInstanceStorageConfig;
 import software.amazon.awscdk.services.connect.CfnPhoneNumber;
 import software.amazon.awscdk.services.dynamodb.*;
+import software.amazon.awscdk.services.events.EventField;
+import software.amazon.awscdk.services.events.EventPattern;
+import software.amazon.awscdk.services.events.Rule;
+import software.amazon.awscdk.services.events.RuleTargetInput;
+import software.amazon.awscdk.services.events.Schedule;
+import software.amazon.awscdk.services.events.targets.LambdaFunction;
+import software.amazon.awscdk.services.events.targets.SfnStateMachine;
+import software.amazon.awscdk.services.events.targets.SqsQueue;
+import software.amazon.awscdk.services.glue.CfnDatabase;
+import software.amazon.awscdk.services.glue.CfnTable;
 import software.amazon.awscdk.services.iam.Policy;
 import software.amazon.awscdk.services.iam.PolicyStatement;
 import software.amazon.awscdk.services.iam.Role;
 import software.amazon.awscdk.services.iam.ServicePrincipal;
 import software.amazon.awscdk.services.kms.Key;
+import software.amazon.awscdk.services.lambda.Code;
+import software.amazon.awscdk.services.lambda.Function;
+import software.amazon.awscdk.services.lambda.Runtime;
+import software.amazon.awscdk.services.lambda.eventsources.SqsEventSource;
 import software.amazon.awscdk.services.logs.LogGroup;
 import software.amazon.awscdk.services.s3.BlockPublicAccess;
 import software.amazon.awscdk.services.s3.Bucket;
 import software.amazon.awscdk.services.s3.BucketEncryption;
+import software.amazon.awscdk.services.s3.LifecycleRule;
 import software.amazon.awscdk.services.s3.deployment.BucketDeployment;
 import software.amazon.awscdk.services.s3.deployment.Source;
+import software.amazon.awscdk.services.sqs.DeadLetterQueue;
+import software.amazon.awscdk.services.sqs.Queue;
+import software.amazon.awscdk.services.sqs.QueueEncryption;
 import software.amazon.awscdk.services.stepfunctions.*;
 import software.constructs.Construct;
 
@@ -31,11 +59,16 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
-// import software.amazon.awscdk.Duration;
-// import software.amazon.awscdk.services.sqs.Queue;
+import java.util.Map;
 
 public class ConnectAgentlessCampaignStack extends Stack {
+    // Largest caller ID pool the stack claims, CloudFormation conditions cannot loop over a parameter
+    private static final int MAX_CALLER_IDS = 10;
+    // Namespace of the campaign metrics, the same as com.amazonaws.lambda.metrics.EmbeddedMetrics
+    private static final String METRICS_NAMESPACE = "AmazonConnectAgentlessCampaign";
+
     public ConnectAgentlessCampaignStack(final Construct scope, final String id) {
         this(scope, id, null);
     }
@@ -51,6 +84,234 @@ public class ConnectAgentlessCampaignStack extends Stack {
                 .type("String")
                 .build();
 
+        // Intake Process Batch Size (BatchWriteItem accepts at most 25 items per call)
+        CfnParameter intakeBatchSize = CfnParameter.Builder.create(this, "intakeBatchSize")
+                .description("Number of contacts written to DynamoDB per BatchWriteItem call by the Intake Process")
+                .defaultValue(25)
+                .minValue(1)
+                .maxValue(25)
+                .type("Number")
+                .build();
+
+        // Intake Process Degree of Parallelism
+        CfnParameter intakeMaxConcurrency = CfnParameter.Builder.create(this, "intakeMaxConcurrency")
+                .description("Maximum number of contact batches written in parallel by the Intake Process")
+                .defaultValue(50)
+                .minValue(1)
+                .maxValue(10000)
+                .type("Number")
+                .build();
+
+        // Intake Process Contact List Shards
+        CfnParameter intakeShardCount = CfnParameter.Builder.create(this, "intakeShardCount")
+                .description("Number of shards the contact list is split into by the pre-processing step, shards are loaded in parallel")
+                .defaultValue(4)
+                .minValue(1)
+                .maxValue(100)
+                .type("Number")
+                .build();
+
+        // Intake Process Country Code of Contact Phone Numbers without one
+        CfnParameter intakeDefaultCountryCode = CfnParameter.Builder.create(this, "intakeDefaultCountryCode")
+                .description("Country calling code assumed for phone numbers of the contact list written without + or 00")
+                .defaultValue(1)
+                .minValue(1)
+                .maxValue(999)
+                .type("Number")
+                .build();
+
+        // Intake Process Accepted Contact Languages
+        CfnParameter intakeAllowedLanguages = CfnParameter.Builder.create(this, "intakeAllowedLanguages")
+                .description("Comma separated UserLang values accepted by the pre-processing step, e.g. en_US,es_US. Any locale code is accepted when empty")
+                .defaultValue("")
+                .type("String")
+                .build();
+
+        // Contacts Table Write Shards per Campaign (changing it requires loading the contact lists again)
+        CfnParameter contactKeyShards = CfnParameter.Builder.create(this, "contactKeyShards")
+                .description("Number of partition key shards every campaign's contacts are spread over, the Outreach Process queries the shards in parallel")
+                .defaultValue(10)
+                .minValue(1)
+                .maxValue(40)
+                .type("Number")
+                .build();
+
+        // Outreach Process DynamoDB Query Page Size (keeps every exported page well below the 256 KB payload limit)
+        CfnParameter outreachQueryPageSize = CfnParameter.Builder.create(this, "outreachQueryPageSize")
+                .description("Maximum number of contacts read per DynamoDB query page and written per S3 page file by the Outreach Process")
+                .defaultValue(250)
+                .minValue(1)
+                .maxValue(1000)
+                .type("Number")
+                .build();
+
+        // Outreach Process Dialing Parallelism
+        CfnParameter outreachMaxConcurrency = CfnParameter.Builder.create(this, "outreachMaxConcurrency")
+                .description("Maximum number of contact pages dialed in parallel by the Outreach Process")
+                .defaultValue(10)
+                .minValue(1)
+                .maxValue(1000)
+                .type("Number")
+                .build();
+
+        // Outreach Process Child Workflow Type
+        CfnParameter outreachExecutionType = CfnParameter.Builder.create(this, "outreachExecutionType")
+                .description("Child workflow type used to dial each page of contacts. EXPRESS is cheaper and starts faster but every page has to be dialed within 5 minutes")
+                .defaultValue("STANDARD")
+                .allowedValues(List.of("STANDARD", "EXPRESS"))
+                .type("String")
+                .build();
+
+        // Outreach Process Pacing - Target Calls per Second
+        CfnParameter outreachCallsPerSecond = CfnParameter.Builder.create(this, "outreachCallsPerSecond")
+                .description("Target rate of StartOutboundVoiceContact calls per second across the Amazon Connect instance")
+                .defaultValue(2)
+                .minValue(0.01)
+                .type("Number")
+                .build();
+
+        // Outreach Process Pacing - Max Concurrent Active Contacts
+        CfnParameter outreachMaxConcurrentContacts = CfnParameter.Builder.create(this, "outreachMaxConcurrentContacts")
+                .description("Maximum number of concurrent active outbound contacts, keep it at or below the instance concurrent calls quota")
+                .defaultValue(10)
+                .minValue(1)
+                .type("Number")
+                .build();
+
+        // Outreach Process Pacing - Average Contact Duration
+        CfnParameter outreachAverageContactSeconds = CfnParameter.Builder.create(this, "outreachAverageContactSeconds")
+                .description("Average duration of an outbound contact in seconds, used to turn the concurrent contacts limit into a call rate")
+                .defaultValue(30)
+                .minValue(1)
+                .type("Number")
+                .build();
+
+        // Outreach Process Suppression of Recently Dialed Numbers
+        CfnParameter outreachSuppressionDays = CfnParameter.Builder.create(this, "outreachSuppressionDays")
+                .description("Numbers successfully dialed within this many days are not dialed again by the Outreach Process, 0 only applies the do-not-call lists")
+                .defaultValue(7)
+                .minValue(0)
+                .maxValue(365)
+                .type("Number")
+                .build();
+
+        // Outreach Process Caller ID Pool - Claimed Numbers
+        CfnParameter outreachCallerIdPoolSize = CfnParameter.Builder.create(this, "outreachCallerIdPoolSize")
+                .description("Number of phone numbers claimed for the instance and used as caller ID, contacts are spread across them")
+                .defaultValue(1)
+                .minValue(1)
+                .maxValue(MAX_CALLER_IDS)
+                .type("Number")
+                .build();
+
+        // Outreach Process Caller ID Pool - Type of the Claimed Numbers
+        CfnParameter outreachCallerIdPhoneNumberType = CfnParameter.Builder.create(this, "outreachCallerIdPhoneNumberType")
+                .description("Type of the US phone numbers claimed for the caller ID pool")
+                .defaultValue("TOLL_FREE")
+                .allowedValues(List.of("TOLL_FREE", "DID"))
+                .type("String")
+                .build();
+
+        // Outreach Process Caller ID Pool - Numbers Claimed outside of the Stack
+        CfnParameter outreachCallerIdAdditionalNumbers = CfnParameter.Builder.create(this, "outreachCallerIdAdditionalNumbers")
+                .description("Comma separated E.164 numbers already claimed for the instance to add to the caller ID pool, e.g. local numbers for local presence")
+                .defaultValue("")
+                .type("String")
+                .build();
+
+        // Outreach Process Caller ID Pool - Rate per Number
+        CfnParameter outreachCallerIdCallsPerSecond = CfnParameter.Builder.create(this, "outreachCallerIdCallsPerSecond")
+                .description("Maximum StartOutboundVoiceContact calls per second from any single caller ID, the instance limits still apply")
+                .defaultValue(2)
+                .minValue(0.01)
+                .type("Number")
+                .build();
+
+        // Outreach Process Caller ID Pool - Local Presence
+        CfnParameter outreachCallerIdLocalPresence = CfnParameter.Builder.create(this, "outreachCallerIdLocalPresence")
+                .description("Prefer caller IDs from the contact's area code, then from its time zone")
+                .defaultValue("false")
+                .allowedValues(List.of("true", "false"))
+                .type("String")
+                .build();
+
+        // Outreach Process Calling Window - Local Start Time
+        CfnParameter outreachBusinessHourStart = CfnParameter.Builder.create(this, "outreachBusinessHourStart")
+                .description("Start of the daily calling window as HH:mm, in the local time of each contact's time zone")
+                .defaultValue("08:00")
+                .allowedPattern("^([01][0-9]|2[0-3]):[0-5][0-9]$")
+                .type("String")
+                .build();
+
+        // Outreach Process Calling Window - Local End Time
+        CfnParameter outreachBusinessHourEnd = CfnParameter.Builder.create(this, "outreachBusinessHourEnd")
+                .description("End of the daily calling window as HH:mm, in the local time of each contact's time zone")
+                .defaultValue("17:00")
+                .allowedPattern("^([01][0-9]|2[0-3]):[0-5][0-9]$")
+                .type("String")
+                .build();
+
+        // Outreach Process Calling Window - Time Zone of Contacts without a Known Zone
+        CfnParameter outreachDefaultTimeZone = CfnParameter.Builder.create(this, "outreachDefaultTimeZone")
+                .description("IANA time zone of contacts whose zone is neither in the contact list nor derivable from the phone number")
+                .defaultValue("US/Pacific")
+                .type("String")
+                .build();
+
+        // Outreach Process Wave Length
+        CfnParameter outreachWaveMinutes = CfnParameter.Builder.create(this, "outreachWaveMinutes")
+                .description("Minutes of dialing released per wave, zones are re-planned between waves as calling windows open and close")
+                .defaultValue(15)
+                .minValue(1)
+                .maxValue(60)
+                .type("Number")
+                .build();
+
+        // Outreach Process Redial - Passes
+        CfnParameter outreachRedialPasses = CfnParameter.Builder.create(this, "outreachRedialPasses")
+                .description("Passes dialing again the contacts whose StartOutboundVoiceContact still failed with a transient error after its retries, 0 disables the redial")
+                .defaultValue(1)
+                .minValue(0)
+                .maxValue(5)
+                .type("Number")
+                .build();
+
+        // Outreach Process Redial - Delay before each Pass
+        CfnParameter outreachRedialDelaySeconds = CfnParameter.Builder.create(this, "outreachRedialDelaySeconds")
+                .description("Seconds to wait after a pass before redialing its failed contacts")
+                .defaultValue(300)
+                .minValue(0)
+                .maxValue(86400)
+                .type("Number")
+                .build();
+
+        // Contact Outcomes - Events per Batch
+        CfnParameter outcomeBatchSize = CfnParameter.Builder.create(this, "outcomeBatchSize")
+                .description("Maximum number of Amazon Connect contact events written back to the execution table per Lambda invocation")
+                .defaultValue(100)
+                .minValue(1)
+                .maxValue(10000)
+                .type("Number")
+                .build();
+
+        // Contact Outcomes - Batching Window
+        CfnParameter outcomeBatchingWindowSeconds = CfnParameter.Builder.create(this, "outcomeBatchingWindowSeconds")
+                .description("Seconds contact events are gathered before a batch is written, longer windows make fewer and larger counter updates")
+                .defaultValue(10)
+                .minValue(1)
+                .maxValue(300)
+                .type("Number")
+                .build();
+
+        // Execution History - Retention in the Execution Table
+        CfnParameter executionRetentionDays = CfnParameter.Builder.create(this, "executionRetentionDays")
+                .description("Days the dial attempts are kept in the execution table before they expire, executions are archived to S3 before. Keep it above outreachSuppressionDays")
+                .defaultValue(30)
+                .minValue(3)
+                .maxValue(3650)
+                .type("Number")
+                .build();
+
         // Logging S3 Bucket's KMS Key
         Key loggingBucketKey = Key.Builder.create(this, "LoggingBucketKey")
                 .alias("LoggingBucketKey4ConnectAgentlessCampaign")
@@ -95,9 +356,30 @@ public class ConnectAgentlessCampaignStack extends Stack {
         CfnPhoneNumber cfnPhoneNumber = CfnPhoneNumber.Builder.create(this, "connect-example-phone-number")
                 .countryCode("US")
                 .targetArn(amazonConnect.getAttrArn())
-                .type("TOLL_FREE")
+                .type(outreachCallerIdPhoneNumberType.getValueAsString())
                 .build();
 
+        // Claim the rest of the caller ID pool, number n only when the pool has at least n numbers
+        List<String> sourcePhoneNumbers = new ArrayList<>(List.of(cfnPhoneNumber.getAttrAddress()));
+        for (int number = 2; number <= MAX_CALLER_IDS; number++) {
+            List<ICfnConditionExpression> poolSizes = new ArrayList<>();
+            for (int size = number; size <= MAX_CALLER_IDS; size++) {
+                poolSizes.add(Fn.conditionEquals(outreachCallerIdPoolSize.getValueAsString(), String.valueOf(size)));
+            }
+            CfnCondition claimed = CfnCondition.Builder.create(this, "CallerIdPoolHas" + number + "Numbers")
+                    .expression(poolSizes.size() == 1 ? poolSizes.get(0) : Fn.conditionOr(poolSizes.toArray(new ICfnConditionExpression[0])))
+                    .build();
+            CfnPhoneNumber callerId = CfnPhoneNumber.Builder.create(this, "connect-caller-id-" + number)
+                    .countryCode("US")
+                    .targetArn(amazonConnect.getAttrArn())
+                    .type(outreachCallerIdPhoneNumberType.getValueAsString())
+                    .build();
+            callerId.getCfnOptions().setCondition(claimed);
+            sourcePhoneNumbers.add(Token.asString(Fn.conditionIf(claimed.getLogicalId(), callerId.getAttrAddress(), "")));
+        }
+        sourcePhoneNumbers.add(outreachCallerIdAdditionalNumbers.getValueAsString());
+        String callerIdPool = Fn.join(",", sourcePhoneNumbers);
+
 
         // Amazon Connect S3 Bucket
         Bucket amazonConnectS3Bucket = Bucket.Builder.create(this, "amazon-connect-s3-bucket")
@@ -151,6 +433,47 @@ public class ConnectAgentlessCampaignStack extends Stack {
                 .versioned(true)
                 .serverAccessLogsBucket(loggingBucket)
                 .serverAccessLogsPrefix("connectAgentlessCampaignBucket/")
+                // Uploads under unprocessed/ start the Intake Process
+                .eventBridgeEnabled(true)
+                // Contact pages exported by the Outreach Process are only needed while the execution runs
+                .lifecycleRules(List.of(LifecycleRule.builder()
+                                .id("ExpireOutreachContactPages")
+                                .prefix("outreach/")
+                                .expiration(Duration.days(7))
+                                .noncurrentVersionExpiration(Duration.days(1))
+                                .build(),
+                        // Contact list shards and rejected rows written by the Intake Process pre-processing step
+                        LifecycleRule.builder()
+                                .id("ExpireIntakeShards")
+                                .prefix("intake/")
+                                .expiration(Duration.days(7))
+                                .noncurrentVersionExpiration(Duration.days(1))
+                                .build(),
+                        // Contact lists moved to processed/ leave a noncurrent version behind
+                        LifecycleRule.builder()
+                                .id("ExpireUnprocessedListVersions")
+                                .prefix("unprocessed/")
+                                .noncurrentVersionExpiration(Duration.days(7))
+                                .build(),
+                        // Loaded contacts of every campaign, replaced by every Intake execution
+                        LifecycleRule.builder()
+                                .id("ExpireIntakeIndexVersions")
+                                .prefix("intake-index/")
+                                .noncurrentVersionExpiration(Duration.days(1))
+                                .build(),
+                        // Parquet archive of the execution table, kept until deleted
+                        LifecycleRule.builder()
+                                .id("ExpireArchiveVersions")
+                                .prefix("archive/")
+                                .noncurrentVersionExpiration(Duration.days(7))
+                                .build(),
+                        // Suppression index built for every Outreach execution
+                        LifecycleRule.builder()
+                                .id("ExpireSuppressionIndexes")
+                                .prefix("suppression-index/")
+                                .expiration(Duration.days(7))
+                                .noncurrentVersionExpiration(Duration.days(1))
+                                .build()))
                 // Below 2 options can be ignored for Prod Amazon Connect Instance.
                 .removalPolicy(RemovalPolicy.DESTROY)
                 .autoDeleteObjects(true)
@@ -168,24 +491,65 @@ public class ConnectAgentlessCampaignStack extends Stack {
                         .name("phoneNumber")
                         .type(AttributeType.STRING)
                         .build())
+                .billingMode(BillingMode.PAY_PER_REQUEST)
                 .removalPolicy(RemovalPolicy.DESTROY)
                 .pointInTimeRecovery(true)
                 .encryption(TableEncryption.CUSTOMER_MANAGED)
                 .encryptionKey(amazonConnectManagedKeyAlias)
+                // Dial attempts expire executionRetentionDays after their wave, executions are archived to S3 before
+                .timeToLiveAttribute("expiresAt")
                 .build();
         Table tableExec = new Table(this, "AgentlessCampaignDDB", tablePropsExec);
 
-        // Create DynamoDB table to capture the contact information
+        // Dial attempts by Amazon Connect contact id, for the contact events to find their attempt and campaign
+        tableExec.addGlobalSecondaryIndex(GlobalSecondaryIndexProps.builder()
+                .indexName("contactId-index")
+                .partitionKey(Attribute.builder()
+                        .name("contactId")
+                        .type(AttributeType.STRING)
+                        .build())
+                .projectionType(ProjectionType.INCLUDE)
+                .nonKeyAttributes(List.of("topExecutionId", "dialedAt", "attemptedAt"))
+                .build());
+
+        // Dial attempts that failed with a transient error by Outreach execution and redial pass, only those attempts hold a redialKey
+        tableExec.addGlobalSecondaryIndex(GlobalSecondaryIndexProps.builder()
+                .indexName("redialKey-index")
+                .partitionKey(Attribute.builder()
+                        .name("redialKey")
+                        .type(AttributeType.STRING)
+                        .build())
+                .projectionType(ProjectionType.INCLUDE)
+                .nonKeyAttributes(List.of("userLanguage", "timeZone"))
+                .build());
+
+        // Aggregate items of the Outreach executions not archived yet, only those items hold an archiveStatus
+        tableExec.addGlobalSecondaryIndex(GlobalSecondaryIndexProps.builder()
+                .indexName("archiveStatus-index")
+                .partitionKey(Attribute.builder()
+                        .name("archiveStatus")
+                        .type(AttributeType.STRING)
+                        .build())
+                .sortKey(Attribute.builder()
+                        .name("startedAt")
+                        .type(AttributeType.STRING)
+                        .build())
+                .projectionType(ProjectionType.INCLUDE)
+                .nonKeyAttributes(List.of("campaignId", "finishedAt"))
+                .build());
+
+        // Create DynamoDB table to capture the contact information, partitioned by campaign and write shard
         TableProps tablePropsContacts = TableProps.builder()
-                .tableName("AmazonConnectAgentlessOutboundCampaign-Contacts")
+                .tableName("AmazonConnectAgentlessOutboundCampaign-CampaignContacts")
                 .partitionKey(Attribute.builder()
-                        .name("phoneNumber")
+                        .name("campaignShard")
                         .type(AttributeType.STRING)
                         .build())
                 .sortKey(Attribute.builder()
-                        .name("userLanguage")
+                        .name("phoneNumber")
                         .type(AttributeType.STRING)
                         .build())
+                .billingMode(BillingMode.PAY_PER_REQUEST)
                 .removalPolicy(RemovalPolicy.DESTROY)
                 .pointInTimeRecovery(true)
                 .encryption(TableEncryption.CUSTOMER_MANAGED)
@@ -193,11 +557,243 @@ public class ConnectAgentlessCampaignStack extends Stack {
                 .build();
         Table tableContacts = new Table(this, "AgentlessCampaignContactsDDB", tablePropsContacts);
 
+        // Create DynamoDB table to hold the dial pacing token buckets
+        TableProps tablePropsPacing = TableProps.builder()
+                .tableName("AmazonConnectAgentlessOutboundCampaign-Pacing")
+                .partitionKey(Attribute.builder()
+                        .name("bucketId")
+                        .type(AttributeType.STRING)
+                        .build())
+                .billingMode(BillingMode.PAY_PER_REQUEST)
+                .removalPolicy(RemovalPolicy.DESTROY)
+                .pointInTimeRecovery(true)
+                .encryption(TableEncryption.CUSTOMER_MANAGED)
+                .encryptionKey(amazonConnectManagedKeyAlias)
+                .build();
+        Table tablePacing = new Table(this, "AgentlessCampaignPacingDDB", tablePropsPacing);
+
+        // Create DynamoDB table to checkpoint the intake of every contact list, keyed by its campaign and ETag
+        TableProps tablePropsIntake = TableProps.builder()
+                .tableName("AmazonConnectAgentlessOutboundCampaign-IntakeFiles")
+                .partitionKey(Attribute.builder()
+                        .name("campaignKey")
+                        .type(AttributeType.STRING)
+                        .build())
+                .sortKey(Attribute.builder()
+                        .name("fileETag")
+                        .type(AttributeType.STRING)
+                        .build())
+                .billingMode(BillingMode.PAY_PER_REQUEST)
+                .removalPolicy(RemovalPolicy.DESTROY)
+                .pointInTimeRecovery(true)
+                .encryption(TableEncryption.CUSTOMER_MANAGED)
+                .encryptionKey(amazonConnectManagedKeyAlias)
+                .build();
+        Table tableIntake = new Table(this, "AgentlessCampaignIntakeFilesDDB", tablePropsIntake);
+
+        // Create DynamoDB table to register the campaigns sharing the instance, with their weight and status
+        TableProps tablePropsCampaigns = TableProps.builder()
+                .tableName("AmazonConnectAgentlessOutboundCampaign-Campaigns")
+                .partitionKey(Attribute.builder()
+                        .name("campaignId")
+                        .type(AttributeType.STRING)
+                        .build())
+                .billingMode(BillingMode.PAY_PER_REQUEST)
+                .removalPolicy(RemovalPolicy.DESTROY)
+                .pointInTimeRecovery(true)
+                .encryption(TableEncryption.CUSTOMER_MANAGED)
+                .encryptionKey(amazonConnectManagedKeyAlias)
+                .build();
+        Table tableCampaigns = new Table(this, "AgentlessCampaignCampaignsDDB", tablePropsCampaigns);
+
+        // Lambda function handing out dial slots and caller IDs to the Outreach Process
+        Function dialPacingFunction = createLambdaFunction("DialPacingFunction",
+                "AmazonConnectAgentlessOutboundCampaign-DialPacing",
+                "com.amazonaws.lambda.pacing.DialPacingHandler::handleRequest",
+                Map.of("PACING_TABLE_NAME", tablePacing.getTableName(),
+                        "CAMPAIGNS_TABLE_NAME", tableCampaigns.getTableName(),
+                        "TARGET_CALLS_PER_SECOND", outreachCallsPerSecond.getValueAsString(),
+                        "MAX_CONCURRENT_CONTACTS", outreachMaxConcurrentContacts.getValueAsString(),
+                        "AVERAGE_CONTACT_SECONDS", outreachAverageContactSeconds.getValueAsString(),
+                        "SOURCE_PHONE_NUMBERS", callerIdPool,
+                        "CALLER_ID_CALLS_PER_SECOND", outreachCallerIdCallsPerSecond.getValueAsString(),
+                        "CALLER_ID_LOCAL_PRESENCE", outreachCallerIdLocalPresence.getValueAsString()));
+        tablePacing.grantReadWriteData(dialPacingFunction);
+        tableCampaigns.grantReadWriteData(dialPacingFunction);
+
+        // Lambda function validating, deduplicating and sharding the contact list before the Intake Process loads it
+        Function contactListPreprocessFunction = createLambdaFunction("ContactListPreprocessFunction",
+                "AmazonConnectAgentlessOutboundCampaign-ContactListPreprocess",
+                "com.amazonaws.lambda.contacts.ContactListPreprocessorHandler::handleRequest",
+                Map.of("DEFAULT_COUNTRY_CODE", intakeDefaultCountryCode.getValueAsString(),
+                        "ALLOWED_LANGUAGES", intakeAllowedLanguages.getValueAsString()),
+                3008, Duration.minutes(15), Size.gibibytes(10));
+        agentlessCampaignS3.grantReadWrite(contactListPreprocessFunction);
+
+        // Lambda functions building the do-not-call / recently dialed suppression index and filtering contact pages with it
+        Function suppressionIndexFunction = createLambdaFunction("SuppressionIndexFunction",
+                "AmazonConnectAgentlessOutboundCampaign-SuppressionIndex",
+                "com.amazonaws.lambda.suppression.SuppressionIndexBuilderHandler::handleRequest",
+                Map.of("EXECUTION_TABLE_NAME", tableExec.getTableName(),
+                        "DEFAULT_COUNTRY_CODE", intakeDefaultCountryCode.getValueAsString()),
+                2048, Duration.minutes(15), Size.mebibytes(512));
+        agentlessCampaignS3.grantReadWrite(suppressionIndexFunction);
+        tableExec.grantReadData(suppressionIndexFunction);
+
+        Function suppressionFilterFunction = createLambdaFunction("SuppressionFilterFunction",
+                "AmazonConnectAgentlessOutboundCampaign-SuppressionFilter",
+                "com.amazonaws.lambda.suppression.SuppressionFilterHandler::handleRequest",
+                Map.of("DEFAULT_COUNTRY_CODE", intakeDefaultCountryCode.getValueAsString()));
+        agentlessCampaignS3.grantRead(suppressionFilterFunction);
+
+        // Lambda functions grouping the campaign's contacts by time zone and releasing them in waves inside each zone's calling window
+        Function wavePlannerFunction = createLambdaFunction("WavePlannerFunction",
+                "AmazonConnectAgentlessOutboundCampaign-WavePlanner",
+                "com.amazonaws.lambda.schedule.WavePlannerHandler::handleRequest",
+                Map.of("CONTACTS_TABLE_NAME", tableContacts.getTableName()),
+                2048, Duration.minutes(15), Size.mebibytes(512));
+        agentlessCampaignS3.grantReadWrite(wavePlannerFunction);
+        tableContacts.grantReadData(wavePlannerFunction);
+
+        Function waveSchedulerFunction = createLambdaFunction("WaveSchedulerFunction",
+                "AmazonConnectAgentlessOutboundCampaign-WaveScheduler",
+                "com.amazonaws.lambda.schedule.WaveSchedulerHandler::handleRequest",
+                Map.of("TARGET_CALLS_PER_SECOND", outreachCallsPerSecond.getValueAsString(),
+                        "MAX_CONCURRENT_CONTACTS", outreachMaxConcurrentContacts.getValueAsString(),
+                        "AVERAGE_CONTACT_SECONDS", outreachAverageContactSeconds.getValueAsString(),
+                        "SOURCE_PHONE_NUMBERS", callerIdPool,
+                        "CALLER_ID_CALLS_PER_SECOND", outreachCallerIdCallsPerSecond.getValueAsString(),
+                        "CAMPAIGNS_TABLE_NAME", tableCampaigns.getTableName()));
+        agentlessCampaignS3.grantReadWrite(waveSchedulerFunction);
+        tableCampaigns.grantReadData(waveSchedulerFunction);
+
+        Function redialPlannerFunction = createLambdaFunction("RedialPlannerFunction",
+                "AmazonConnectAgentlessOutboundCampaign-RedialPlanner",
+                "com.amazonaws.lambda.schedule.RedialPlannerHandler::handleRequest",
+                Map.of("EXECUTION_TABLE_NAME", tableExec.getTableName()),
+                2048, Duration.minutes(15), Size.mebibytes(512));
+        agentlessCampaignS3.grantReadWrite(redialPlannerFunction);
+        tableExec.grantReadData(redialPlannerFunction);
+
+        // Queue of the DISCONNECTED contact events of the outbound contacts, read in micro-batches
+        Queue contactEventsDeadLetterQueue = Queue.Builder.create(this, "ContactEventsDeadLetterQueue")
+                .queueName("AmazonConnectAgentlessOutboundCampaign-ContactEvents-DLQ")
+                .encryption(QueueEncryption.SQS_MANAGED)
+                .enforceSsl(true)
+                .retentionPeriod(Duration.days(14))
+                .build();
+
+        Queue contactEventsQueue = Queue.Builder.create(this, "ContactEventsQueue")
+                .queueName("AmazonConnectAgentlessOutboundCampaign-ContactEvents")
+                .encryption(QueueEncryption.SQS_MANAGED)
+                .enforceSsl(true)
+                // Six times the function timeout, as recommended for SQS event sources
+                .visibilityTimeout(Duration.minutes(3))
+                .deadLetterQueue(DeadLetterQueue.builder()
+                        .queue(contactEventsDeadLetterQueue)
+                        .maxReceiveCount(5)
+                        .build())
+                .build();
+
+        // Amazon Connect contact events, flattened into the record read by com.amazonaws.lambda.outcome.ContactOutcome
+        Rule.Builder.create(this, "ContactEventsRule")
+                .ruleName("AmazonConnectAgentlessOutboundCampaign-ContactEvents")
+                .description("Outbound contacts of the Amazon Connect instance that disconnected")
+                .eventPattern(EventPattern.builder()
+                        .source(List.of("aws.connect"))
+                        .detailType(List.of("Amazon Connect Contact Event"))
+                        .detail(Map.of(
+                                "eventType", List.of("DISCONNECTED"),
+                                "initiationMethod", List.of("API"),
+                                "instanceArn", List.of(amazonConnect.getAttrArn())))
+                        .build())
+                .targets(List.of(SqsQueue.Builder.create(contactEventsQueue)
+                        .message(RuleTargetInput.fromText(String.join("|",
+                                EventField.fromPath("$.detail.contactId"),
+                                EventField.fromPath("$.detail.initiationTimestamp"),
+                                EventField.fromPath("$.detail.connectedToSystemTimestamp"),
+                                EventField.fromPath("$.detail.disconnectTimestamp"),
+                                EventField.fromPath("$.detail.disconnectReason"),
+                                EventField.fromPath("$.detail.answeringMachineDetectionStatus"))))
+                        .build()))
+                .build();
+
+        // Lambda function writing the contact outcomes back to the dial attempts and adding them to the campaign counters
+        Function contactOutcomeFunction = createLambdaFunction("ContactOutcomeFunction",
+                "AmazonConnectAgentlessOutboundCampaign-ContactOutcome",
+                "com.amazonaws.lambda.outcome.ContactOutcomeHandler::handleRequest",
+                Map.of("EXECUTION_TABLE_NAME", tableExec.getTableName()));
+        tableExec.grantReadWriteData(contactOutcomeFunction);
+        contactOutcomeFunction.addEventSource(SqsEventSource.Builder.create(contactEventsQueue)
+                .batchSize(outcomeBatchSize.getValueAsNumber())
+                .maxBatchingWindow(Duration.seconds(outcomeBatchingWindowSeconds.getValueAsNumber()))
+                .reportBatchItemFailures(true)
+                .build());
+
+        // Lambda function archiving the finished executions of the execution table to Parquet once a day, before their items expire
+        Function executionArchiveFunction = createLambdaFunction("ExecutionArchiveFunction",
+                "AmazonConnectAgentlessOutboundCampaign-ExecutionArchive",
+                "com.amazonaws.lambda.archive.ExecutionArchiveHandler::handleRequest",
+                Map.of("EXECUTION_TABLE_NAME", tableExec.getTableName(),
+                        "BUCKET_NAME", agentlessCampaignS3.getBucketName(),
+                        "RETENTION_DAYS", executionRetentionDays.getValueAsString()),
+                3008, Duration.minutes(15), Size.gibibytes(10));
+        tableExec.grantReadWriteData(executionArchiveFunction);
+        agentlessCampaignS3.grantPut(executionArchiveFunction);
+        Rule.Builder.create(this, "ExecutionArchiveRule")
+                .ruleName("AmazonConnectAgentlessOutboundCampaign-ExecutionArchive")
+                .description("Daily archive of the finished Outreach executions to S3")
+                .schedule(Schedule.rate(Duration.days(1)))
+                .targets(List.of(LambdaFunction.Builder.create(executionArchiveFunction)
+                        .retryAttempts(2)
+                        .build()))
+                .build();
+
+        // Tables of the archive for Athena, partitions are projected from the S3 keys so no crawler has to run
+        CfnDatabase archiveDatabase = CfnDatabase.Builder.create(this, "ExecutionArchiveDatabase")
+                .catalogId(this.getAccount())
+                .databaseInput(CfnDatabase.DatabaseInputProperty.builder()
+                        .name("amazon_connect_agentless_campaign")
+                        .description("Archive of the Amazon Connect Agentless Outbound Campaign execution table")
+                        .build())
+                .build();
+        createArchiveTable("ExecutionArchiveAttemptsTable", archiveDatabase, "dial_attempts",
+                agentlessCampaignS3.s3UrlForObject("archive/attempts"),
+                "topexecutionid:string,campaignexecutionid:string,executionid:string,phonenumber:string,userlanguage:string,"
+                        + "timezone:string,sourcephonenumber:string,contactid:string,attemptstatus:string,attempterror:string,"
+                        + "attempts:bigint,attemptedat:timestamp,dialedat:timestamp,outcome:string,disconnectreason:string,"
+                        + "amdstatus:string,talkseconds:bigint,completedat:timestamp");
+        createArchiveTable("ExecutionArchiveCampaignsTable", archiveDatabase, "campaign_executions",
+                agentlessCampaignS3.s3UrlForObject("archive/campaigns"),
+                "topexecutionid:string,campaignid:string,contacts:bigint,attempts:bigint,completed:bigint,answered:bigint,"
+                        + "voicemail:bigint,unanswered:bigint,failed:bigint,talkseconds:bigint,startedat:timestamp,finishedat:timestamp");
+
+        // Step Functions log level, ERROR keeps the logs to failures, deploy with -c stateMachineLogLevel=ALL to trace every state
+        Object logLevelContext = this.getNode().tryGetContext("stateMachineLogLevel");
+        LogLevel stateMachineLogLevel = logLevelContext == null ? LogLevel.ERROR : LogLevel.valueOf(logLevelContext.toString());
+
+        // Both processes count their failed Map children in the campaign metrics
+        PolicyStatement putCampaignMetrics = PolicyStatement.Builder.create()
+                .actions(List.of("cloudwatch:PutMetricData"))
+                .resources(List.of("*"))
+                .conditions(Map.of("StringEquals", Map.of("cloudwatch:namespace", METRICS_NAMESPACE)))
+                .build();
+
+        StateMachine stepFunctionIntake;
+        StateMachine stepFunctionOutreach;
 
         try {
-            String intakeASL = Files.readString(Path.of("../StepFunction/IntakeProcess/AmazonConnectAgentlessOutboundCampaign-Intake.asl.json"));
-            intakeASL = intakeASL.replace("<<DDB-CONTACTS-TABLE-NAME>>", tableContacts.getTableName());
-            intakeASL = intakeASL.replace("<<S3-BUCKET-NAME>>", agentlessCampaignS3.getBucketName());
+            String intakeASL = AslTemplate.load(AslTemplate.INTAKE)
+                    .with("DDB-CONTACTS-TABLE-NAME", tableContacts.getTableName())
+                    .with("DDB-INTAKE-TABLE-NAME", tableIntake.getTableName())
+                    .with("S3-BUCKET-NAME", agentlessCampaignS3.getBucketName())
+                    .with("METRICS-NAMESPACE", METRICS_NAMESPACE)
+                    .withNumber("INTAKE-BATCH-SIZE", intakeBatchSize.getValueAsString())
+                    .withNumber("INTAKE-MAX-CONCURRENCY", intakeMaxConcurrency.getValueAsString())
+                    .withNumber("INTAKE-SHARD-COUNT", intakeShardCount.getValueAsString())
+                    .withNumber("CONTACT-KEY-SHARDS", contactKeyShards.getValueAsString())
+                    .with("PREPROCESS-FUNCTION-ARN", contactListPreprocessFunction.getFunctionArn())
+                    .render();
 
             // Create a new IAM role for the state machine
             Role stateMachineRoleIntake = Role.Builder.create(this, "stateMachineRoleIntake")
@@ -209,24 +805,46 @@ public class ConnectAgentlessCampaignStack extends Stack {
 //                    .resources(List.of("*"))
 //                    .build());
 
-            StateMachine stepFunctionIntake = StateMachine.Builder.create(this, "AmazonConnectAgentlessOutboundCampaign-Intake")
+            stateMachineRoleIntake.addToPolicy(putCampaignMetrics);
+
+            stepFunctionIntake = StateMachine.Builder.create(this, "AmazonConnectAgentlessOutboundCampaign-Intake")
                     .stateMachineName("AmazonConnectAgentlessOutboundCampaign-Intake-CDK")
                     .definitionBody(DefinitionBody.fromString(intakeASL))
                     .removalPolicy(RemovalPolicy.DESTROY)
                     .stateMachineType(StateMachineType.STANDARD)
                     .logs(LogOptions.builder()
-                            .level(LogLevel.ALL)
+                            .level(stateMachineLogLevel)
                             .destination(LogGroup.Builder.create(this, "AmazonConnectAgentlessOutboundCampaign-Intake-LogGroup")
                                     .removalPolicy(RemovalPolicy.DESTROY)
                                     .build())
-                            .includeExecutionData(true)
+                            .includeExecutionData(stateMachineLogLevel == LogLevel.ALL)
                             .build())
                     .role(stateMachineRoleIntake)
                     .tracingEnabled(true)
                     .build();
 
-            agentlessCampaignS3.grantRead(stepFunctionIntake);
+            // The list is copied to processed/ and deleted once it is loaded
+            agentlessCampaignS3.grantReadWrite(stepFunctionIntake);
+            agentlessCampaignS3.grantDelete(stepFunctionIntake);
+            contactListPreprocessFunction.grantInvoke(stepFunctionIntake);
             tableContacts.grantReadWriteData(stepFunctionIntake);
+            tableIntake.grantReadWriteData(stepFunctionIntake);
+
+            // Every contact list uploaded under unprocessed/ is loaded by its own execution
+            Rule.Builder.create(this, "ContactListUploadedRule")
+                    .ruleName("AmazonConnectAgentlessOutboundCampaign-ContactListUploaded")
+                    .description("Contact lists uploaded under the unprocessed/ prefix of the campaign bucket")
+                    .eventPattern(EventPattern.builder()
+                            .source(List.of("aws.s3"))
+                            .detailType(List.of("Object Created"))
+                            .detail(Map.of(
+                                    "bucket", Map.of("name", List.of(agentlessCampaignS3.getBucketName())),
+                                    "object", Map.of("key", List.of(Map.of("prefix", "unprocessed/")))))
+                            .build())
+                    .targets(List.of(SfnStateMachine.Builder.create(stepFunctionIntake)
+                            .input(RuleTargetInput.fromObject(Map.of("key", EventField.fromPath("$.detail.object.key"))))
+                            .build()))
+                    .build();
 
             Policy intakeInlinePolicy = Policy.Builder.create(this, "AmazonConnectAgentlessOutboundCampaign-Intake-StepFunctionPolicy")
                     .policyName("AmazonConnectAgentlessOutboundCampaign-Intake-StepFunctionPolicy")
@@ -248,14 +866,34 @@ public class ConnectAgentlessCampaignStack extends Stack {
         }
 
         try {
-            String outReachASL = Files.readString(Path.of("../StepFunction/OutreachProcess/AmazonConnectAgentlessOutboundCampaign-Outreach.asl.json"));
             List<String> contactFlowARNSplit = Fn.split("/", cfnContactFlow.getAttrContactFlowArn());
             String contactFlowID = Fn.select(3, contactFlowARNSplit);
-            outReachASL = outReachASL.replace("<<ContactFlowId>>", contactFlowID);
-            outReachASL = outReachASL.replace("<<ConnectInstanceId>>", amazonConnect.getAttrId());
-            outReachASL = outReachASL.replace("<<Connect_SourcePhoneNumber>>", cfnPhoneNumber.getAttrAddress());
-            outReachASL = outReachASL.replace("<<DDB-CONTACTS-TABLE-NAME>>", tableContacts.getTableName());
-            outReachASL = outReachASL.replace("<<DDB-EXECUTION-TABLE-NAME>>", tableExec.getTableName());
+            String outReachASL = AslTemplate.load(AslTemplate.OUTREACH)
+                    .with("ContactFlowId", contactFlowID)
+                    .with("ConnectInstanceId", amazonConnect.getAttrId())
+                    .with("DDB-EXECUTION-TABLE-NAME", tableExec.getTableName())
+                    .with("DDB-CAMPAIGNS-TABLE-NAME", tableCampaigns.getTableName())
+                    .with("S3-BUCKET-NAME", agentlessCampaignS3.getBucketName())
+                    .with("METRICS-NAMESPACE", METRICS_NAMESPACE)
+                    .withNumber("CONTACT-KEY-SHARDS", contactKeyShards.getValueAsString())
+                    .withNumber("OUTREACH-QUERY-PAGE-SIZE", outreachQueryPageSize.getValueAsString())
+                    .withNumber("OUTREACH-MAX-CONCURRENCY", outreachMaxConcurrency.getValueAsString())
+                    .with("OUTREACH-EXECUTION-TYPE", outreachExecutionType.getValueAsString())
+                    .with("PACING-FUNCTION-ARN", dialPacingFunction.getFunctionArn())
+                    .withNumber("OUTREACH-SUPPRESSION-DAYS", outreachSuppressionDays.getValueAsString())
+                    .with("SUPPRESSION-INDEX-FUNCTION-ARN", suppressionIndexFunction.getFunctionArn())
+                    .with("SUPPRESSION-FILTER-FUNCTION-ARN", suppressionFilterFunction.getFunctionArn())
+                    .with("OUTREACH-BUSINESS-HOUR-START", outreachBusinessHourStart.getValueAsString())
+                    .with("OUTREACH-BUSINESS-HOUR-END", outreachBusinessHourEnd.getValueAsString())
+                    .with("OUTREACH-DEFAULT-TIME-ZONE", outreachDefaultTimeZone.getValueAsString())
+                    .withNumber("OUTREACH-WAVE-MINUTES", outreachWaveMinutes.getValueAsString())
+                    .with("WAVE-PLANNER-FUNCTION-ARN", wavePlannerFunction.getFunctionArn())
+                    .with("WAVE-SCHEDULER-FUNCTION-ARN", waveSchedulerFunction.getFunctionArn())
+                    .withNumber("OUTREACH-REDIAL-PASSES", outreachRedialPasses.getValueAsString())
+                    .withNumber("OUTREACH-REDIAL-DELAY-SECONDS", outreachRedialDelaySeconds.getValueAsString())
+                    .with("REDIAL-PLANNER-FUNCTION-ARN", redialPlannerFunction.getFunctionArn())
+                    .withNumber("EXECUTION-RETENTION-DAYS", executionRetentionDays.getValueAsString())
+                    .render();
 
             // Create a new IAM role for the state machine
             Role stateMachineRoleOutreach = Role.Builder.create(this, "stateMachineRoleOutreach")
@@ -272,24 +910,33 @@ public class ConnectAgentlessCampaignStack extends Stack {
                     .resources(List.of("*"))
                     .build());
 
-            StateMachine stepFunctionOutreach = StateMachine.Builder.create(this, "AmazonConnectAgentlessOutboundCampaign-Outreach")
+            stateMachineRoleOutreach.addToPolicy(putCampaignMetrics);
+
+            stepFunctionOutreach = StateMachine.Builder.create(this, "AmazonConnectAgentlessOutboundCampaign-Outreach")
                     .stateMachineName("AmazonConnectAgentlessOutboundCampaign-Outreach-CDK")
                     .definitionBody(DefinitionBody.fromString(outReachASL))
                     .removalPolicy(RemovalPolicy.DESTROY)
                     .stateMachineType(StateMachineType.STANDARD)
                     .logs(LogOptions.builder()
-                            .level(LogLevel.ALL)
+                            .level(stateMachineLogLevel)
                             .destination(LogGroup.Builder.create(this, "AmazonConnectAgentlessOutboundCampaign-Outreach-LogGroup")
                                     .removalPolicy(RemovalPolicy.DESTROY)
                                     .build())
-                            .includeExecutionData(true)
+                            .includeExecutionData(stateMachineLogLevel == LogLevel.ALL)
                             .build())
                     .role(stateMachineRoleOutreach)
                     .tracingEnabled(true)
                     .build();
 
-            tableContacts.grantReadData(stepFunctionOutreach);
+            agentlessCampaignS3.grantReadWrite(stepFunctionOutreach);
             tableExec.grantReadWriteData(stepFunctionOutreach);
+            tableCampaigns.grantReadWriteData(stepFunctionOutreach);
+            dialPacingFunction.grantInvoke(stepFunctionOutreach);
+            suppressionIndexFunction.grantInvoke(stepFunctionOutreach);
+            suppressionFilterFunction.grantInvoke(stepFunctionOutreach);
+            wavePlannerFunction.grantInvoke(stepFunctionOutreach);
+            waveSchedulerFunction.grantInvoke(stepFunctionOutreach);
+            redialPlannerFunction.grantInvoke(stepFunctionOutreach);
 
             CfnOutput.Builder.create(this, "AgentlessCampaignOutreachProcess-Name")
                     .description("AWS Step Function which process the Contact List from DynamoDB and initiate the Outbound Campaign")
@@ -300,6 +947,208 @@ public class ConnectAgentlessCampaignStack extends Stack {
             throw new RuntimeException(e);
         }
 
+        // Campaign metrics: the functions publish them as embedded metric format log lines, the state machines with PutMetricData
+        Metric dialSlots = campaignMetric("DialSlots", "Sum", Map.of());
+        Metric dialThrottles = campaignMetric("DialThrottles", "Sum", Map.of());
+        // A slot is handed out before the contact is dialed, the dials are counted by the ContactOutcome function
+        // once their contact events arrive, dated back to the minute of the dial
+        MathExpression dialsPerSecond = MathExpression.Builder.create()
+                .label("Contacts dialed/sec")
+                .expression("dialed / PERIOD(dialed)")
+                .usingMetrics(Map.of("dialed", campaignMetric("ContactsDialed", "Sum", Map.of())))
+                .period(Duration.minutes(1))
+                .build();
+        MathExpression slotsPerSecond = MathExpression.Builder.create()
+                .label("Dial slots/sec")
+                .expression("slots / PERIOD(slots)")
+                .usingMetrics(Map.of("slots", dialSlots))
+                .period(Duration.minutes(1))
+                .build();
+        MathExpression throttleRate = MathExpression.Builder.create()
+                .label("StartOutboundVoiceContact throttled %")
+                .expression("100 * FILL(throttles, 0) / (slots + FILL(throttles, 0))")
+                .usingMetrics(Map.of("slots", dialSlots, "throttles", dialThrottles))
+                .period(Duration.minutes(1))
+                .build();
+        // Every campaign sharing the instance publishes its DialSlots with its CampaignId
+        MathExpression dialsPerSecondByCampaign = MathExpression.Builder.create()
+                .label("")
+                .expression("SEARCH('{" + METRICS_NAMESPACE + ",CampaignId} MetricName=\"DialSlots\"', 'Sum', 60) / 60")
+                .usingMetrics(Map.of())
+                .period(Duration.minutes(1))
+                .build();
+        // Contacts are well below 1 KB, every contact written consumes one write capacity unit
+        MathExpression intakeRowsPerSecond = MathExpression.Builder.create()
+                .label("Contacts written/sec")
+                .expression("wcu / PERIOD(wcu)")
+                .usingMetrics(Map.of("wcu", tableContacts.metricConsumedWriteCapacityUnits(MetricOptions.builder()
+                        .period(Duration.minutes(1))
+                        .build())))
+                .period(Duration.minutes(1))
+                .build();
+        MathExpression mapChildFailures = MathExpression.Builder.create()
+                .label("Failed Map children")
+                .expression("FILL(outreach, 0) + FILL(intake, 0)")
+                .usingMetrics(Map.of(
+                        "outreach", campaignMetric("MapChildFailures", "Sum", Map.of("Process", "Outreach")),
+                        "intake", campaignMetric("MapChildFailures", "Sum", Map.of("Process", "Intake"))))
+                .period(Duration.minutes(1))
+                .build();
+        Map<String, String> connectDimensions = Map.of("InstanceId", amazonConnect.getAttrId(), "MetricGroup", "VoiceCalls");
+
+        List<Alarm> alarms = List.of(
+                Alarm.Builder.create(this, "DialThrottleRateAlarm")
+                        .alarmName("AmazonConnectAgentlessOutboundCampaign-DialThrottleRate")
+                        .alarmDescription("More than 10% of the StartOutboundVoiceContact calls are throttled, lower outreachCallsPerSecond")
+                        .metric(throttleRate)
+                        .threshold(10)
+                        .evaluationPeriods(3)
+                        .comparisonOperator(ComparisonOperator.GREATER_THAN_THRESHOLD)
+                        .treatMissingData(TreatMissingData.NOT_BREACHING)
+                        .build(),
+                Alarm.Builder.create(this, "MapChildFailuresAlarm")
+                        .alarmName("AmazonConnectAgentlessOutboundCampaign-MapChildFailures")
+                        .alarmDescription("Contact pages or contact batches failed, their contacts were not dialed or not loaded")
+                        .metric(mapChildFailures)
+                        .threshold(1)
+                        .evaluationPeriods(1)
+                        .comparisonOperator(ComparisonOperator.GREATER_THAN_OR_EQUAL_TO_THRESHOLD)
+                        .treatMissingData(TreatMissingData.NOT_BREACHING)
+                        .build(),
+                Alarm.Builder.create(this, "IntakeFailedAlarm")
+                        .alarmName("AmazonConnectAgentlessOutboundCampaign-IntakeFailed")
+                        .alarmDescription("An Intake Process execution failed")
+                        .metric(stepFunctionIntake.metricFailed())
+                        .threshold(1)
+                        .evaluationPeriods(1)
+                        .comparisonOperator(ComparisonOperator.GREATER_THAN_OR_EQUAL_TO_THRESHOLD)
+                        .treatMissingData(TreatMissingData.NOT_BREACHING)
+                        .build(),
+                Alarm.Builder.create(this, "OutreachFailedAlarm")
+                        .alarmName("AmazonConnectAgentlessOutboundCampaign-OutreachFailed")
+                        .alarmDescription("An Outreach Process execution failed")
+                        .metric(stepFunctionOutreach.metricFailed())
+                        .threshold(1)
+                        .evaluationPeriods(1)
+                        .comparisonOperator(ComparisonOperator.GREATER_THAN_OR_EQUAL_TO_THRESHOLD)
+                        .treatMissingData(TreatMissingData.NOT_BREACHING)
+                        .build(),
+                Alarm.Builder.create(this, "ContactEventsDeadLetterAlarm")
+                        .alarmName("AmazonConnectAgentlessOutboundCampaign-ContactEventsDeadLetters")
+                        .alarmDescription("Contact events could not be matched to a dial attempt, their outcomes are missing from the campaign counters")
+                        .metric(contactEventsDeadLetterQueue.metricApproximateNumberOfMessagesVisible())
+                        .threshold(1)
+                        .evaluationPeriods(1)
+                        .comparisonOperator(ComparisonOperator.GREATER_THAN_OR_EQUAL_TO_THRESHOLD)
+                        .treatMissingData(TreatMissingData.NOT_BREACHING)
+                        .build());
+
+        Dashboard dashboard = Dashboard.Builder.create(this, "AgentlessCampaignDashboard")
+                .dashboardName("AmazonConnectAgentlessOutboundCampaign")
+                .build();
+        dashboard.addWidgets(AlarmStatusWidget.Builder.create()
+                .title("Alarms")
+                .alarms(new ArrayList<>(alarms))
+                .width(24)
+                .build());
+        dashboard.addWidgets(
+                GraphWidget.Builder.create()
+                        .title("Dial rate")
+                        .left(List.of(dialsPerSecond, slotsPerSecond))
+                        .right(List.of(throttleRate))
+                        .width(6)
+                        .build(),
+                GraphWidget.Builder.create()
+                        .title("Dial slots/sec by campaign")
+                        .left(List.of(dialsPerSecondByCampaign))
+                        .width(6)
+                        .build(),
+                GraphWidget.Builder.create()
+                        .title("StartOutboundVoiceContact latency (ms)")
+                        .left(List.of(
+                                campaignMetric("DialLatency", "p50", Map.of()),
+                                campaignMetric("DialLatency", "p90", Map.of()),
+                                campaignMetric("DialLatency", "p99", Map.of())))
+                        .width(6)
+                        .build(),
+                GraphWidget.Builder.create()
+                        .title("Amazon Connect voice calls")
+                        .left(List.of(Metric.Builder.create()
+                                .namespace("AWS/Connect")
+                                .metricName("ConcurrentCalls")
+                                .dimensionsMap(connectDimensions)
+                                .statistic("Maximum")
+                                .period(Duration.minutes(1))
+                                .build()))
+                        .right(List.of(Metric.Builder.create()
+                                .namespace("AWS/Connect")
+                                .metricName("ThrottledCalls")
+                                .dimensionsMap(connectDimensions)
+                                .statistic("Sum")
+                                .period(Duration.minutes(1))
+                                .build()))
+                        .width(6)
+                        .build());
+        dashboard.addWidgets(
+                GraphWidget.Builder.create()
+                        .title("Contact outcomes")
+                        .left(List.of(
+                                campaignMetric("ContactsAnswered", "Sum", Map.of()),
+                                campaignMetric("ContactsVoicemail", "Sum", Map.of()),
+                                campaignMetric("ContactsUnanswered", "Sum", Map.of()),
+                                campaignMetric("ContactsFailed", "Sum", Map.of())))
+                        .stacked(true)
+                        .width(8)
+                        .build(),
+                GraphWidget.Builder.create()
+                        .title("Intake")
+                        .left(List.of(intakeRowsPerSecond))
+                        .right(List.of(
+                                campaignMetric("IntakeRows", "Sum", Map.of()),
+                                campaignMetric("IntakeUnchangedRows", "Sum", Map.of()),
+                                campaignMetric("IntakeRejectedRows", "Sum", Map.of())))
+                        .width(8)
+                        .build(),
+                GraphWidget.Builder.create()
+                        .title("Failures")
+                        .left(List.of(mapChildFailures, stepFunctionIntake.metricFailed(), stepFunctionOutreach.metricFailed()))
+                        .right(List.of(
+                                contactEventsDeadLetterQueue.metricApproximateNumberOfMessagesVisible(),
+                                campaignMetric("UnrecordedDialAttempts", "Sum", Map.of()),
+                                campaignMetric("RedialContacts", "Sum", Map.of())))
+                        .width(8)
+                        .build());
+        List<IMetric> functionErrors = new ArrayList<>();
+        for (Function function : List.of(dialPacingFunction, contactListPreprocessFunction, suppressionIndexFunction,
+                suppressionFilterFunction, wavePlannerFunction, waveSchedulerFunction, redialPlannerFunction, contactOutcomeFunction,
+                executionArchiveFunction)) {
+            functionErrors.add(function.metricErrors());
+        }
+        dashboard.addWidgets(
+                GraphWidget.Builder.create()
+                        .title("DynamoDB consumed capacity")
+                        .left(List.of(
+                                tableContacts.metricConsumedReadCapacityUnits(),
+                                tableExec.metricConsumedReadCapacityUnits(),
+                                tablePacing.metricConsumedReadCapacityUnits(),
+                                tableCampaigns.metricConsumedReadCapacityUnits(),
+                                campaignMetric("ConsumedReadCapacity", "Sum", Map.of("Operation", "ContactQuery")),
+                                campaignMetric("ConsumedReadCapacity", "Sum", Map.of("Operation", "SuppressionScan")),
+                                campaignMetric("ConsumedReadCapacity", "Sum", Map.of("Operation", "RedialQuery")),
+                                campaignMetric("ConsumedReadCapacity", "Sum", Map.of("Operation", "ArchiveScan"))))
+                        .right(List.of(
+                                tableContacts.metricConsumedWriteCapacityUnits(),
+                                tableExec.metricConsumedWriteCapacityUnits(),
+                                tablePacing.metricConsumedWriteCapacityUnits(),
+                                tableCampaigns.metricConsumedWriteCapacityUnits()))
+                        .width(12)
+                        .build(),
+                GraphWidget.Builder.create()
+                        .title("Lambda errors")
+                        .left(functionErrors)
+                        .width(12)
+                        .build());
+
         BucketDeployment agentlessCampaignS3Deployment = BucketDeployment.Builder.create(this, "AgentlessCampaignS3Deployment")
                 .sources(List.of(Source.asset("../Connect/ContactList")))
                 .destinationKeyPrefix("unprocessed/")
@@ -307,6 +1156,11 @@ public class ConnectAgentlessCampaignStack extends Stack {
                 .build();
 
 
+        CfnOutput.Builder.create(this, "Amazon-Connect-Caller-ID-Pool")
+                .description("Source phone numbers the Outreach Process dials from")
+                .value(callerIdPool)
+                .build();
+
         CfnOutput.Builder.create(this, "AgentlessCampaignS3-Name")
                 .description("Amazon S3 Bucket Name")
                 .value(agentlessCampaignS3.getBucketName())
@@ -322,6 +1176,31 @@ public class ConnectAgentlessCampaignStack extends Stack {
                 .value(tableExec.getTableName())
                 .build();
 
+        CfnOutput.Builder.create(this, "AgentlessCampaignDynamoDB-Pacing-Name")
+                .description("Amazon DynamoDB Table Name for Dial Pacing Token Buckets")
+                .value(tablePacing.getTableName())
+                .build();
+
+        CfnOutput.Builder.create(this, "AgentlessCampaignDynamoDB-IntakeFiles-Name")
+                .description("Amazon DynamoDB Table Name of the Intake checkpoints, one item per contact list content")
+                .value(tableIntake.getTableName())
+                .build();
+
+        CfnOutput.Builder.create(this, "AgentlessCampaignDynamoDB-Campaigns-Name")
+                .description("Amazon DynamoDB Table Name of the Campaign Registry, weight and status of every campaign")
+                .value(tableCampaigns.getTableName())
+                .build();
+
+        CfnOutput.Builder.create(this, "AgentlessCampaignArchive-Database-Name")
+                .description("AWS Glue Database of the execution archive, query its dial_attempts and campaign_executions tables with Amazon Athena")
+                .value("amazon_connect_agentless_campaign")
+                .build();
+
+        CfnOutput.Builder.create(this, "AgentlessCampaignContactEvents-DLQ-Name")
+                .description("Amazon SQS Queue Name of the Contact Events that could not be matched to a Dial Attempt")
+                .value(contactEventsDeadLetterQueue.getQueueName())
+                .build();
+
 
         //CDK NAG Suppression's
         NagSuppressions.addResourceSuppressionsByPath(this, "/ConnectAgentlessCampaignStack/stateMachineRoleIntake/DefaultPolicy/Resource",
@@ -353,6 +1232,123 @@ public class ConnectAgentlessCampaignStack extends Stack {
                         .id("AwsSolutions-IAM5")
                         .reason("Internal CDK lambda needed to apply bucket notification configurations")
                         .build()));
+
+        NagSuppressions.addResourceSuppressionsByPath(this, "/ConnectAgentlessCampaignStack/DialPacingFunction/ServiceRole/Resource",
+                List.of(NagPackSuppression.builder()
+                        .id("AwsSolutions-IAM4")
+                        .reason("AWSLambdaBasicExecutionRole only grants writing the function logs")
+                        .build()));
+
+        NagSuppressions.addResourceSuppressionsByPath(this, "/ConnectAgentlessCampaignStack/DialPacingFunction/ServiceRole/DefaultPolicy/Resource",
+                List.of(NagPackSuppression.builder()
+                        .id("AwsSolutions-IAM5")
+                        .reason("Resource permission are granted via standard grant read and write methods")
+                        .build()));
+
+        for (String function : List.of("SuppressionIndexFunction", "SuppressionFilterFunction", "WavePlannerFunction", "WaveSchedulerFunction",
+                "RedialPlannerFunction", "ContactOutcomeFunction", "ExecutionArchiveFunction")) {
+            NagSuppressions.addResourceSuppressionsByPath(this, "/ConnectAgentlessCampaignStack/" + function + "/ServiceRole/Resource",
+                    List.of(NagPackSuppression.builder()
+                            .id("AwsSolutions-IAM4")
+                            .reason("AWSLambdaBasicExecutionRole only grants writing the function logs")
+                            .build()));
+
+            NagSuppressions.addResourceSuppressionsByPath(this, "/ConnectAgentlessCampaignStack/" + function + "/ServiceRole/DefaultPolicy/Resource",
+                    List.of(NagPackSuppression.builder()
+                            .id("AwsSolutions-IAM5")
+                            .reason("Resource permission are granted via standard grant read and write methods")
+                            .build()));
+        }
+
+        NagSuppressions.addResourceSuppressionsByPath(this, "/ConnectAgentlessCampaignStack/ContactEventsDeadLetterQueue/Resource",
+                List.of(NagPackSuppression.builder()
+                        .id("AwsSolutions-SQS3")
+                        .reason("Dead-letter queue of the contact events queue")
+                        .build()));
+
+        NagSuppressions.addResourceSuppressionsByPath(this, "/ConnectAgentlessCampaignStack/ContactListPreprocessFunction/ServiceRole/Resource",
+                List.of(NagPackSuppression.builder()
+                        .id("AwsSolutions-IAM4")
+                        .reason("AWSLambdaBasicExecutionRole only grants writing the function logs")
+                        .build()));
+
+        NagSuppressions.addResourceSuppressionsByPath(this, "/ConnectAgentlessCampaignStack/ContactListPreprocessFunction/ServiceRole/DefaultPolicy/Resource",
+                List.of(NagPackSuppression.builder()
+                        .id("AwsSolutions-IAM5")
+                        .reason("Resource permission are granted via standard grant read and write methods")
+                        .build()));
+    }
+
+    private static Metric campaignMetric(String metricName, String statistic, Map<String, String> dimensions) {
+        return Metric.Builder.create()
+                .namespace(METRICS_NAMESPACE)
+                .metricName(metricName)
+                .dimensionsMap(dimensions)
+                .statistic(statistic)
+                .period(Duration.minutes(1))
+                .build();
+    }
+
+    // External Parquet table over prefix/campaign=<campaignId>/dt=<yyyy-MM-dd>/, columns given as "name:type,..." in the
+    // order of com.amazonaws.lambda.archive.ExecutionArchiver. Queries name the campaign, its partition is injected.
+    private void createArchiveTable(String id, CfnDatabase database, String tableName, String location, String columns) {
+        List<CfnTable.ColumnProperty> columnProperties = new ArrayList<>();
+        for (String column : columns.split(",")) {
+            columnProperties.add(CfnTable.ColumnProperty.builder()
+                    .name(column.split(":")[0])
+                    .type(column.split(":")[1])
+                    .build());
+        }
+        CfnTable table = CfnTable.Builder.create(this, id)
+                .catalogId(this.getAccount())
+                .databaseName("amazon_connect_agentless_campaign")
+                .tableInput(CfnTable.TableInputProperty.builder()
+                        .name(tableName)
+                        .tableType("EXTERNAL_TABLE")
+                        .parameters(Map.of(
+                                "classification", "parquet",
+                                "projection.enabled", "true",
+                                "projection.campaign.type", "injected",
+                                "projection.dt.type", "date",
+                                "projection.dt.format", "yyyy-MM-dd",
+                                "projection.dt.range", "2024-01-01,NOW",
+                                "projection.dt.interval", "1",
+                                "projection.dt.interval.unit", "DAYS",
+                                "storage.location.template", location + "/campaign=${campaign}/dt=${dt}/"))
+                        .partitionKeys(List.of(
+                                CfnTable.ColumnProperty.builder().name("campaign").type("string").build(),
+                                CfnTable.ColumnProperty.builder().name("dt").type("string").build()))
+                        .storageDescriptor(CfnTable.StorageDescriptorProperty.builder()
+                                .location(location + "/")
+                                .inputFormat("org.apache.hadoop.hive.ql.io.parquet.MapredParquetInputFormat")
+                                .outputFormat("org.apache.hadoop.hive.ql.io.parquet.MapredParquetOutputFormat")
+                                .serdeInfo(CfnTable.SerdeInfoProperty.builder()
+                                        .serializationLibrary("org.apache.hadoop.hive.ql.io.parquet.serde.ParquetHiveSerDe")
+                                        .build())
+                                .columns(columnProperties)
+                                .build())
+                        .build())
+                .build();
+        table.addDependency(database);
+    }
+
+    private Function createLambdaFunction(String id, String functionName, String handler, Map<String, String> environment) {
+        return createLambdaFunction(id, functionName, handler, environment, 1024, Duration.seconds(30), Size.mebibytes(512));
+    }
+
+    private Function createLambdaFunction(String id, String functionName, String handler, Map<String, String> environment,
+                                          int memorySize, Duration timeout, Size ephemeralStorageSize) {
+        // Functions are packaged by the Lambda module, run "mvn clean install" from the root directory before deploying
+        return Function.Builder.create(this, id)
+                .functionName(functionName)
+                .runtime(Runtime.JAVA_17)
+                .handler(handler)
+                .code(Code.fromAsset("../Lambda/target/lambda-0.1.jar"))
+                .memorySize(memorySize)
+                .timeout(timeout)
+                .ephemeralStorageSize(ephemeralStorageSize)
+                .environment(environment)
+                .build();
     }
 
     private void createS3StorageConfig(CfnInstance amazonConnect, String resourceType, String prefix, String encryptionKeyARN, Bucket amazonConnectS3Bucket) {
@@ -0,0 +1,672 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ */
+
+package com.amazonaws.cdk.simulator;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Runs Amazon States Language definitions on the simulated clock against the simulated services.
+ * Covers the states, paths and Map features used by the campaign state machines: Pass, Task
+ * (with Retry and Catch), Choice, Wait, Succeed, Fail (with ErrorPath and CausePath), Parallel and
+ * inline or distributed Map (with Catch) with ItemReader, ItemSelector and ItemBatcher.
+ */
+public class AslInterpreter {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final JsonNodeFactory JSON = JsonNodeFactory.instance;
+    private static final Instant EPOCH = Instant.parse("2024-01-01T00:00:00Z");
+    private static final int INLINE_MAX_CONCURRENCY = 40;
+    private static final int DISTRIBUTED_MAX_CONCURRENCY = 10000;
+    // Express workflows are stopped after five minutes, whatever state they are in
+    private static final long EXPRESS_MAX_MILLIS = 300_000;
+
+    private final Simulation simulation;
+    private final Metrics metrics;
+    private final SimulatedS3 s3;
+    private final Random random;
+    private final Intrinsics intrinsics;
+    private final Map<String, TaskHandler> handlers = new HashMap<>();
+    private long standardChildStartMillis = 100;
+    private long expressChildStartMillis = 20;
+    private long mapRunStartMillis = 1000;
+
+    public AslInterpreter(Simulation simulation, Metrics metrics, SimulatedS3 s3, Random random) {
+        this.simulation = simulation;
+        this.metrics = metrics;
+        this.s3 = s3;
+        this.random = random;
+        this.intrinsics = new Intrinsics(random);
+    }
+
+    public void register(String resource, TaskHandler handler) {
+        handlers.put(resource, handler);
+    }
+
+    public void setChildStartMillis(long standardChildStartMillis, long expressChildStartMillis) {
+        this.standardChildStartMillis = standardChildStartMillis;
+        this.expressChildStartMillis = expressChildStartMillis;
+    }
+
+    // Time a distributed Map takes to read its items and start the Map Run.
+    public void setMapRunStartMillis(long mapRunStartMillis) {
+        this.mapRunStartMillis = mapRunStartMillis;
+    }
+
+    public static JsonNode parse(String definition) {
+        try {
+            return MAPPER.readTree(definition);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid state machine definition", e);
+        }
+    }
+
+    public static String timestamp(long millis) {
+        return EPOCH.plusMillis(millis).toString();
+    }
+
+    // Runs a whole execution, must be called from a simulated process.
+    public JsonNode execute(String name, JsonNode definition, JsonNode input, String executionType) {
+        Execution execution = new Execution(name, executionType, simulation.now(), input);
+        try {
+            return runStates(definition, input, execution);
+        } catch (ExecutionTimedOut e) {
+            // Not caught by the states of the execution, only by the map or the caller that started it
+            if (e.execution != execution) {
+                throw e;
+            }
+            metrics.timedOutExecutions++;
+            throw new StatesError("States.Timeout", "Execution " + name + " exceeded the express workflow duration");
+        } finally {
+            metrics.executionFinished(executionType, simulation.now() - execution.startMillis);
+        }
+    }
+
+    private JsonNode runStates(JsonNode machine, JsonNode input, Execution execution) {
+        String stateName = machine.get("StartAt").asText();
+        JsonNode data = input;
+        while (true) {
+            JsonNode state = machine.get("States").get(stateName);
+            if (state == null) {
+                throw new StatesError("States.Runtime", "State " + stateName + " does not exist");
+            }
+            checkDuration(execution);
+            metrics.transition(execution.type);
+            JsonNode context = execution.context(stateName, simulation.now(), null);
+            Step step = runState(state, data, execution, context);
+            data = step.output;
+            if (step.next == null) {
+                checkDuration(execution);
+                return data;
+            }
+            stateName = step.next;
+        }
+    }
+
+    // The state that passes the limit completes, the execution is stopped before the next one.
+    private void checkDuration(Execution execution) {
+        if ("EXPRESS".equals(execution.type) && simulation.now() - execution.startMillis > EXPRESS_MAX_MILLIS) {
+            throw new ExecutionTimedOut(execution);
+        }
+    }
+
+    private Step runState(JsonNode state, JsonNode data, Execution execution, JsonNode context) {
+        String type = state.get("Type").asText();
+        switch (type) {
+            case "Pass": {
+                JsonNode effective = inputPath(state, data);
+                JsonNode result = state.has("Parameters") ? resolve(state.get("Parameters"), effective, context)
+                        : state.has("Result") ? state.get("Result").deepCopy() : effective;
+                return next(state, outputPath(state, resultPath(state, data, result)));
+            }
+            case "Task":
+                return runTask(state, data, context);
+            case "Choice":
+                return runChoice(state, data, context);
+            case "Wait": {
+                JsonNode effective = inputPath(state, data);
+                simulation.sleep(waitMillis(state, effective));
+                return next(state, outputPath(state, effective));
+            }
+            case "Succeed":
+                return new Step(outputPath(state, inputPath(state, data)), null);
+            case "Fail": {
+                JsonNode error = state.has("ErrorPath") ? JsonPath.read(data, state.get("ErrorPath").asText()) : state.get("Error");
+                JsonNode cause = state.has("CausePath") ? JsonPath.read(data, state.get("CausePath").asText()) : state.get("Cause");
+                throw new StatesError(error == null || error.isNull() ? "States.Fail" : error.asText(),
+                        cause == null || cause.isNull() ? "" : cause.asText());
+            }
+            case "Map":
+                try {
+                    return runMap(state, data, execution, context);
+                } catch (StatesError e) {
+                    return caught(state, data, e);
+                }
+            case "Parallel":
+                try {
+                    return runParallel(state, data, execution, context);
+                } catch (StatesError e) {
+                    return caught(state, data, e);
+                }
+            default:
+                throw new StatesError("States.Runtime", "Unsupported state type " + type);
+        }
+    }
+
+    private Step runTask(JsonNode state, JsonNode data, JsonNode context) {
+        JsonNode effective = inputPath(state, data);
+        JsonNode parameters = state.has("Parameters") ? resolve(state.get("Parameters"), effective, context) : effective;
+        String resource = state.get("Resource").asText();
+        TaskHandler handler = handlers.get(resource);
+        if (handler == null) {
+            throw new StatesError("States.Runtime", "No simulated service for resource " + resource);
+        }
+
+        int[] retries = new int[state.path("Retry").size()];
+        JsonNode result;
+        while (true) {
+            try {
+                result = handler.invoke(parameters);
+                break;
+            } catch (StatesError e) {
+                int retrier = matching(state.path("Retry"), e.getError());
+                if (retrier >= 0) {
+                    JsonNode retry = state.get("Retry").get(retrier);
+                    if (retries[retrier] < retry.path("MaxAttempts").asInt(3)) {
+                        double interval = retry.path("IntervalSeconds").asDouble(1)
+                                * Math.pow(retry.path("BackoffRate").asDouble(2), retries[retrier]);
+                        if (retry.has("MaxDelaySeconds")) {
+                            interval = Math.min(interval, retry.get("MaxDelaySeconds").asDouble());
+                        }
+                        if ("FULL".equals(retry.path("JitterStrategy").asText())) {
+                            interval = interval * random.nextDouble();
+                        }
+                        retries[retrier]++;
+                        simulation.sleep((long) (interval * 1000));
+                        continue;
+                    }
+                }
+                return caught(state, data, e);
+            }
+        }
+
+        if (state.has("ResultSelector")) {
+            result = resolve(state.get("ResultSelector"), result, context);
+        }
+        return next(state, outputPath(state, resultPath(state, data, result)));
+    }
+
+    // Moves to the first matching Catch rule of a Task, Map or Parallel state, rethrows without one.
+    private Step caught(JsonNode state, JsonNode data, StatesError e) {
+        int catcher = matching(state.path("Catch"), e.getError());
+        if (catcher < 0) {
+            throw e;
+        }
+        JsonNode catchRule = state.get("Catch").get(catcher);
+        ObjectNode error = JSON.objectNode();
+        error.put("Error", e.getError());
+        error.put("Cause", e.getErrorCause());
+        return new Step(resultPath(catchRule, data, error), catchRule.get("Next").asText());
+    }
+
+    private static int matching(JsonNode rules, String error) {
+        for (int i = 0; i < rules.size(); i++) {
+            for (JsonNode name : rules.get(i).get("ErrorEquals")) {
+                String expected = name.asText();
+                if (expected.equals(error) || "States.ALL".equals(expected)
+                        || ("States.TaskFailed".equals(expected) && !"States.Timeout".equals(error))) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private Step runChoice(JsonNode state, JsonNode data, JsonNode context) {
+        JsonNode effective = inputPath(state, data);
+        for (JsonNode rule : state.path("Choices")) {
+            if (matches(rule, effective, context)) {
+                return new Step(outputPath(state, effective), rule.get("Next").asText());
+            }
+        }
+        if (state.has("Default")) {
+            return new Step(outputPath(state, effective), state.get("Default").asText());
+        }
+        throw new StatesError("States.NoChoiceMatched", "No Choice rule matched and there is no Default");
+    }
+
+    private boolean matches(JsonNode rule, JsonNode input, JsonNode context) {
+        if (rule.has("And")) {
+            for (JsonNode inner : rule.get("And")) {
+                if (!matches(inner, input, context)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        if (rule.has("Or")) {
+            for (JsonNode inner : rule.get("Or")) {
+                if (matches(inner, input, context)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        if (rule.has("Not")) {
+            return !matches(rule.get("Not"), input, context);
+        }
+
+        JsonNode value = path(rule.get("Variable").asText(), input, context);
+        Iterator<Map.Entry<String, JsonNode>> fields = rule.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            String comparator = field.getKey();
+            if ("Variable".equals(comparator) || "Next".equals(comparator)) {
+                continue;
+            }
+            JsonNode expected = field.getValue();
+            if (comparator.endsWith("Path") && !"IsPresent".equals(comparator)) {
+                comparator = comparator.substring(0, comparator.length() - 4);
+                expected = path(expected.asText(), input, context);
+            }
+            if ("IsPresent".equals(comparator)) {
+                return (value != null) == expected.asBoolean();
+            }
+            if (value == null) {
+                throw new StatesError("States.Runtime", "Invalid path " + rule.get("Variable").asText() + " in Choice rule");
+            }
+            return compare(comparator, value, expected);
+        }
+        throw new StatesError("States.Runtime", "Choice rule without comparison " + rule);
+    }
+
+    private static boolean compare(String comparator, JsonNode value, JsonNode expected) {
+        switch (comparator) {
+            case "IsNull":
+                return value.isNull() == expected.asBoolean();
+            case "IsString":
+                return value.isTextual() == expected.asBoolean();
+            case "IsNumeric":
+                return value.isNumber() == expected.asBoolean();
+            case "IsBoolean":
+                return value.isBoolean() == expected.asBoolean();
+            case "StringEquals":
+                return value.isTextual() && value.asText().equals(expected.asText());
+            case "StringLessThan":
+                return value.isTextual() && value.asText().compareTo(expected.asText()) < 0;
+            case "StringGreaterThan":
+                return value.isTextual() && value.asText().compareTo(expected.asText()) > 0;
+            case "StringLessThanEquals":
+                return value.isTextual() && value.asText().compareTo(expected.asText()) <= 0;
+            case "StringGreaterThanEquals":
+                return value.isTextual() && value.asText().compareTo(expected.asText()) >= 0;
+            case "StringMatches":
+                return value.isTextual() && value.asText().matches(expected.asText().replace(".", "\\.").replace("*", ".*"));
+            case "NumericEquals":
+                return value.isNumber() && value.asDouble() == expected.asDouble();
+            case "NumericLessThan":
+                return value.isNumber() && value.asDouble() < expected.asDouble();
+            case "NumericGreaterThan":
+                return value.isNumber() && value.asDouble() > expected.asDouble();
+            case "NumericLessThanEquals":
+                return value.isNumber() && value.asDouble() <= expected.asDouble();
+            case "NumericGreaterThanEquals":
+                return value.isNumber() && value.asDouble() >= expected.asDouble();
+            case "BooleanEquals":
+                return value.isBoolean() && value.asBoolean() == expected.asBoolean();
+            case "TimestampEquals":
+                return Instant.parse(value.asText()).equals(Instant.parse(expected.asText()));
+            case "TimestampLessThan":
+                return Instant.parse(value.asText()).isBefore(Instant.parse(expected.asText()));
+            case "TimestampGreaterThan":
+                return Instant.parse(value.asText()).isAfter(Instant.parse(expected.asText()));
+            case "TimestampLessThanEquals":
+                return !Instant.parse(value.asText()).isAfter(Instant.parse(expected.asText()));
+            case "TimestampGreaterThanEquals":
+                return !Instant.parse(value.asText()).isBefore(Instant.parse(expected.asText()));
+            default:
+                throw new StatesError("States.Runtime", "Unsupported Choice comparator " + comparator);
+        }
+    }
+
+    private long waitMillis(JsonNode state, JsonNode input) {
+        if (state.has("Seconds")) {
+            return state.get("Seconds").asLong() * 1000;
+        }
+        if (state.has("SecondsPath")) {
+            return JsonPath.readRequired(input, state.get("SecondsPath").asText()).asLong() * 1000;
+        }
+        String timestamp = state.has("Timestamp") ? state.get("Timestamp").asText()
+                : JsonPath.readRequired(input, state.get("TimestampPath").asText()).asText();
+        return Instant.parse(timestamp).toEpochMilli() - EPOCH.plusMillis(simulation.now()).toEpochMilli();
+    }
+
+    private Step runMap(JsonNode state, JsonNode data, Execution execution, JsonNode context) {
+        JsonNode effective = inputPath(state, data);
+        List<JsonNode> items = new ArrayList<>();
+        if (state.has("ItemReader")) {
+            readItems(state.get("ItemReader"), effective, context).forEach(items::add);
+        } else {
+            JsonNode array = JsonPath.readRequired(effective, state.path("ItemsPath").asText("$"));
+            if (!array.isArray()) {
+                throw new StatesError("States.Runtime", "Map ItemsPath does not point to an array");
+            }
+            array.forEach(items::add);
+        }
+
+        if (state.has("ItemSelector") || state.has("Parameters")) {
+            JsonNode selector = state.has("ItemSelector") ? state.get("ItemSelector") : state.get("Parameters");
+            for (int i = 0; i < items.size(); i++) {
+                JsonNode itemContext = execution.context(null, simulation.now(), mapItem(i, items.get(i)));
+                items.set(i, resolve(selector, effective, itemContext));
+            }
+        }
+
+        if (state.has("ItemBatcher")) {
+            JsonNode batcher = state.get("ItemBatcher");
+            int maxItems = batcher.has("MaxItemsPerBatchPath")
+                    ? JsonPath.readRequired(effective, batcher.get("MaxItemsPerBatchPath").asText()).asInt()
+                    : batcher.path("MaxItemsPerBatch").asInt(Integer.MAX_VALUE);
+            JsonNode batchInput = batcher.has("BatchInput") ? resolve(batcher.get("BatchInput"), effective, context) : null;
+            List<JsonNode> batches = new ArrayList<>();
+            for (int start = 0; start < items.size(); start += maxItems) {
+                ObjectNode batch = JSON.objectNode();
+                ArrayNode batchItems = batch.putArray("Items");
+                items.subList(start, Math.min(items.size(), start + maxItems)).forEach(batchItems::add);
+                if (batchInput != null) {
+                    batch.set("BatchInput", batchInput);
+                }
+                batches.add(batch);
+            }
+            items = batches;
+        }
+
+        JsonNode processor = state.has("ItemProcessor") ? state.get("ItemProcessor") : state.get("Iterator");
+        boolean distributed = "DISTRIBUTED".equals(processor.path("ProcessorConfig").path("Mode").asText());
+        String childType = processor.path("ProcessorConfig").path("ExecutionType").asText("STANDARD");
+        int maxConcurrency = state.has("MaxConcurrencyPath")
+                ? JsonPath.readRequired(effective, state.get("MaxConcurrencyPath").asText()).asInt()
+                : state.path("MaxConcurrency").asInt(0);
+        if (maxConcurrency == 0) {
+            maxConcurrency = distributed ? DISTRIBUTED_MAX_CONCURRENCY : INLINE_MAX_CONCURRENCY;
+        }
+
+        if (distributed) {
+            simulation.sleep(mapRunStartMillis);
+        }
+        List<JsonNode> iterationInputs = items;
+        JsonNode[] results = new JsonNode[items.size()];
+        StatesError[] failures = new StatesError[items.size()];
+        int[] nextItem = {0};
+        Runnable lane = () -> {
+            while (nextItem[0] < iterationInputs.size()) {
+                int index = nextItem[0]++;
+                try {
+                    if (distributed) {
+                        simulation.sleep("EXPRESS".equals(childType) ? expressChildStartMillis : standardChildStartMillis);
+                        String childName = new UUID(random.nextLong(), random.nextLong()).toString();
+                        results[index] = execute(childName, processor, iterationInputs.get(index), childType);
+                    } else {
+                        results[index] = runStates(processor, iterationInputs.get(index), execution);
+                    }
+                } catch (StatesError e) {
+                    failures[index] = e;
+                }
+            }
+        };
+        int lanes = Math.min(items.size(), maxConcurrency);
+        if (lanes <= 1) {
+            lane.run();
+        } else {
+            List<Simulation.Process> processes = new ArrayList<>();
+            for (int i = 0; i < lanes; i++) {
+                processes.add(simulation.spawn(execution.name + "-map-lane-" + i, () -> {
+                    lane.run();
+                    return null;
+                }));
+            }
+            simulation.joinAll(processes);
+            for (Simulation.Process process : processes) {
+                if (process.getFailure() != null) {
+                    process.result();
+                }
+            }
+        }
+
+        int failed = 0;
+        StatesError firstFailure = null;
+        for (StatesError failure : failures) {
+            if (failure != null) {
+                failed++;
+                firstFailure = firstFailure == null ? failure : firstFailure;
+            }
+        }
+        if (failed > 0) {
+            if (!distributed) {
+                throw firstFailure;
+            }
+            double toleratedPercentage = state.path("ToleratedFailurePercentage").asDouble(0);
+            long toleratedCount = state.path("ToleratedFailureCount").asLong(0);
+            if (failed > toleratedCount && failed * 100.0 / items.size() > toleratedPercentage) {
+                throw new StatesError("States.ExceedToleratedFailureThreshold",
+                        failed + " of " + items.size() + " child executions failed, first with " + firstFailure.getMessage());
+            }
+        }
+
+        ArrayNode output = JSON.arrayNode();
+        for (JsonNode result : results) {
+            output.add(result == null ? JSON.nullNode() : result);
+        }
+        JsonNode result = state.has("ResultSelector") ? resolve(state.get("ResultSelector"), output, context) : output;
+        return next(state, outputPath(state, resultPath(state, data, result)));
+    }
+
+    private Iterable<JsonNode> readItems(JsonNode reader, JsonNode input, JsonNode context) {
+        JsonNode parameters = resolve(reader.get("Parameters"), input, context);
+        String resource = reader.get("Resource").asText();
+        JsonNode config = reader.path("ReaderConfig");
+        List<JsonNode> items = new ArrayList<>();
+        if ("arn:aws:states:::s3:listObjectsV2".equals(resource)) {
+            items.addAll(s3.listAll(parameters.get("Bucket").asText(), parameters.path("Prefix").asText("")));
+        } else if ("arn:aws:states:::s3:getObject".equals(resource)) {
+            String body = s3.read(parameters.get("Bucket").asText(), parameters.get("Key").asText());
+            String inputType = config.path("InputType").asText("JSON");
+            if ("CSV".equals(inputType)) {
+                items.addAll(parseCsv(body, config));
+            } else if ("JSONL".equals(inputType)) {
+                for (String line : body.split("\n")) {
+                    if (!line.isBlank()) {
+                        items.add(parse(line));
+                    }
+                }
+            } else {
+                parse(body).forEach(items::add);
+            }
+        } else {
+            throw new StatesError("States.Runtime", "Unsupported ItemReader resource " + resource);
+        }
+        if (config.has("MaxItems") && items.size() > config.get("MaxItems").asInt()) {
+            return items.subList(0, config.get("MaxItems").asInt());
+        }
+        return items;
+    }
+
+    private static List<JsonNode> parseCsv(String body, JsonNode config) {
+        List<JsonNode> rows = new ArrayList<>();
+        String[] lines = body.split("\r?\n");
+        String[] headers;
+        int first = 0;
+        if ("GIVEN".equals(config.path("CSVHeaderLocation").asText())) {
+            List<String> given = new ArrayList<>();
+            config.get("CSVHeaders").forEach(header -> given.add(header.asText()));
+            headers = given.toArray(new String[0]);
+        } else {
+            headers = lines[0].split(",", -1);
+            first = 1;
+        }
+        for (int i = first; i < lines.length; i++) {
+            if (lines[i].isEmpty()) {
+                continue;
+            }
+            String[] values = lines[i].split(",", -1);
+            ObjectNode row = JSON.objectNode();
+            for (int column = 0; column < headers.length; column++) {
+                row.put(headers[column].trim(), column < values.length ? values[column] : "");
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private Step runParallel(JsonNode state, JsonNode data, Execution execution, JsonNode context) {
+        JsonNode effective = inputPath(state, data);
+        JsonNode input = state.has("Parameters") ? resolve(state.get("Parameters"), effective, context) : effective;
+        List<Simulation.Process> branches = new ArrayList<>();
+        for (JsonNode branch : state.get("Branches")) {
+            branches.add(simulation.spawn(execution.name + "-branch", () -> runStates(branch, input, execution)));
+        }
+        simulation.joinAll(branches);
+        ArrayNode output = JSON.arrayNode();
+        for (Simulation.Process branch : branches) {
+            output.add((JsonNode) branch.result());
+        }
+        JsonNode result = state.has("ResultSelector") ? resolve(state.get("ResultSelector"), output, context) : output;
+        return next(state, outputPath(state, resultPath(state, data, result)));
+    }
+
+    // Resolves Parameters, ItemSelector and ResultSelector templates: keys ending in ".$" are paths or intrinsic functions.
+    private JsonNode resolve(JsonNode template, JsonNode input, JsonNode context) {
+        if (template.isObject()) {
+            ObjectNode resolved = JSON.objectNode();
+            Iterator<Map.Entry<String, JsonNode>> fields = template.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                if (field.getKey().endsWith(".$")) {
+                    String expression = field.getValue().asText();
+                    String key = field.getKey().substring(0, field.getKey().length() - 2);
+                    resolved.set(key, Intrinsics.isIntrinsic(expression)
+                            ? intrinsics.evaluate(expression, input, context)
+                            : JsonPath.readRequired(expression.startsWith("$$") ? context : input,
+                            expression.startsWith("$$") ? expression.substring(1) : expression));
+                } else {
+                    resolved.set(field.getKey(), resolve(field.getValue(), input, context));
+                }
+            }
+            return resolved;
+        }
+        if (template.isArray()) {
+            ArrayNode resolved = JSON.arrayNode();
+            template.forEach(element -> resolved.add(resolve(element, input, context)));
+            return resolved;
+        }
+        return template.deepCopy();
+    }
+
+    private static JsonNode path(String expression, JsonNode input, JsonNode context) {
+        return expression.startsWith("$$") ? JsonPath.read(context, expression.substring(1)) : JsonPath.read(input, expression);
+    }
+
+    private static JsonNode inputPath(JsonNode state, JsonNode data) {
+        if (!state.has("InputPath")) {
+            return data;
+        }
+        JsonNode path = state.get("InputPath");
+        return path.isNull() ? JSON.objectNode() : JsonPath.readRequired(data, path.asText());
+    }
+
+    private static JsonNode outputPath(JsonNode state, JsonNode data) {
+        if (!state.has("OutputPath")) {
+            return data;
+        }
+        JsonNode path = state.get("OutputPath");
+        return path.isNull() ? JSON.objectNode() : JsonPath.readRequired(data, path.asText());
+    }
+
+    private static JsonNode resultPath(JsonNode state, JsonNode data, JsonNode result) {
+        if (!state.has("ResultPath")) {
+            return result;
+        }
+        JsonNode path = state.get("ResultPath");
+        return path.isNull() ? data : JsonPath.write(data, path.asText(), result);
+    }
+
+    private static Step next(JsonNode state, JsonNode output) {
+        return new Step(output, state.path("End").asBoolean(false) ? null : state.get("Next").asText());
+    }
+
+    private static JsonNode mapItem(int index, JsonNode value) {
+        ObjectNode item = JSON.objectNode();
+        item.put("Index", index);
+        item.set("Value", value);
+        return item;
+    }
+
+    private static class Step {
+        private final JsonNode output;
+        private final String next;
+
+        Step(JsonNode output, String next) {
+            this.output = output;
+            this.next = next;
+        }
+    }
+
+    private static class ExecutionTimedOut extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private final Execution execution;
+
+        ExecutionTimedOut(Execution execution) {
+            super("Execution " + execution.name + " timed out");
+            this.execution = execution;
+        }
+    }
+
+    private static class Execution {
+        private final String name;
+        private final String type;
+        private final long startMillis;
+        private final JsonNode input;
+
+        Execution(String name, String type, long startMillis, JsonNode input) {
+            this.name = name;
+            this.type = type;
+            this.startMillis = startMillis;
+            this.input = input;
+        }
+
+        // The $$ context object.
+        JsonNode context(String stateName, long nowMillis, JsonNode mapItem) {
+            ObjectNode context = JSON.objectNode();
+            ObjectNode executionNode = context.putObject("Execution");
+            executionNode.put("Id", "arn:aws:states:us-east-1:123456789012:execution:simulated:" + name);
+            executionNode.put("Name", name);
+            executionNode.put("StartTime", timestamp(startMillis));
+            executionNode.set("Input", input);
+            ObjectNode stateNode = context.putObject("State");
+            stateNode.put("EnteredTime", timestamp(nowMillis));
+            if (stateName != null) {
+                stateNode.put("Name", stateName);
+            }
+            if (mapItem != null) {
+                context.putObject("Map").set("Item", mapItem);
+            }
+            return context;
+        }
+    }
+}
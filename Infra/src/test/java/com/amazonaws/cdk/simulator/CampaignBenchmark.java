@@ -0,0 +1,93 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ */
+
+package com.amazonaws.cdk.simulator;
+
+import com.amazonaws.lambda.pacing.PacingConfig;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs the Intake and Outreach Processes on the local simulator and prints throughput, state
+ * transitions and modeled cost for a few configurations, so the effect of a change to the
+ * state machines can be measured before it is deployed.
+ * <p>
+ * Usage: CampaignBenchmark [contacts]
+ */
+public class CampaignBenchmark {
+    private static final long SEED = 42;
+
+    public static void main(String[] args) {
+        int contacts = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+
+        System.out.printf("Intake Process, %d contacts%n", contacts);
+        header();
+        intake(contacts, 1, 1, 1, "per-row (batch 1, concurrency 1)");
+        intake(contacts, 1, 25, 10, "1 shard, batch 25, concurrency 10");
+        intake(contacts, 4, 25, 10, "4 shards, batch 25, concurrency 10");
+        intake(contacts, 4, 25, 50, "4 shards, batch 25, concurrency 50");
+
+        System.out.printf("%nOutreach Process, %d contacts, 5 calls/sec Connect quota%n", contacts);
+        header();
+        outreach(contacts, "STANDARD", 5, "STANDARD children, 5 calls/sec");
+        outreach(contacts, "EXPRESS", 5, "EXPRESS children, 5 calls/sec");
+        outreach(contacts, "EXPRESS", 8, "EXPRESS children, 8 calls/sec target");
+
+        System.out.printf("%nOutreach Process, %d contacts, 1 call/sec per caller ID, 20 calls/sec Connect quota%n", contacts);
+        header();
+        for (int poolSize : new int[]{1, 2, 4, 8}) {
+            callerIdPool(contacts, poolSize, "EXPRESS children, " + poolSize + " caller IDs");
+        }
+    }
+
+    private static void intake(int contacts, int shards, int batchSize, int maxConcurrency, String label) {
+        CampaignHarness harness = new CampaignHarness(SEED).shards(shards).intake(batchSize, maxConcurrency);
+        harness.uploadContacts(contacts);
+        long millis = harness.runIntake();
+        int written = harness.getDynamoDb().items(CampaignHarness.CONTACTS_TABLE).size();
+        report(label, written, millis, harness.getMetrics());
+    }
+
+    private static void outreach(int contacts, String executionType, double targetCallsPerSecond, String label) {
+        CampaignHarness harness = new CampaignHarness(SEED)
+                .outreach(10, executionType)
+                .pacing(new PacingConfig(targetCallsPerSecond, 1000, 30));
+        harness.getConnect().setCallsPerSecond(5);
+        harness.getConnect().setMaxConcurrentCalls(1000);
+        harness.seedContacts(contacts);
+        long millis = harness.runOutreach();
+        report(label, (int) harness.getMetrics().getDials(), millis, harness.getMetrics());
+    }
+
+    private static void callerIdPool(int contacts, int poolSize, String label) {
+        List<String> callerIds = new ArrayList<>();
+        for (int number = 0; number < poolSize; number++) {
+            callerIds.add(String.format("+1800555%04d", number));
+        }
+        CampaignHarness harness = new CampaignHarness(SEED)
+                .outreach(10, "EXPRESS")
+                .pacing(new PacingConfig(20, 1000, 30))
+                .callerIds(callerIds, 1, false);
+        harness.getConnect().setCallsPerSecond(20);
+        harness.getConnect().setCallsPerSecondPerSource(1.25);
+        harness.getConnect().setMaxConcurrentCalls(1000);
+        harness.seedContacts(contacts);
+        long millis = harness.runOutreach();
+        report(label, (int) harness.getMetrics().getDials(), millis, harness.getMetrics());
+    }
+
+    private static void header() {
+        System.out.printf("%-38s %8s %10s %13s %11s %11s %10s%n",
+                "configuration", "contacts", "seconds", "contacts/sec", "trans/cont", "throttled", "cost USD");
+    }
+
+    private static void report(String label, int contacts, long millis, Metrics metrics) {
+        long transitions = metrics.getStandardTransitions() + metrics.getExpressTransitions();
+        System.out.printf("%-38s %8d %10.1f %13.2f %11.2f %11d %10.4f%n",
+                label, contacts, millis / 1000.0, contacts * 1000.0 / Math.max(1, millis),
+                transitions / (double) Math.max(1, contacts), metrics.getThrottledDials(), metrics.cost());
+    }
+}
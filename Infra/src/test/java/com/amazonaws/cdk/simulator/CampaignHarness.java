@@ -0,0 +1,523 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ */
+
+package com.amazonaws.cdk.simulator;
+
+import com.amazonaws.cdk.AslTemplate;
+import com.amazonaws.lambda.archive.ExecutionArchiver;
+import com.amazonaws.lambda.contacts.ContactKeys;
+import com.amazonaws.lambda.contacts.PhoneNumbers;
+import com.amazonaws.lambda.metrics.EmbeddedMetrics;
+import com.amazonaws.lambda.outcome.CampaignCounters;
+import com.amazonaws.lambda.pacing.CallerIdPool;
+import com.amazonaws.lambda.pacing.Campaign;
+import com.amazonaws.lambda.pacing.PacingConfig;
+import com.amazonaws.lambda.schedule.RedialIndexReader;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Callable;
+
+/**
+ * The campaign state machines wired to the simulated services the way the stack deploys them.
+ * The definitions are rendered from the same ASL files and placeholders as the stack.
+ */
+public class CampaignHarness {
+    public static final String BUCKET = "agentless-campaign-bucket";
+    public static final String CONTACTS_TABLE = "AmazonConnectAgentlessOutboundCampaign-CampaignContacts";
+    public static final String EXECUTION_TABLE = "AmazonConnectAgentlessOutboundCampaign-Exec";
+    public static final String CAMPAIGNS_TABLE = "AmazonConnectAgentlessOutboundCampaign-Campaigns";
+    public static final String INTAKE_TABLE = "AmazonConnectAgentlessOutboundCampaign-IntakeFiles";
+    public static final String PREPROCESS_FUNCTION = "arn:aws:lambda:us-east-1:123456789012:function:AmazonConnectAgentlessOutboundCampaign-ContactListPreprocess";
+    public static final String PACING_FUNCTION = "arn:aws:lambda:us-east-1:123456789012:function:AmazonConnectAgentlessOutboundCampaign-DialPacing";
+    public static final String SUPPRESSION_INDEX_FUNCTION = "arn:aws:lambda:us-east-1:123456789012:function:AmazonConnectAgentlessOutboundCampaign-SuppressionIndex";
+    public static final String SUPPRESSION_FILTER_FUNCTION = "arn:aws:lambda:us-east-1:123456789012:function:AmazonConnectAgentlessOutboundCampaign-SuppressionFilter";
+    public static final String WAVE_PLANNER_FUNCTION = "arn:aws:lambda:us-east-1:123456789012:function:AmazonConnectAgentlessOutboundCampaign-WavePlanner";
+    public static final String WAVE_SCHEDULER_FUNCTION = "arn:aws:lambda:us-east-1:123456789012:function:AmazonConnectAgentlessOutboundCampaign-WaveScheduler";
+    public static final String REDIAL_PLANNER_FUNCTION = "arn:aws:lambda:us-east-1:123456789012:function:AmazonConnectAgentlessOutboundCampaign-RedialPlanner";
+    public static final String INSTANCE_ID = "11111111-2222-3333-4444-555555555555";
+    public static final String CONTACT_FLOW_ID = "66666666-7777-8888-9999-000000000000";
+    public static final String SOURCE_PHONE_NUMBER = "+18005550100";
+    public static final String CONTACTS_KEY = "unprocessed/contact_example_import.csv";
+
+    private static final JsonNodeFactory JSON = JsonNodeFactory.instance;
+
+    private final Simulation simulation = new Simulation();
+    private final Metrics metrics = new Metrics();
+    private final Random random;
+    private final SimulatedS3 s3;
+    private final SimulatedDynamoDb dynamoDb;
+    private final SimulatedConnect connect;
+    private final SimulatedLambda lambda;
+    private final SimulatedCloudWatch cloudWatch;
+    private final AslInterpreter interpreter;
+    private final List<Callable<Object>> scheduled = new ArrayList<>();
+
+    private int intakeBatchSize = 25;
+    private int intakeMaxConcurrency = 50;
+    private int intakeShardCount = 4;
+    private int keyShards = 4;
+    private int queryPageSize = 250;
+    private int outreachMaxConcurrency = 10;
+    private String outreachExecutionType = "STANDARD";
+    private PacingConfig pacingConfig = new PacingConfig(2, 10, 30);
+    private int suppressionDays = 7;
+    private List<String> callerIds = List.of(SOURCE_PHONE_NUMBER);
+    private double callerIdCallsPerSecond = 100;
+    private boolean localPresence;
+    private String businessHourStart = "08:00";
+    private String businessHourEnd = "17:00";
+    private String defaultTimeZone = "US/Pacific";
+    private int waveMinutes = 15;
+    private int redialPasses = 1;
+    private int redialDelaySeconds = 300;
+    private int retentionDays = 30;
+    private int executions;
+    private int contactEventsSent;
+
+    public CampaignHarness(long seed) {
+        random = new Random(seed);
+        s3 = new SimulatedS3(simulation, metrics);
+        dynamoDb = new SimulatedDynamoDb(simulation, metrics);
+        connect = new SimulatedConnect(simulation, metrics, new Random(seed));
+        lambda = new SimulatedLambda(simulation, metrics);
+        cloudWatch = new SimulatedCloudWatch(simulation);
+        interpreter = new AslInterpreter(simulation, metrics, s3, random);
+        s3.register(interpreter);
+        dynamoDb.register(interpreter);
+        connect.register(interpreter);
+        lambda.register(interpreter);
+        cloudWatch.register(interpreter);
+
+        s3.write(BUCKET, ".keep", "");
+        dynamoDb.createTable(CONTACTS_TABLE, ContactKeys.PARTITION_KEY, ContactKeys.SORT_KEY);
+        dynamoDb.createTable(EXECUTION_TABLE, "campaignExecutionId", "phoneNumber");
+        dynamoDb.createTable(CAMPAIGNS_TABLE, "campaignId", null);
+        dynamoDb.createTable(INTAKE_TABLE, "campaignKey", "fileETag");
+    }
+
+    public CampaignHarness intake(int batchSize, int maxConcurrency) {
+        this.intakeBatchSize = batchSize;
+        this.intakeMaxConcurrency = maxConcurrency;
+        return this;
+    }
+
+    public CampaignHarness shards(int shardCount) {
+        this.intakeShardCount = shardCount;
+        return this;
+    }
+
+    public CampaignHarness query(int keyShards, int pageSize) {
+        this.keyShards = keyShards;
+        this.queryPageSize = pageSize;
+        return this;
+    }
+
+    public CampaignHarness outreach(int maxConcurrency, String executionType) {
+        this.outreachMaxConcurrency = maxConcurrency;
+        this.outreachExecutionType = executionType;
+        return this;
+    }
+
+    public CampaignHarness pacing(PacingConfig pacingConfig) {
+        this.pacingConfig = pacingConfig;
+        return this;
+    }
+
+    // Source numbers to dial from and the rate allowed per number, without it a single number with no rate of its own.
+    public CampaignHarness callerIds(List<String> sourcePhoneNumbers, double callsPerSecondPerNumber, boolean localPresence) {
+        this.callerIds = sourcePhoneNumbers;
+        this.callerIdCallsPerSecond = callsPerSecondPerNumber;
+        this.localPresence = localPresence;
+        return this;
+    }
+
+    public CampaignHarness suppression(int recentlyDialedDays) {
+        this.suppressionDays = recentlyDialedDays;
+        return this;
+    }
+
+    public CampaignHarness callingWindow(String start, String end, String defaultTimeZone) {
+        this.businessHourStart = start;
+        this.businessHourEnd = end;
+        this.defaultTimeZone = defaultTimeZone;
+        return this;
+    }
+
+    public CampaignHarness waves(int waveMinutes) {
+        this.waveMinutes = waveMinutes;
+        return this;
+    }
+
+    // Passes dialing again the contacts whose dial failed with a transient error, and the wait before each pass.
+    public CampaignHarness redial(int passes, int delaySeconds) {
+        this.redialPasses = passes;
+        this.redialDelaySeconds = delaySeconds;
+        return this;
+    }
+
+    // Days the dial attempts are kept in the execution table before they expire.
+    public CampaignHarness retention(int days) {
+        this.retentionDays = days;
+        return this;
+    }
+
+    // Moves the simulated clock, which starts at 2024-01-01T00:00:00Z, forward to the given instant.
+    public void startAt(String instant) {
+        long millis = Instant.parse(instant).toEpochMilli() - Instant.parse(AslInterpreter.timestamp(0)).toEpochMilli();
+        simulation.run(() -> {
+            simulation.sleep(millis - simulation.now());
+            return null;
+        });
+    }
+
+    // Registers the campaign with its weight in the fair share of the instance, as an operator would before starting it.
+    public void registerCampaign(String campaignId, double weight) {
+        setCampaign(campaignId, weight, Campaign.ACTIVE);
+    }
+
+    // Pauses the campaign afterMillis into the next run and resumes it pauseMillis later.
+    public void pauseCampaign(String campaignId, long afterMillis, long pauseMillis) {
+        scheduled.add(() -> {
+            simulation.sleep(afterMillis);
+            setCampaignStatus(campaignId, Campaign.PAUSED);
+            simulation.sleep(pauseMillis);
+            setCampaignStatus(campaignId, Campaign.ACTIVE);
+            return null;
+        });
+    }
+
+    public ObjectNode campaign(String campaignId) {
+        return dynamoDb.item(CAMPAIGNS_TABLE, AslInterpreter.parse("{\"campaignId\":{\"S\":\"" + campaignId + "\"}}"));
+    }
+
+    private void setCampaign(String campaignId, double weight, String status) {
+        ObjectNode item = JSON.objectNode();
+        item.putObject("campaignId").put("S", campaignId);
+        item.putObject("weight").put("N", Double.toString(weight));
+        item.putObject("campaignStatus").put("S", status);
+        dynamoDb.write(CAMPAIGNS_TABLE, item);
+    }
+
+    private void setCampaignStatus(String campaignId, String status) {
+        ObjectNode item = campaign(campaignId);
+        item.putObject("campaignStatus").put("S", status);
+        dynamoDb.write(CAMPAIGNS_TABLE, item);
+    }
+
+    // Uploads a do-not-call list under the suppression/ prefix.
+    public void uploadSuppressionList(String name, String csv) {
+        s3.write(BUCKET, "suppression/" + name, csv);
+    }
+
+    // Uploads a contact list with the given number of unique phone numbers to the intake key.
+    public void uploadContacts(int count) {
+        StringBuilder csv = new StringBuilder("PhoneNumber,UserLang\n");
+        for (int i = 0; i < count; i++) {
+            csv.append(phoneNumber(i)).append(',').append(i % 3 == 0 ? "es_US" : "en_US").append('\n');
+        }
+        uploadContactList(csv.toString());
+    }
+
+    public void uploadContactList(String csv) {
+        uploadContactList(CONTACTS_KEY, csv);
+    }
+
+    public void uploadContactList(String key, String csv) {
+        s3.write(BUCKET, key, csv);
+    }
+
+    // Checkpoint of the contact list uploaded under the key, or null when no intake claimed it.
+    public ObjectNode intakeCheckpoint(String sourceKey) {
+        for (ObjectNode item : dynamoDb.items(INTAKE_TABLE)) {
+            if (sourceKey.equals(item.path("sourceKey").path("S").asText())) {
+                return item;
+            }
+        }
+        return null;
+    }
+
+    // Puts contacts of the default campaign straight into the contacts table, to measure the Outreach Process on its own.
+    public void seedContacts(int count) {
+        seedContacts(ContactKeys.DEFAULT_CAMPAIGN_ID, 0, count);
+    }
+
+    // Puts the contacts with the given phone number indexes into the contacts table under the campaign.
+    public void seedContacts(String campaignId, int first, int count) {
+        List<String> phoneNumbers = new ArrayList<>();
+        for (int i = first; i < first + count; i++) {
+            phoneNumbers.add(phoneNumber(i));
+        }
+        seedContacts(campaignId, phoneNumbers);
+    }
+
+    // Puts the given phone numbers into the contacts table under the campaign, without a time zone attribute.
+    public void seedContacts(String campaignId, List<String> phoneNumbers) {
+        ContactKeys keys = new ContactKeys(campaignId, keyShards);
+        for (int i = 0; i < phoneNumbers.size(); i++) {
+            ObjectNode item = JSON.objectNode();
+            item.putObject("campaignShard").put("S", keys.partitionKey(PhoneNumbers.normalize(phoneNumbers.get(i), 1)));
+            item.putObject("phoneNumber").put("S", phoneNumbers.get(i));
+            item.putObject("userLanguage").put("S", i % 3 == 0 ? "es_US" : "en_US");
+            item.putObject("campaignId").put("S", campaignId);
+            item.putObject("executionId").put("S", "seed");
+            item.putObject("topExecutionId").put("S", "seed");
+            dynamoDb.write(CONTACTS_TABLE, item);
+        }
+    }
+
+    // Runs the Intake Process to completion and returns its duration in simulated milliseconds.
+    public long runIntake() {
+        return runIntake(JSON.objectNode());
+    }
+
+    // Runs the Intake Process with the given execution input, e.g. {"campaignId": "..."}.
+    public long runIntake(ObjectNode input) {
+        return run(intake(), "intake", input);
+    }
+
+    // Runs one Intake execution per input at the same time, e.g. for an upload event delivered twice.
+    public long runIntakes(List<ObjectNode> inputs) {
+        return runTogether(intake(), "intake", inputs);
+    }
+
+    private JsonNode intake() {
+        lambda.addContactListPreprocessFunction(PREPROCESS_FUNCTION, s3, 1, Set.of("en_US", "es_US"));
+        return render(load(AslTemplate.INTAKE)
+                .withNumber("INTAKE-BATCH-SIZE", String.valueOf(intakeBatchSize))
+                .withNumber("INTAKE-MAX-CONCURRENCY", String.valueOf(intakeMaxConcurrency))
+                .withNumber("INTAKE-SHARD-COUNT", String.valueOf(intakeShardCount))
+                .withNumber("CONTACT-KEY-SHARDS", String.valueOf(keyShards))
+                .with("PREPROCESS-FUNCTION-ARN", PREPROCESS_FUNCTION));
+    }
+
+    // Runs the Outreach Process to completion and returns its duration in simulated milliseconds.
+    public long runOutreach() {
+        return runOutreach(JSON.objectNode());
+    }
+
+    // Runs the Outreach Process with the given execution input, e.g. {"campaignId": "..."}.
+    public long runOutreach(ObjectNode input) {
+        return run(outreach(), "outreach", input);
+    }
+
+    // Runs one Outreach execution per input at the same time, as concurrent campaigns on the instance.
+    public long runOutreaches(List<ObjectNode> inputs) {
+        return runTogether(outreach(), "outreach", inputs);
+    }
+
+    private long runTogether(JsonNode definition, String name, List<ObjectNode> inputs) {
+        long start = simulation.now();
+        simulation.run(() -> {
+            startScheduled();
+            List<Simulation.Process> processes = new ArrayList<>();
+            for (ObjectNode input : inputs) {
+                String executionName = name + "-" + (++executions);
+                processes.add(simulation.spawn(executionName, () -> interpreter.execute(executionName, definition, input, "STANDARD")));
+            }
+            simulation.joinAll(processes);
+            for (Simulation.Process process : processes) {
+                process.result();
+            }
+            return null;
+        });
+        return simulation.now() - start;
+    }
+
+    private JsonNode outreach() {
+        CallerIdPool pool = new CallerIdPool(callerIds);
+        SimulatedCampaignRegistry registry = new SimulatedCampaignRegistry(dynamoDb, CAMPAIGNS_TABLE);
+        lambda.addPacingFunction(PACING_FUNCTION, pacingConfig, pool, callerIdCallsPerSecond, localPresence, registry);
+        lambda.addSuppressionIndexFunction(SUPPRESSION_INDEX_FUNCTION, s3, dynamoDb, EXECUTION_TABLE, 1);
+        lambda.addSuppressionFilterFunction(SUPPRESSION_FILTER_FUNCTION, s3, 1);
+        lambda.addWavePlannerFunction(WAVE_PLANNER_FUNCTION, s3, dynamoDb, CONTACTS_TABLE);
+        lambda.addWaveSchedulerFunction(WAVE_SCHEDULER_FUNCTION, s3, pacingConfig, pool, callerIdCallsPerSecond, registry);
+        lambda.addRedialPlannerFunction(REDIAL_PLANNER_FUNCTION, s3, dynamoDb, EXECUTION_TABLE);
+        return render(load(AslTemplate.OUTREACH)
+                .with("ContactFlowId", CONTACT_FLOW_ID)
+                .with("ConnectInstanceId", INSTANCE_ID)
+                .withNumber("CONTACT-KEY-SHARDS", String.valueOf(keyShards))
+                .withNumber("OUTREACH-QUERY-PAGE-SIZE", String.valueOf(queryPageSize))
+                .withNumber("OUTREACH-MAX-CONCURRENCY", String.valueOf(outreachMaxConcurrency))
+                .with("OUTREACH-EXECUTION-TYPE", outreachExecutionType)
+                .with("PACING-FUNCTION-ARN", PACING_FUNCTION)
+                .withNumber("OUTREACH-SUPPRESSION-DAYS", String.valueOf(suppressionDays))
+                .with("SUPPRESSION-INDEX-FUNCTION-ARN", SUPPRESSION_INDEX_FUNCTION)
+                .with("SUPPRESSION-FILTER-FUNCTION-ARN", SUPPRESSION_FILTER_FUNCTION)
+                .with("OUTREACH-BUSINESS-HOUR-START", businessHourStart)
+                .with("OUTREACH-BUSINESS-HOUR-END", businessHourEnd)
+                .with("OUTREACH-DEFAULT-TIME-ZONE", defaultTimeZone)
+                .withNumber("OUTREACH-WAVE-MINUTES", String.valueOf(waveMinutes))
+                .with("WAVE-PLANNER-FUNCTION-ARN", WAVE_PLANNER_FUNCTION)
+                .with("WAVE-SCHEDULER-FUNCTION-ARN", WAVE_SCHEDULER_FUNCTION)
+                .withNumber("OUTREACH-REDIAL-PASSES", String.valueOf(redialPasses))
+                .withNumber("OUTREACH-REDIAL-DELAY-SECONDS", String.valueOf(redialDelaySeconds))
+                .with("REDIAL-PLANNER-FUNCTION-ARN", REDIAL_PLANNER_FUNCTION)
+                .withNumber("EXECUTION-RETENTION-DAYS", String.valueOf(retentionDays)));
+    }
+
+    // Delivers the contact events sent since the last call to the contact outcome function in SQS batches,
+    // redelivering failed messages until they succeed or stop making progress. Returns the messages left failing.
+    public int deliverContactEvents(int batchSize) {
+        SimulatedContactOutcomeStore store = new SimulatedContactOutcomeStore(dynamoDb, EXECUTION_TABLE);
+        List<String> events = connect.getContactEvents();
+        List<String> queue = new ArrayList<>(events.subList(contactEventsSent, events.size()));
+        contactEventsSent = events.size();
+        int failures = queue.size() + 1;
+        while (!queue.isEmpty() && queue.size() < failures) {
+            failures = queue.size();
+            List<String> redeliver = new ArrayList<>();
+            for (int first = 0; first < queue.size(); first += batchSize) {
+                Map<String, String> batch = new LinkedHashMap<>();
+                for (String body : queue.subList(first, Math.min(queue.size(), first + batchSize))) {
+                    batch.put("message-" + batch.size(), body);
+                }
+                List<String> failed = simulation.run(() -> lambda.invokeContactOutcomeFunction(store, batch));
+                failed.forEach(messageId -> redeliver.add(batch.get(messageId)));
+            }
+            queue = redeliver;
+        }
+        return queue.size();
+    }
+
+    // Items of the execution table holding a dial attempt, without the aggregate and redial count items, whose
+    // sort keys start with # where a phone number starts with +.
+    public List<ObjectNode> dialAttempts() {
+        List<ObjectNode> attempts = new ArrayList<>();
+        for (ObjectNode item : dynamoDb.items(EXECUTION_TABLE)) {
+            if (!item.get("phoneNumber").get("S").asText().startsWith("#")) {
+                attempts.add(item);
+            }
+        }
+        return attempts;
+    }
+
+    // Runs the daily archive of the execution table at the given instant. Row groups are kept small to write several
+    // per file, and the Parquet files are stored Base64 encoded as the simulated bucket holds strings.
+    public ExecutionArchiver archiveExecutions(String now) {
+        try {
+            Path workDirectory = Files.createTempDirectory("archive");
+            ExecutionArchiver archiver = new ExecutionArchiver(new SimulatedExecutionArchiveStore(dynamoDb, EXECUTION_TABLE),
+                    Duration.ofDays(retentionDays), workDirectory, 4096,
+                    (key, file) -> s3.write(BUCKET, key, Base64.getEncoder().encodeToString(Files.readAllBytes(file))));
+            simulation.run(() -> {
+                archiver.archive(Instant.parse(now));
+                return null;
+            });
+            Files.delete(workDirectory);
+            return archiver;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Keys of the archived Parquet files under the given prefix, e.g. "archive/attempts/".
+    public List<String> archiveKeys(String prefix) {
+        return s3.keys(BUCKET, prefix);
+    }
+
+    public byte[] archiveObject(String key) {
+        return Base64.getDecoder().decode(s3.read(BUCKET, key));
+    }
+
+    // Failed Map children of the "Outreach" or "Intake" process reported to CloudWatch.
+    public long mapChildFailures(String process) {
+        return (long) cloudWatch.sum(EmbeddedMetrics.NAMESPACE, "MapChildFailures", "Process=" + process);
+    }
+
+    // Aggregate item of the Outreach execution with the given name, e.g. "outreach-2".
+    public ObjectNode campaignProgress(String executionName) {
+        return dynamoDb.item(EXECUTION_TABLE, AslInterpreter.parse("{\"campaignExecutionId\":{\"S\":\"" + executionName
+                + "\"},\"phoneNumber\":{\"S\":\"" + CampaignCounters.SORT_KEY + "\"}}"));
+    }
+
+    // The count of the contacts recorded under a redialKey, null when none was.
+    public ObjectNode redialContacts(String redialKey) {
+        return dynamoDb.item(EXECUTION_TABLE, AslInterpreter.parse("{\"campaignExecutionId\":{\"S\":\"" + redialKey
+                + "\"},\"phoneNumber\":{\"S\":\"" + RedialIndexReader.COUNT_SORT_KEY + "\"}}"));
+    }
+
+    private long run(JsonNode definition, String name, ObjectNode input) {
+        String executionName = name + "-" + (++executions);
+        long start = simulation.now();
+        simulation.run(() -> {
+            startScheduled();
+            return interpreter.execute(executionName, definition, input, "STANDARD");
+        });
+        return simulation.now() - start;
+    }
+
+    private void startScheduled() {
+        for (Callable<Object> action : scheduled) {
+            simulation.spawn("scheduled", action);
+        }
+        scheduled.clear();
+    }
+
+    private static AslTemplate load(String path) {
+        try {
+            return AslTemplate.load(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static JsonNode render(AslTemplate template) {
+        return AslInterpreter.parse(template
+                .with("DDB-CONTACTS-TABLE-NAME", CONTACTS_TABLE)
+                .with("DDB-EXECUTION-TABLE-NAME", EXECUTION_TABLE)
+                .with("DDB-CAMPAIGNS-TABLE-NAME", CAMPAIGNS_TABLE)
+                .with("DDB-INTAKE-TABLE-NAME", INTAKE_TABLE)
+                .with("S3-BUCKET-NAME", BUCKET)
+                .with("METRICS-NAMESPACE", EmbeddedMetrics.NAMESPACE)
+                .render());
+    }
+
+    public static String phoneNumber(int index) {
+        return String.format("+1206%03d%04d", 200 + index / 10000 % 800, index % 10000);
+    }
+
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    public SimulatedS3 getS3() {
+        return s3;
+    }
+
+    public SimulatedDynamoDb getDynamoDb() {
+        return dynamoDb;
+    }
+
+    public SimulatedConnect getConnect() {
+        return connect;
+    }
+
+    public SimulatedLambda getLambda() {
+        return lambda;
+    }
+
+    public SimulatedCloudWatch getCloudWatch() {
+        return cloudWatch;
+    }
+
+    public AslInterpreter getInterpreter() {
+        return interpreter;
+    }
+}
@@ -0,0 +1,839 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ */
+
+package com.amazonaws.cdk.simulator;
+
+import com.amazonaws.lambda.archive.ExecutionArchiver;
+import com.amazonaws.lambda.contacts.ContactKeys;
+import com.amazonaws.lambda.metrics.EmbeddedMetrics;
+import com.amazonaws.lambda.outcome.DialAttempt;
+import com.amazonaws.lambda.pacing.PacingConfig;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Regression checks for the campaign state machines, run on the local simulator.
+ */
+public class CampaignSimulationTest {
+    private static final int CONTACTS = 600;
+
+    @Test
+    public void intakeWritesEveryContactInBatches() {
+        CampaignHarness harness = new CampaignHarness(1).intake(25, 10);
+        harness.uploadContacts(CONTACTS);
+        harness.runIntake();
+
+        assertEquals(CONTACTS, harness.getDynamoDb().items(CampaignHarness.CONTACTS_TABLE).size());
+        Metrics metrics = harness.getMetrics();
+        assertEquals(CONTACTS / 25, metrics.getExpressExecutions());
+        // The checkpoints of the list and its shards add a fixed number of transitions per list, not per contact
+        assertTrue(metrics.getStandardTransitions() < 40, "the parent and shard executions should only transition a few times");
+        assertTrue((metrics.getExpressTransitions() / (double) CONTACTS) < 1.5, "transitions per contact " + metrics.getExpressTransitions() / (double) CONTACTS);
+    }
+
+    @Test
+    public void intakeLoadsOnlyValidUniqueContacts() {
+        CampaignHarness harness = new CampaignHarness(5).shards(3);
+        harness.uploadContactList("PhoneNumber,UserLang\n"
+                + "+12065550100,en_US\n"
+                + "(206) 555-0100,en_US\n"
+                + "206.555.0101,es-us\n"
+                + "\"+1 206 555 0102\",en_US\n"
+                + "not a number,en_US\n"
+                + "+12060550103,en_US\n"
+                + "+12065550104,xx\n");
+        harness.runIntake();
+
+        assertEquals(3, harness.getDynamoDb().items(CampaignHarness.CONTACTS_TABLE).size());
+        for (String phoneNumber : new String[]{"+12065550100", "+12065550101", "+12065550102"}) {
+            assertTrue(harness.getDynamoDb().items(CampaignHarness.CONTACTS_TABLE).stream()
+                    .anyMatch(item -> phoneNumber.equals(item.get("phoneNumber").get("S").asText())), phoneNumber + " was not loaded");
+        }
+        ContactKeys keys = new ContactKeys(ContactKeys.DEFAULT_CAMPAIGN_ID, 4);
+        assertEquals("es_US", harness.getDynamoDb().item(CampaignHarness.CONTACTS_TABLE,
+                AslInterpreter.parse("{\"campaignShard\":{\"S\":\"" + keys.partitionKey(12065550101L) + "\"},\"phoneNumber\":{\"S\":\"+12065550101\"}}"))
+                .get("userLanguage").get("S").asText());
+        String rejected = harness.getS3().read(CampaignHarness.BUCKET, "intake/intake-1/rejected.csv");
+        assertTrue(rejected.contains("DUPLICATE") && rejected.contains("INVALID_PHONE_NUMBER") && rejected.contains("INVALID_LANGUAGE"), rejected);
+    }
+
+    @Test
+    public void intakeRetriesUnprocessedItemsUntilEveryContactIsWritten() {
+        CampaignHarness harness = new CampaignHarness(2).intake(25, 20);
+        harness.getDynamoDb().setWriteCapacity(CampaignHarness.CONTACTS_TABLE, 100);
+        harness.uploadContacts(CONTACTS);
+        harness.runIntake();
+
+        assertEquals(CONTACTS, harness.getDynamoDb().items(CampaignHarness.CONTACTS_TABLE).size());
+    }
+
+    @Test
+    public void intakeFailsTheBatchesLeftUnprocessedAfterTheRetries() {
+        CampaignHarness harness = new CampaignHarness(29).intake(25, 1);
+        // A single batch at a time on a trickle of capacity writes one more item on every retry
+        harness.getDynamoDb().setWriteCapacity(CampaignHarness.CONTACTS_TABLE, 1);
+        harness.uploadContacts(CONTACTS);
+
+        StatesError error = assertThrows(StatesError.class, harness::runIntake);
+        assertTrue(error.getMessage().contains("DynamoDB.UnprocessedItems"), error.getMessage());
+        assertTrue(harness.mapChildFailures("Intake") > 0);
+        assertTrue(harness.getDynamoDb().items(CampaignHarness.CONTACTS_TABLE).size() < CONTACTS);
+    }
+
+    @Test
+    public void outreachDialsEveryContactOnceAtThePacedRate() {
+        CampaignHarness harness = new CampaignHarness(3)
+                .query(4, 50)
+                .outreach(10, "EXPRESS")
+                .pacing(new PacingConfig(2, 1000, 30));
+        harness.seedContacts(CONTACTS);
+        harness.runOutreach();
+
+        SimulatedConnect connect = harness.getConnect();
+        assertEquals(CONTACTS, harness.getMetrics().getDials());
+        assertEquals(CONTACTS, connect.getDialsByDestination().size());
+        for (Map.Entry<String, Integer> dials : connect.getDialsByDestination().entrySet()) {
+            assertEquals(1, dials.getValue(), dials.getKey() + " was dialed more than once");
+        }
+        assertEquals(0, harness.getMetrics().getThrottledDials());
+        assertEquals(2, connect.dialRate(), 0.1);
+        assertEquals(CONTACTS, harness.dialAttempts().size());
+        for (ObjectNode attempt : harness.dialAttempts()) {
+            assertEquals("DIALED", attempt.get("attemptStatus").get("S").asText());
+            assertEquals("1", attempt.get("attempts").get("N").asText());
+        }
+    }
+
+    @Test
+    public void outreachBacksOffWhenConnectThrottles() {
+        CampaignHarness harness = new CampaignHarness(4)
+                .outreach(10, "EXPRESS")
+                .pacing(new PacingConfig(10, 1000, 30));
+        harness.getConnect().setCallsPerSecond(4);
+        harness.seedContacts(CONTACTS);
+        harness.runOutreach();
+
+        assertEquals(CONTACTS, harness.getMetrics().getDials());
+        assertEquals(CONTACTS, harness.getConnect().getDialsByDestination().size());
+        assertTrue(harness.getMetrics().getThrottledDials() < CONTACTS / 10,
+                "throttled " + harness.getMetrics().getThrottledDials() + " dials");
+    }
+
+    @Test
+    public void intakeLoadsTheListUnderItsCampaign() {
+        CampaignHarness harness = new CampaignHarness(7).query(8, 250);
+        harness.uploadContacts(CONTACTS);
+        harness.runIntake((ObjectNode) AslInterpreter.parse("{\"campaignId\":\"spring-promo\"}"));
+
+        Set<String> shards = new HashSet<>();
+        for (ObjectNode contact : harness.getDynamoDb().items(CampaignHarness.CONTACTS_TABLE)) {
+            assertEquals("spring-promo", contact.get("campaignId").get("S").asText());
+            shards.add(contact.get("campaignShard").get("S").asText());
+        }
+        assertEquals(CONTACTS, harness.getDynamoDb().items(CampaignHarness.CONTACTS_TABLE).size());
+        assertEquals(8, shards.size(), "contacts should be spread over every key shard " + shards);
+    }
+
+    @Test
+    public void intakeMovesTheListToProcessedAndSkipsContentItAlreadyLoaded() {
+        CampaignHarness harness = new CampaignHarness(24);
+        harness.uploadContacts(CONTACTS);
+        harness.runIntake((ObjectNode) AslInterpreter.parse("{\"campaignId\":\"spring\"}"));
+
+        assertEquals(CONTACTS, harness.getDynamoDb().items(CampaignHarness.CONTACTS_TABLE).size());
+        assertTrue(harness.getS3().keys(CampaignHarness.BUCKET, CampaignHarness.CONTACTS_KEY).isEmpty());
+        String list = harness.getS3().read(CampaignHarness.BUCKET, "processed/contact_example_import.csv");
+        assertEquals("PROCESSED", harness.intakeCheckpoint(CampaignHarness.CONTACTS_KEY).get("intakeStatus").get("S").asText());
+
+        // The same content under another name for the same campaign
+        harness.uploadContactList("unprocessed/copy.csv", list);
+        double writeUnits = harness.getMetrics().getDynamoDbWriteUnits();
+        harness.runIntake((ObjectNode) AslInterpreter.parse("{\"key\":\"unprocessed/copy.csv\",\"campaignId\":\"spring\"}"));
+
+        assertEquals(CONTACTS, harness.getDynamoDb().items(CampaignHarness.CONTACTS_TABLE).size());
+        assertEquals(writeUnits, harness.getMetrics().getDynamoDbWriteUnits(), 0);
+        assertTrue(harness.getS3().keys(CampaignHarness.BUCKET, "intake/intake-2/").isEmpty(), "the list should not be pre-processed again");
+        assertEquals(list, harness.getS3().read(CampaignHarness.BUCKET, "processed/copy.csv"));
+        assertTrue(harness.getS3().keys(CampaignHarness.BUCKET, "unprocessed/").isEmpty());
+        assertNull(harness.intakeCheckpoint("unprocessed/copy.csv"));
+    }
+
+    @Test
+    public void intakeLoadsTheSameContentUploadedForAnotherCampaign() {
+        CampaignHarness harness = new CampaignHarness(34);
+        harness.uploadContacts(CONTACTS);
+        harness.runIntake();
+        // Without a campaignId the copy is loaded under its file name
+        harness.uploadContactList("unprocessed/copy.csv", harness.getS3().read(CampaignHarness.BUCKET, "processed/contact_example_import.csv"));
+        harness.runIntake((ObjectNode) AslInterpreter.parse("{\"key\":\"unprocessed/copy.csv\"}"));
+
+        long copies = harness.getDynamoDb().items(CampaignHarness.CONTACTS_TABLE).stream()
+                .filter(contact -> "copy".equals(contact.get("campaignId").get("S").asText()))
+                .count();
+        assertEquals(CONTACTS, copies);
+        assertEquals(CONTACTS * 2, harness.getDynamoDb().items(CampaignHarness.CONTACTS_TABLE).size());
+        assertEquals("PROCESSED", harness.intakeCheckpoint("unprocessed/copy.csv").get("intakeStatus").get("S").asText());
+        assertTrue(harness.getS3().keys(CampaignHarness.BUCKET, "unprocessed/").isEmpty());
+    }
+
+    @Test
+    public void intakeLoadsAListOnceWhenItsEventIsDeliveredTwice() {
+        CampaignHarness harness = new CampaignHarness(35).shards(4);
+        harness.uploadContacts(CONTACTS);
+        harness.runIntakes(List.of((ObjectNode) AslInterpreter.parse("{}"), (ObjectNode) AslInterpreter.parse("{}")));
+
+        assertEquals(CONTACTS, harness.getDynamoDb().items(CampaignHarness.CONTACTS_TABLE).size());
+        assertTrue(harness.getS3().keys(CampaignHarness.BUCKET, "intake/intake-1/").isEmpty()
+                != harness.getS3().keys(CampaignHarness.BUCKET, "intake/intake-2/").isEmpty(), "only one execution should pre-process the list");
+        assertEquals("PROCESSED", harness.intakeCheckpoint(CampaignHarness.CONTACTS_KEY).get("intakeStatus").get("S").asText());
+        assertNotNull(harness.getS3().read(CampaignHarness.BUCKET, "processed/contact_example_import.csv"));
+        assertTrue(harness.getS3().keys(CampaignHarness.BUCKET, "unprocessed/").isEmpty());
+    }
+
+    @Test
+    public void intakeOnlyWritesNewAndChangedContactsOfAListLoadedAgain() {
+        CampaignHarness harness = new CampaignHarness(25);
+        StringBuilder day1 = new StringBuilder("PhoneNumber,UserLang\n");
+        StringBuilder day2 = new StringBuilder("PhoneNumber,UserLang\n");
+        for (int i = 0; i < CONTACTS + 100; i++) {
+            if (i < CONTACTS) {
+                day1.append(CampaignHarness.phoneNumber(i)).append(",en_US\n");
+            }
+            day2.append(CampaignHarness.phoneNumber(i)).append(i < 50 ? ",es_US\n" : ",en_US\n");
+        }
+        harness.uploadContactList("unprocessed/day-1.csv", day1.toString());
+        harness.runIntake((ObjectNode) AslInterpreter.parse("{\"key\":\"unprocessed/day-1.csv\",\"campaignId\":\"daily\"}"));
+        harness.uploadContactList("unprocessed/day-2.csv", day2.toString());
+        double writeUnits = harness.getMetrics().getDynamoDbWriteUnits();
+        harness.runIntake((ObjectNode) AslInterpreter.parse("{\"key\":\"unprocessed/day-2.csv\",\"campaignId\":\"daily\"}"));
+
+        ObjectNode checkpoint = harness.intakeCheckpoint("unprocessed/day-2.csv");
+        assertEquals("150", checkpoint.get("contacts").get("N").asText());
+        assertEquals(String.valueOf(CONTACTS - 50), checkpoint.get("unchanged").get("N").asText());
+        // The contacts plus a handful of checkpoint writes
+        assertTrue(harness.getMetrics().getDynamoDbWriteUnits() - writeUnits < 170,
+                "write units " + (harness.getMetrics().getDynamoDbWriteUnits() - writeUnits));
+        assertEquals(CONTACTS + 100, harness.getDynamoDb().items(CampaignHarness.CONTACTS_TABLE).size());
+        long spanish = harness.getDynamoDb().items(CampaignHarness.CONTACTS_TABLE).stream()
+                .filter(contact -> "es_US".equals(contact.get("userLanguage").get("S").asText()))
+                .count();
+        assertEquals(50, spanish);
+    }
+
+    @Test
+    public void intakeResumesFromTheShardsAFailedExecutionLoaded() {
+        CampaignHarness harness = new CampaignHarness(26).shards(4);
+        harness.uploadContacts(CONTACTS);
+        harness.getS3().failReads("intake/intake-1/shard-0002.csv", 1);
+        assertThrows(StatesError.class, harness::runIntake);
+
+        assertEquals(CONTACTS * 3 / 4, harness.getDynamoDb().items(CampaignHarness.CONTACTS_TABLE).size());
+        assertEquals(3, harness.intakeCheckpoint(CampaignHarness.CONTACTS_KEY).get("loadedShards").get("SS").size());
+        assertEquals("FAILED", harness.intakeCheckpoint(CampaignHarness.CONTACTS_KEY).get("intakeStatus").get("S").asText());
+
+        long expressExecutions = harness.getMetrics().getExpressExecutions();
+        harness.runIntake();
+
+        assertEquals(CONTACTS, harness.getDynamoDb().items(CampaignHarness.CONTACTS_TABLE).size());
+        assertEquals(CONTACTS / 4 / 25, harness.getMetrics().getExpressExecutions() - expressExecutions,
+                "only the batches of the failed shard should be written again");
+        assertTrue(harness.getS3().keys(CampaignHarness.BUCKET, "intake/intake-2/").isEmpty(), "the list should not be pre-processed again");
+        assertEquals("PROCESSED", harness.intakeCheckpoint(CampaignHarness.CONTACTS_KEY).get("intakeStatus").get("S").asText());
+    }
+
+    @Test
+    public void outreachOnlyReadsTheContactsOfItsCampaign() {
+        CampaignHarness harness = new CampaignHarness(8)
+                .outreach(10, "EXPRESS")
+                .pacing(new PacingConfig(10, 1000, 30));
+        // Half of the numbers are in both campaigns
+        harness.seedContacts("spring", 0, CONTACTS);
+        harness.seedContacts("autumn", CONTACTS / 2, CONTACTS);
+        harness.runOutreach((ObjectNode) AslInterpreter.parse("{\"campaignId\":\"autumn\"}"));
+
+        Map<String, Integer> dials = harness.getConnect().getDialsByDestination();
+        assertEquals(CONTACTS, dials.size());
+        for (int i = CONTACTS / 2; i < CONTACTS * 3 / 2; i++) {
+            assertEquals(1, dials.getOrDefault(CampaignHarness.phoneNumber(i), 0), CampaignHarness.phoneNumber(i) + " dials");
+        }
+
+        CampaignHarness alone = new CampaignHarness(8)
+                .outreach(10, "EXPRESS")
+                .pacing(new PacingConfig(10, 1000, 30));
+        alone.seedContacts("autumn", CONTACTS / 2, CONTACTS);
+        alone.runOutreach((ObjectNode) AslInterpreter.parse("{\"campaignId\":\"autumn\"}"));
+        assertEquals(alone.getMetrics().getDynamoDbReadUnits(), harness.getMetrics().getDynamoDbReadUnits(), 0.001,
+                "reading a campaign should not depend on the other campaigns in the table");
+    }
+
+    @Test
+    public void outreachSkipsDoNotCallAndRecentlyDialedNumbers() {
+        CampaignHarness harness = new CampaignHarness(6)
+                .outreach(10, "EXPRESS")
+                .pacing(new PacingConfig(10, 1000, 30));
+        harness.seedContacts(CONTACTS);
+        harness.uploadSuppressionList("dnc.csv", "PhoneNumber\n"
+                + CampaignHarness.phoneNumber(0) + "\n"
+                + "(206) 200-0001\n"
+                + "not a number\n");
+        for (int i = 2; i < 12; i++) {
+            ObjectNode attempt = (ObjectNode) AslInterpreter.parse("{\"campaignExecutionId\":{\"S\":\"outreach-0\"},"
+                    + "\"phoneNumber\":{\"S\":\"" + CampaignHarness.phoneNumber(i) + "\"},"
+                    + "\"attemptStatus\":{\"S\":\"" + (i < 7 ? "DIALED" : "FAILED") + "\"},"
+                    + "\"attemptedAt\":{\"S\":\"2023-12-30T00:00:00Z\"}}");
+            harness.getDynamoDb().write(CampaignHarness.EXECUTION_TABLE, attempt);
+        }
+        harness.runOutreach();
+
+        Map<String, Integer> dials = harness.getConnect().getDialsByDestination();
+        assertEquals(CONTACTS - 7, dials.size());
+        for (int i = 0; i < 7; i++) {
+            assertFalse(dials.containsKey(CampaignHarness.phoneNumber(i)), CampaignHarness.phoneNumber(i) + " was dialed");
+        }
+        for (int i = 7; i < 12; i++) {
+            assertTrue(dials.containsKey(CampaignHarness.phoneNumber(i)), CampaignHarness.phoneNumber(i) + " was not dialed");
+        }
+    }
+
+    @Test
+    public void outreachDialsEveryTimeZoneInsideItsCallingWindow() {
+        CampaignHarness harness = new CampaignHarness(9)
+                .outreach(10, "EXPRESS")
+                .pacing(new PacingConfig(10, 1000, 30))
+                .callingWindow("08:00", "17:00", "US/Pacific");
+        Map<String, ZoneId> zones = Map.of("212", ZoneId.of("America/New_York"), "312", ZoneId.of("America/Chicago"),
+                "206", ZoneId.of("America/Los_Angeles"), "808", ZoneId.of("Pacific/Honolulu"));
+        List<String> phoneNumbers = new ArrayList<>();
+        for (String areaCode : zones.keySet()) {
+            for (int i = 0; i < 100; i++) {
+                phoneNumbers.add(String.format("+1%s555%04d", areaCode, i));
+            }
+        }
+        harness.seedContacts(ContactKeys.DEFAULT_CAMPAIGN_ID, phoneNumbers);
+        // 2024-01-01T00:00Z is after hours in New York and Chicago, still inside the window in Seattle and Honolulu
+        harness.runOutreach();
+
+        Map<String, Long> dialedAt = harness.getConnect().getLastDialAtByDestination();
+        assertEquals(phoneNumbers.size(), dialedAt.size());
+        for (Map.Entry<String, Long> dial : dialedAt.entrySet()) {
+            ZoneId zone = zones.get(dial.getKey().substring(2, 5));
+            LocalTime local = Instant.parse(AslInterpreter.timestamp(dial.getValue())).atZone(zone).toLocalTime();
+            assertFalse(local.isBefore(LocalTime.of(8, 0)) || !local.isBefore(LocalTime.of(17, 0)),
+                    dial.getKey() + " was dialed at " + local + " local time");
+        }
+    }
+
+    @Test
+    public void outreachCarriesContactsOverToTheNextCallingWindow() {
+        CampaignHarness harness = new CampaignHarness(10)
+                .outreach(10, "EXPRESS")
+                .pacing(new PacingConfig(2, 1000, 30));
+        harness.seedContacts(2000);
+        // Ten minutes before the end of the window in Seattle, room for about 1200 dials at 2 per second
+        harness.startAt("2024-01-01T00:50:00Z");
+        harness.runOutreach();
+
+        Map<String, Long> dialedAt = harness.getConnect().getLastDialAtByDestination();
+        long epoch = Instant.parse(AslInterpreter.timestamp(0)).toEpochMilli();
+        long closesAt = Instant.parse("2024-01-01T01:00:00Z").toEpochMilli() - epoch;
+        long opensAt = Instant.parse("2024-01-01T16:00:00Z").toEpochMilli() - epoch;
+        long firstDay = dialedAt.values().stream().filter(at -> at <= closesAt).count();
+        assertTrue(firstDay > 1000 && firstDay <= 1200, firstDay + " contacts dialed before the window closed");
+        assertTrue(dialedAt.values().stream().allMatch(at -> at <= closesAt || at >= opensAt), "dialed outside the calling window");
+
+        // The same execution waits for the next morning and dials the pages that were not released, and the
+        // contacts of the last wave that were refused a slot at the end of the window
+        assertEquals(2000, dialedAt.size());
+        for (Map.Entry<String, Integer> dials : harness.getConnect().getDialsByDestination().entrySet()) {
+            assertEquals(1, dials.getValue(), dials.getKey() + " dials");
+        }
+        assertEquals(2000, harness.dialAttempts().stream().filter(attempt -> "DIALED".equals(attempt.path("attemptStatus").path("S").asText())).count());
+        assertTrue(harness.dialAttempts().stream().anyMatch(attempt -> "DEFERRED".equals(attempt.path("attemptStatus").path("S").asText())),
+                "no contact was deferred when the window closed");
+    }
+
+    @Test
+    public void expressChildrenDeferTheContactsTheyCannotDialInFiveMinutes() {
+        CampaignHarness harness = new CampaignHarness(27)
+                .outreach(10, "EXPRESS")
+                .pacing(new PacingConfig(1, 1000, 30));
+        harness.seedContacts(600);
+        harness.startAt("2024-01-01T17:00:00Z");
+        harness.runOutreach();
+
+        // Three pages of 250 at a third of a call per second each, a child gets through about 90 contacts
+        assertEquals(0, harness.getMetrics().getTimedOutExecutions(), "express children stopped at five minutes");
+        assertEquals(600, harness.getConnect().getDialsByDestination().size());
+        for (Map.Entry<String, Integer> dials : harness.getConnect().getDialsByDestination().entrySet()) {
+            assertEquals(1, dials.getValue(), dials.getKey() + " dials");
+        }
+        assertTrue(harness.dialAttempts().stream().filter(attempt -> "DEFERRED".equals(attempt.path("attemptStatus").path("S").asText())).count() > 300,
+                "contacts left by the children were not deferred");
+    }
+
+    @Test
+    public void deferredContactsMissingFromTheIndexAreWaitedFor() {
+        CampaignHarness harness = new CampaignHarness(27)
+                .outreach(10, "EXPRESS")
+                .pacing(new PacingConfig(1, 1000, 30));
+        harness.seedContacts(600);
+        harness.startAt("2024-01-01T17:00:00Z");
+        // The contacts deferred at the end of a round reach the index after the RedialPlanner first queries it
+        harness.getDynamoDb().setIndexLagMillis(5_000);
+        harness.runOutreach();
+
+        assertEquals(600, harness.getConnect().getDialsByDestination().size());
+        for (Map.Entry<String, Integer> dials : harness.getConnect().getDialsByDestination().entrySet()) {
+            assertEquals(1, dials.getValue(), dials.getKey() + " dials");
+        }
+        long deferred = harness.dialAttempts().stream()
+                .filter(attempt -> "outreach-1#0#1".equals(attempt.path("redialKey").path("S").asText())).count();
+        assertTrue(deferred > 0);
+        assertEquals(deferred, harness.redialContacts("outreach-1#0#1").get("contacts").get("N").asLong());
+    }
+
+    @Test
+    public void intakeStoresTheTimeZoneOfEveryContact() {
+        CampaignHarness harness = new CampaignHarness(11);
+        harness.uploadContactList("PhoneNumber,UserLang,TimeZone\n"
+                + "+12125550100,en_US,\n"
+                + "+12065550101,en_US,America/Chicago\n"
+                + "+12065550102,en_US,Mars/Olympus_Mons\n"
+                + "+15550100,en_US,\n");
+        harness.runIntake();
+
+        Map<String, String> timeZones = new HashMap<>();
+        for (ObjectNode contact : harness.getDynamoDb().items(CampaignHarness.CONTACTS_TABLE)) {
+            timeZones.put(contact.get("phoneNumber").get("S").asText(), contact.get("timeZone").get("S").asText());
+        }
+        assertEquals("America/New_York", timeZones.get("+12125550100"));
+        assertEquals("America/Chicago", timeZones.get("+12065550101"));
+        assertFalse(timeZones.containsKey("+12065550102"));
+        String rejected = harness.getS3().read(CampaignHarness.BUCKET, "intake/intake-1/rejected.csv");
+        assertTrue(rejected.contains("INVALID_TIME_ZONE"), rejected);
+    }
+
+    @Test
+    public void outreachDialRateGrowsWithTheCallerIdPool() {
+        double[] dialRates = new double[2];
+        int[] poolSizes = {1, 4};
+        for (int i = 0; i < poolSizes.length; i++) {
+            List<String> callerIds = new ArrayList<>();
+            for (int number = 0; number < poolSizes[i]; number++) {
+                callerIds.add(String.format("+1800555%04d", number));
+            }
+            CampaignHarness harness = new CampaignHarness(12)
+                    .query(4, 50)
+                    .outreach(10, "EXPRESS")
+                    .pacing(new PacingConfig(20, 1000, 30))
+                    .callerIds(callerIds, 1, false);
+            harness.getConnect().setCallsPerSecond(20);
+            harness.getConnect().setCallsPerSecondPerSource(1.25);
+            harness.getConnect().setMaxConcurrentCalls(1000);
+            harness.seedContacts(CONTACTS);
+            harness.runOutreach();
+
+            SimulatedConnect connect = harness.getConnect();
+            assertEquals(CONTACTS, connect.getDialsByDestination().size());
+            assertEquals(0, harness.getMetrics().getThrottledDials());
+            assertEquals(poolSizes[i], connect.getDialsBySource().size());
+            for (Map.Entry<String, Integer> dials : connect.getDialsBySource().entrySet()) {
+                assertEquals(CONTACTS / (double) poolSizes[i], dials.getValue(), CONTACTS * 0.05, dials.getKey() + " dials");
+            }
+            dialRates[i] = connect.dialRate();
+        }
+        assertEquals(1, dialRates[0], 0.1);
+        assertEquals(4, dialRates[1], 0.4);
+    }
+
+    @Test
+    public void outreachPrefersLocalCallerIds() {
+        CampaignHarness harness = new CampaignHarness(13)
+                .outreach(10, "EXPRESS")
+                .pacing(new PacingConfig(10, 1000, 30))
+                .callerIds(List.of("+12065550100", "+18085550100", "+12125550100"), 10, true);
+        List<String> phoneNumbers = new ArrayList<>();
+        for (String areaCode : List.of("206", "425", "808")) {
+            for (int i = 0; i < 50; i++) {
+                phoneNumbers.add(String.format("+1%s555%04d", areaCode, 1000 + i));
+            }
+        }
+        harness.seedContacts(ContactKeys.DEFAULT_CAMPAIGN_ID, phoneNumbers);
+        harness.runOutreach();
+
+        assertEquals(phoneNumbers.size(), harness.dialAttempts().size());
+        for (ObjectNode attempt : harness.dialAttempts()) {
+            String destination = attempt.get("phoneNumber").get("S").asText();
+            // 425 has no number of its own in the pool, 206 is in the same time zone
+            String expected = destination.startsWith("+1808") ? "+18085550100" : "+12065550100";
+            assertEquals(expected, attempt.get("sourcePhoneNumber").get("S").asText(), destination + " caller ID");
+        }
+    }
+
+    @Test
+    public void contactEventsUpdateTheAttemptsAndTheCampaignCountersOnce() {
+        CampaignHarness harness = new CampaignHarness(14)
+                .outreach(10, "EXPRESS")
+                .pacing(new PacingConfig(10, 1000, 30));
+        harness.seedContacts(CONTACTS);
+        harness.runOutreach();
+        assertEquals(0, harness.deliverContactEvents(100));
+
+        ObjectNode progress = harness.campaignProgress("outreach-1");
+        assertEquals(CONTACTS, progress.get("contacts").get("N").asInt());
+        assertEquals(CONTACTS, progress.get("completed").get("N").asInt());
+        Map<String, Integer> outcomes = new HashMap<>();
+        for (ObjectNode attempt : harness.dialAttempts()) {
+            outcomes.merge(attempt.get("outcome").get("S").asText(), 1, Integer::sum);
+        }
+        for (String outcome : List.of("ANSWERED", "VOICEMAIL", "UNANSWERED", "FAILED")) {
+            assertEquals((int) outcomes.getOrDefault(outcome, 0), progress.path(outcome.toLowerCase()).path("N").asInt(), outcome);
+        }
+        assertEquals(25L * (outcomes.get("ANSWERED") + outcomes.get("VOICEMAIL")), progress.get("talkSeconds").get("N").asLong());
+
+        // SQS delivers at least once, a repeated batch must not be counted again
+        List<String> events = harness.getConnect().getContactEvents();
+        events.addAll(new ArrayList<>(events));
+        assertEquals(0, harness.deliverContactEvents(100));
+        assertEquals(CONTACTS, harness.campaignProgress("outreach-1").get("completed").get("N").asInt());
+    }
+
+    @Test
+    public void contactEventsOfAFailedCounterUpdateAreCountedWhenDeliveredAgain() {
+        CampaignHarness harness = new CampaignHarness(30)
+                .outreach(10, "EXPRESS")
+                .pacing(new PacingConfig(10, 1000, 30));
+        harness.seedContacts(CONTACTS);
+        harness.runOutreach();
+        // The outcomes of these batches are recorded, their counters are not
+        harness.getDynamoDb().failTransactions(3);
+        assertEquals(0, harness.deliverContactEvents(100));
+
+        ObjectNode progress = harness.campaignProgress("outreach-1");
+        assertEquals(CONTACTS, progress.get("completed").get("N").asInt());
+        Map<String, Integer> outcomes = new HashMap<>();
+        for (ObjectNode attempt : harness.dialAttempts()) {
+            assertTrue(attempt.get("counted").get("BOOL").asBoolean());
+            outcomes.merge(attempt.get("outcome").get("S").asText(), 1, Integer::sum);
+        }
+        for (String outcome : List.of("ANSWERED", "VOICEMAIL", "UNANSWERED", "FAILED")) {
+            assertEquals((int) outcomes.getOrDefault(outcome, 0), progress.path(outcome.toLowerCase()).path("N").asInt(), outcome);
+        }
+    }
+
+    @Test
+    public void dialAttemptsKeepTheStartOutboundVoiceContactLatency() {
+        CampaignHarness harness = new CampaignHarness(16)
+                .outreach(10, "EXPRESS")
+                .pacing(new PacingConfig(10, 1000, 30));
+        harness.seedContacts(CONTACTS / 10);
+        harness.runOutreach();
+
+        assertEquals(CONTACTS / 10, harness.dialAttempts().size());
+        for (ObjectNode attempt : harness.dialAttempts()) {
+            long latency = new DialAttempt(attempt.get("campaignExecutionId").get("S").asText(), attempt.get("phoneNumber").get("S").asText(),
+                    attempt.get("topExecutionId").get("S").asText(), DialAttempt.instant(attempt.get("dialedAt").get("S").asText()),
+                    DialAttempt.instant(attempt.get("attemptedAt").get("S").asText())).getDialLatencyMillis();
+            // The simulated StartOutboundVoiceContact request takes 50 ms
+            assertTrue(latency >= 50 && latency < 1000, "latency " + latency);
+        }
+    }
+
+    @Test
+    public void failedOutreachChildrenAreCountedWithoutFailingTheOutreach() {
+        CampaignHarness harness = new CampaignHarness(17).outreach(10, "EXPRESS");
+        harness.seedContacts(CONTACTS);
+        harness.getLambda().failFunction(CampaignHarness.SUPPRESSION_FILTER_FUNCTION, "Lambda.Unknown");
+        harness.runOutreach();
+
+        assertEquals(0, harness.dialAttempts().size());
+        assertTrue(harness.mapChildFailures("Outreach") > 0);
+        assertEquals(0, harness.mapChildFailures("Intake"));
+    }
+
+    @Test
+    public void contactsFailingTransientlyAreDialedAgainInARedialPass() {
+        CampaignHarness harness = new CampaignHarness(18)
+                .outreach(10, "EXPRESS")
+                .pacing(new PacingConfig(10, 1000, 30))
+                .redial(1, 60);
+        harness.seedContacts(CONTACTS / 10);
+        // Outlasts the retries of StartOutboundVoiceContact, the first pass records them for the redial
+        for (int i = 0; i < 5; i++) {
+            harness.getConnect().failDestination(CampaignHarness.phoneNumber(i), 4);
+        }
+        harness.getConnect().failDestination(CampaignHarness.phoneNumber(5), 2);
+        harness.runOutreach();
+
+        assertEquals(CONTACTS / 10, harness.getConnect().getDialsByDestination().size());
+        for (Map.Entry<String, Integer> dials : harness.getConnect().getDialsByDestination().entrySet()) {
+            assertEquals(1, dials.getValue(), dials.getKey() + " was dialed more than once");
+        }
+        // Every pass runs its own Map children, a redialed contact keeps its failed attempt next to the dialed one
+        Set<String> dialed = new HashSet<>();
+        Set<String> redialed = new HashSet<>();
+        for (ObjectNode attempt : harness.dialAttempts()) {
+            String phoneNumber = attempt.get("phoneNumber").get("S").asText();
+            if ("DIALED".equals(attempt.get("attemptStatus").get("S").asText())) {
+                assertTrue(dialed.add(phoneNumber), phoneNumber + " has two dialed attempts");
+            } else {
+                assertEquals("outreach-1#1", attempt.get("redialKey").get("S").asText());
+                assertEquals("Connect.InternalServiceException", attempt.get("attemptError").get("S").asText());
+                redialed.add(phoneNumber);
+            }
+        }
+        assertEquals(CONTACTS / 10, dialed.size());
+        assertEquals(5, redialed.size());
+        assertFalse(redialed.contains(CampaignHarness.phoneNumber(5)), "the retries recover a short failure");
+        assertEquals("5", harness.redialContacts("outreach-1#1").get("contacts").get("N").asText());
+    }
+
+    @Test
+    public void outreachWithoutFailedDialsSkipsTheRedialWait() {
+        CampaignHarness harness = new CampaignHarness(32)
+                .outreach(10, "EXPRESS")
+                .pacing(new PacingConfig(10, 1000, 30))
+                .redial(1, 300);
+        harness.seedContacts(CONTACTS / 10);
+        long millis = harness.runOutreach();
+
+        assertEquals(CONTACTS / 10, harness.getMetrics().getDials());
+        assertNull(harness.redialContacts("outreach-1#1"));
+        assertTrue(millis < 300_000, "the execution waited for a redial pass with nothing to dial, took " + millis + " ms");
+        assertTrue(harness.campaignProgress("outreach-1").has("finishedAt"));
+    }
+
+    @Test
+    public void failedContactsThatCannotBeRecordedDoNotFailTheirPage() {
+        CampaignHarness harness = new CampaignHarness(33)
+                .outreach(10, "EXPRESS")
+                .pacing(new PacingConfig(10, 1000, 30))
+                .redial(1, 60);
+        harness.seedContacts(CONTACTS / 10);
+        harness.getConnect().failDestination(CampaignHarness.phoneNumber(0), 4);
+        harness.getDynamoDb().rejectUpdates(CampaignHarness.EXECUTION_TABLE, "phoneNumber", CampaignHarness.phoneNumber(0));
+        harness.runOutreach();
+
+        assertEquals(0, harness.mapChildFailures("Outreach"));
+        assertEquals(1, harness.getCloudWatch().sum(EmbeddedMetrics.NAMESPACE, "UnrecordedDialAttempts"));
+        // The rest of its page is dialed, and no redial pass is left for the contact that was not recorded
+        assertEquals(CONTACTS / 10 - 1, harness.dialAttempts().size());
+        for (ObjectNode attempt : harness.dialAttempts()) {
+            assertEquals("DIALED", attempt.get("attemptStatus").get("S").asText());
+        }
+        assertNull(harness.redialContacts("outreach-1#1"));
+    }
+
+    @Test
+    public void retriedDialsAfterALostResponseDoNotCallTheContactTwice() {
+        CampaignHarness harness = new CampaignHarness(31)
+                .outreach(10, "EXPRESS")
+                .pacing(new PacingConfig(10, 1000, 30));
+        harness.seedContacts(CONTACTS / 10);
+        for (int i = 0; i < 5; i++) {
+            harness.getConnect().loseResponses(CampaignHarness.phoneNumber(i), 1);
+        }
+        harness.runOutreach();
+
+        assertEquals(CONTACTS / 10, harness.getMetrics().getDials());
+        assertEquals(CONTACTS / 10, harness.getConnect().getContactEvents().size());
+        for (ObjectNode attempt : harness.dialAttempts()) {
+            assertEquals("DIALED", attempt.get("attemptStatus").get("S").asText());
+        }
+    }
+
+    @Test
+    public void contactsThrottledOverAndOverAreLeftToTheRedialPass() {
+        CampaignHarness harness = new CampaignHarness(28)
+                .outreach(10, "EXPRESS")
+                .pacing(new PacingConfig(10, 1000, 30))
+                .redial(1, 60);
+        harness.seedContacts(CONTACTS / 10);
+        // Throttled on every lap of the first pass, dialed by the redial pass
+        harness.getConnect().throttleDestination(CampaignHarness.phoneNumber(0), 10);
+        harness.runOutreach();
+
+        assertEquals(CONTACTS / 10, harness.getConnect().getDialsByDestination().size());
+        assertEquals(1, harness.getConnect().getDialsByDestination().get(CampaignHarness.phoneNumber(0)));
+        boolean redialed = false;
+        for (ObjectNode attempt : harness.dialAttempts()) {
+            if (!"DIALED".equals(attempt.get("attemptStatus").get("S").asText())) {
+                assertEquals(CampaignHarness.phoneNumber(0), attempt.get("phoneNumber").get("S").asText());
+                assertEquals("outreach-1#1", attempt.get("redialKey").get("S").asText());
+                assertEquals("Connect.LimitExceededException", attempt.get("attemptError").get("S").asText());
+                redialed = true;
+            }
+        }
+        assertTrue(redialed);
+    }
+
+    @Test
+    public void dialAttemptsAreRecordedWhenTheExecutionTableThrottles() {
+        CampaignHarness harness = new CampaignHarness(19)
+                .outreach(10, "EXPRESS")
+                .pacing(new PacingConfig(10, 1000, 30));
+        harness.seedContacts(CONTACTS / 5);
+        harness.getDynamoDb().setWriteCapacity(CampaignHarness.EXECUTION_TABLE, 3);
+        harness.runOutreach();
+
+        assertEquals(CONTACTS / 5, harness.getMetrics().getDials());
+        assertEquals(CONTACTS / 5, harness.dialAttempts().size());
+        assertEquals(0, harness.mapChildFailures("Outreach"));
+    }
+
+    @Test
+    public void concurrentCampaignsShareTheDialRateByWeight() {
+        CampaignHarness harness = new CampaignHarness(20)
+                .query(4, 25)
+                .outreach(20, "EXPRESS")
+                .pacing(new PacingConfig(3, 100, 30));
+        harness.registerCampaign("urgent", 3);
+        harness.registerCampaign("routine", 1);
+        harness.seedContacts("urgent", 0, 300);
+        harness.seedContacts("routine", 1000, 300);
+        harness.runOutreaches(List.of((ObjectNode) AslInterpreter.parse("{\"campaignId\":\"urgent\"}"),
+                (ObjectNode) AslInterpreter.parse("{\"campaignId\":\"routine\"}")));
+
+        assertEquals(600, harness.getConnect().getDialsByDestination().size());
+        assertEquals(0, harness.getMetrics().getThrottledDials());
+        // While both campaigns dial, the urgent one gets three slots for every routine one
+        long urgentDone = 0;
+        for (int i = 0; i < 300; i++) {
+            urgentDone = Math.max(urgentDone, harness.getConnect().getLastDialAtByDestination().get(CampaignHarness.phoneNumber(i)));
+        }
+        int routineDials = 0;
+        for (int i = 1000; i < 1300; i++) {
+            if (harness.getConnect().getLastDialAtByDestination().get(CampaignHarness.phoneNumber(i)) <= urgentDone) {
+                routineDials++;
+            }
+        }
+        assertEquals(3, 300.0 / routineDials, 0.5);
+        // The routine campaign gets the whole rate once the urgent one is done
+        assertTrue(routineDials < 300);
+    }
+
+    @Test
+    public void pausedCampaignsStopDialingAndFinishAfterTheyResume() {
+        CampaignHarness harness = new CampaignHarness(21)
+                .query(4, 25)
+                .outreach(10, "EXPRESS")
+                .pacing(new PacingConfig(2, 1000, 30))
+                .redial(1, 30);
+        harness.seedContacts("spring", 0, 200);
+        harness.pauseCampaign("spring", 30_000, 120_000);
+        harness.runOutreach((ObjectNode) AslInterpreter.parse("{\"campaignId\":\"spring\"}"));
+
+        assertEquals(200, harness.getConnect().getDialsByDestination().size());
+        int paused = 0;
+        for (ObjectNode attempt : harness.dialAttempts()) {
+            if ("PAUSED".equals(attempt.get("attemptStatus").get("S").asText())) {
+                paused++;
+                assertEquals("outreach-1#1", attempt.get("redialKey").get("S").asText());
+            }
+        }
+        assertTrue(paused > 0);
+        // The registry is read every 5 seconds, slots already handed out are still dialed
+        for (long dialedAt : harness.getConnect().getLastDialAtByDestination().values()) {
+            assertFalse(dialedAt > 40_000 && dialedAt < 150_000, "dialed at " + dialedAt + " while paused");
+        }
+        assertEquals("ACTIVE", harness.campaign("spring").get("campaignStatus").get("S").asText());
+    }
+
+    @Test
+    public void contactEventsOfUnknownContactsAreDeliveredAgain() {
+        CampaignHarness harness = new CampaignHarness(15);
+        harness.getConnect().getContactEvents().add("\"contact-unknown|2024-01-01T00:00:00Z||2024-01-01T00:00:30Z|CUSTOMER_DISCONNECT|\"");
+        harness.getConnect().getContactEvents().add("not a contact event");
+
+        assertEquals(1, harness.deliverContactEvents(10));
+    }
+
+    @Test
+    public void finishedOutreachesAreArchivedToParquetBeforeTheirAttemptsExpire() {
+        CampaignHarness harness = new CampaignHarness(27)
+                .outreach(10, "EXPRESS")
+                .pacing(new PacingConfig(10, 1000, 30));
+        harness.seedContacts(CONTACTS / 10);
+        harness.runOutreach();
+        assertEquals(0, harness.deliverContactEvents(100));
+
+        ObjectNode progress = harness.campaignProgress("outreach-1");
+        assertEquals("PENDING", progress.get("archiveStatus").get("S").asText());
+        Instant finishedAt = Instant.parse(progress.get("finishedAt").get("S").asText());
+        assertEquals(CONTACTS / 10, harness.dialAttempts().size());
+        for (ObjectNode attempt : harness.dialAttempts()) {
+            // Set when the wave of the attempt was released
+            Instant expiresAt = Instant.ofEpochSecond(attempt.get("expiresAt").get("N").asLong());
+            Instant attemptedAt = Instant.parse(attempt.get("attemptedAt").get("S").asText());
+            assertFalse(expiresAt.isAfter(attemptedAt.plus(Duration.ofDays(30))), "expires at " + expiresAt);
+            assertTrue(expiresAt.isAfter(attemptedAt.plus(Duration.ofDays(30)).minus(Duration.ofMinutes(15))), "expires at " + expiresAt);
+        }
+
+        // Contact events of the last attempts still arrive after the execution finished
+        ExecutionArchiver archiver = harness.archiveExecutions(finishedAt.plus(Duration.ofMinutes(30)).toString());
+        assertEquals(1, archiver.getRunning());
+        assertTrue(harness.archiveKeys("archive/").isEmpty());
+
+        archiver = harness.archiveExecutions(finishedAt.plus(Duration.ofHours(2)).toString());
+        assertEquals(1, archiver.getArchived());
+        assertEquals(CONTACTS / 10, archiver.getAttempts());
+        String partition = "campaign=contact_example_import/dt=2024-01-01/outreach-1.parquet";
+        assertEquals(List.of("archive/attempts/" + partition), harness.archiveKeys("archive/attempts/"));
+        assertEquals(List.of("archive/campaigns/" + partition), harness.archiveKeys("archive/campaigns/"));
+        byte[] parquet = harness.archiveObject("archive/attempts/" + partition);
+        assertEquals("PAR1", new String(parquet, 0, 4, StandardCharsets.US_ASCII));
+        assertEquals("PAR1", new String(parquet, parquet.length - 4, 4, StandardCharsets.US_ASCII));
+
+        progress = harness.campaignProgress("outreach-1");
+        assertNull(progress.get("archiveStatus"));
+        assertEquals(CONTACTS / 10, progress.get("archivedAttempts").get("N").asInt());
+        assertTrue(progress.has("expiresAt"));
+        assertEquals(0, harness.archiveExecutions(finishedAt.plus(Duration.ofDays(1)).toString()).getArchived());
+    }
+
+    @Test
+    public void unfinishedOutreachesAreArchivedBeforeTheirFirstAttemptsExpire() {
+        CampaignHarness harness = new CampaignHarness(28)
+                .outreach(10, "EXPRESS")
+                .pacing(new PacingConfig(10, 1000, 30))
+                .retention(10);
+        harness.seedContacts(CONTACTS / 10);
+        harness.runOutreach();
+
+        // A failed or stopped execution never records finishedAt
+        ObjectNode progress = harness.campaignProgress("outreach-1");
+        progress.remove("finishedAt");
+        Instant startedAt = Instant.parse(progress.get("startedAt").get("S").asText());
+        assertEquals(1, harness.archiveExecutions(startedAt.plus(Duration.ofDays(7)).toString()).getRunning());
+
+        Instant archivedAt = startedAt.plus(Duration.ofDays(8));
+        ExecutionArchiver archiver = harness.archiveExecutions(archivedAt.toString());
+        assertEquals(1, archiver.getExpired());
+        assertEquals(CONTACTS / 10, archiver.getAttempts());
+        for (ObjectNode attempt : harness.dialAttempts()) {
+            assertTrue(attempt.get("expiresAt").get("N").asLong() > archivedAt.getEpochSecond());
+        }
+        assertEquals(1, harness.archiveKeys("archive/campaigns/campaign=contact_example_import/").size());
+    }
+}
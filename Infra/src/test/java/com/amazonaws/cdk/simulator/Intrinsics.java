@@ -0,0 +1,263 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ */
+
+package com.amazonaws.cdk.simulator;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Amazon States Language intrinsic functions used by the campaign state machines.
+ */
+public class Intrinsics {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final JsonNodeFactory JSON = JsonNodeFactory.instance;
+
+    private final Random random;
+
+    public Intrinsics(Random random) {
+        this.random = random;
+    }
+
+    public static boolean isIntrinsic(String expression) {
+        return expression.startsWith("States.");
+    }
+
+    public JsonNode evaluate(String expression, JsonNode input, JsonNode context) {
+        Parser parser = new Parser(expression, input, context);
+        JsonNode value = parser.call();
+        parser.skipSpaces();
+        if (parser.position != expression.length()) {
+            throw new StatesError("States.Runtime", "Unexpected characters in intrinsic function " + expression);
+        }
+        return value;
+    }
+
+    private JsonNode apply(String function, List<JsonNode> args) {
+        switch (function) {
+            case "States.Format":
+                return format(args);
+            case "States.StringToJson":
+                try {
+                    return MAPPER.readTree(args.get(0).asText());
+                } catch (JsonProcessingException e) {
+                    throw new StatesError("States.Runtime", "Invalid JSON string " + args.get(0).asText());
+                }
+            case "States.JsonToString":
+                return JSON.textNode(args.get(0).toString());
+            case "States.Array": {
+                ArrayNode array = JSON.arrayNode();
+                args.forEach(array::add);
+                return array;
+            }
+            case "States.ArrayRange": {
+                ArrayNode array = JSON.arrayNode();
+                long start = args.get(0).asLong();
+                long end = args.get(1).asLong();
+                long step = args.get(2).asLong();
+                for (long value = start; step > 0 ? value <= end : value >= end; value += step) {
+                    array.add(value);
+                }
+                return array;
+            }
+            case "States.ArrayGetItem":
+                return args.get(0).get(args.get(1).asInt());
+            case "States.ArrayLength":
+                return JSON.numberNode(args.get(0).size());
+            case "States.ArrayContains": {
+                for (JsonNode item : args.get(0)) {
+                    if (item.equals(args.get(1))) {
+                        return JSON.booleanNode(true);
+                    }
+                }
+                return JSON.booleanNode(false);
+            }
+            case "States.ArrayPartition": {
+                ArrayNode partitions = JSON.arrayNode();
+                int size = args.get(1).asInt();
+                ArrayNode partition = null;
+                for (JsonNode item : args.get(0)) {
+                    if (partition == null || partition.size() == size) {
+                        partition = partitions.addArray();
+                    }
+                    partition.add(item);
+                }
+                return partitions;
+            }
+            case "States.MathAdd":
+                return JSON.numberNode(args.get(0).asLong() + args.get(1).asLong());
+            case "States.MathRandom": {
+                int start = args.get(0).asInt();
+                int end = args.get(1).asInt();
+                return JSON.numberNode(start + random.nextInt(Math.max(1, end - start)));
+            }
+            case "States.StringSplit": {
+                ArrayNode array = JSON.arrayNode();
+                String text = args.get(0).asText();
+                String delimiters = args.get(1).asText();
+                StringBuilder token = new StringBuilder();
+                for (char c : text.toCharArray()) {
+                    if (delimiters.indexOf(c) >= 0) {
+                        if (token.length() > 0) {
+                            array.add(token.toString());
+                        }
+                        token.setLength(0);
+                    } else {
+                        token.append(c);
+                    }
+                }
+                if (token.length() > 0) {
+                    array.add(token.toString());
+                }
+                return array;
+            }
+            case "States.Hash":
+                return hash(args.get(0).asText(), args.get(1).asText());
+            case "States.UUID":
+                return JSON.textNode(new UUID(random.nextLong(), random.nextLong()).toString());
+            default:
+                throw new StatesError("States.Runtime", "Unsupported intrinsic function " + function);
+        }
+    }
+
+    // Hex digest with the algorithm names of Step Functions, e.g. SHA-256.
+    private static JsonNode hash(String data, String algorithm) {
+        try {
+            StringBuilder hex = new StringBuilder();
+            for (byte b : MessageDigest.getInstance(algorithm).digest(data.getBytes(StandardCharsets.UTF_8))) {
+                hex.append(String.format("%02x", b));
+            }
+            return JSON.textNode(hex.toString());
+        } catch (NoSuchAlgorithmException e) {
+            throw new StatesError("States.Runtime", "Unsupported hash algorithm " + algorithm);
+        }
+    }
+
+    private static JsonNode format(List<JsonNode> args) {
+        String template = args.get(0).asText();
+        StringBuilder result = new StringBuilder();
+        int argument = 1;
+        for (int i = 0; i < template.length(); i++) {
+            char c = template.charAt(i);
+            if (c == '\\' && i + 1 < template.length()) {
+                result.append(template.charAt(++i));
+            } else if (c == '{' && i + 1 < template.length() && template.charAt(i + 1) == '}') {
+                JsonNode value = args.get(argument++);
+                result.append(value.isValueNode() ? value.asText() : value.toString());
+                i++;
+            } else {
+                result.append(c);
+            }
+        }
+        return JSON.textNode(result.toString());
+    }
+
+    private class Parser {
+        private final String text;
+        private final JsonNode input;
+        private final JsonNode context;
+        private int position;
+
+        Parser(String text, JsonNode input, JsonNode context) {
+            this.text = text;
+            this.input = input;
+            this.context = context;
+        }
+
+        JsonNode call() {
+            int open = text.indexOf('(', position);
+            String function = text.substring(position, open).trim();
+            position = open + 1;
+            List<JsonNode> args = new ArrayList<>();
+            skipSpaces();
+            if (text.charAt(position) == ')') {
+                position++;
+                return apply(function, args);
+            }
+            while (true) {
+                args.add(argument());
+                skipSpaces();
+                char c = text.charAt(position++);
+                if (c == ')') {
+                    return apply(function, args);
+                }
+                if (c != ',') {
+                    throw new StatesError("States.Runtime", "Invalid intrinsic function " + text);
+                }
+            }
+        }
+
+        JsonNode argument() {
+            skipSpaces();
+            char c = text.charAt(position);
+            if (c == '\'') {
+                StringBuilder value = new StringBuilder();
+                position++;
+                while (text.charAt(position) != '\'') {
+                    if (text.charAt(position) == '\\') {
+                        // Keep escapes, States.Format resolves them
+                        value.append(text.charAt(position++));
+                    }
+                    value.append(text.charAt(position++));
+                }
+                position++;
+                return JSON.textNode(value.toString());
+            }
+            if (text.startsWith("States.", position)) {
+                return call();
+            }
+            int start = position;
+            int brackets = 0;
+            boolean quoted = false;
+            while (position < text.length()) {
+                char current = text.charAt(position);
+                if (current == '\'') {
+                    quoted = !quoted;
+                } else if (!quoted && current == '[') {
+                    brackets++;
+                } else if (!quoted && current == ']') {
+                    brackets--;
+                } else if (!quoted && brackets == 0 && (current == ',' || current == ')')) {
+                    break;
+                }
+                position++;
+            }
+            String token = text.substring(start, position).trim();
+            if (token.startsWith("$$")) {
+                return JsonPath.readRequired(context, token.substring(1));
+            }
+            if (token.startsWith("$")) {
+                return JsonPath.readRequired(input, token);
+            }
+            if ("null".equals(token)) {
+                return JSON.nullNode();
+            }
+            if ("true".equals(token) || "false".equals(token)) {
+                return JSON.booleanNode(Boolean.parseBoolean(token));
+            }
+            if (token.contains(".")) {
+                return JSON.numberNode(Double.parseDouble(token));
+            }
+            return JSON.numberNode(Long.parseLong(token));
+        }
+
+        void skipSpaces() {
+            while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+                position++;
+            }
+        }
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ */
+
+package com.amazonaws.cdk.simulator;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The subset of JSONPath used by Amazon States Language: $, $.field, $['field'], $.array[0] and
+ * any combination of them, and the $.array[*] wildcard, which reads the rest of the path from every
+ * element and returns the values found as an array.
+ */
+public final class JsonPath {
+    private static final Object WILDCARD = new Object();
+
+    private JsonPath() {
+    }
+
+    // Returns null when the path does not exist in the document.
+    public static JsonNode read(JsonNode document, String path) {
+        return read(document, parse(path));
+    }
+
+    private static JsonNode read(JsonNode document, List<Object> segments) {
+        JsonNode node = document;
+        for (int i = 0; i < segments.size(); i++) {
+            Object segment = segments.get(i);
+            if (node == null) {
+                return null;
+            }
+            if (segment == WILDCARD) {
+                if (!node.isArray()) {
+                    return null;
+                }
+                ArrayNode values = JsonNodeFactory.instance.arrayNode();
+                for (JsonNode element : node) {
+                    JsonNode value = read(element, segments.subList(i + 1, segments.size()));
+                    if (value != null) {
+                        values.add(value);
+                    }
+                }
+                return values;
+            }
+            if (segment instanceof Integer) {
+                node = node.isArray() ? node.get((Integer) segment) : null;
+            } else {
+                node = node.isObject() ? node.get((String) segment) : null;
+            }
+        }
+        return node;
+    }
+
+    public static JsonNode readRequired(JsonNode document, String path) {
+        JsonNode node = read(document, path);
+        if (node == null) {
+            throw new StatesError("States.Runtime", "The JSONPath '" + path + "' could not be found in the input");
+        }
+        return node;
+    }
+
+    // Returns a copy of the document with the value placed at the path, creating missing objects on the way.
+    public static JsonNode write(JsonNode document, String path, JsonNode value) {
+        List<Object> segments = parse(path);
+        if (segments.isEmpty()) {
+            return value;
+        }
+        JsonNode root = document != null && document.isObject() ? document.deepCopy() : JsonNodeFactory.instance.objectNode();
+        JsonNode node = root;
+        for (int i = 0; i < segments.size() - 1; i++) {
+            String field = String.valueOf(segments.get(i));
+            JsonNode child = node.get(field);
+            if (child == null || !child.isObject()) {
+                child = ((ObjectNode) node).putObject(field);
+            }
+            node = child;
+        }
+        Object last = segments.get(segments.size() - 1);
+        if (last instanceof Integer && node.isArray()) {
+            ((ArrayNode) node).set((Integer) last, value);
+        } else {
+            ((ObjectNode) node).set(String.valueOf(last), value);
+        }
+        return root;
+    }
+
+    private static List<Object> parse(String path) {
+        if (!path.startsWith("$")) {
+            throw new StatesError("States.Runtime", "Invalid JSONPath " + path);
+        }
+        List<Object> segments = new ArrayList<>();
+        int i = 1;
+        while (i < path.length()) {
+            char c = path.charAt(i);
+            if (c == '.') {
+                int end = i + 1;
+                while (end < path.length() && path.charAt(end) != '.' && path.charAt(end) != '[') {
+                    end++;
+                }
+                segments.add(path.substring(i + 1, end));
+                i = end;
+            } else if (c == '[') {
+                int end = path.indexOf(']', i);
+                String inner = path.substring(i + 1, end);
+                if (inner.startsWith("'") || inner.startsWith("\"")) {
+                    segments.add(inner.substring(1, inner.length() - 1));
+                } else if ("*".equals(inner)) {
+                    segments.add(WILDCARD);
+                } else {
+                    segments.add(Integer.parseInt(inner));
+                }
+                i = end + 1;
+            } else {
+                throw new StatesError("States.Runtime", "Invalid JSONPath " + path);
+            }
+        }
+        return segments;
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ */
+
+package com.amazonaws.cdk.simulator;
+
+/**
+ * Billable usage recorded during a simulation and the cost it models, using us-east-1 on-demand prices.
+ */
+public class Metrics {
+    private static final double STANDARD_TRANSITION = 0.000025;
+    private static final double EXPRESS_REQUEST = 0.000001;
+    private static final double EXPRESS_64MB_SECOND = 0.00001667 / 16;
+    private static final double LAMBDA_REQUEST = 0.0000002;
+    private static final double LAMBDA_GB_SECOND = 0.0000166667;
+    private static final double DYNAMODB_WRITE_UNIT = 0.00000125;
+    private static final double DYNAMODB_READ_UNIT = 0.00000025;
+    private static final double S3_PUT_LIST_REQUEST = 0.000005;
+    private static final double S3_GET_REQUEST = 0.0000004;
+
+    long standardExecutions;
+    long standardTransitions;
+    long expressExecutions;
+    long expressBilledMillis;
+    long expressTransitions;
+    long timedOutExecutions;
+    long lambdaRequests;
+    double lambdaGbMillis;
+    double dynamoDbWriteUnits;
+    double dynamoDbReadUnits;
+    long s3PutListRequests;
+    long s3GetRequests;
+    long dials;
+    long throttledDials;
+
+    void executionFinished(String executionType, long durationMillis) {
+        if ("EXPRESS".equals(executionType)) {
+            expressExecutions++;
+            expressBilledMillis += (durationMillis + 99) / 100 * 100;
+        } else {
+            standardExecutions++;
+        }
+    }
+
+    void transition(String executionType) {
+        if ("EXPRESS".equals(executionType)) {
+            expressTransitions++;
+        } else {
+            standardTransitions++;
+        }
+    }
+
+    public double stepFunctionsCost() {
+        return standardTransitions * STANDARD_TRANSITION
+                + expressExecutions * EXPRESS_REQUEST
+                + expressBilledMillis / 1000.0 * EXPRESS_64MB_SECOND;
+    }
+
+    public double cost() {
+        return stepFunctionsCost()
+                + lambdaRequests * LAMBDA_REQUEST
+                + lambdaGbMillis / 1000.0 * LAMBDA_GB_SECOND
+                + dynamoDbWriteUnits * DYNAMODB_WRITE_UNIT
+                + dynamoDbReadUnits * DYNAMODB_READ_UNIT
+                + s3PutListRequests * S3_PUT_LIST_REQUEST
+                + s3GetRequests * S3_GET_REQUEST;
+    }
+
+    public long getStandardExecutions() {
+        return standardExecutions;
+    }
+
+    public long getStandardTransitions() {
+        return standardTransitions;
+    }
+
+    public long getExpressExecutions() {
+        return expressExecutions;
+    }
+
+    public long getExpressTransitions() {
+        return expressTransitions;
+    }
+
+    // Express executions stopped at the end of their five minutes.
+    public long getTimedOutExecutions() {
+        return timedOutExecutions;
+    }
+
+    public long getLambdaRequests() {
+        return lambdaRequests;
+    }
+
+    public double getDynamoDbWriteUnits() {
+        return dynamoDbWriteUnits;
+    }
+
+    public double getDynamoDbReadUnits() {
+        return dynamoDbReadUnits;
+    }
+
+    public long getDials() {
+        return dials;
+    }
+
+    public long getThrottledDials() {
+        return throttledDials;
+    }
+}
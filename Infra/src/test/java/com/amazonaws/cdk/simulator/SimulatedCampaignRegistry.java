@@ -0,0 +1,53 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ */
+
+package com.amazonaws.cdk.simulator;
+
+import com.amazonaws.lambda.pacing.Campaign;
+import com.amazonaws.lambda.pacing.CampaignRegistry;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The DynamoDbCampaignRegistry against the simulated campaigns table, same attributes. The table is
+ * read and written without request latency: the CampaignScheduler holds its lock across the calls,
+ * and a simulated process must not wait on the simulated clock while other processes block on it.
+ */
+public class SimulatedCampaignRegistry implements CampaignRegistry {
+    private final SimulatedDynamoDb dynamoDb;
+    private final String tableName;
+
+    public SimulatedCampaignRegistry(SimulatedDynamoDb dynamoDb, String tableName) {
+        this.dynamoDb = dynamoDb;
+        this.tableName = tableName;
+    }
+
+    @Override
+    public List<Campaign> load() {
+        List<Campaign> campaigns = new ArrayList<>();
+        for (ObjectNode item : dynamoDb.items(tableName)) {
+            campaigns.add(new Campaign(item.get("campaignId").get("S").asText(),
+                    item.path("weight").path("N").asDouble(Campaign.DEFAULT_WEIGHT),
+                    Campaign.PAUSED.equals(item.path("campaignStatus").path("S").asText()),
+                    item.path("lastDialAt").path("N").asLong(0)));
+        }
+        return campaigns;
+    }
+
+    @Override
+    public void dialing(String campaignId, long nowMillis) {
+        ObjectNode key = (ObjectNode) AslInterpreter.parse("{\"campaignId\":{\"S\":\"" + campaignId + "\"}}");
+        ObjectNode item = dynamoDb.item(tableName, key);
+        if (item == null) {
+            item = key;
+            item.putObject("weight").put("N", Double.toString(Campaign.DEFAULT_WEIGHT));
+            item.putObject("campaignStatus").put("S", Campaign.ACTIVE);
+        }
+        item.putObject("lastDialAt").put("N", Long.toString(nowMillis));
+        dynamoDb.write(tableName, item);
+    }
+}
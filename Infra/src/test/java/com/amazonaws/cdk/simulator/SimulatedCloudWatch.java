@@ -0,0 +1,56 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ */
+
+package com.amazonaws.cdk.simulator;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * CloudWatch behind the cloudwatch:putMetricData integration. Keeps the sum of the values put
+ * per namespace, metric name and dimensions.
+ */
+public class SimulatedCloudWatch {
+    private static final JsonNodeFactory JSON = JsonNodeFactory.instance;
+
+    private final Simulation simulation;
+    private final Map<String, Double> sums = new HashMap<>();
+    private long requestMillis = 20;
+
+    public SimulatedCloudWatch(Simulation simulation) {
+        this.simulation = simulation;
+    }
+
+    public void register(AslInterpreter interpreter) {
+        interpreter.register("arn:aws:states:::aws-sdk:cloudwatch:putMetricData", this::putMetricData);
+    }
+
+    // Sum of the values put, e.g. sum("AmazonConnectAgentlessCampaign", "MapChildFailures", "Process=Outreach").
+    public double sum(String namespace, String metricName, String... dimensions) {
+        return sums.getOrDefault(key(namespace, metricName, String.join(",", dimensions)), 0.0);
+    }
+
+    private JsonNode putMetricData(JsonNode parameters) {
+        simulation.sleep(requestMillis);
+        String namespace = parameters.get("Namespace").asText();
+        for (JsonNode datum : parameters.path("MetricData")) {
+            StringBuilder dimensions = new StringBuilder();
+            for (JsonNode dimension : datum.path("Dimensions")) {
+                dimensions.append(dimensions.length() > 0 ? "," : "")
+                        .append(dimension.get("Name").asText()).append('=').append(dimension.get("Value").asText());
+            }
+            sums.merge(key(namespace, datum.get("MetricName").asText(), dimensions.toString()),
+                    datum.path("Value").asDouble(), Double::sum);
+        }
+        return JSON.objectNode();
+    }
+
+    private static String key(String namespace, String metricName, String dimensions) {
+        return namespace + "/" + metricName + "/" + dimensions;
+    }
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ */
+
+package com.amazonaws.cdk.simulator;
+
+import com.amazonaws.lambda.outcome.ContactOutcome;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+/**
+ * Amazon Connect behind the connect:startOutboundVoiceContact integration. Enforces an API rate
+ * and a concurrent active calls quota, every call stays active for a fixed duration. Every call
+ * sends its DISCONNECTED contact event, in the record format of the stack's EventBridge rule.
+ */
+public class SimulatedConnect {
+    private static final JsonNodeFactory JSON = JsonNodeFactory.instance;
+
+    private final Simulation simulation;
+    private final Metrics metrics;
+    private final Random random;
+    private final PriorityQueue<Long> activeCallsEndAt = new PriorityQueue<>();
+    private final Map<String, Integer> dialsByDestination = new HashMap<>();
+    private final Map<String, Integer> dialsBySource = new HashMap<>();
+    private final Map<String, Long> lastDialAtByDestination = new HashMap<>();
+    private final Map<String, double[]> sourceTokens = new HashMap<>();
+    private final Map<String, Integer> failingDestinations = new HashMap<>();
+    private final Map<String, Integer> throttledDestinations = new HashMap<>();
+    private final Map<String, Integer> lostResponses = new HashMap<>();
+    private final Map<String, String> contactIdsByClientToken = new HashMap<>();
+    private final List<String> contactEvents = new ArrayList<>();
+    private double callsPerSecond = 5;
+    private double callsPerSecondPerSource = Double.POSITIVE_INFINITY;
+    private int maxConcurrentCalls = 100;
+    private long callMillis = 30000;
+    private long requestMillis = 50;
+    private double tokens = callsPerSecond;
+    private long refilledAt;
+    private long firstDialAt = -1;
+    private long lastDialAt;
+
+    public SimulatedConnect(Simulation simulation, Metrics metrics, Random random) {
+        this.simulation = simulation;
+        this.metrics = metrics;
+        this.random = random;
+    }
+
+    public void register(AslInterpreter interpreter) {
+        interpreter.register("arn:aws:states:::aws-sdk:connect:startOutboundVoiceContact", this::startOutboundVoiceContact);
+    }
+
+    // The StartOutboundVoiceContact rate quota, can be changed in the middle of a run.
+    public void setCallsPerSecond(double callsPerSecond) {
+        refill();
+        this.callsPerSecond = callsPerSecond;
+        this.tokens = Math.min(tokens, callsPerSecond);
+    }
+
+    // Rate allowed from any single source phone number, as carriers and spam filters enforce per caller ID.
+    public void setCallsPerSecondPerSource(double callsPerSecondPerSource) {
+        this.callsPerSecondPerSource = callsPerSecondPerSource;
+    }
+
+    public void setMaxConcurrentCalls(int maxConcurrentCalls) {
+        this.maxConcurrentCalls = maxConcurrentCalls;
+    }
+
+    public void setCallMillis(long callMillis) {
+        this.callMillis = callMillis;
+    }
+
+    // Fails the next requests to the destination with an internal error, as a transient Amazon Connect failure.
+    public void failDestination(String phoneNumber, int times) {
+        failingDestinations.put(phoneNumber, times);
+    }
+
+    // Places the next calls to the destination but fails their requests, as a response lost on the way back.
+    public void loseResponses(String phoneNumber, int times) {
+        lostResponses.put(phoneNumber, times);
+    }
+
+    // Throttles the next requests to the destination, as a carrier limiting calls to a single number.
+    public void throttleDestination(String phoneNumber, int times) {
+        throttledDestinations.put(phoneNumber, times);
+    }
+
+    public Map<String, Integer> getDialsByDestination() {
+        return dialsByDestination;
+    }
+
+    // Simulated time of the last successful dial of every destination.
+    public Map<String, Long> getLastDialAtByDestination() {
+        return lastDialAtByDestination;
+    }
+
+    public Map<String, Integer> getDialsBySource() {
+        return dialsBySource;
+    }
+
+    // SQS message bodies of the contact events sent so far, in dial order.
+    public List<String> getContactEvents() {
+        return contactEvents;
+    }
+
+    // Dials per second between the first and the last successful dial.
+    public double dialRate() {
+        long dials = metrics.dials;
+        return dials < 2 ? dials : (dials - 1) * 1000.0 / Math.max(1, lastDialAt - firstDialAt);
+    }
+
+    private JsonNode startOutboundVoiceContact(JsonNode parameters) {
+        simulation.sleep(requestMillis);
+        // A request repeating the ClientToken of a placed call gets that call back
+        String clientToken = parameters.path("ClientToken").asText(null);
+        if (clientToken != null && contactIdsByClientToken.containsKey(clientToken)) {
+            ObjectNode result = JSON.objectNode();
+            result.put("ContactId", contactIdsByClientToken.get(clientToken));
+            return result;
+        }
+        refill();
+        long now = simulation.now();
+        while (!activeCallsEndAt.isEmpty() && activeCallsEndAt.peek() <= now) {
+            activeCallsEndAt.poll();
+        }
+        if (tokens < 1) {
+            metrics.throttledDials++;
+            throw new StatesError("Connect.ThrottlingException", "Rate exceeded");
+        }
+        tokens -= 1;
+        if (!takeSourceToken(parameters.path("SourcePhoneNumber").asText(), now)) {
+            metrics.throttledDials++;
+            throw new StatesError("Connect.ThrottlingException", "Rate exceeded for the source phone number");
+        }
+        if (activeCallsEndAt.size() >= maxConcurrentCalls) {
+            metrics.throttledDials++;
+            throw new StatesError("Connect.LimitExceededException", "The allowed limit for the resource has been exceeded");
+        }
+
+        String destination = parameters.get("DestinationPhoneNumber").asText();
+        if (throttledDestinations.getOrDefault(destination, 0) > 0) {
+            throttledDestinations.merge(destination, -1, Integer::sum);
+            metrics.throttledDials++;
+            throw new StatesError("Connect.LimitExceededException", "The allowed limit for the destination has been exceeded");
+        }
+        if (failingDestinations.getOrDefault(destination, 0) > 0) {
+            failingDestinations.merge(destination, -1, Integer::sum);
+            throw new StatesError("Connect.InternalServiceException", "Request processing failed due to an error or failure with the service");
+        }
+
+        activeCallsEndAt.add(now + callMillis);
+        metrics.dials++;
+        if (firstDialAt < 0) {
+            firstDialAt = now;
+        }
+        lastDialAt = now;
+        dialsByDestination.merge(destination, 1, Integer::sum);
+        lastDialAtByDestination.put(destination, now);
+        dialsBySource.merge(parameters.path("SourcePhoneNumber").asText(), 1, Integer::sum);
+
+        String contactId = "contact-" + metrics.dials;
+        contactEvents.add("\"" + contactOutcome(contactId, now).toRecord() + "\"");
+        if (clientToken != null) {
+            contactIdsByClientToken.put(clientToken, contactId);
+        }
+        if (lostResponses.getOrDefault(destination, 0) > 0) {
+            lostResponses.merge(destination, -1, Integer::sum);
+            throw new StatesError("Connect.InternalServiceException", "Request processing failed due to an error or failure with the service");
+        }
+
+        ObjectNode result = JSON.objectNode();
+        result.put("ContactId", contactId);
+        return result;
+    }
+
+    // 55% answered by a person, 25% by voicemail, 15% not answered and 5% failed.
+    private ContactOutcome contactOutcome(String contactId, long now) {
+        double draw = random.nextDouble();
+        Instant initiated = Instant.parse(AslInterpreter.timestamp(now));
+        Instant connected = initiated.plusSeconds(5);
+        Instant disconnected = initiated.plusMillis(callMillis);
+        if (draw < 0.55) {
+            return new ContactOutcome(contactId, initiated, connected, disconnected, "CONTACT_FLOW_DISCONNECT", "HUMAN_ANSWERED");
+        }
+        if (draw < 0.80) {
+            return new ContactOutcome(contactId, initiated, connected, disconnected, "CONTACT_FLOW_DISCONNECT", "VOICEMAIL_BEEP");
+        }
+        if (draw < 0.95) {
+            return new ContactOutcome(contactId, initiated, null, disconnected, "CUSTOMER_DISCONNECT", null);
+        }
+        return new ContactOutcome(contactId, initiated, null, disconnected, "TELECOM_PROBLEM", null);
+    }
+
+    // Per source token bucket as {tokens, refilledAt}, holding one second of calls.
+    private boolean takeSourceToken(String source, long now) {
+        if (Double.isInfinite(callsPerSecondPerSource)) {
+            return true;
+        }
+        double capacity = Math.max(1, callsPerSecondPerSource);
+        double[] bucket = sourceTokens.computeIfAbsent(source, key -> new double[]{capacity, now});
+        bucket[0] = Math.min(capacity, bucket[0] + (now - bucket[1]) / 1000.0 * callsPerSecondPerSource);
+        bucket[1] = now;
+        if (bucket[0] < 1) {
+            return false;
+        }
+        bucket[0] -= 1;
+        return true;
+    }
+
+    private void refill() {
+        long now = simulation.now();
+        tokens = Math.min(callsPerSecond, tokens + (now - refilledAt) / 1000.0 * callsPerSecond);
+        refilledAt = now;
+    }
+}
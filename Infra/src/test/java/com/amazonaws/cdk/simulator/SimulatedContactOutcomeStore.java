@@ -0,0 +1,109 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ */
+
+package com.amazonaws.cdk.simulator;
+
+import com.amazonaws.lambda.outcome.CampaignCounters;
+import com.amazonaws.lambda.outcome.ContactOutcome;
+import com.amazonaws.lambda.outcome.ContactOutcomeStore;
+import com.amazonaws.lambda.outcome.DialAttempt;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The DynamoDbContactOutcomeStore against the simulated execution table, same expressions and keys.
+ */
+public class SimulatedContactOutcomeStore implements ContactOutcomeStore {
+    private static final JsonNodeFactory JSON = JsonNodeFactory.instance;
+
+    private final SimulatedDynamoDb dynamoDb;
+    private final String tableName;
+
+    public SimulatedContactOutcomeStore(SimulatedDynamoDb dynamoDb, String tableName) {
+        this.dynamoDb = dynamoDb;
+        this.tableName = tableName;
+    }
+
+    @Override
+    public DialAttempt find(String contactId) {
+        ObjectNode item = dynamoDb.queryIndex(tableName, "contactId", contactId);
+        if (item == null) {
+            return null;
+        }
+        return new DialAttempt(item.get("campaignExecutionId").get("S").asText(), item.get("phoneNumber").get("S").asText(),
+                item.path("topExecutionId").path("S").asText(item.get("campaignExecutionId").get("S").asText()),
+                DialAttempt.instant(item.path("dialedAt").path("S").asText(null)),
+                DialAttempt.instant(item.path("attemptedAt").path("S").asText(null)));
+    }
+
+    @Override
+    public boolean record(DialAttempt attempt, ContactOutcome outcome) {
+        List<String> set = new ArrayList<>(List.of("outcome = :outcome", "talkSeconds = :talkSeconds", "completedAt = :completedAt"));
+        ObjectNode update = key(attempt.getCampaignExecutionId(), attempt.getPhoneNumber());
+        ObjectNode values = update.putObject("ExpressionAttributeValues");
+        values.putObject(":contactId").put("S", outcome.getContactId());
+        values.putObject(":outcome").put("S", outcome.getDisposition().name());
+        values.putObject(":talkSeconds").put("N", Long.toString(outcome.getTalkSeconds()));
+        values.putObject(":completedAt").put("S", String.valueOf(outcome.getDisconnectedAt()));
+        if (outcome.getDisconnectReason() != null) {
+            set.add("disconnectReason = :disconnectReason");
+            values.putObject(":disconnectReason").put("S", outcome.getDisconnectReason());
+        }
+        if (outcome.getAmdStatus() != null) {
+            set.add("amdStatus = :amdStatus");
+            values.putObject(":amdStatus").put("S", outcome.getAmdStatus());
+        }
+        update.put("UpdateExpression", "SET " + String.join(", ", set));
+        update.put("ConditionExpression", "contactId = :contactId AND attribute_not_exists(counted)");
+
+        try {
+            dynamoDb.update(update);
+            return true;
+        } catch (StatesError e) {
+            if ("DynamoDb.ConditionalCheckFailedException".equals(e.getError())) {
+                return false;
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public void count(String topExecutionId, List<DialAttempt> attempts, CampaignCounters counters) {
+        if (counters.isEmpty()) {
+            return;
+        }
+        List<String> add = new ArrayList<>();
+        ObjectNode update = key(topExecutionId, CampaignCounters.SORT_KEY);
+        ObjectNode values = update.putObject("ExpressionAttributeValues");
+        for (Map.Entry<String, Long> counter : counters.toMap().entrySet()) {
+            add.add(counter.getKey() + " :" + counter.getKey());
+            values.putObject(":" + counter.getKey()).put("N", Long.toString(counter.getValue()));
+        }
+        values.putObject(":updatedAt").put("S", "now");
+        update.put("UpdateExpression", "SET updatedAt = :updatedAt ADD " + String.join(", ", add));
+        List<ObjectNode> updates = new ArrayList<>(List.of(update));
+        for (DialAttempt attempt : attempts) {
+            ObjectNode flag = key(attempt.getCampaignExecutionId(), attempt.getPhoneNumber());
+            flag.put("UpdateExpression", "SET counted = :counted");
+            flag.put("ConditionExpression", "attribute_exists(outcome) AND attribute_not_exists(counted)");
+            flag.putObject("ExpressionAttributeValues").putObject(":counted").put("BOOL", true);
+            updates.add(flag);
+        }
+        dynamoDb.transactUpdate(updates);
+    }
+
+    private ObjectNode key(String campaignExecutionId, String phoneNumber) {
+        ObjectNode update = JSON.objectNode();
+        update.put("TableName", tableName);
+        ObjectNode key = update.putObject("Key");
+        key.putObject("campaignExecutionId").put("S", campaignExecutionId);
+        key.putObject("phoneNumber").put("S", phoneNumber);
+        return update;
+    }
+}
@@ -0,0 +1,695 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ */
+
+package com.amazonaws.cdk.simulator;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * In-memory DynamoDB tables behind both the optimized (arn:aws:states:::dynamodb:*) and the
+ * SDK (arn:aws:states:::aws-sdk:dynamodb:*) integrations. Item sizes are approximated by their
+ * JSON length to account read and write units, and a table can be given a write capacity per
+ * second to exercise the throttling paths of the state machines.
+ */
+public class SimulatedDynamoDb {
+    private static final JsonNodeFactory JSON = JsonNodeFactory.instance;
+    private static final String OPTIMIZED = "arn:aws:states:::dynamodb:";
+    private static final String SDK = "arn:aws:states:::aws-sdk:dynamodb:";
+
+    private final Simulation simulation;
+    private final Metrics metrics;
+    private final Map<String, Table> tables = new HashMap<>();
+    private long requestMillis = 10;
+    private long indexLagMillis;
+    private int failingTransactions;
+    private final Map<String, Map<String, String>> rejectedUpdates = new HashMap<>();
+
+    public SimulatedDynamoDb(Simulation simulation, Metrics metrics) {
+        this.simulation = simulation;
+        this.metrics = metrics;
+    }
+
+    public void register(AslInterpreter interpreter) {
+        for (String prefix : List.of(OPTIMIZED, SDK)) {
+            String errors = OPTIMIZED.equals(prefix) ? "DynamoDB." : "DynamoDb.";
+            interpreter.register(prefix + "putItem", parameters -> call(errors, () -> putItem(parameters)));
+            interpreter.register(prefix + "getItem", parameters -> call(errors, () -> getItem(parameters)));
+            interpreter.register(prefix + "updateItem", parameters -> call(errors, () -> updateItem(parameters)));
+            interpreter.register(prefix + "deleteItem", parameters -> call(errors, () -> deleteItem(parameters)));
+        }
+        interpreter.register(SDK + "scan", parameters -> call("DynamoDb.", () -> scan(parameters)));
+        interpreter.register(SDK + "query", this::query);
+        interpreter.register(SDK + "batchWriteItem", parameters -> call("DynamoDb.", () -> batchWriteItem(parameters)));
+    }
+
+    public void createTable(String name, String partitionKey, String sortKey) {
+        tables.put(name, new Table(partitionKey, sortKey));
+    }
+
+    // Limits the table to the given write units per second, zero removes the limit.
+    public void setWriteCapacity(String table, double writeUnitsPerSecond) {
+        table(table).writeCapacity = writeUnitsPerSecond;
+        table(table).writeTokens = writeUnitsPerSecond;
+        table(table).refilledAt = simulation.now();
+    }
+
+    // Fails the next transactions with an internal error before they write anything.
+    public void failTransactions(int times) {
+        this.failingTransactions = times;
+    }
+
+    // Rejects every update of the items of the table whose attribute holds the value, as DynamoDB rejects an item
+    // grown past its size limit.
+    public void rejectUpdates(String table, String attribute, String value) {
+        rejectedUpdates.computeIfAbsent(table, name -> new HashMap<>()).put(attribute, value);
+    }
+
+    // Leaves the items written within the lag out of the global secondary index queries, as the indexes are eventually consistent.
+    public void setIndexLagMillis(long indexLagMillis) {
+        this.indexLagMillis = indexLagMillis;
+    }
+
+    public void setRequestMillis(long requestMillis) {
+        this.requestMillis = requestMillis;
+    }
+
+    // Writes an item without going through a state, used to seed the tables.
+    public void write(String table, ObjectNode item) {
+        Table target = table(table);
+        target.put(target.key(item), item, simulation.now());
+    }
+
+    public Collection<ObjectNode> items(String table) {
+        return table(table).items.values();
+    }
+
+    public ObjectNode item(String table, JsonNode key) {
+        Table target = table(table);
+        return target.items.get(target.key(key));
+    }
+
+    // The SDK query, also used by the simulated Lambda functions that read the tables themselves.
+    public JsonNode query(JsonNode parameters) {
+        return call("DynamoDb.", () -> queryItems(parameters));
+    }
+
+    // The SDK getItem, used by the simulated Lambda functions that read the tables themselves.
+    public JsonNode get(JsonNode parameters) {
+        return call("DynamoDb.", () -> getItem(parameters));
+    }
+
+    // The SDK updateItem, used by the simulated Lambda functions that write the tables themselves.
+    public JsonNode update(JsonNode parameters) {
+        return call("DynamoDb.", () -> updateItem(parameters));
+    }
+
+    // The SDK transactWriteItems of updates only, used by the simulated Lambda functions. Every condition
+    // is checked before any item is written, a failed one cancels the transaction.
+    public void transactUpdate(List<ObjectNode> updates) {
+        call("DynamoDb.", () -> {
+            if (failingTransactions > 0) {
+                failingTransactions--;
+                throw new ServiceException("InternalServerErrorException", "Internal server error");
+            }
+            for (JsonNode update : updates) {
+                Table table = table(update.get("TableName").asText());
+                try {
+                    checkCondition(update, table.items.get(table.key(update.get("Key"))));
+                } catch (ServiceException e) {
+                    throw new ServiceException("TransactionCanceledException", "Transaction cancelled, please refer cancellation reasons for specific reasons [ConditionalCheckFailed]");
+                }
+            }
+            for (JsonNode update : updates) {
+                updateItem(update);
+            }
+            return ok();
+        });
+    }
+
+    // Query of a global secondary index on a string attribute, returning the first item with the value or null.
+    public ObjectNode queryIndex(String table, String attribute, String value) {
+        return (ObjectNode) call("DynamoDb.", () -> {
+            for (ObjectNode item : table(table).indexed(simulation.now() - indexLagMillis)) {
+                if (value.equals(item.path(attribute).path("S").asText(null))) {
+                    metrics.dynamoDbReadUnits += readUnits(size(item), false);
+                    return item.deepCopy();
+                }
+            }
+            metrics.dynamoDbReadUnits += readUnits(0, false);
+            return null;
+        });
+    }
+
+    // Query of a sparse global secondary index on a string attribute, returning every item with the value.
+    public List<ObjectNode> queryIndexItems(String table, String attribute, String value) {
+        List<ObjectNode> items = new ArrayList<>();
+        call("DynamoDb.", () -> {
+            long readBytes = 0;
+            for (ObjectNode item : table(table).indexed(simulation.now() - indexLagMillis)) {
+                if (value.equals(item.path(attribute).path("S").asText(null))) {
+                    readBytes += size(item);
+                    items.add(item.deepCopy());
+                }
+            }
+            metrics.dynamoDbReadUnits += readUnits(readBytes, false);
+            return null;
+        });
+        return items;
+    }
+
+    private JsonNode call(String errorPrefix, Operation operation) {
+        simulation.sleep(requestMillis);
+        try {
+            return operation.run();
+        } catch (ServiceException e) {
+            throw new StatesError(errorPrefix + e.getMessage(), e.cause);
+        }
+    }
+
+    private JsonNode putItem(JsonNode parameters) {
+        Table table = table(parameters.get("TableName").asText());
+        ObjectNode item = parameters.get("Item").deepCopy();
+        String key = table.key(item);
+        checkCondition(parameters, table.items.get(key));
+        consumeWrite(table, item);
+        table.put(key, item, simulation.now());
+        return ok();
+    }
+
+    private JsonNode getItem(JsonNode parameters) {
+        Table table = table(parameters.get("TableName").asText());
+        ObjectNode item = table.items.get(table.key(parameters.get("Key")));
+        metrics.dynamoDbReadUnits += readUnits(item == null ? 0 : size(item), parameters.path("ConsistentRead").asBoolean());
+        ObjectNode result = ok();
+        if (item != null) {
+            result.set("Item", item.deepCopy());
+        }
+        return result;
+    }
+
+    private JsonNode deleteItem(JsonNode parameters) {
+        Table table = table(parameters.get("TableName").asText());
+        String key = table.key(parameters.get("Key"));
+        ObjectNode existing = table.items.get(key);
+        checkCondition(parameters, existing);
+        consumeWrite(table, existing == null ? parameters.get("Key") : existing);
+        table.items.remove(key);
+        return ok();
+    }
+
+    private JsonNode updateItem(JsonNode parameters) {
+        String tableName = parameters.get("TableName").asText();
+        Table table = table(tableName);
+        JsonNode key = parameters.get("Key");
+        String id = table.key(key);
+        ObjectNode existing = table.items.get(id);
+        checkCondition(parameters, existing);
+
+        ObjectNode item = existing == null ? key.deepCopy() : existing.deepCopy();
+        UpdateExpression.apply(parameters.get("UpdateExpression").asText(), item,
+                parameters.path("ExpressionAttributeNames"), parameters.path("ExpressionAttributeValues"));
+        for (Map.Entry<String, String> rejected : rejectedUpdates.getOrDefault(tableName, Map.of()).entrySet()) {
+            if (rejected.getValue().equals(item.path(rejected.getKey()).path("S").asText(null))) {
+                throw new ServiceException("ValidationException", "Item size has exceeded the maximum allowed size");
+            }
+        }
+        consumeWrite(table, existing == null || size(existing) < size(item) ? item : existing);
+        table.put(id, item, simulation.now());
+
+        ObjectNode result = ok();
+        String returnValues = parameters.path("ReturnValues").asText("NONE");
+        if ("ALL_NEW".equals(returnValues) || "UPDATED_NEW".equals(returnValues)) {
+            result.set("Attributes", item.deepCopy());
+        } else if (("ALL_OLD".equals(returnValues) || "UPDATED_OLD".equals(returnValues)) && existing != null) {
+            result.set("Attributes", existing.deepCopy());
+        }
+        return result;
+    }
+
+    private JsonNode scan(JsonNode parameters) {
+        Table table = table(parameters.get("TableName").asText());
+        int segment = parameters.path("Segment").asInt(0);
+        int totalSegments = parameters.path("TotalSegments").asInt(1);
+        int limit = parameters.path("Limit").asInt(Integer.MAX_VALUE);
+        String startAfter = parameters.has("ExclusiveStartKey") ? table.key(parameters.get("ExclusiveStartKey")) : null;
+
+        ArrayNode items = JSON.arrayNode();
+        ObjectNode last = null;
+        long scannedBytes = 0;
+        Map<String, ObjectNode> candidates = startAfter == null ? table.items : table.items.tailMap(startAfter, false);
+        for (ObjectNode item : candidates.values()) {
+            if (Math.floorMod(item.get(table.partitionKey).toString().hashCode(), totalSegments) != segment) {
+                continue;
+            }
+            if (items.size() == limit) {
+                break;
+            }
+            scannedBytes += size(item);
+            items.add(project(item, parameters.path("AttributesToGet")));
+            last = item;
+        }
+        metrics.dynamoDbReadUnits += readUnits(scannedBytes, parameters.path("ConsistentRead").asBoolean());
+
+        ObjectNode result = ok();
+        result.set("Items", items);
+        result.put("Count", items.size());
+        result.put("ScannedCount", items.size());
+        // DynamoDB stops at the Limit and hands back a key even when nothing is left behind it
+        if (last != null && items.size() == limit) {
+            result.set("LastEvaluatedKey", table.keyOf(last));
+        }
+        return result;
+    }
+
+    // Equality on the partition key only, the items of the partition come back in sort key order.
+    private JsonNode queryItems(JsonNode parameters) {
+        Table table = table(parameters.get("TableName").asText());
+        String[] condition = parameters.get("KeyConditionExpression").asText().split("=");
+        JsonNode names = parameters.path("ExpressionAttributeNames");
+        if (condition.length != 2 || !table.partitionKey.equals(name(condition[0].trim(), names))) {
+            throw new ServiceException("ValidationException", "Query condition missed key schema element: " + table.partitionKey);
+        }
+        JsonNode partition = parameters.path("ExpressionAttributeValues").get(condition[1].trim());
+        int limit = parameters.path("Limit").asInt(Integer.MAX_VALUE);
+        String prefix = partition + "|";
+        String startAfter = parameters.has("ExclusiveStartKey") ? table.key(parameters.get("ExclusiveStartKey")) : prefix;
+
+        ArrayNode items = JSON.arrayNode();
+        ObjectNode last = null;
+        long readBytes = 0;
+        for (Map.Entry<String, ObjectNode> entry : table.items.tailMap(startAfter, false).entrySet()) {
+            if (!entry.getKey().startsWith(prefix) || items.size() == limit) {
+                break;
+            }
+            readBytes += size(entry.getValue());
+            items.add(projectExpression(entry.getValue(), parameters.path("ProjectionExpression"), names));
+            last = entry.getValue();
+        }
+        metrics.dynamoDbReadUnits += readUnits(readBytes, parameters.path("ConsistentRead").asBoolean());
+
+        ObjectNode result = ok();
+        result.set("Items", items);
+        result.put("Count", items.size());
+        result.put("ScannedCount", items.size());
+        if (last != null && items.size() == limit) {
+            result.set("LastEvaluatedKey", table.keyOf(last));
+        }
+        return result;
+    }
+
+    private JsonNode batchWriteItem(JsonNode parameters) {
+        ObjectNode unprocessed = JSON.objectNode();
+        int requests = 0;
+        int rejected = 0;
+        Iterator<Map.Entry<String, JsonNode>> tableRequests = parameters.get("RequestItems").fields();
+        while (tableRequests.hasNext()) {
+            Map.Entry<String, JsonNode> entry = tableRequests.next();
+            Table table = table(entry.getKey());
+            if (entry.getValue().size() > 25) {
+                throw new ServiceException("ValidationException", "Too many items requested for the BatchWriteItem call");
+            }
+            for (JsonNode request : entry.getValue()) {
+                requests++;
+                JsonNode item = request.has("PutRequest") ? request.get("PutRequest").get("Item") : request.get("DeleteRequest").get("Key");
+                if (!tryConsumeWrite(table, item)) {
+                    rejected++;
+                    ArrayNode left = unprocessed.has(entry.getKey()) ? (ArrayNode) unprocessed.get(entry.getKey()) : unprocessed.putArray(entry.getKey());
+                    left.add(request);
+                    continue;
+                }
+                if (request.has("PutRequest")) {
+                    table.put(table.key(item), item.deepCopy(), simulation.now());
+                } else {
+                    table.items.remove(table.key(item));
+                }
+            }
+        }
+        if (requests > 0 && rejected == requests) {
+            throw new ServiceException("ProvisionedThroughputExceededException", "Every item of the batch was throttled");
+        }
+        ObjectNode result = ok();
+        result.set("UnprocessedItems", unprocessed);
+        return result;
+    }
+
+    private void checkCondition(JsonNode parameters, ObjectNode existing) {
+        if (parameters.has("ConditionExpression") && !Condition.matches(parameters.get("ConditionExpression").asText(),
+                existing, parameters.path("ExpressionAttributeNames"), parameters.path("ExpressionAttributeValues"))) {
+            throw new ServiceException("ConditionalCheckFailedException", "The conditional request failed");
+        }
+    }
+
+    private void consumeWrite(Table table, JsonNode item) {
+        if (!tryConsumeWrite(table, item)) {
+            throw new ServiceException("ProvisionedThroughputExceededException", "The level of configured provisioned throughput for the table was exceeded");
+        }
+    }
+
+    private boolean tryConsumeWrite(Table table, JsonNode item) {
+        double units = Math.max(1, Math.ceil(size(item) / 1024.0));
+        if (table.writeCapacity > 0) {
+            long now = simulation.now();
+            table.writeTokens = Math.min(table.writeCapacity, table.writeTokens + (now - table.refilledAt) / 1000.0 * table.writeCapacity);
+            table.refilledAt = now;
+            if (table.writeTokens < units) {
+                return false;
+            }
+            table.writeTokens -= units;
+        }
+        metrics.dynamoDbWriteUnits += units;
+        return true;
+    }
+
+    private Table table(String name) {
+        Table table = tables.get(name);
+        if (table == null) {
+            throw new ServiceException("ResourceNotFoundException", "Requested resource not found: " + name);
+        }
+        return table;
+    }
+
+    private static JsonNode project(ObjectNode item, JsonNode attributes) {
+        if (attributes.isMissingNode()) {
+            return item.deepCopy();
+        }
+        ObjectNode projected = JSON.objectNode();
+        for (JsonNode attribute : attributes) {
+            if (item.has(attribute.asText())) {
+                projected.set(attribute.asText(), item.get(attribute.asText()).deepCopy());
+            }
+        }
+        return projected;
+    }
+
+    private static JsonNode projectExpression(ObjectNode item, JsonNode expression, JsonNode names) {
+        if (expression.isMissingNode()) {
+            return item.deepCopy();
+        }
+        ArrayNode attributes = JSON.arrayNode();
+        for (String attribute : expression.asText().split(",")) {
+            attributes.add(name(attribute.trim(), names));
+        }
+        return project(item, attributes);
+    }
+
+    private static double readUnits(long bytes, boolean consistent) {
+        double units = Math.max(1, Math.ceil(bytes / 4096.0));
+        return consistent ? units : units / 2;
+    }
+
+    private static long size(JsonNode item) {
+        return item.toString().length();
+    }
+
+    private static ObjectNode ok() {
+        ObjectNode result = JSON.objectNode();
+        result.putObject("SdkHttpMetadata").put("HttpStatusCode", 200);
+        return result;
+    }
+
+    private interface Operation {
+        JsonNode run();
+    }
+
+    private static class ServiceException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private final String cause;
+
+        ServiceException(String error, String cause) {
+            super(error);
+            this.cause = cause;
+        }
+    }
+
+    private static class Table {
+        private final String partitionKey;
+        private final String sortKey;
+        private final TreeMap<String, ObjectNode> items = new TreeMap<>();
+        private final Map<String, Long> writtenAt = new HashMap<>();
+        private double writeCapacity;
+        private double writeTokens;
+        private long refilledAt;
+
+        Table(String partitionKey, String sortKey) {
+            this.partitionKey = partitionKey;
+            this.sortKey = sortKey;
+        }
+
+        String key(JsonNode item) {
+            JsonNode partition = item.get(partitionKey);
+            if (partition == null || (sortKey != null && !item.has(sortKey))) {
+                throw new ServiceException("ValidationException", "The provided key element does not match the schema");
+            }
+            return sortKey == null ? partition.toString() : partition + "|" + item.get(sortKey);
+        }
+
+        void put(String key, ObjectNode item, long nowMillis) {
+            items.put(key, item);
+            writtenAt.put(key, nowMillis);
+        }
+
+        // The items the indexes see, those written after writtenBefore are left out.
+        List<ObjectNode> indexed(long writtenBefore) {
+            List<ObjectNode> indexed = new ArrayList<>();
+            for (Map.Entry<String, ObjectNode> entry : items.entrySet()) {
+                if (writtenAt.get(entry.getKey()) <= writtenBefore) {
+                    indexed.add(entry.getValue());
+                }
+            }
+            return indexed;
+        }
+
+        ObjectNode keyOf(ObjectNode item) {
+            ObjectNode key = JSON.objectNode();
+            key.set(partitionKey, item.get(partitionKey).deepCopy());
+            if (sortKey != null) {
+                key.set(sortKey, item.get(sortKey).deepCopy());
+            }
+            return key;
+        }
+    }
+
+    /**
+     * SET, ADD and REMOVE clauses with if_not_exists and +/- arithmetic, ADD also to string sets.
+     */
+    static final class UpdateExpression {
+        private UpdateExpression() {
+        }
+
+        static void apply(String expression, ObjectNode item, JsonNode names, JsonNode values) {
+            String clause = null;
+            for (String token : splitClauses(expression)) {
+                String upper = token.toUpperCase();
+                if (upper.equals("SET") || upper.equals("ADD") || upper.equals("REMOVE") || upper.equals("DELETE")) {
+                    clause = upper;
+                    continue;
+                }
+                for (String action : splitTopLevel(token)) {
+                    action = action.trim();
+                    if (action.isEmpty()) {
+                        continue;
+                    }
+                    if ("SET".equals(clause)) {
+                        int equals = action.indexOf('=');
+                        String name = name(action.substring(0, equals).trim(), names);
+                        item.set(name, operand(action.substring(equals + 1).trim(), item, names, values));
+                    } else if ("ADD".equals(clause)) {
+                        String[] parts = action.split("\\s+", 2);
+                        String name = name(parts[0], names);
+                        JsonNode value = values.get(parts[1].trim());
+                        item.set(name, !item.has(name) ? value.deepCopy() : value.has("SS") ? union(item.get(name), value) : arithmetic(item.get(name), value, 1));
+                    } else if ("REMOVE".equals(clause)) {
+                        item.remove(name(action, names));
+                    } else {
+                        throw new ServiceException("ValidationException", "Unsupported update expression " + expression);
+                    }
+                }
+            }
+        }
+
+        private static JsonNode operand(String text, ObjectNode item, JsonNode names, JsonNode values) {
+            List<String> terms = splitArithmetic(text);
+            JsonNode result = value(terms.get(0), item, names, values);
+            for (int i = 1; i < terms.size(); i += 2) {
+                result = arithmetic(result, value(terms.get(i + 1), item, names, values), "+".equals(terms.get(i)) ? 1 : -1);
+            }
+            return result;
+        }
+
+        private static JsonNode value(String text, ObjectNode item, JsonNode names, JsonNode values) {
+            text = text.trim();
+            if (text.startsWith("if_not_exists(")) {
+                String[] args = splitTopLevel(text.substring("if_not_exists(".length(), text.length() - 1)).toArray(new String[0]);
+                String name = name(args[0].trim(), names);
+                return item.has(name) ? item.get(name).deepCopy() : value(args[1], item, names, values);
+            }
+            if (text.startsWith(":")) {
+                JsonNode value = values.get(text);
+                if (value == null) {
+                    throw new ServiceException("ValidationException", "Value " + text + " is not defined in ExpressionAttributeValues");
+                }
+                return value.deepCopy();
+            }
+            JsonNode attribute = item.get(name(text, names));
+            if (attribute == null) {
+                throw new ServiceException("ValidationException", "The provided expression refers to an attribute that does not exist in the item");
+            }
+            return attribute.deepCopy();
+        }
+
+        private static JsonNode arithmetic(JsonNode left, JsonNode right, int sign) {
+            if (!left.has("N") || !right.has("N")) {
+                throw new ServiceException("ValidationException", "An operand in the update expression has an incorrect data type");
+            }
+            BigDecimal result = new BigDecimal(left.get("N").asText()).add(new BigDecimal(right.get("N").asText()).multiply(BigDecimal.valueOf(sign)));
+            ObjectNode number = JSON.objectNode();
+            number.put("N", result.stripTrailingZeros().toPlainString());
+            return number;
+        }
+
+        private static JsonNode union(JsonNode left, JsonNode right) {
+            if (!left.has("SS")) {
+                throw new ServiceException("ValidationException", "An operand in the update expression has an incorrect data type");
+            }
+            Set<String> values = new TreeSet<>();
+            left.get("SS").forEach(value -> values.add(value.asText()));
+            right.get("SS").forEach(value -> values.add(value.asText()));
+            ObjectNode set = JSON.objectNode();
+            values.forEach(set.putArray("SS")::add);
+            return set;
+        }
+
+        // Splits "SET a = :a, b = :b ADD c :one" into keywords and their action lists.
+        private static List<String> splitClauses(String expression) {
+            List<String> tokens = new ArrayList<>();
+            StringBuilder current = new StringBuilder();
+            for (String word : expression.trim().split("\\s+")) {
+                String upper = word.toUpperCase();
+                if (upper.equals("SET") || upper.equals("ADD") || upper.equals("REMOVE") || upper.equals("DELETE")) {
+                    if (current.length() > 0) {
+                        tokens.add(current.toString());
+                        current.setLength(0);
+                    }
+                    tokens.add(word);
+                } else {
+                    current.append(current.length() > 0 ? " " : "").append(word);
+                }
+            }
+            if (current.length() > 0) {
+                tokens.add(current.toString());
+            }
+            return tokens;
+        }
+
+        private static List<String> splitArithmetic(String text) {
+            List<String> terms = new ArrayList<>();
+            int depth = 0;
+            int start = 0;
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                depth += c == '(' ? 1 : c == ')' ? -1 : 0;
+                if (depth == 0 && (c == '+' || c == '-') && i > 0 && Character.isWhitespace(text.charAt(i - 1))) {
+                    terms.add(text.substring(start, i).trim());
+                    terms.add(String.valueOf(c));
+                    start = i + 1;
+                }
+            }
+            terms.add(text.substring(start).trim());
+            return terms;
+        }
+    }
+
+    /**
+     * attribute_exists, attribute_not_exists and comparisons joined by AND or OR, without parentheses.
+     */
+    static final class Condition {
+        private Condition() {
+        }
+
+        static boolean matches(String expression, ObjectNode item, JsonNode names, JsonNode values) {
+            for (String alternative : expression.split("(?i)\\s+OR\\s+")) {
+                boolean all = true;
+                for (String term : alternative.split("(?i)\\s+AND\\s+")) {
+                    all &= term(term.trim(), item, names, values);
+                }
+                if (all) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static boolean term(String term, ObjectNode item, JsonNode names, JsonNode values) {
+            if (term.startsWith("attribute_exists(")) {
+                return item != null && item.has(name(term.substring(17, term.length() - 1).trim(), names));
+            }
+            if (term.startsWith("attribute_not_exists(")) {
+                return item == null || !item.has(name(term.substring(21, term.length() - 1).trim(), names));
+            }
+            String[] parts = term.split("\\s*(<>|<=|>=|=|<|>)\\s*", 2);
+            String operator = term.substring(parts[0].length(), term.length() - parts[1].length()).trim();
+            JsonNode left = item == null ? null : item.get(name(parts[0].trim(), names));
+            JsonNode right = parts[1].startsWith(":") ? values.get(parts[1]) : item == null ? null : item.get(name(parts[1], names));
+            if (left == null || right == null) {
+                return "<>".equals(operator) && (left != null || right != null);
+            }
+            int comparison = left.has("N") && right.has("N")
+                    ? new BigDecimal(left.get("N").asText()).compareTo(new BigDecimal(right.get("N").asText()))
+                    : left.toString().compareTo(right.toString());
+            switch (operator) {
+                case "=":
+                    return comparison == 0;
+                case "<>":
+                    return comparison != 0;
+                case "<":
+                    return comparison < 0;
+                case "<=":
+                    return comparison <= 0;
+                case ">":
+                    return comparison > 0;
+                default:
+                    return comparison >= 0;
+            }
+        }
+    }
+
+    private static String name(String token, JsonNode names) {
+        return token.startsWith("#") ? names.get(token).asText() : token;
+    }
+
+    private static List<String> splitTopLevel(String text) {
+        List<String> parts = new ArrayList<>();
+        int depth = 0;
+        int start = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+            } else if (c == ',' && depth == 0) {
+                parts.add(text.substring(start, i));
+                start = i + 1;
+            }
+        }
+        parts.add(text.substring(start));
+        return parts;
+    }
+}
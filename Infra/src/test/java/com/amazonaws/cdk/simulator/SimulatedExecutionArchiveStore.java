@@ -0,0 +1,97 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ */
+
+package com.amazonaws.cdk.simulator;
+
+import com.amazonaws.lambda.archive.ExecutionArchiveStore;
+import com.amazonaws.lambda.outcome.CampaignCounters;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * The DynamoDbExecutionArchiveStore against the simulated execution table, same index attribute and
+ * update expression. The scan reads the items without request latency.
+ */
+public class SimulatedExecutionArchiveStore implements ExecutionArchiveStore {
+    private static final JsonNodeFactory JSON = JsonNodeFactory.instance;
+
+    private final SimulatedDynamoDb dynamoDb;
+    private final String tableName;
+
+    public SimulatedExecutionArchiveStore(SimulatedDynamoDb dynamoDb, String tableName) {
+        this.dynamoDb = dynamoDb;
+        this.tableName = tableName;
+    }
+
+    @Override
+    public List<Map<String, String>> pending() {
+        List<Map<String, String>> items = new ArrayList<>();
+        for (ObjectNode item : dynamoDb.queryIndexItems(tableName, "archiveStatus", "PENDING")) {
+            items.add(values(item));
+        }
+        return items;
+    }
+
+    @Override
+    public void attempts(Set<String> topExecutionIds, Consumer<Map<String, String>> consumer) {
+        for (ObjectNode item : new ArrayList<>(dynamoDb.items(tableName))) {
+            if (topExecutionIds.contains(item.path("topExecutionId").path("S").asText())) {
+                consumer.accept(values(item));
+            }
+        }
+    }
+
+    @Override
+    public Map<String, String> campaign(String topExecutionId) {
+        return values(dynamoDb.item(tableName, key(topExecutionId)));
+    }
+
+    @Override
+    public void archived(String topExecutionId, String archiveKey, long attempts, long expiresAt) {
+        ObjectNode update = JSON.objectNode();
+        update.put("TableName", tableName);
+        update.set("Key", key(topExecutionId));
+        update.put("UpdateExpression", "SET archivedAt = :archivedAt, archiveKey = :archiveKey, archivedAttempts = :attempts, "
+                + "expiresAt = :expiresAt REMOVE archiveStatus");
+        ObjectNode values = update.putObject("ExpressionAttributeValues");
+        values.putObject(":archivedAt").put("S", "now");
+        values.putObject(":archiveKey").put("S", archiveKey);
+        values.putObject(":attempts").put("N", Long.toString(attempts));
+        values.putObject(":expiresAt").put("N", Long.toString(expiresAt));
+        dynamoDb.update(update);
+    }
+
+    private static ObjectNode key(String topExecutionId) {
+        ObjectNode key = JSON.objectNode();
+        key.putObject("campaignExecutionId").put("S", topExecutionId);
+        key.putObject("phoneNumber").put("S", CampaignCounters.SORT_KEY);
+        return key;
+    }
+
+    private static Map<String, String> values(JsonNode item) {
+        Map<String, String> values = new HashMap<>();
+        if (item == null) {
+            return values;
+        }
+        for (Iterator<Map.Entry<String, JsonNode>> fields = item.fields(); fields.hasNext(); ) {
+            Map.Entry<String, JsonNode> attribute = fields.next();
+            if (attribute.getValue().has("S")) {
+                values.put(attribute.getKey(), attribute.getValue().get("S").asText());
+            } else if (attribute.getValue().has("N")) {
+                values.put(attribute.getKey(), attribute.getValue().get("N").asText());
+            }
+        }
+        return values;
+    }
+}
@@ -0,0 +1,303 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ */
+
+package com.amazonaws.cdk.simulator;
+
+import com.amazonaws.lambda.contacts.ContactKeys;
+import com.amazonaws.lambda.contacts.ContactListManifest;
+import com.amazonaws.lambda.contacts.ContactListPreprocessor;
+import com.amazonaws.lambda.contacts.LoadedContacts;
+import com.amazonaws.lambda.contacts.UserLanguages;
+import com.amazonaws.lambda.outcome.ContactOutcomeProcessor;
+import com.amazonaws.lambda.outcome.ContactOutcomeStore;
+import com.amazonaws.lambda.pacing.CallerIdDispatcher;
+import com.amazonaws.lambda.pacing.CallerIdPool;
+import com.amazonaws.lambda.pacing.CampaignRegistry;
+import com.amazonaws.lambda.pacing.CampaignScheduler;
+import com.amazonaws.lambda.pacing.DialPacer;
+import com.amazonaws.lambda.pacing.DialPacingProcessor;
+import com.amazonaws.lambda.pacing.InMemoryTokenBucketStore;
+import com.amazonaws.lambda.pacing.PacingConfig;
+import com.amazonaws.lambda.suppression.SuppressionIndex;
+import com.amazonaws.lambda.schedule.RedialIndexReader;
+import com.amazonaws.lambda.schedule.WavePlanner;
+import com.amazonaws.lambda.schedule.WaveScheduler;
+import com.amazonaws.lambda.suppression.SuppressionIndexBuilder;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Lambda functions behind the lambda:invoke integration. Functions run the real handler logic
+ * from the Lambda module against in-memory stores and the simulated clock.
+ */
+public class SimulatedLambda {
+    private static final JsonNodeFactory JSON = JsonNodeFactory.instance;
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final long EPOCH_MILLIS = Instant.parse(AslInterpreter.timestamp(0)).toEpochMilli();
+    private static final TypeReference<Map<String, Object>> PAYLOAD = new TypeReference<>() {
+    };
+    private static final TypeReference<List<Map<String, Object>>> ITEMS = new TypeReference<>() {
+    };
+
+    private final Simulation simulation;
+    private final Metrics metrics;
+    private final Map<String, Function> functions = new HashMap<>();
+    private final Map<String, String> failures = new HashMap<>();
+    private long invokeMillis = 15;
+
+    public SimulatedLambda(Simulation simulation, Metrics metrics) {
+        this.simulation = simulation;
+        this.metrics = metrics;
+    }
+
+    public void register(AslInterpreter interpreter) {
+        interpreter.register("arn:aws:states:::lambda:invoke", this::invoke);
+    }
+
+    // Makes every invocation of the function fail with the error, also once the harness adds the function again.
+    public void failFunction(String name, String error) {
+        failures.put(name, error);
+    }
+
+    public void addFunction(String name, int memoryMb, TaskHandler handler) {
+        functions.put(name, new Function(memoryMb, handler));
+    }
+
+    // The DialPacingHandler, with the Wait state taking the whole seconds and the function sleeping the rest.
+    // All invocations share one campaign scheduler, as if a single execution environment served them. The
+    // pacing runs on epoch milliseconds of the simulated clock, the time the state machine passes in notAfter.
+    public void addPacingFunction(String name, PacingConfig config, CallerIdPool pool, double callerIdCallsPerSecond, boolean localPresence,
+                                  CampaignRegistry registry) {
+        InMemoryTokenBucketStore store = new InMemoryTokenBucketStore();
+        CallerIdDispatcher dispatcher = new CallerIdDispatcher(new DialPacer(store, config),
+                new DialPacer(store, config.perCallerId(callerIdCallsPerSecond)), pool, localPresence, new CampaignScheduler(registry));
+        DialPacingProcessor processor = new DialPacingProcessor(dispatcher, () -> EPOCH_MILLIS + simulation.now(), simulation::sleep);
+        addFunction(name, 1024, payload -> MAPPER.valueToTree(DialPacingProcessor.toMap(processor.process(toMap(payload)))));
+    }
+
+    // The ContactListPreprocessorHandler, reading the list from and writing the shards to the simulated bucket.
+    // The loaded contacts of the campaign are stored Base64 encoded as the simulated bucket holds strings.
+    public void addContactListPreprocessFunction(String name, SimulatedS3 s3, int defaultCountryCode, Set<String> allowedLanguages) {
+        addFunction(name, 3008, payload -> {
+            String bucket = payload.get("bucket").asText();
+            String outputPrefix = payload.get("outputPrefix").asText();
+            String key = payload.get("key").asText();
+            String campaignId = payload.path("campaignId").asText("").trim();
+            String indexPrefix = payload.path("indexPrefix").asText("");
+            byte[] contactList = s3.read(bucket, key).getBytes(StandardCharsets.UTF_8);
+            ContactKeys keys = new ContactKeys(campaignId.isEmpty() ? ContactKeys.campaignIdOf(key) : campaignId, payload.path("keyShards").asInt(1));
+            ContactListPreprocessor preprocessor = new ContactListPreprocessor(payload.path("shardCount").asInt(1),
+                    defaultCountryCode, new UserLanguages(allowedLanguages), contactList.length / 40, keys);
+            LoadedContacts loaded = new LoadedContacts(contactList.length / 40);
+            if (!indexPrefix.isEmpty()) {
+                try {
+                    loaded = LoadedContacts.fromBytes(Base64.getDecoder().decode(s3.read(bucket, indexPrefix + keys.getCampaignId() + ".bin")));
+                } catch (StatesError e) {
+                    // A campaign without an index yet is loaded in full
+                    if (!"S3.NoSuchKeyException".equals(e.getError())) {
+                        throw e;
+                    }
+                }
+            }
+            ContactListManifest manifest;
+            try {
+                manifest = preprocessor.process(Channels.newChannel(new ByteArrayInputStream(contactList)),
+                        file -> new StringWriter() {
+                            @Override
+                            public void close() {
+                                s3.write(bucket, outputPrefix + file, toString());
+                            }
+                        }, loaded);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            // About 50 MB per second of contact list
+            simulation.sleep(contactList.length / 50_000);
+            s3.write(bucket, outputPrefix + ContactListManifest.LOADED_CONTACTS_FILE_NAME, Base64.getEncoder().encodeToString(loaded.toBytes()));
+            s3.write(bucket, outputPrefix + ContactListManifest.FILE_NAME, manifest.toJson(outputPrefix));
+            return MAPPER.valueToTree(manifest.toMap(bucket, outputPrefix));
+        });
+    }
+
+    // The SuppressionIndexBuilderHandler, reading the lists from the simulated bucket and the dial attempts
+    // from the simulated execution table. The index is stored Base64 encoded as the simulated bucket holds strings.
+    public void addSuppressionIndexFunction(String name, SimulatedS3 s3, SimulatedDynamoDb dynamoDb, String executionTable, int defaultCountryCode) {
+        addFunction(name, 2048, payload -> {
+            String bucket = payload.get("bucket").asText();
+            int recentlyDialedDays = payload.path("recentlyDialedDays").asInt(0);
+            SuppressionIndexBuilder builder = new SuppressionIndexBuilder(defaultCountryCode, 1024);
+            try {
+                for (String key : s3.keys(bucket, payload.path("listPrefix").asText("suppression/"))) {
+                    builder.addList(Channels.newChannel(new ByteArrayInputStream(s3.read(bucket, key).getBytes(StandardCharsets.UTF_8))));
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            if (recentlyDialedDays > 0) {
+                Instant since = Instant.parse(AslInterpreter.timestamp(simulation.now())).minus(Duration.ofDays(recentlyDialedDays));
+                for (ObjectNode attempt : dynamoDb.items(executionTable)) {
+                    if ("DIALED".equals(attempt.path("attemptStatus").path("S").asText())
+                            && !Instant.parse(attempt.path("attemptedAt").path("S").asText()).isBefore(since)) {
+                        builder.addDialed(attempt.get("phoneNumber").get("S").asText());
+                    }
+                }
+                metrics.dynamoDbReadUnits += Math.max(1, dynamoDb.items(executionTable).size() / 20.0);
+            }
+            SuppressionIndex index = builder.build();
+            String indexKey = payload.get("indexKey").asText();
+            s3.write(bucket, indexKey, Base64.getEncoder().encodeToString(index.toBytes()));
+            return MAPPER.valueToTree(builder.toMap(indexKey, index));
+        });
+    }
+
+    // The SuppressionFilterHandler, loading the index once per function like a warm execution environment.
+    public void addSuppressionFilterFunction(String name, SimulatedS3 s3, int defaultCountryCode) {
+        Map<String, SuppressionIndex> indexes = new HashMap<>();
+        addFunction(name, 1024, payload -> {
+            String bucket = payload.get("bucket").asText();
+            SuppressionIndex index = indexes.computeIfAbsent(payload.get("indexKey").asText(),
+                    key -> SuppressionIndex.fromBytes(Base64.getDecoder().decode(s3.read(bucket, key))));
+            return MAPPER.valueToTree(index.filter(MAPPER.convertValue(payload.path("items"), ITEMS), defaultCountryCode));
+        });
+    }
+
+    // The WavePlannerHandler, querying every key shard of the campaign from the simulated contacts table.
+    public void addWavePlannerFunction(String name, SimulatedS3 s3, SimulatedDynamoDb dynamoDb, String contactsTable) {
+        addFunction(name, 2048, payload -> {
+            String bucket = payload.get("bucket").asText();
+            ContactKeys keys = new ContactKeys(payload.get("campaignId").asText(), payload.path("keyShards").asInt(1));
+            WavePlanner planner = WavePlanner.fromInput(toMap(payload), (key, json) -> s3.write(bucket, key, json));
+            for (int shard = 0; shard < keys.getKeyShards(); shard++) {
+                ObjectNode query = JSON.objectNode();
+                query.put("TableName", contactsTable);
+                query.put("KeyConditionExpression", "campaignShard = :campaignShard");
+                query.putObject("ExpressionAttributeValues").putObject(":campaignShard").put("S", keys.partitionKey(shard));
+                query.put("ProjectionExpression", "phoneNumber, userLanguage, timeZone");
+                JsonNode page;
+                do {
+                    page = dynamoDb.query(query);
+                    for (JsonNode item : page.get("Items")) {
+                        planner.add(item.get("phoneNumber").get("S").asText(), item.path("userLanguage").path("S").asText(""),
+                                item.path("timeZone").path("S").asText(null));
+                    }
+                    query.set("ExclusiveStartKey", page.get("LastEvaluatedKey"));
+                } while (page.has("LastEvaluatedKey"));
+            }
+            return MAPPER.valueToTree(planner.finish().toMap());
+        });
+    }
+
+    // The RedialPlannerHandler, planning the attempts recorded for a redial from the redialKey index of the execution table.
+    public void addRedialPlannerFunction(String name, SimulatedS3 s3, SimulatedDynamoDb dynamoDb, String executionTable) {
+        addFunction(name, 2048, payload -> {
+            String bucket = payload.get("bucket").asText();
+            WavePlanner planner = WavePlanner.fromInput(toMap(payload), (key, json) -> s3.write(bucket, key, json));
+            new RedialIndexReader(new RedialIndexReader.Index() {
+                @Override
+                public long recorded(String redialKey) {
+                    ObjectNode request = MAPPER.createObjectNode().put("TableName", executionTable).put("ConsistentRead", true);
+                    ObjectNode key = request.putObject("Key");
+                    key.putObject("campaignExecutionId").put("S", redialKey);
+                    key.putObject("phoneNumber").put("S", RedialIndexReader.COUNT_SORT_KEY);
+                    return dynamoDb.get(request).path("Item").path("contacts").path("N").asLong(0);
+                }
+
+                @Override
+                public void query(String redialKey, Consumer<RedialIndexReader.Contact> consumer) {
+                    for (ObjectNode item : dynamoDb.queryIndexItems(executionTable, "redialKey", redialKey)) {
+                        consumer.accept(new RedialIndexReader.Contact(
+                                item.get("campaignExecutionId").get("S").asText() + "|" + item.get("phoneNumber").get("S").asText(),
+                                item.get("phoneNumber").get("S").asText(), item.path("userLanguage").path("S").asText(""),
+                                item.path("timeZone").path("S").asText(null)));
+                    }
+                }
+            }, simulation::sleep).read(payload.get("redialKey").asText(), planner);
+            return MAPPER.valueToTree(planner.finish().toMap());
+        });
+    }
+
+    // The WaveSchedulerHandler, sizing the waves with the campaign's share of the dial rate of the pacing configuration across
+    // the caller ID pool.
+    public void addWaveSchedulerFunction(String name, SimulatedS3 s3, PacingConfig config, CallerIdPool pool, double callerIdCallsPerSecond,
+                                         CampaignRegistry registry) {
+        CampaignScheduler campaigns = new CampaignScheduler(registry);
+        double callsPerSecond = config.ceilingCallsPerSecond(pool.size(), callerIdCallsPerSecond);
+        addFunction(name, 1024, payload -> MAPPER.valueToTree(WaveScheduler.schedule(toMap(payload), callsPerSecond, campaigns,
+                (key, json) -> s3.write(payload.get("bucket").asText(), key, json))));
+    }
+
+    // The ContactOutcomeHandler invoked by the SQS event source with one batch, returns the ids of the failed messages.
+    public List<String> invokeContactOutcomeFunction(ContactOutcomeStore store, Map<String, String> messages) {
+        simulation.sleep(invokeMillis);
+        long start = simulation.now();
+        try {
+            return new ContactOutcomeProcessor(store).process(messages);
+        } finally {
+            metrics.lambdaRequests++;
+            metrics.lambdaGbMillis += Math.max(1, simulation.now() - start) * 512 / 1024.0;
+        }
+    }
+
+    private static Map<String, Object> toMap(JsonNode payload) {
+        return MAPPER.convertValue(payload, PAYLOAD);
+    }
+
+    private JsonNode invoke(JsonNode parameters) {
+        String name = parameters.get("FunctionName").asText();
+        Function function = functions.get(name);
+        if (function == null) {
+            throw new StatesError("Lambda.ResourceNotFoundException", "Function not found: " + name);
+        }
+        simulation.sleep(invokeMillis);
+        long start = simulation.now();
+        JsonNode payload;
+        try {
+            if (failures.containsKey(name)) {
+                throw new StatesError(failures.get(name), "Simulated failure of " + name);
+            }
+            payload = function.handler.invoke(parameters.path("Payload"));
+        } catch (StatesError e) {
+            throw e;
+        } catch (RuntimeException e) {
+            // The function error, named after the exception like the Lambda Java runtime does
+            throw new StatesError(e.getClass().getName(), e.getMessage());
+        } finally {
+            metrics.lambdaRequests++;
+            metrics.lambdaGbMillis += Math.max(1, simulation.now() - start) * function.memoryMb / 1024.0;
+        }
+        ObjectNode result = JSON.objectNode();
+        result.put("StatusCode", 200);
+        result.set("Payload", payload);
+        return result;
+    }
+
+    private static class Function {
+        private final int memoryMb;
+        private final TaskHandler handler;
+
+        Function(int memoryMb, TaskHandler handler) {
+            this.memoryMb = memoryMb;
+            this.handler = handler;
+        }
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ */
+
+package com.amazonaws.cdk.simulator;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * In-memory S3 buckets behind the s3:getObject, s3:putObject and s3:listObjectsV2 integrations and the
+ * headObject, copyObject and deleteObject SDK integrations.
+ */
+public class SimulatedS3 {
+    private static final JsonNodeFactory JSON = JsonNodeFactory.instance;
+
+    private final Simulation simulation;
+    private final Metrics metrics;
+    private final Map<String, TreeMap<String, String>> buckets = new TreeMap<>();
+    private final Map<String, Integer> failingKeys = new HashMap<>();
+    private long requestMillis = 20;
+
+    public SimulatedS3(Simulation simulation, Metrics metrics) {
+        this.simulation = simulation;
+        this.metrics = metrics;
+    }
+
+    public void register(AslInterpreter interpreter) {
+        interpreter.register("arn:aws:states:::aws-sdk:s3:putObject", this::putObject);
+        interpreter.register("arn:aws:states:::aws-sdk:s3:getObject", this::getObject);
+        interpreter.register("arn:aws:states:::s3:putObject", this::putObject);
+        interpreter.register("arn:aws:states:::s3:getObject", this::getObject);
+        interpreter.register("arn:aws:states:::aws-sdk:s3:headObject", this::headObject);
+        interpreter.register("arn:aws:states:::aws-sdk:s3:copyObject", this::copyObject);
+        interpreter.register("arn:aws:states:::aws-sdk:s3:deleteObject", this::deleteObject);
+    }
+
+    public void setRequestMillis(long requestMillis) {
+        this.requestMillis = requestMillis;
+    }
+
+    // Writes an object without going through a state, used to seed the input files.
+    public void write(String bucket, String key, String body) {
+        buckets.computeIfAbsent(bucket, name -> new TreeMap<>()).put(key, body);
+    }
+
+    // Fails the next reads of the key with an internal error, as a transient S3 failure.
+    public void failReads(String key, int times) {
+        failingKeys.put(key, times);
+    }
+
+    public String read(String bucket, String key) {
+        metrics.s3GetRequests++;
+        if (failingKeys.getOrDefault(key, 0) > 0) {
+            failingKeys.merge(key, -1, Integer::sum);
+            throw new StatesError("S3.S3Exception", "We encountered an internal error. Please try again.");
+        }
+        String body = objects(bucket).get(key);
+        if (body == null) {
+            throw new StatesError("S3.NoSuchKeyException", "The specified key does not exist: " + key);
+        }
+        return body;
+    }
+
+    // Every object under the prefix, as the listObjectsV2 ItemReader pages through them 1,000 keys at a time.
+    public List<JsonNode> listAll(String bucket, String prefix) {
+        List<JsonNode> items = new ArrayList<>();
+        for (Map.Entry<String, String> entry : objects(bucket).tailMap(prefix).entrySet()) {
+            if (!entry.getKey().startsWith(prefix)) {
+                break;
+            }
+            if (items.size() % 1000 == 0) {
+                metrics.s3PutListRequests++;
+            }
+            ObjectNode item = JSON.objectNode();
+            item.put("Key", entry.getKey());
+            item.put("Etag", etag(entry.getValue()));
+            item.put("Size", entry.getValue().getBytes(StandardCharsets.UTF_8).length);
+            item.put("StorageClass", "STANDARD");
+            items.add(item);
+        }
+        return items;
+    }
+
+    public List<String> keys(String bucket, String prefix) {
+        List<String> keys = new ArrayList<>();
+        for (String key : objects(bucket).tailMap(prefix).keySet()) {
+            if (!key.startsWith(prefix)) {
+                break;
+            }
+            keys.add(key);
+        }
+        return keys;
+    }
+
+    private JsonNode putObject(JsonNode parameters) {
+        simulation.sleep(requestMillis);
+        metrics.s3PutListRequests++;
+        String body = parameters.path("Body").asText("");
+        write(parameters.get("Bucket").asText(), parameters.get("Key").asText(), body);
+        ObjectNode result = JSON.objectNode();
+        result.put("ETag", etag(body));
+        return result;
+    }
+
+    private JsonNode getObject(JsonNode parameters) {
+        simulation.sleep(requestMillis);
+        String body = read(parameters.get("Bucket").asText(), parameters.get("Key").asText());
+        ObjectNode result = JSON.objectNode();
+        result.put("Body", body);
+        result.put("ContentLength", body.getBytes(StandardCharsets.UTF_8).length);
+        result.put("ETag", etag(body));
+        return result;
+    }
+
+    private JsonNode headObject(JsonNode parameters) {
+        simulation.sleep(requestMillis);
+        metrics.s3GetRequests++;
+        String body = objects(parameters.get("Bucket").asText()).get(parameters.get("Key").asText());
+        if (body == null) {
+            throw new StatesError("S3.NoSuchKeyException", "The specified key does not exist: " + parameters.get("Key").asText());
+        }
+        ObjectNode result = JSON.objectNode();
+        result.put("ContentLength", body.getBytes(StandardCharsets.UTF_8).length);
+        result.put("ETag", etag(body));
+        return result;
+    }
+
+    // CopySource is "<bucket>/<key>".
+    private JsonNode copyObject(JsonNode parameters) {
+        simulation.sleep(requestMillis);
+        metrics.s3PutListRequests++;
+        String source = parameters.get("CopySource").asText();
+        int separator = source.indexOf('/');
+        String body = objects(source.substring(0, separator)).get(source.substring(separator + 1));
+        if (body == null) {
+            throw new StatesError("S3.NoSuchKeyException", "The specified key does not exist: " + source);
+        }
+        write(parameters.get("Bucket").asText(), parameters.get("Key").asText(), body);
+        ObjectNode result = JSON.objectNode();
+        result.putObject("CopyObjectResult").put("ETag", etag(body));
+        return result;
+    }
+
+    private JsonNode deleteObject(JsonNode parameters) {
+        simulation.sleep(requestMillis);
+        objects(parameters.get("Bucket").asText()).remove(parameters.get("Key").asText());
+        return JSON.objectNode();
+    }
+
+    private TreeMap<String, String> objects(String bucket) {
+        TreeMap<String, String> objects = buckets.get(bucket);
+        if (objects == null) {
+            throw new StatesError("S3.NoSuchBucketException", "The specified bucket does not exist: " + bucket);
+        }
+        return objects;
+    }
+
+    private static String etag(String body) {
+        return "\"" + Integer.toHexString(body.hashCode()) + "\"";
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ */
+
+package com.amazonaws.cdk.simulator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Discrete-event scheduler with a virtual clock. Every simulated process runs on its own thread
+ * but only one of them runs at a time, the others are parked until the clock reaches their wake
+ * up time. Simulated latencies and Wait states therefore cost no real time and runs are
+ * deterministic.
+ */
+public class Simulation {
+    private final PriorityQueue<Wakeup> queue = new PriorityQueue<>();
+    private final Semaphore schedulerTurn = new Semaphore(0);
+    private final ThreadLocal<Process> current = new ThreadLocal<>();
+    private long now;
+    private long sequence;
+
+    public long now() {
+        return now;
+    }
+
+    // Runs the body as the root process and returns once no process is left to run.
+    public <T> T run(Callable<T> body) {
+        Process root = spawn("root", body);
+        while (!queue.isEmpty()) {
+            Wakeup wakeup = queue.poll();
+            now = Math.max(now, wakeup.at);
+            wakeup.process.turn.release();
+            schedulerTurn.acquireUninterruptibly();
+        }
+        if (!root.done) {
+            throw new IllegalStateException("Simulation deadlocked, the root process never completed");
+        }
+        return root.result();
+    }
+
+    public Process spawn(String name, Callable<?> body) {
+        Process process = new Process();
+        Thread thread = new Thread(() -> {
+            process.turn.acquireUninterruptibly();
+            current.set(process);
+            try {
+                process.result = body.call();
+            } catch (Throwable e) {
+                process.failure = e;
+            }
+            process.done = true;
+            for (Process waiter : process.waiters) {
+                schedule(waiter, now);
+            }
+            schedulerTurn.release();
+        }, name);
+        thread.setDaemon(true);
+        schedule(process, now);
+        thread.start();
+        return process;
+    }
+
+    // Parks the calling process for the given amount of simulated time.
+    public void sleep(long millis) {
+        Process self = self();
+        schedule(self, now + Math.max(0, millis));
+        yieldTurn(self);
+    }
+
+    // Parks the calling process until every process has completed, failures are returned, not thrown.
+    public void joinAll(List<Process> processes) {
+        Process self = self();
+        for (Process process : processes) {
+            while (!process.done) {
+                process.waiters.add(self);
+                yieldTurn(self);
+            }
+        }
+    }
+
+    private Process self() {
+        Process self = current.get();
+        if (self == null) {
+            throw new IllegalStateException("Only simulated processes can wait on the simulated clock");
+        }
+        return self;
+    }
+
+    private void schedule(Process process, long at) {
+        queue.add(new Wakeup(at, sequence++, process));
+    }
+
+    private void yieldTurn(Process self) {
+        schedulerTurn.release();
+        self.turn.acquireUninterruptibly();
+    }
+
+    public static class Process {
+        private final Semaphore turn = new Semaphore(0);
+        private final List<Process> waiters = new ArrayList<>();
+        private volatile boolean done;
+        private Object result;
+        private Throwable failure;
+
+        public Throwable getFailure() {
+            return failure;
+        }
+
+        @SuppressWarnings("unchecked")
+        public <T> T result() {
+            if (failure instanceof RuntimeException) {
+                throw (RuntimeException) failure;
+            }
+            if (failure != null) {
+                throw new IllegalStateException(failure);
+            }
+            return (T) result;
+        }
+    }
+
+    private static class Wakeup implements Comparable<Wakeup> {
+        private final long at;
+        private final long order;
+        private final Process process;
+
+        Wakeup(long at, long order, Process process) {
+            this.at = at;
+            this.order = order;
+            this.process = process;
+        }
+
+        @Override
+        public int compareTo(Wakeup other) {
+            return at != other.at ? Long.compare(at, other.at) : Long.compare(order, other.order);
+        }
+    }
+}
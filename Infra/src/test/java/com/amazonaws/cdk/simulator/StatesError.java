@@ -0,0 +1,30 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ */
+
+package com.amazonaws.cdk.simulator;
+
+/**
+ * Error raised by a simulated state or service, matched by name against Retry and Catch.
+ */
+public class StatesError extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final String error;
+    private final String errorCause;
+
+    public StatesError(String error, String errorCause) {
+        super(error + ": " + errorCause);
+        this.error = error;
+        this.errorCause = errorCause;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public String getErrorCause() {
+        return errorCause;
+    }
+}
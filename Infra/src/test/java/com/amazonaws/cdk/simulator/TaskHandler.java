@@ -0,0 +1,17 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ */
+
+package com.amazonaws.cdk.simulator;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Simulated service integration behind a Task state Resource. Handlers spend their latency on the
+ * simulated clock and report failures as {@link StatesError}.
+ */
+@FunctionalInterface
+public interface TaskHandler {
+    JsonNode invoke(JsonNode parameters);
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ */
+
+package com.amazonaws.lambda.archive;
+
+import com.amazonaws.lambda.outcome.CampaignCounters;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+import software.amazon.awssdk.services.dynamodb.model.ReturnConsumedCapacity;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.function.Consumer;
+
+/**
+ * Archive store backed by the execution table. The aggregate item of an Outreach execution holds
+ * archiveStatus PENDING from its start until it is archived, which keeps it in the sparse
+ * archiveStatus index. The dial attempts are read with a parallel scan of the table, which TTL
+ * keeps to the retention period.
+ */
+public class DynamoDbExecutionArchiveStore implements ExecutionArchiveStore {
+    public static final String ARCHIVE_STATUS_INDEX = "archiveStatus-index";
+    private static final int SCAN_SEGMENTS = 4;
+
+    private final DynamoDbClient dynamoDb;
+    private final String tableName;
+    private final DoubleAdder capacityUnits = new DoubleAdder();
+
+    public DynamoDbExecutionArchiveStore(DynamoDbClient dynamoDb, String tableName) {
+        this.dynamoDb = dynamoDb;
+        this.tableName = tableName;
+    }
+
+    @Override
+    public List<Map<String, String>> pending() {
+        List<Map<String, String>> items = new ArrayList<>();
+        QueryRequest query = QueryRequest.builder()
+                .tableName(tableName)
+                .indexName(ARCHIVE_STATUS_INDEX)
+                .keyConditionExpression("archiveStatus = :pending")
+                .expressionAttributeValues(Map.of(":pending", AttributeValue.fromS("PENDING")))
+                .returnConsumedCapacity(ReturnConsumedCapacity.TOTAL)
+                .build();
+        for (QueryResponse page : dynamoDb.queryPaginator(query)) {
+            if (page.consumedCapacity() != null) {
+                capacityUnits.add(page.consumedCapacity().capacityUnits());
+            }
+            page.items().forEach(item -> items.add(values(item)));
+        }
+        return items;
+    }
+
+    @Override
+    public void attempts(Set<String> topExecutionIds, Consumer<Map<String, String>> consumer) {
+        List<String> operands = new ArrayList<>();
+        Map<String, AttributeValue> values = new HashMap<>();
+        for (String topExecutionId : topExecutionIds) {
+            operands.add(":e" + operands.size());
+            values.put(operands.get(operands.size() - 1), AttributeValue.fromS(topExecutionId));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(SCAN_SEGMENTS);
+        try {
+            List<Future<?>> segments = new ArrayList<>();
+            for (int segment = 0; segment < SCAN_SEGMENTS; segment++) {
+                ScanRequest scan = ScanRequest.builder()
+                        .tableName(tableName)
+                        .segment(segment)
+                        .totalSegments(SCAN_SEGMENTS)
+                        .filterExpression("topExecutionId IN (" + String.join(", ", operands) + ")")
+                        .expressionAttributeValues(values)
+                        .returnConsumedCapacity(ReturnConsumedCapacity.TOTAL)
+                        .build();
+                segments.add(executor.submit(() -> dynamoDb.scanPaginator(scan).forEach(page -> {
+                    if (page.consumedCapacity() != null) {
+                        capacityUnits.add(page.consumedCapacity().capacityUnits());
+                    }
+                    page.items().forEach(item -> consumer.accept(values(item)));
+                })));
+            }
+            for (Future<?> segment : segments) {
+                segment.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Could not scan " + tableName, e.getCause());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Override
+    public Map<String, String> campaign(String topExecutionId) {
+        return values(dynamoDb.getItem(request -> request
+                .tableName(tableName)
+                .key(key(topExecutionId))
+                .consistentRead(true)).item());
+    }
+
+    @Override
+    public void archived(String topExecutionId, String archiveKey, long attempts, long expiresAt) {
+        dynamoDb.updateItem(request -> request
+                .tableName(tableName)
+                .key(key(topExecutionId))
+                .updateExpression("SET archivedAt = :archivedAt, archiveKey = :archiveKey, archivedAttempts = :attempts, "
+                        + "expiresAt = :expiresAt REMOVE archiveStatus")
+                .expressionAttributeValues(Map.of(
+                        ":archivedAt", AttributeValue.fromS(Instant.now().toString()),
+                        ":archiveKey", AttributeValue.fromS(archiveKey),
+                        ":attempts", AttributeValue.fromN(Long.toString(attempts)),
+                        ":expiresAt", AttributeValue.fromN(Long.toString(expiresAt)))));
+    }
+
+    // Read capacity units consumed by the queries and scans so far.
+    public double getConsumedReadCapacity() {
+        return capacityUnits.sum();
+    }
+
+    private static Map<String, AttributeValue> key(String topExecutionId) {
+        return Map.of(
+                "campaignExecutionId", AttributeValue.fromS(topExecutionId),
+                "phoneNumber", AttributeValue.fromS(CampaignCounters.SORT_KEY));
+    }
+
+    // String and number attributes of the item, the others are not archived.
+    private static Map<String, String> values(Map<String, AttributeValue> item) {
+        Map<String, String> values = new HashMap<>();
+        if (item == null) {
+            return values;
+        }
+        for (Map.Entry<String, AttributeValue> attribute : item.entrySet()) {
+            if (attribute.getValue().s() != null) {
+                values.put(attribute.getKey(), attribute.getValue().s());
+            } else if (attribute.getValue().n() != null) {
+                values.put(attribute.getKey(), attribute.getValue().n());
+            }
+        }
+        return values;
+    }
+}
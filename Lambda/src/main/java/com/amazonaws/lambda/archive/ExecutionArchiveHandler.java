@@ -0,0 +1,76 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ */
+
+package com.amazonaws.lambda.archive;
+
+import com.amazonaws.lambda.metrics.EmbeddedMetrics;
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.http.urlconnection.UrlConnectionHttpClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.s3.S3Client;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Invoked once a day by an EventBridge schedule to archive the Outreach executions of the execution
+ * table before their items expire.
+ * <p>
+ * Input: the scheduled event, not read.
+ * <p>
+ * Output: {"archived": n, "expired": n, "running": n, "attempts": n, "bytes": n}, the executions archived
+ * after completing and after outliving the retention, the executions left for a later run and the
+ * dial attempts and Parquet bytes written to the bucket. See {@link ExecutionArchiver}.
+ */
+public class ExecutionArchiveHandler implements RequestHandler<Map<String, Object>, Map<String, Object>> {
+    private static final S3Client S3 = S3Client.builder()
+            .httpClient(UrlConnectionHttpClient.create())
+            .build();
+    private static final DynamoDbClient DYNAMO_DB = DynamoDbClient.builder()
+            .httpClient(UrlConnectionHttpClient.create())
+            .build();
+    private static final String EXECUTION_TABLE_NAME = System.getenv("EXECUTION_TABLE_NAME");
+    private static final String BUCKET_NAME = System.getenv("BUCKET_NAME");
+    private static final Duration RETENTION = Duration.ofDays(Long.parseLong(System.getenv().getOrDefault("RETENTION_DAYS", "30")));
+    // Buffered per open execution, up to MAX_EXECUTIONS of them
+    private static final long ROW_GROUP_BYTES = 8L << 20;
+
+    @Override
+    public Map<String, Object> handleRequest(Map<String, Object> input, Context context) {
+        DynamoDbExecutionArchiveStore store = new DynamoDbExecutionArchiveStore(DYNAMO_DB, EXECUTION_TABLE_NAME);
+        ExecutionArchiver archiver = new ExecutionArchiver(store, RETENTION, Path.of("/tmp/archive"), ROW_GROUP_BYTES,
+                (key, file) -> S3.putObject(request -> request.bucket(BUCKET_NAME).key(key).contentType("application/vnd.apache.parquet"),
+                        RequestBody.fromFile(file)));
+        try {
+            archiver.archive(Instant.now());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        context.getLogger().log("Archived " + archiver.getArchived() + " completed and " + archiver.getExpired()
+                + " expired executions, " + archiver.getAttempts() + " dial attempts in " + archiver.getBytes()
+                + " bytes, " + archiver.getRunning() + " executions still running");
+        new EmbeddedMetrics()
+                .put("ArchivedExecutions", archiver.getArchived() + archiver.getExpired(), EmbeddedMetrics.COUNT)
+                .put("ArchivedAttempts", archiver.getAttempts(), EmbeddedMetrics.COUNT)
+                .put("ArchiveBytes", archiver.getBytes(), EmbeddedMetrics.BYTES)
+                .log(context.getLogger());
+        new EmbeddedMetrics(Map.of("Operation", "ArchiveScan"))
+                .put("ConsumedReadCapacity", store.getConsumedReadCapacity(), EmbeddedMetrics.COUNT)
+                .log(context.getLogger());
+        return Map.of(
+                "archived", archiver.getArchived(),
+                "expired", archiver.getExpired(),
+                "running", archiver.getRunning(),
+                "attempts", archiver.getAttempts(),
+                "bytes", archiver.getBytes());
+    }
+}
@@ -0,0 +1,30 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ */
+
+package com.amazonaws.lambda.archive;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Outreach executions of the execution table waiting to be archived. Items are passed as the
+ * string or number value of each attribute by name.
+ */
+public interface ExecutionArchiveStore {
+
+    // Aggregate items of the executions not archived yet, with their campaignId, startedAt and finishedAt.
+    List<Map<String, String>> pending();
+
+    // Passes every dial attempt of the given executions to the consumer, possibly from several threads.
+    void attempts(Set<String> topExecutionIds, Consumer<Map<String, String>> consumer);
+
+    // The aggregate item of the execution with its counters.
+    Map<String, String> campaign(String topExecutionId);
+
+    // Takes the execution out of the pending ones and lets its aggregate item expire at expiresAt, in epoch seconds.
+    void archived(String topExecutionId, String archiveKey, long attempts, long expiresAt);
+}
@@ -0,0 +1,244 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ */
+
+package com.amazonaws.lambda.archive;
+
+import com.amazonaws.lambda.archive.ParquetWriter.Column;
+import com.amazonaws.lambda.archive.ParquetWriter.Type;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Copies the Outreach executions that completed, or outlived the retention of the execution table
+ * without completing, to Parquet files in S3 before their items expire.
+ * <p>
+ * The dial attempts of an execution are written to
+ * archive/attempts/campaign=&lt;campaignId&gt;/dt=&lt;start date&gt;/&lt;execution&gt;.parquet and its
+ * aggregate item to the same path under archive/campaigns/. Archiving an execution again overwrites
+ * the same files, so a run failing halfway is repeated by the next one.
+ */
+public class ExecutionArchiver {
+    public static final String ATTEMPTS_PREFIX = "archive/attempts/";
+    public static final String CAMPAIGNS_PREFIX = "archive/campaigns/";
+    // Executions per run, a scan filter takes at most 100 operands for IN
+    public static final int MAX_EXECUTIONS = 100;
+    // Contact events of the last dial attempts arrive after the execution ended
+    static final Duration SETTLE_TIME = Duration.ofHours(1);
+    // Two daily runs before the first attempts of an execution that never completes can expire
+    static final Duration EXPIRY_MARGIN = Duration.ofDays(2);
+
+    public static final List<Column> ATTEMPT_COLUMNS = List.of(
+            new Column("topExecutionId", Type.STRING),
+            new Column("campaignExecutionId", Type.STRING),
+            new Column("executionId", Type.STRING),
+            new Column("phoneNumber", Type.STRING),
+            new Column("userLanguage", Type.STRING),
+            new Column("timeZone", Type.STRING),
+            new Column("sourcePhoneNumber", Type.STRING),
+            new Column("contactId", Type.STRING),
+            new Column("attemptStatus", Type.STRING),
+            new Column("attemptError", Type.STRING),
+            new Column("attempts", Type.INT64),
+            new Column("attemptedAt", Type.TIMESTAMP_MILLIS),
+            new Column("dialedAt", Type.TIMESTAMP_MILLIS),
+            new Column("outcome", Type.STRING),
+            new Column("disconnectReason", Type.STRING),
+            new Column("amdStatus", Type.STRING),
+            new Column("talkSeconds", Type.INT64),
+            new Column("completedAt", Type.TIMESTAMP_MILLIS));
+
+    public static final List<Column> CAMPAIGN_COLUMNS = List.of(
+            new Column("topExecutionId", Type.STRING),
+            new Column("campaignId", Type.STRING),
+            new Column("contacts", Type.INT64),
+            new Column("attempts", Type.INT64),
+            new Column("completed", Type.INT64),
+            new Column("answered", Type.INT64),
+            new Column("voicemail", Type.INT64),
+            new Column("unanswered", Type.INT64),
+            new Column("failed", Type.INT64),
+            new Column("talkSeconds", Type.INT64),
+            new Column("startedAt", Type.TIMESTAMP_MILLIS),
+            new Column("finishedAt", Type.TIMESTAMP_MILLIS));
+
+    private final ExecutionArchiveStore store;
+    private final Duration retention;
+    private final Path workDirectory;
+    private final long rowGroupBytes;
+    private final ArchiveOutput output;
+    private long archived;
+    private long expired;
+    private long running;
+    private long attempts;
+    private long bytes;
+
+    public ExecutionArchiver(ExecutionArchiveStore store, Duration retention, Path workDirectory, long rowGroupBytes,
+                             ArchiveOutput output) {
+        this.store = store;
+        this.retention = retention;
+        this.workDirectory = workDirectory;
+        this.rowGroupBytes = rowGroupBytes;
+        this.output = output;
+    }
+
+    // Archives up to MAX_EXECUTIONS of the pending executions, the rest are left to the next run.
+    public void archive(Instant now) throws IOException {
+        Map<String, Map<String, String>> executions = new LinkedHashMap<>();
+        for (Map<String, String> item : store.pending()) {
+            Instant finishedAt = instant(item.get("finishedAt"));
+            Instant startedAt = instant(item.get("startedAt"));
+            if (finishedAt != null && !finishedAt.plus(SETTLE_TIME).isAfter(now)) {
+                archived++;
+            } else if (startedAt != null && !startedAt.plus(retention).minus(EXPIRY_MARGIN).isAfter(now)) {
+                expired++;
+            } else {
+                running++;
+                continue;
+            }
+            executions.put(item.get("campaignExecutionId"), item);
+            if (executions.size() == MAX_EXECUTIONS) {
+                break;
+            }
+        }
+        if (executions.isEmpty()) {
+            return;
+        }
+
+        Files.createDirectories(workDirectory);
+        Map<String, ParquetWriter> writers = new LinkedHashMap<>();
+        try {
+            for (String topExecutionId : executions.keySet()) {
+                writers.put(topExecutionId, writer(ATTEMPT_COLUMNS, topExecutionId + ".attempts"));
+            }
+            store.attempts(executions.keySet(), item -> {
+                synchronized (writers) {
+                    ParquetWriter writer = writers.get(item.get("topExecutionId"));
+                    try {
+                        if (writer != null) {
+                            writer.add(row(ATTEMPT_COLUMNS, item));
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            });
+
+            for (Map.Entry<String, ParquetWriter> writer : writers.entrySet()) {
+                String topExecutionId = writer.getKey();
+                long rows = writer.getValue().getRows();
+                writer.getValue().close();
+
+                Map<String, String> campaign = new LinkedHashMap<>(store.campaign(topExecutionId));
+                campaign.put("topExecutionId", topExecutionId);
+                campaign.put("attempts", Long.toString(rows));
+                ParquetWriter summary = writer(CAMPAIGN_COLUMNS, topExecutionId + ".campaign");
+                summary.add(row(CAMPAIGN_COLUMNS, campaign));
+                summary.close();
+
+                String partition = partition(executions.get(topExecutionId)) + topExecutionId + ".parquet";
+                bytes += upload(ATTEMPTS_PREFIX + partition, topExecutionId + ".attempts");
+                bytes += upload(CAMPAIGNS_PREFIX + partition, topExecutionId + ".campaign");
+                store.archived(topExecutionId, ATTEMPTS_PREFIX + partition, rows, now.plus(retention).getEpochSecond());
+                attempts += rows;
+            }
+        } finally {
+            for (String topExecutionId : writers.keySet()) {
+                Files.deleteIfExists(workDirectory.resolve(topExecutionId + ".attempts"));
+                Files.deleteIfExists(workDirectory.resolve(topExecutionId + ".campaign"));
+            }
+        }
+    }
+
+    // Executions archived after they completed.
+    public long getArchived() {
+        return archived;
+    }
+
+    // Executions archived because they never completed within the retention.
+    public long getExpired() {
+        return expired;
+    }
+
+    public long getRunning() {
+        return running;
+    }
+
+    public long getAttempts() {
+        return attempts;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    // Hive style partition of the execution, by campaign and UTC start date.
+    static String partition(Map<String, String> campaign) {
+        Instant startedAt = instant(campaign.get("startedAt"));
+        return "campaign=" + campaign.getOrDefault("campaignId", "unknown") + "/dt="
+                + (startedAt == null ? "unknown" : startedAt.atOffset(ZoneOffset.UTC).toLocalDate()) + "/";
+    }
+
+    static Object[] row(List<Column> columns, Map<String, String> item) {
+        Object[] row = new Object[columns.size()];
+        for (int i = 0; i < row.length; i++) {
+            String value = item.get(columns.get(i).getName());
+            if (value == null) {
+                continue;
+            }
+            switch (columns.get(i).getType()) {
+                case STRING:
+                    row[i] = value;
+                    break;
+                case INT64:
+                    try {
+                        row[i] = Long.parseLong(value);
+                    } catch (NumberFormatException e) {
+                        row[i] = null;
+                    }
+                    break;
+                default:
+                    Instant instant = instant(value);
+                    row[i] = instant == null ? null : instant.toEpochMilli();
+            }
+        }
+        return row;
+    }
+
+    private ParquetWriter writer(List<Column> columns, String fileName) throws IOException {
+        return new ParquetWriter(columns, new BufferedOutputStream(Files.newOutputStream(workDirectory.resolve(fileName)), 1 << 16),
+                rowGroupBytes);
+    }
+
+    private long upload(String key, String fileName) throws IOException {
+        Path file = workDirectory.resolve(fileName);
+        output.upload(key, file);
+        return Files.size(file);
+    }
+
+    private static Instant instant(String value) {
+        try {
+            return value == null ? null : Instant.parse(value);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Destination of the Parquet files, S3 in the Lambda function.
+     */
+    public interface ArchiveOutput {
+        void upload(String key, Path file) throws IOException;
+    }
+}
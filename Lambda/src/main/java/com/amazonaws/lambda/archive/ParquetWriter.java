@@ -0,0 +1,290 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ */
+
+package com.amazonaws.lambda.archive;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes rows of flat, optional columns to a GZIP compressed Parquet file, enough for Athena and any
+ * other Parquet reader to query the archive without pulling the Hadoop libraries into the function.
+ * <p>
+ * Rows are buffered column by column and written as a row group whenever the buffered values reach
+ * rowGroupBytes, one PLAIN encoded data page per column and row group. Values are Strings for
+ * {@link Type#STRING} columns and Longs otherwise, null for a missing value.
+ */
+public class ParquetWriter implements Closeable {
+    private static final byte[] MAGIC = "PAR1".getBytes(StandardCharsets.US_ASCII);
+    // Parquet enum values, see parquet.thrift
+    private static final int PHYSICAL_INT64 = 2;
+    private static final int PHYSICAL_BYTE_ARRAY = 6;
+    private static final int OPTIONAL = 1;
+    private static final int CONVERTED_UTF8 = 0;
+    private static final int CONVERTED_TIMESTAMP_MILLIS = 9;
+    private static final int ENCODING_PLAIN = 0;
+    private static final int ENCODING_RLE = 3;
+    private static final int CODEC_GZIP = 2;
+    private static final int DATA_PAGE = 0;
+
+    public enum Type {
+        STRING, INT64, TIMESTAMP_MILLIS
+    }
+
+    public static class Column {
+        private final String name;
+        private final Type type;
+
+        public Column(String name, Type type) {
+            this.name = name;
+            this.type = type;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Type getType() {
+            return type;
+        }
+    }
+
+    private final List<Column> columns;
+    private final OutputStream out;
+    private final long rowGroupBytes;
+    private final List<ColumnBuffer> buffers = new ArrayList<>();
+    private final List<RowGroup> rowGroups = new ArrayList<>();
+    private long position;
+    private long rows;
+    private int rowGroupRows;
+
+    public ParquetWriter(List<Column> columns, OutputStream out, long rowGroupBytes) throws IOException {
+        this.columns = columns;
+        this.out = out;
+        this.rowGroupBytes = rowGroupBytes;
+        for (int i = 0; i < columns.size(); i++) {
+            buffers.add(new ColumnBuffer());
+        }
+        write(MAGIC);
+    }
+
+    public void add(Object[] row) throws IOException {
+        long buffered = 0;
+        for (int i = 0; i < columns.size(); i++) {
+            ColumnBuffer buffer = buffers.get(i);
+            if (row[i] != null) {
+                buffer.defined.set(rowGroupRows);
+                if (columns.get(i).type == Type.STRING) {
+                    byte[] utf8 = ((String) row[i]).getBytes(StandardCharsets.UTF_8);
+                    writeIntLe(buffer.values, utf8.length);
+                    buffer.values.write(utf8, 0, utf8.length);
+                } else {
+                    writeLongLe(buffer.values, (Long) row[i]);
+                }
+            }
+            buffered += buffer.values.size();
+        }
+        rowGroupRows++;
+        rows++;
+        if (buffered >= rowGroupBytes) {
+            flushRowGroup();
+        }
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    // Writes the buffered rows and the footer, and closes the stream.
+    @Override
+    public void close() throws IOException {
+        try {
+            if (rowGroupRows > 0) {
+                flushRowGroup();
+            }
+            byte[] footer = footer();
+            write(footer);
+            ByteArrayOutputStream length = new ByteArrayOutputStream(4);
+            writeIntLe(length, footer.length);
+            write(length.toByteArray());
+            write(MAGIC);
+        } finally {
+            out.close();
+        }
+    }
+
+    private void flushRowGroup() throws IOException {
+        RowGroup rowGroup = new RowGroup(rowGroupRows);
+        for (int i = 0; i < columns.size(); i++) {
+            ColumnBuffer buffer = buffers.get(i);
+            ByteArrayOutputStream page = new ByteArrayOutputStream(buffer.values.size() + 64);
+            byte[] levels = definitionLevels(buffer.defined, rowGroupRows);
+            writeIntLe(page, levels.length);
+            page.write(levels);
+            buffer.values.writeTo(page);
+
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(page.size() / 4 + 64);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                page.writeTo(gzip);
+            }
+
+            ThriftCompactOutput header = new ThriftCompactOutput();
+            header.i32(1, DATA_PAGE);
+            header.i32(2, page.size());
+            header.i32(3, compressed.size());
+            header.structBegin(5);
+            header.i32(1, rowGroupRows);
+            header.i32(2, ENCODING_PLAIN);
+            header.i32(3, ENCODING_RLE);
+            header.i32(4, ENCODING_RLE);
+            header.structEnd();
+            byte[] headerBytes = header.finish();
+
+            ColumnChunk chunk = new ColumnChunk(position, rowGroupRows,
+                    headerBytes.length + page.size(), headerBytes.length + compressed.size());
+            write(headerBytes);
+            write(compressed.toByteArray());
+            rowGroup.chunks.add(chunk);
+            buffer.values.reset();
+            buffer.defined.clear();
+        }
+        rowGroups.add(rowGroup);
+        rowGroupRows = 0;
+    }
+
+    private byte[] footer() {
+        ThriftCompactOutput footer = new ThriftCompactOutput();
+        footer.i32(1, 1);
+        footer.listBegin(2, ThriftCompactOutput.STRUCT, columns.size() + 1);
+        footer.structBegin();
+        footer.string(4, "schema");
+        footer.i32(5, columns.size());
+        footer.structEnd();
+        for (Column column : columns) {
+            footer.structBegin();
+            footer.i32(1, column.type == Type.STRING ? PHYSICAL_BYTE_ARRAY : PHYSICAL_INT64);
+            footer.i32(3, OPTIONAL);
+            footer.string(4, column.name);
+            if (column.type == Type.STRING) {
+                footer.i32(6, CONVERTED_UTF8);
+            } else if (column.type == Type.TIMESTAMP_MILLIS) {
+                footer.i32(6, CONVERTED_TIMESTAMP_MILLIS);
+            }
+            footer.structEnd();
+        }
+        footer.i64(3, rows);
+        footer.listBegin(4, ThriftCompactOutput.STRUCT, rowGroups.size());
+        for (RowGroup rowGroup : rowGroups) {
+            footer.structBegin();
+            footer.listBegin(1, ThriftCompactOutput.STRUCT, rowGroup.chunks.size());
+            long uncompressedSize = 0;
+            long compressedSize = 0;
+            for (int i = 0; i < columns.size(); i++) {
+                Column column = columns.get(i);
+                ColumnChunk chunk = rowGroup.chunks.get(i);
+                footer.structBegin();
+                footer.i64(2, chunk.offset);
+                footer.structBegin(3);
+                footer.i32(1, column.type == Type.STRING ? PHYSICAL_BYTE_ARRAY : PHYSICAL_INT64);
+                footer.listBegin(2, ThriftCompactOutput.I32, 2);
+                footer.i32Element(ENCODING_PLAIN);
+                footer.i32Element(ENCODING_RLE);
+                footer.listBegin(3, ThriftCompactOutput.BINARY, 1);
+                footer.stringElement(column.name);
+                footer.i32(4, CODEC_GZIP);
+                footer.i64(5, chunk.values);
+                footer.i64(6, chunk.uncompressedSize);
+                footer.i64(7, chunk.compressedSize);
+                footer.i64(9, chunk.offset);
+                footer.structEnd();
+                footer.structEnd();
+                uncompressedSize += chunk.uncompressedSize;
+                compressedSize += chunk.compressedSize;
+            }
+            footer.i64(2, uncompressedSize);
+            footer.i64(3, rowGroup.rows);
+            footer.i64(5, rowGroup.chunks.get(0).offset);
+            footer.i64(6, compressedSize);
+            footer.structEnd();
+        }
+        footer.string(6, "amazon-connect-agentless-outbound-campaign");
+        return footer.finish();
+    }
+
+    // Definition levels of an optional column in the RLE/bit-packed hybrid encoding, as RLE runs only.
+    private static byte[] definitionLevels(BitSet defined, int count) {
+        ByteArrayOutputStream levels = new ByteArrayOutputStream();
+        int start = 0;
+        while (start < count) {
+            boolean value = defined.get(start);
+            int end = value ? defined.nextClearBit(start) : defined.nextSetBit(start);
+            if (end < 0 || end > count) {
+                end = count;
+            }
+            long header = (long) (end - start) << 1;
+            while ((header & ~0x7FL) != 0) {
+                levels.write((int) (header & 0x7F) | 0x80);
+                header >>>= 7;
+            }
+            levels.write((int) header);
+            levels.write(value ? 1 : 0);
+            start = end;
+        }
+        return levels.toByteArray();
+    }
+
+    private void write(byte[] bytes) throws IOException {
+        out.write(bytes);
+        position += bytes.length;
+    }
+
+    private static void writeIntLe(ByteArrayOutputStream out, int value) {
+        out.write(value);
+        out.write(value >>> 8);
+        out.write(value >>> 16);
+        out.write(value >>> 24);
+    }
+
+    private static void writeLongLe(ByteArrayOutputStream out, long value) {
+        for (int shift = 0; shift < Long.SIZE; shift += Byte.SIZE) {
+            out.write((int) (value >>> shift));
+        }
+    }
+
+    private static class ColumnBuffer {
+        private final ByteArrayOutputStream values = new ByteArrayOutputStream(1 << 12);
+        private final BitSet defined = new BitSet();
+    }
+
+    private static class ColumnChunk {
+        private final long offset;
+        private final long values;
+        private final long uncompressedSize;
+        private final long compressedSize;
+
+        ColumnChunk(long offset, long values, long uncompressedSize, long compressedSize) {
+            this.offset = offset;
+            this.values = values;
+            this.uncompressedSize = uncompressedSize;
+            this.compressedSize = compressedSize;
+        }
+    }
+
+    private static class RowGroup {
+        private final long rows;
+        private final List<ColumnChunk> chunks = new ArrayList<>();
+
+        RowGroup(long rows) {
+            this.rows = rows;
+        }
+    }
+}
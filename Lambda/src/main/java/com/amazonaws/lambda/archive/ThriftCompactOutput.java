@@ -0,0 +1,111 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ */
+
+package com.amazonaws.lambda.archive;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Thrift compact protocol encoder for the page headers and the footer of a Parquet file, only the
+ * field types those structures use. Fields are written in increasing id order within a struct.
+ */
+class ThriftCompactOutput {
+    static final byte I32 = 5;
+    static final byte I64 = 6;
+    static final byte BINARY = 8;
+    static final byte STRUCT = 12;
+
+    private static final int MAX_DEPTH = 8;
+
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+    // Last field id written in every open struct, field headers hold the delta to it
+    private final short[] lastFieldIds = new short[MAX_DEPTH];
+    private int depth;
+
+    void i32(int fieldId, int value) {
+        fieldHeader(fieldId, I32);
+        varint(zigzag(value));
+    }
+
+    void i64(int fieldId, long value) {
+        fieldHeader(fieldId, I64);
+        varint(zigzag(value));
+    }
+
+    void string(int fieldId, String value) {
+        fieldHeader(fieldId, BINARY);
+        binary(value);
+    }
+
+    void structBegin(int fieldId) {
+        fieldHeader(fieldId, STRUCT);
+        structBegin();
+    }
+
+    // Struct written as a list element, without a field header.
+    void structBegin() {
+        lastFieldIds[++depth] = 0;
+    }
+
+    void structEnd() {
+        bytes.write(0);
+        depth--;
+    }
+
+    void listBegin(int fieldId, byte elementType, int size) {
+        fieldHeader(fieldId, (byte) 9);
+        if (size < 15) {
+            bytes.write(size << 4 | elementType);
+        } else {
+            bytes.write(0xF0 | elementType);
+            varint(size);
+        }
+    }
+
+    // List elements, written after listBegin.
+    void i32Element(int value) {
+        varint(zigzag(value));
+    }
+
+    void stringElement(String value) {
+        binary(value);
+    }
+
+    // Ends the outermost struct and returns everything written.
+    byte[] finish() {
+        bytes.write(0);
+        return bytes.toByteArray();
+    }
+
+    private void fieldHeader(int fieldId, byte type) {
+        int delta = fieldId - lastFieldIds[depth];
+        if (delta > 0 && delta <= 15) {
+            bytes.write(delta << 4 | type);
+        } else {
+            bytes.write(type);
+            varint(zigzag(fieldId));
+        }
+        lastFieldIds[depth] = (short) fieldId;
+    }
+
+    private void binary(String value) {
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        varint(utf8.length);
+        bytes.write(utf8, 0, utf8.length);
+    }
+
+    private void varint(long value) {
+        while ((value & ~0x7FL) != 0) {
+            bytes.write((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        bytes.write((int) value);
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+}
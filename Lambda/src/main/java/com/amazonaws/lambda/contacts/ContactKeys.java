@@ -0,0 +1,73 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ */
+
+package com.amazonaws.lambda.contacts;
+
+import java.util.regex.Pattern;
+
+/**
+ * Keys of the contacts table. Contacts are partitioned by campaign and write shard,
+ * campaignShard = "&lt;campaignId&gt;#&lt;shard&gt;" with phoneNumber as the sort key, so a campaign is
+ * read with one Query per shard and several lists live side by side in the same table.
+ * <p>
+ * The shard is derived from the phone number, loading the same list twice overwrites the same items.
+ */
+public class ContactKeys {
+    public static final String PARTITION_KEY = "campaignShard";
+    public static final String SORT_KEY = "phoneNumber";
+    public static final String DEFAULT_CAMPAIGN_ID = "contact_example_import";
+
+    private static final Pattern CAMPAIGN_ID = Pattern.compile("[A-Za-z0-9_.-]{1,64}");
+
+    private final String campaignId;
+    private final int keyShards;
+
+    public ContactKeys(String campaignId, int keyShards) {
+        if (!CAMPAIGN_ID.matcher(campaignId).matches()) {
+            throw new IllegalArgumentException("campaignId must be 1 to 64 letters, digits, '_', '-' or '.': " + campaignId);
+        }
+        if (keyShards < 1) {
+            throw new IllegalArgumentException("keyShards must be at least 1");
+        }
+        this.campaignId = campaignId;
+        this.keyShards = keyShards;
+    }
+
+    // Campaign of a contact list loaded without an explicit campaignId: its file name without the extension.
+    public static String campaignIdOf(String key) {
+        String name = key.substring(key.lastIndexOf('/') + 1);
+        int extension = name.lastIndexOf('.');
+        if (extension > 0) {
+            name = name.substring(0, extension);
+        }
+        name = name.replaceAll("[^A-Za-z0-9_.-]", "_");
+        if (name.isEmpty()) {
+            return DEFAULT_CAMPAIGN_ID;
+        }
+        return name.length() > 64 ? name.substring(0, 64) : name;
+    }
+
+    public int shard(long phoneNumber) {
+        // Sequential numbers must not land on the same shard, mix the bits before taking the modulus
+        long hash = phoneNumber * 0x9E3779B97F4A7C15L;
+        return (int) Math.floorMod(hash ^ (hash >>> 32), (long) keyShards);
+    }
+
+    public String partitionKey(long phoneNumber) {
+        return partitionKey(shard(phoneNumber));
+    }
+
+    public String partitionKey(int shard) {
+        return campaignId + "#" + shard;
+    }
+
+    public String getCampaignId() {
+        return campaignId;
+    }
+
+    public int getKeyShards() {
+        return keyShards;
+    }
+}
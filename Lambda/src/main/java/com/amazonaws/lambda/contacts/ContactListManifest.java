@@ -0,0 +1,174 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ */
+
+package com.amazonaws.lambda.contacts;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Outcome of a pre-processing run: the shard files with their contact counts and why rows were dropped.
+ */
+public class ContactListManifest {
+    public static final String FILE_NAME = "manifest.json";
+    public static final String REJECTED_FILE_NAME = "rejected.csv";
+    public static final String LOADED_CONTACTS_FILE_NAME = "loaded-contacts.bin";
+
+    private final String campaignId;
+    private final int keyShards;
+    private final List<String> shardNames = new ArrayList<>();
+    private final List<Long> shardContacts = new ArrayList<>();
+    private long rows;
+    private long contacts;
+    private long unchanged;
+    private long duplicates;
+    private long invalidPhoneNumbers;
+    private long invalidLanguages;
+    private long invalidTimeZones;
+    private long bytesRead;
+
+    ContactListManifest(String campaignId, int keyShards) {
+        this.campaignId = campaignId;
+        this.keyShards = keyShards;
+    }
+
+    void addShard(String name, long contactCount) {
+        shardNames.add(name);
+        shardContacts.add(contactCount);
+    }
+
+    void counts(long rows, long contacts, long unchanged, long duplicates, long invalidPhoneNumbers, long invalidLanguages,
+                long invalidTimeZones, long bytesRead) {
+        this.rows = rows;
+        this.contacts = contacts;
+        this.unchanged = unchanged;
+        this.duplicates = duplicates;
+        this.invalidPhoneNumbers = invalidPhoneNumbers;
+        this.invalidLanguages = invalidLanguages;
+        this.invalidTimeZones = invalidTimeZones;
+        this.bytesRead = bytesRead;
+    }
+
+    // The manifest as returned to the Intake Process, shard names are prefixed with their S3 location.
+    public Map<String, Object> toMap(String keyPrefix) {
+        List<Map<String, Object>> shards = new ArrayList<>();
+        for (int i = 0; i < shardNames.size(); i++) {
+            Map<String, Object> shard = new LinkedHashMap<>();
+            shard.put("key", keyPrefix + shardNames.get(i));
+            shard.put("contacts", shardContacts.get(i));
+            shards.add(shard);
+        }
+        Map<String, Object> manifest = new LinkedHashMap<>();
+        manifest.put("campaignId", campaignId);
+        manifest.put("keyShards", keyShards);
+        manifest.put("shards", shards);
+        manifest.put("rows", rows);
+        manifest.put("contacts", contacts);
+        manifest.put("unchanged", unchanged);
+        manifest.put("duplicates", duplicates);
+        manifest.put("invalidPhoneNumbers", invalidPhoneNumbers);
+        manifest.put("invalidLanguages", invalidLanguages);
+        manifest.put("invalidTimeZones", invalidTimeZones);
+        manifest.put("rejectedKey", keyPrefix + REJECTED_FILE_NAME);
+        manifest.put("loadedContactsKey", keyPrefix + LOADED_CONTACTS_FILE_NAME);
+        return manifest;
+    }
+
+    // The ContactListPreprocessorHandler's output, the manifest with its bucket and the key of manifest.json.
+    public Map<String, Object> toMap(String bucket, String keyPrefix) {
+        Map<String, Object> result = toMap(keyPrefix);
+        result.put("bucket", bucket);
+        result.put("manifestKey", keyPrefix + FILE_NAME);
+        return result;
+    }
+
+    public String toJson(String keyPrefix) {
+        StringBuilder json = new StringBuilder();
+        appendJson(json, toMap(keyPrefix));
+        return json.toString();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void appendJson(StringBuilder json, Object value) {
+        if (value instanceof Map) {
+            json.append('{');
+            String separator = "";
+            for (Map.Entry<String, Object> entry : ((Map<String, Object>) value).entrySet()) {
+                json.append(separator).append('"').append(escape(entry.getKey())).append("\":");
+                appendJson(json, entry.getValue());
+                separator = ",";
+            }
+            json.append('}');
+        } else if (value instanceof List) {
+            json.append('[');
+            String separator = "";
+            for (Object element : (List<Object>) value) {
+                json.append(separator);
+                appendJson(json, element);
+                separator = ",";
+            }
+            json.append(']');
+        } else if (value instanceof Number) {
+            json.append(value);
+        } else {
+            json.append('"').append(escape(String.valueOf(value))).append('"');
+        }
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+    public String getCampaignId() {
+        return campaignId;
+    }
+
+    public int getKeyShards() {
+        return keyShards;
+    }
+
+    public List<String> getShardNames() {
+        return shardNames;
+    }
+
+    public List<Long> getShardContacts() {
+        return shardContacts;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public long getContacts() {
+        return contacts;
+    }
+
+    // Valid contacts left out because they were already loaded with the same attributes.
+    public long getUnchanged() {
+        return unchanged;
+    }
+
+    public long getDuplicates() {
+        return duplicates;
+    }
+
+    public long getInvalidPhoneNumbers() {
+        return invalidPhoneNumbers;
+    }
+
+    public long getInvalidLanguages() {
+        return invalidLanguages;
+    }
+
+    public long getInvalidTimeZones() {
+        return invalidTimeZones;
+    }
+
+    public long getBytesRead() {
+        return bytesRead;
+    }
+}
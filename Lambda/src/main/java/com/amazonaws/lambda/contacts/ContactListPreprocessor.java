@@ -0,0 +1,175 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ */
+
+package com.amazonaws.lambda.contacts;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.ReadableByteChannel;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Single pass over a contact list CSV: normalizes PhoneNumber to E.164, validates UserLang, drops
+ * duplicate numbers and deals the remaining contacts round robin into evenly sized shard files
+ * the Intake Process loads in parallel. Every contact carries the campaignShard partition key it is
+ * written under, see {@link ContactKeys}, and its time zone: the optional TimeZone column, else the
+ * zone of the number. Rejected rows go to a separate file with the reason.
+ * <p>
+ * Given the {@link LoadedContacts} of the campaign, contacts already loaded with the same attributes
+ * are counted as unchanged and left out of the shards, and the new and changed ones are recorded.
+ * <p>
+ * The input is streamed, the heap only holds the set of numbers seen so far (8 bytes per slot).
+ */
+public class ContactListPreprocessor {
+    public static final String PHONE_NUMBER_COLUMN = "PhoneNumber";
+    public static final String USER_LANGUAGE_COLUMN = "UserLang";
+    public static final String CAMPAIGN_SHARD_COLUMN = "CampaignShard";
+    public static final String TIME_ZONE_COLUMN = "TimeZone";
+
+    private final int shardCount;
+    private final int defaultCountryCode;
+    private final UserLanguages languages;
+    private final int expectedContacts;
+    private final ContactKeys keys;
+
+    public ContactListPreprocessor(int shardCount, int defaultCountryCode, UserLanguages languages, int expectedContacts, ContactKeys keys) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("shardCount must be at least 1");
+        }
+        this.shardCount = shardCount;
+        this.defaultCountryCode = defaultCountryCode;
+        this.languages = languages;
+        this.expectedContacts = expectedContacts;
+        this.keys = keys;
+    }
+
+    public static String shardName(int shard) {
+        return String.format("shard-%04d.csv", shard);
+    }
+
+    public ContactListManifest process(ReadableByteChannel source, ShardOutput output) throws IOException {
+        return process(source, output, null);
+    }
+
+    // Without loaded contacts every valid unique row is written to the shards.
+    public ContactListManifest process(ReadableByteChannel source, ShardOutput output, LoadedContacts loaded) throws IOException {
+        CsvReader reader = new CsvReader(source);
+        List<String> fields = new ArrayList<>();
+        if (!reader.next(fields)) {
+            throw new IllegalArgumentException("The contact list is empty");
+        }
+        int phoneColumn = column(fields, PHONE_NUMBER_COLUMN);
+        int languageColumn = column(fields, USER_LANGUAGE_COLUMN);
+        int timeZoneColumn = optionalColumn(fields, TIME_ZONE_COLUMN);
+
+        LongHashSet seen = new LongHashSet(expectedContacts);
+        Writer[] shards = new Writer[shardCount];
+        long[] shardContacts = new long[shardCount];
+        long rows = 0;
+        long contacts = 0;
+        long unchanged = 0;
+        long duplicates = 0;
+        long invalidPhoneNumbers = 0;
+        long invalidLanguages = 0;
+        long invalidTimeZones = 0;
+
+        try (Writer rejected = output.open(ContactListManifest.REJECTED_FILE_NAME)) {
+            rejected.write("Line,PhoneNumber,UserLang,Reason\n");
+            for (int i = 0; i < shardCount; i++) {
+                shards[i] = output.open(shardName(i));
+                shards[i].write(PHONE_NUMBER_COLUMN + "," + USER_LANGUAGE_COLUMN + "," + CAMPAIGN_SHARD_COLUMN + "," + TIME_ZONE_COLUMN + "\n");
+            }
+
+            while (reader.next(fields)) {
+                if (fields.size() == 1 && fields.get(0).isBlank()) {
+                    continue;
+                }
+                rows++;
+                String rawPhone = field(fields, phoneColumn);
+                String rawLanguage = field(fields, languageColumn);
+                String rawTimeZone = timeZoneColumn < 0 ? "" : field(fields, timeZoneColumn).trim();
+
+                long phone = PhoneNumbers.normalize(rawPhone, defaultCountryCode);
+                String language = languages.normalize(rawLanguage);
+                ZoneId timeZone = rawTimeZone.isEmpty() ? TimeZones.of(phone) : TimeZones.parse(rawTimeZone);
+                String reason = null;
+                if (phone == PhoneNumbers.INVALID) {
+                    invalidPhoneNumbers++;
+                    reason = "INVALID_PHONE_NUMBER";
+                } else if (language == null) {
+                    invalidLanguages++;
+                    reason = "INVALID_LANGUAGE";
+                } else if (timeZone == null && !rawTimeZone.isEmpty()) {
+                    invalidTimeZones++;
+                    reason = "INVALID_TIME_ZONE";
+                } else if (!seen.add(phone)) {
+                    duplicates++;
+                    reason = "DUPLICATE";
+                }
+                if (reason != null) {
+                    // Header is line 1
+                    rejected.write((rows + 1) + "," + csv(rawPhone) + "," + csv(rawLanguage) + "," + reason + "\n");
+                    continue;
+                }
+
+                String partitionKey = keys.partitionKey(phone);
+                String zone = timeZone == null ? "" : timeZone.getId();
+                if (loaded != null && !loaded.put(phone, LoadedContacts.digest(language, zone, partitionKey))) {
+                    unchanged++;
+                    continue;
+                }
+                int shard = (int) (contacts++ % shardCount);
+                shards[shard].write(PhoneNumbers.format(phone) + "," + language + "," + partitionKey + "," + zone + "\n");
+                shardContacts[shard]++;
+            }
+        } finally {
+            for (Writer shard : shards) {
+                if (shard != null) {
+                    shard.close();
+                }
+            }
+        }
+
+        ContactListManifest manifest = new ContactListManifest(keys.getCampaignId(), keys.getKeyShards());
+        for (int i = 0; i < shardCount; i++) {
+            if (shardContacts[i] > 0) {
+                manifest.addShard(shardName(i), shardContacts[i]);
+            }
+        }
+        manifest.counts(rows, contacts, unchanged, duplicates, invalidPhoneNumbers, invalidLanguages, invalidTimeZones, reader.getBytesRead());
+        return manifest;
+    }
+
+    private static int column(List<String> header, String name) {
+        int column = optionalColumn(header, name);
+        if (column < 0) {
+            throw new IllegalArgumentException("The contact list has no " + name + " column");
+        }
+        return column;
+    }
+
+    private static int optionalColumn(List<String> header, String name) {
+        for (int i = 0; i < header.size(); i++) {
+            // Spreadsheet exports often start with a byte order mark
+            if (header.get(i).replace("\uFEFF", "").trim().equalsIgnoreCase(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String field(List<String> fields, int column) {
+        return column < fields.size() ? fields.get(column) : "";
+    }
+
+    private static String csv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ */
+
+package com.amazonaws.lambda.contacts;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Set;
+
+/**
+ * Pre-processes a contact list on a workstation, the shards can then be uploaded under unprocessed/.
+ * <p>
+ * Usage: ContactListPreprocessorCli &lt;contacts.csv&gt; &lt;outputDirectory&gt; [shardCount] [defaultCountryCode] [allowedLanguages] [campaignId] [keyShards]
+ * <p>
+ * allowedLanguages is a comma separated list such as en_US,es_US, any locale code is accepted when it is omitted.
+ * campaignId defaults to the file name of the list and keyShards to 10, keyShards must match the stack's contactKeyShards.
+ */
+public class ContactListPreprocessorCli {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: ContactListPreprocessorCli <contacts.csv> <outputDirectory> [shardCount] [defaultCountryCode] [allowedLanguages] [campaignId] [keyShards]");
+            System.exit(1);
+        }
+        Path input = Path.of(args[0]);
+        DirectoryShardOutput output = new DirectoryShardOutput(Path.of(args[1]));
+        int shardCount = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+        int defaultCountryCode = args.length > 3 ? Integer.parseInt(args[3]) : 1;
+        Set<String> allowedLanguages = args.length > 4 && !args[4].isBlank() ? Set.of(args[4].split(",")) : Set.of();
+        ContactKeys keys = new ContactKeys(args.length > 5 ? args[5] : ContactKeys.campaignIdOf(input.getFileName().toString()),
+                args.length > 6 ? Integer.parseInt(args[6]) : 10);
+        // Roughly 40 bytes per row, sizes the duplicate set up front
+        int expectedContacts = (int) Math.min(Integer.MAX_VALUE / 2, Files.size(input) / 40);
+
+        long start = System.nanoTime();
+        ContactListManifest manifest;
+        try (FileChannel channel = FileChannel.open(input, StandardOpenOption.READ)) {
+            manifest = new ContactListPreprocessor(shardCount, defaultCountryCode, new UserLanguages(allowedLanguages), expectedContacts, keys)
+                    .process(channel, output);
+        }
+        long millis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        Files.writeString(output.resolve(ContactListManifest.FILE_NAME), manifest.toJson(""), StandardCharsets.UTF_8);
+
+        System.out.printf("rows %d, contacts %d, duplicates %d, invalid phone numbers %d, invalid languages %d, invalid time zones %d%n",
+                manifest.getRows(), manifest.getContacts(), manifest.getDuplicates(),
+                manifest.getInvalidPhoneNumbers(), manifest.getInvalidLanguages(), manifest.getInvalidTimeZones());
+        System.out.printf("%d shards in %s, %d ms, %.0f rows/sec, %.1f MB/sec%n",
+                manifest.getShardNames().size(), args[1], millis, manifest.getRows() * 1000.0 / millis,
+                manifest.getBytesRead() / 1048.576 / millis);
+    }
+}
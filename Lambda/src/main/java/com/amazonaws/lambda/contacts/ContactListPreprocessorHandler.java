@@ -0,0 +1,140 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ */
+
+package com.amazonaws.lambda.contacts;
+
+import com.amazonaws.lambda.metrics.EmbeddedMetrics;
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.http.urlconnection.UrlConnectionHttpClient;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Invoked by the Intake Process to pre-process the uploaded contact list before it is loaded.
+ * <p>
+ * Input: {"bucket": "...", "key": "unprocessed/...csv", "outputPrefix": "intake/&lt;execution&gt;/", "shardCount": n,
+ * "campaignId": "...", "keyShards": n, "indexPrefix": "intake-index/"}, a blank campaignId defaults to the
+ * file name of the list.
+ * <p>
+ * Output: the {@link ContactListManifest} with the S3 key of every shard. The shards, the rejected
+ * rows and manifest.json are written under outputPrefix. The list is streamed from S3 and the
+ * shards are staged in the function's ephemeral storage before they are uploaded.
+ * <p>
+ * With an indexPrefix the {@link LoadedContacts} of the campaign are read from
+ * &lt;indexPrefix&gt;&lt;campaignId&gt;.bin and only new and changed contacts go to the shards. The updated
+ * index is written under outputPrefix, the Intake Process publishes it once every shard is loaded.
+ */
+public class ContactListPreprocessorHandler implements RequestHandler<Map<String, Object>, Map<String, Object>> {
+    private static final S3Client S3 = S3Client.builder()
+            .httpClient(UrlConnectionHttpClient.create())
+            .build();
+    private static final int DEFAULT_COUNTRY_CODE = Integer.parseInt(System.getenv().getOrDefault("DEFAULT_COUNTRY_CODE", "1"));
+    private static final Set<String> ALLOWED_LANGUAGES = parseLanguages(System.getenv().getOrDefault("ALLOWED_LANGUAGES", ""));
+
+    @Override
+    public Map<String, Object> handleRequest(Map<String, Object> input, Context context) {
+        String bucket = required(input, "bucket");
+        String key = required(input, "key");
+        String outputPrefix = required(input, "outputPrefix");
+        int shardCount = Integer.parseInt(String.valueOf(input.getOrDefault("shardCount", "1")));
+        String campaignId = String.valueOf(input.getOrDefault("campaignId", "")).trim();
+        ContactKeys keys = new ContactKeys(campaignId.isEmpty() ? ContactKeys.campaignIdOf(key) : campaignId,
+                Integer.parseInt(String.valueOf(input.getOrDefault("keyShards", "1"))));
+        String indexPrefix = String.valueOf(input.getOrDefault("indexPrefix", ""));
+
+        Path workDirectory = null;
+        try {
+            workDirectory = Files.createTempDirectory("contacts");
+            DirectoryShardOutput output = new DirectoryShardOutput(workDirectory);
+            long size = S3.headObject(request -> request.bucket(bucket).key(key)).contentLength();
+            int expectedContacts = (int) Math.min(Integer.MAX_VALUE / 2, size / 40);
+
+            LoadedContacts loaded = indexPrefix.isEmpty() ? new LoadedContacts(expectedContacts)
+                    : loadedContacts(bucket, indexPrefix + keys.getCampaignId() + ".bin", expectedContacts);
+
+            ContactListManifest manifest;
+            try (ResponseInputStream<GetObjectResponse> contactList = S3.getObject(request -> request.bucket(bucket).key(key))) {
+                manifest = new ContactListPreprocessor(shardCount, DEFAULT_COUNTRY_CODE, new UserLanguages(ALLOWED_LANGUAGES), expectedContacts, keys)
+                        .process(Channels.newChannel(contactList), output, loaded);
+            }
+            context.getLogger().log("Pre-processed s3://" + bucket + "/" + key + ": " + manifest.toJson(outputPrefix));
+            new EmbeddedMetrics()
+                    .put("IntakeRows", manifest.getRows(), EmbeddedMetrics.COUNT)
+                    .put("IntakeContacts", manifest.getContacts(), EmbeddedMetrics.COUNT)
+                    .put("IntakeUnchangedRows", manifest.getUnchanged(), EmbeddedMetrics.COUNT)
+                    .put("IntakeRejectedRows", manifest.getRows() - manifest.getContacts() - manifest.getUnchanged(), EmbeddedMetrics.COUNT)
+                    .log(context.getLogger());
+
+            for (String name : manifest.getShardNames()) {
+                upload(bucket, outputPrefix + name, output.resolve(name));
+            }
+            upload(bucket, outputPrefix + ContactListManifest.REJECTED_FILE_NAME, output.resolve(ContactListManifest.REJECTED_FILE_NAME));
+            S3.putObject(request -> request.bucket(bucket).key(outputPrefix + ContactListManifest.LOADED_CONTACTS_FILE_NAME)
+                    .contentType("application/octet-stream"), RequestBody.fromBytes(loaded.toBytes()));
+            S3.putObject(request -> request.bucket(bucket).key(outputPrefix + ContactListManifest.FILE_NAME).contentType("application/json"),
+                    RequestBody.fromString(manifest.toJson(outputPrefix)));
+
+            return manifest.toMap(bucket, outputPrefix);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            delete(workDirectory);
+        }
+    }
+
+    // A campaign without an index yet is loaded in full.
+    private static LoadedContacts loadedContacts(String bucket, String key, int expectedContacts) {
+        try {
+            return LoadedContacts.fromBytes(S3.getObjectAsBytes(request -> request.bucket(bucket).key(key)).asByteArray());
+        } catch (NoSuchKeyException e) {
+            return new LoadedContacts(expectedContacts);
+        }
+    }
+
+    private static void upload(String bucket, String key, Path file) {
+        S3.putObject(request -> request.bucket(bucket).key(key).contentType("text/csv"), RequestBody.fromFile(file));
+    }
+
+    // Ephemeral storage survives between invocations of a warm function
+    private static void delete(Path directory) {
+        if (directory == null) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.deleteIfExists(file);
+            }
+            Files.deleteIfExists(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String required(Map<String, Object> input, String name) {
+        Object value = input.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException(name + " is required");
+        }
+        return value.toString();
+    }
+
+    private static Set<String> parseLanguages(String languages) {
+        return languages.isBlank() ? Set.of() : Set.copyOf(List.of(languages.split(",")));
+    }
+}
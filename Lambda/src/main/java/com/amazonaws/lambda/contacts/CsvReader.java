@@ -0,0 +1,131 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ */
+
+package com.amazonaws.lambda.contacts;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Streams CSV records from a channel in fixed size chunks, so the size of the file does not
+ * matter. Supports quoted fields with embedded commas, quotes and line breaks, and both LF and
+ * CRLF line endings. A leading byte order mark is dropped.
+ */
+public class CsvReader {
+    static final int CHUNK_BYTES = 1 << 20;
+    private static final char BYTE_ORDER_MARK = '\uFEFF';
+
+    private final ReadableByteChannel channel;
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final ByteBuffer bytes = ByteBuffer.allocateDirect(CHUNK_BYTES);
+    private final CharBuffer chars = CharBuffer.allocate(CHUNK_BYTES);
+    private final StringBuilder field = new StringBuilder();
+    private boolean endOfInput;
+    private boolean flushed;
+    private boolean started;
+    private long bytesRead;
+
+    public CsvReader(ReadableByteChannel channel) {
+        this.channel = channel;
+        chars.flip();
+    }
+
+    // Reads the next record into fields, returns false at the end of the input.
+    public boolean next(List<String> fields) throws IOException {
+        fields.clear();
+        field.setLength(0);
+        boolean quoted = false;
+        boolean any = false;
+        while (true) {
+            if (!chars.hasRemaining() && !fill()) {
+                if (any || field.length() > 0) {
+                    fields.add(field.toString());
+                    return true;
+                }
+                return false;
+            }
+            char c = chars.get();
+            if (!started) {
+                started = true;
+                if (c == BYTE_ORDER_MARK) {
+                    continue;
+                }
+            }
+            any = true;
+            if (quoted) {
+                if (c == '"') {
+                    if (!chars.hasRemaining()) {
+                        fill();
+                    }
+                    if (chars.hasRemaining() && chars.get(chars.position()) == '"') {
+                        chars.get();
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                fields.add(field.toString());
+                return true;
+            } else if (c != '\r') {
+                field.append(c);
+            }
+        }
+    }
+
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    private boolean fill() throws IOException {
+        // The decoder cannot be called again once flushed, e.g. when the last record had no line ending
+        if (flushed) {
+            return false;
+        }
+        chars.compact();
+        try {
+            while (chars.position() == 0) {
+                if (!endOfInput) {
+                    int read = channel.read(bytes);
+                    if (read < 0) {
+                        endOfInput = true;
+                    } else {
+                        bytesRead += read;
+                    }
+                }
+                bytes.flip();
+                CoderResult result = decoder.decode(bytes, chars, endOfInput);
+                bytes.compact();
+                if (result.isError()) {
+                    result.throwException();
+                }
+                if (endOfInput) {
+                    decoder.flush(chars);
+                    flushed = true;
+                    break;
+                }
+            }
+        } finally {
+            chars.flip();
+        }
+        return chars.hasRemaining();
+    }
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ */
+
+package com.amazonaws.lambda.contacts;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Writes shard files to a local directory.
+ */
+public class DirectoryShardOutput implements ShardOutput {
+    private final Path directory;
+
+    public DirectoryShardOutput(Path directory) throws IOException {
+        this.directory = Files.createDirectories(directory);
+    }
+
+    @Override
+    public Writer open(String name) throws IOException {
+        return Files.newBufferedWriter(directory.resolve(name), StandardCharsets.UTF_8);
+    }
+
+    public Path resolve(String name) {
+        return directory.resolve(name);
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ */
+
+package com.amazonaws.lambda.contacts;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Contacts of a campaign as they were last written to the contacts table: a 64-bit digest of the
+ * attributes of every phone number. The pre-processing skips the rows whose digest is unchanged,
+ * so loading a list again only writes its new and changed contacts.
+ * <p>
+ * Open addressing map of phone numbers to digests, 16 bytes per slot in memory and per contact in
+ * its serialized form.
+ */
+public class LoadedContacts {
+    private static final int MAGIC = 0x4C444331;
+    private static final long EMPTY = 0;
+    private static final double MAX_LOAD = 0.6;
+
+    private long[] phoneNumbers;
+    private long[] digests;
+    private int size;
+    private int resizeAt;
+
+    public LoadedContacts(int expectedSize) {
+        int capacity = Integer.highestOneBit((int) Math.max(16, expectedSize / MAX_LOAD) - 1) << 1;
+        phoneNumbers = new long[capacity];
+        digests = new long[capacity];
+        resizeAt = (int) (capacity * MAX_LOAD);
+    }
+
+    // Digest of the attributes a contact is written with, the partition key changes with contactKeyShards.
+    public static long digest(String userLanguage, String timeZone, String partitionKey) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : (userLanguage + '\u0000' + timeZone + '\u0000' + partitionKey).getBytes(StandardCharsets.UTF_8)) {
+            hash = (hash ^ (b & 0xff)) * 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    // Records the contact and returns false when it was already loaded with the same digest.
+    public boolean put(long phoneNumber, long digest) {
+        if (phoneNumber <= 0) {
+            throw new IllegalArgumentException("Only positive phone numbers can be stored, got " + phoneNumber);
+        }
+        int mask = phoneNumbers.length - 1;
+        int index = mix(phoneNumber) & mask;
+        while (phoneNumbers[index] != EMPTY) {
+            if (phoneNumbers[index] == phoneNumber) {
+                if (digests[index] == digest) {
+                    return false;
+                }
+                digests[index] = digest;
+                return true;
+            }
+            index = (index + 1) & mask;
+        }
+        phoneNumbers[index] = phoneNumber;
+        digests[index] = digest;
+        if (++size > resizeAt) {
+            resize();
+        }
+        return true;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public byte[] toBytes() {
+        ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES * 2 + size * Long.BYTES * 2);
+        buffer.putInt(MAGIC).putInt(size);
+        for (int i = 0; i < phoneNumbers.length; i++) {
+            if (phoneNumbers[i] != EMPTY) {
+                buffer.putLong(phoneNumbers[i]).putLong(digests[i]);
+            }
+        }
+        return buffer.array();
+    }
+
+    public static LoadedContacts fromBytes(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        if (buffer.getInt() != MAGIC) {
+            throw new IllegalArgumentException("Not a loaded contacts index");
+        }
+        int size = buffer.getInt();
+        LoadedContacts contacts = new LoadedContacts(size);
+        for (int i = 0; i < size; i++) {
+            contacts.put(buffer.getLong(), buffer.getLong());
+        }
+        return contacts;
+    }
+
+    private void resize() {
+        long[] previousNumbers = phoneNumbers;
+        long[] previousDigests = digests;
+        phoneNumbers = new long[previousNumbers.length * 2];
+        digests = new long[previousNumbers.length * 2];
+        resizeAt = (int) (phoneNumbers.length * MAX_LOAD);
+        int mask = phoneNumbers.length - 1;
+        for (int i = 0; i < previousNumbers.length; i++) {
+            if (previousNumbers[i] != EMPTY) {
+                int index = mix(previousNumbers[i]) & mask;
+                while (phoneNumbers[index] != EMPTY) {
+                    index = (index + 1) & mask;
+                }
+                phoneNumbers[index] = previousNumbers[i];
+                digests[index] = previousDigests[i];
+            }
+        }
+    }
+
+    // Same mixing as the LongHashSet, phone numbers share long prefixes.
+    private static int mix(long value) {
+        long h = value * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ */
+
+package com.amazonaws.lambda.contacts;
+
+import java.util.Arrays;
+
+/**
+ * Open addressing set of positive longs, 8 bytes per slot and no object per entry, so millions
+ * of phone numbers fit in a few tens of megabytes.
+ */
+public class LongHashSet {
+    private static final long EMPTY = 0;
+    private static final double MAX_LOAD = 0.6;
+
+    private long[] slots;
+    private int size;
+    private int resizeAt;
+
+    public LongHashSet(int expectedSize) {
+        int capacity = Integer.highestOneBit((int) Math.max(16, expectedSize / MAX_LOAD) - 1) << 1;
+        slots = new long[capacity];
+        resizeAt = (int) (capacity * MAX_LOAD);
+    }
+
+    // Returns false when the value was already in the set.
+    public boolean add(long value) {
+        checkValue(value);
+        int mask = slots.length - 1;
+        int index = mix(value) & mask;
+        while (slots[index] != EMPTY) {
+            if (slots[index] == value) {
+                return false;
+            }
+            index = (index + 1) & mask;
+        }
+        slots[index] = value;
+        if (++size > resizeAt) {
+            resize();
+        }
+        return true;
+    }
+
+    public boolean contains(long value) {
+        if (value <= 0) {
+            return false;
+        }
+        int mask = slots.length - 1;
+        int index = mix(value) & mask;
+        while (slots[index] != EMPTY) {
+            if (slots[index] == value) {
+                return true;
+            }
+            index = (index + 1) & mask;
+        }
+        return false;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long[] toSortedArray() {
+        long[] values = new long[size];
+        int i = 0;
+        for (long value : slots) {
+            if (value != EMPTY) {
+                values[i++] = value;
+            }
+        }
+        Arrays.sort(values);
+        return values;
+    }
+
+    public long memoryBytes() {
+        return (long) slots.length * Long.BYTES;
+    }
+
+    private void resize() {
+        long[] previous = slots;
+        slots = new long[previous.length * 2];
+        resizeAt = (int) (slots.length * MAX_LOAD);
+        int mask = slots.length - 1;
+        for (long value : previous) {
+            if (value != EMPTY) {
+                int index = mix(value) & mask;
+                while (slots[index] != EMPTY) {
+                    index = (index + 1) & mask;
+                }
+                slots[index] = value;
+            }
+        }
+    }
+
+    private static void checkValue(long value) {
+        if (value <= 0) {
+            throw new IllegalArgumentException("Only positive values can be stored, got " + value);
+        }
+    }
+
+    // Phone numbers share long prefixes, spread them over the table before masking.
+    private static int mix(long value) {
+        long h = value * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
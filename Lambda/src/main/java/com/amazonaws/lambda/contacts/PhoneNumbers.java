@@ -0,0 +1,106 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ */
+
+package com.amazonaws.lambda.contacts;
+
+/**
+ * E.164 phone number normalization. Numbers are handled as the long value of their digits, which
+ * always fits since E.164 numbers have at most 15 digits, so large lists can be checked and
+ * deduplicated without allocating a string per row.
+ */
+public final class PhoneNumbers {
+    public static final long INVALID = -1;
+
+    private static final int MIN_DIGITS = 8;
+    private static final int MAX_DIGITS = 15;
+
+    private PhoneNumbers() {
+    }
+
+    // Returns the digits of the E.164 form of the number, or INVALID.
+    // Numbers without a leading + or 00 are national numbers of the default country code, never international ones.
+    public static long normalize(CharSequence raw, int defaultCountryCode) {
+        long digits = 0;
+        int count = 0;
+        boolean international = false;
+        int leadingZeros = 0;
+        boolean significant = false;
+
+        for (int i = 0; i < raw.length(); i++) {
+            char c = raw.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (!significant && c == '0' && !international) {
+                    leadingZeros++;
+                    if (leadingZeros == 2) {
+                        international = true;
+                    }
+                    continue;
+                }
+                if (++count > MAX_DIGITS) {
+                    return INVALID;
+                }
+                significant = true;
+                digits = digits * 10 + (c - '0');
+            } else if (c == '+' && !significant && !international && leadingZeros == 0) {
+                international = true;
+            } else if (c != ' ' && c != '-' && c != '.' && c != '(' && c != ')' && c != '\t' && c != '"') {
+                return INVALID;
+            }
+        }
+
+        if (!international) {
+            int codeDigits = String.valueOf(defaultCountryCode).length();
+            if (defaultCountryCode == 1) {
+                // North American numbers have no trunk prefix, they are the 10 digits with or without the leading 1
+                if (leadingZeros > 0) {
+                    return INVALID;
+                }
+                if (count == 10) {
+                    digits += 10_000_000_000L;
+                    count = 11;
+                } else if (count != 11 || digits / 10_000_000_000L != 1) {
+                    return INVALID;
+                }
+            } else {
+                // The national trunk prefix 0 was skipped above, the country code and the national number
+                // together take 8 to 15 digits
+                if (count < MIN_DIGITS - codeDigits || count > MAX_DIGITS - codeDigits) {
+                    return INVALID;
+                }
+                digits += defaultCountryCode * pow10(count);
+                count += codeDigits;
+            }
+        }
+        if (count < MIN_DIGITS || count > MAX_DIGITS || digits < pow10(count - 1)) {
+            return INVALID;
+        }
+        if (digits / pow10(count - 1) == 1 && !isValidNorthAmerican(digits, count)) {
+            return INVALID;
+        }
+        return digits;
+    }
+
+    public static String format(long digits) {
+        return "+" + digits;
+    }
+
+    // +1 NPA NXX XXXX where the area code and the exchange cannot start with 0 or 1.
+    private static boolean isValidNorthAmerican(long digits, int count) {
+        if (count != 11) {
+            return false;
+        }
+        long areaCode = digits / 10_000_000L % 1000;
+        long exchange = digits / 10_000L % 1000;
+        return areaCode >= 200 && exchange >= 200;
+    }
+
+    private static long pow10(int exponent) {
+        long value = 1;
+        for (int i = 0; i < exponent; i++) {
+            value *= 10;
+        }
+        return value;
+    }
+}
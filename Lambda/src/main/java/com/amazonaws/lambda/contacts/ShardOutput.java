@@ -0,0 +1,16 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ */
+
+package com.amazonaws.lambda.contacts;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Destination of the shard files written by the {@link ContactListPreprocessor}.
+ */
+public interface ShardOutput {
+    Writer open(String name) throws IOException;
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ */
+
+package com.amazonaws.lambda.contacts;
+
+import java.time.DateTimeException;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Time zone of a destination derived from its E.164 number: the area code for North American
+ * numbers, the country calling code otherwise. Countries spanning several zones resolve to the
+ * zone of their capital or largest population, a TimeZone column in the contact list overrides it.
+ */
+public final class TimeZones {
+    private static final Map<Integer, ZoneId> AREA_CODES = new HashMap<>();
+    private static final Map<Integer, ZoneId> COUNTRY_CODES = new HashMap<>();
+
+    static {
+        areaCodes("America/New_York",
+                201, 202, 203, 207, 212, 215, 216, 220, 223, 226, 227, 229, 231, 234, 239, 240, 248, 249, 252, 260, 263,
+                267, 269, 272, 276, 283, 289, 301, 302, 304, 305, 313, 315, 317, 321, 324, 326, 330, 332, 336, 339, 343,
+                347, 351, 352, 354, 363, 365, 367, 380, 382, 386, 401, 404, 407, 410, 412, 413, 416, 418, 419, 423, 434,
+                436, 437, 438, 440, 443, 445, 448, 450, 463, 468, 470, 472, 475, 478, 484, 502, 508, 513, 514, 516, 517,
+                518, 519, 540, 548, 551, 561, 567, 570, 571, 574, 579, 581, 582, 585, 586, 603, 606, 607, 609, 610, 613,
+                614, 616, 617, 631, 640, 645, 646, 647, 656, 667, 678, 679, 680, 681, 683, 686, 689, 703, 704, 705, 706,
+                716, 717, 718, 724, 727, 732, 734, 740, 742, 743, 753, 754, 757, 762, 765, 770, 771, 772, 774, 781, 786,
+                802, 803, 804, 810, 813, 814, 819, 826, 828, 835, 838, 839, 843, 845, 848, 850, 854, 856, 857, 859, 860,
+                862, 863, 864, 865, 873, 878, 904, 905, 908, 910, 912, 914, 917, 919, 929, 930, 934, 937, 941, 943, 947,
+                948, 954, 959, 973, 978, 980, 984, 989);
+        areaCodes("America/Chicago",
+                205, 210, 214, 217, 218, 219, 224, 225, 228, 251, 254, 256, 262, 270, 274, 281, 308, 309, 312, 314, 316,
+                318, 319, 320, 325, 327, 331, 334, 337, 346, 361, 364, 402, 405, 409, 414, 417, 430, 432, 447, 464, 469,
+                479, 501, 504, 507, 512, 515, 531, 534, 539, 557, 563, 572, 573, 580, 601, 605, 608, 612, 615, 618, 620,
+                629, 630, 636, 641, 651, 659, 660, 662, 682, 701, 708, 712, 713, 715, 726, 730, 731, 737, 763, 769, 773,
+                779, 785, 806, 815, 816, 817, 830, 832, 847, 861, 870, 872, 901, 903, 913, 918, 920, 931, 936, 938, 940,
+                945, 952, 956, 972, 975, 979, 985);
+        areaCodes("America/Winnipeg", 204, 431, 584);
+        areaCodes("America/Regina", 306, 474, 639);
+        areaCodes("America/Denver", 208, 303, 307, 385, 406, 435, 505, 575, 719, 720, 801, 915, 970, 983, 986);
+        areaCodes("America/Edmonton", 368, 403, 587, 780, 825);
+        areaCodes("America/Phoenix", 480, 520, 602, 623, 928);
+        areaCodes("America/Los_Angeles",
+                206, 209, 213, 253, 279, 310, 323, 341, 350, 360, 408, 415, 424, 425, 442, 458, 503, 509, 510, 530, 541,
+                559, 562, 564, 619, 626, 628, 650, 657, 661, 669, 702, 707, 714, 725, 747, 760, 775, 805, 818, 820, 831,
+                840, 858, 909, 916, 925, 949, 951, 971);
+        areaCodes("America/Vancouver", 236, 250, 257, 604, 672, 778);
+        areaCodes("America/Anchorage", 907);
+        areaCodes("Pacific/Honolulu", 808);
+        areaCodes("America/Halifax", 428, 506, 782, 902);
+        areaCodes("America/St_Johns", 709);
+        areaCodes("America/Puerto_Rico", 340, 787, 939);
+        areaCodes("Pacific/Guam", 670, 671);
+        areaCodes("Pacific/Pago_Pago", 684);
+
+        countryCodes("Europe/London", 44);
+        countryCodes("Europe/Dublin", 353);
+        countryCodes("Europe/Lisbon", 351);
+        countryCodes("Europe/Paris", 33);
+        countryCodes("Europe/Berlin", 49);
+        countryCodes("Europe/Madrid", 34);
+        countryCodes("Europe/Rome", 39);
+        countryCodes("Europe/Amsterdam", 31);
+        countryCodes("Europe/Brussels", 32);
+        countryCodes("Europe/Zurich", 41);
+        countryCodes("Europe/Vienna", 43);
+        countryCodes("Europe/Copenhagen", 45);
+        countryCodes("Europe/Stockholm", 46);
+        countryCodes("Europe/Oslo", 47);
+        countryCodes("Europe/Warsaw", 48);
+        countryCodes("Europe/Prague", 420);
+        countryCodes("Europe/Budapest", 36);
+        countryCodes("Europe/Helsinki", 358);
+        countryCodes("Europe/Athens", 30);
+        countryCodes("Europe/Bucharest", 40);
+        countryCodes("Europe/Istanbul", 90);
+        countryCodes("Europe/Moscow", 7);
+        countryCodes("Asia/Jerusalem", 972);
+        countryCodes("Asia/Dubai", 971);
+        countryCodes("Asia/Riyadh", 966);
+        countryCodes("Asia/Kolkata", 91);
+        countryCodes("Asia/Singapore", 65);
+        countryCodes("Asia/Kuala_Lumpur", 60);
+        countryCodes("Asia/Bangkok", 66);
+        countryCodes("Asia/Jakarta", 62);
+        countryCodes("Asia/Manila", 63);
+        countryCodes("Asia/Shanghai", 86);
+        countryCodes("Asia/Hong_Kong", 852);
+        countryCodes("Asia/Taipei", 886);
+        countryCodes("Asia/Tokyo", 81);
+        countryCodes("Asia/Seoul", 82);
+        countryCodes("Australia/Sydney", 61);
+        countryCodes("Pacific/Auckland", 64);
+        countryCodes("Africa/Johannesburg", 27);
+        countryCodes("Africa/Lagos", 234);
+        countryCodes("Africa/Nairobi", 254);
+        countryCodes("Africa/Cairo", 20);
+        countryCodes("America/Mexico_City", 52);
+        countryCodes("America/Bogota", 57);
+        countryCodes("America/Lima", 51);
+        countryCodes("America/Santiago", 56);
+        countryCodes("America/Argentina/Buenos_Aires", 54);
+        countryCodes("America/Sao_Paulo", 55);
+    }
+
+    private TimeZones() {
+    }
+
+    // Zone of an E.164 number given as its digits, null when it cannot be told from the number.
+    public static ZoneId of(long digits) {
+        if (digits <= 0) {
+            return null;
+        }
+        String number = Long.toString(digits);
+        if (number.length() == 11 && number.charAt(0) == '1') {
+            return AREA_CODES.get(Integer.parseInt(number.substring(1, 4)));
+        }
+        for (int length = 3; length >= 1; length--) {
+            ZoneId zone = COUNTRY_CODES.get(Integer.parseInt(number.substring(0, length)));
+            if (zone != null) {
+                return zone;
+            }
+        }
+        return null;
+    }
+
+    // Zone named by a contact list or the configuration, null when the id is not a valid region or offset.
+    public static ZoneId parse(String id) {
+        if (id == null || id.isBlank()) {
+            return null;
+        }
+        try {
+            return ZoneId.of(id.trim());
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    private static void areaCodes(String zone, int... codes) {
+        ZoneId id = ZoneId.of(zone);
+        for (int code : codes) {
+            AREA_CODES.put(code, id);
+        }
+    }
+
+    private static void countryCodes(String zone, int code) {
+        COUNTRY_CODES.put(code, ZoneId.of(zone));
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ */
+
+package com.amazonaws.lambda.contacts;
+
+import java.util.Set;
+
+/**
+ * UserLang validation. Languages are Amazon Connect locale codes such as en_US, "en-us" is
+ * accepted and normalized to en_US.
+ */
+public class UserLanguages {
+    private final Set<String> allowed;
+
+    // An empty set accepts any well formed locale code.
+    public UserLanguages(Set<String> allowed) {
+        this.allowed = allowed;
+    }
+
+    // Returns the normalized locale code, or null when it is malformed or not allowed.
+    public String normalize(String raw) {
+        String value = raw.trim();
+        if (value.length() != 5 || (value.charAt(2) != '_' && value.charAt(2) != '-')) {
+            return null;
+        }
+        char[] code = {
+                Character.toLowerCase(value.charAt(0)), Character.toLowerCase(value.charAt(1)), '_',
+                Character.toUpperCase(value.charAt(3)), Character.toUpperCase(value.charAt(4))
+        };
+        for (int i : new int[]{0, 1, 3, 4}) {
+            if (code[i] < 'A' || (code[i] > 'Z' && code[i] < 'a') || code[i] > 'z') {
+                return null;
+            }
+        }
+        String normalized = new String(code);
+        return allowed.isEmpty() || allowed.contains(normalized) ? normalized : null;
+    }
+}
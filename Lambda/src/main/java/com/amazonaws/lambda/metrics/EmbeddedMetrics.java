@@ -0,0 +1,107 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ */
+
+package com.amazonaws.lambda.metrics;
+
+import com.amazonaws.services.lambda.runtime.LambdaLogger;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Campaign metrics written as CloudWatch embedded metric format log lines. CloudWatch Logs turns
+ * every line into metric data points, so the functions publish metrics without calling PutMetricData.
+ * <p>
+ * A metric holds at most 100 values per line, further values go to additional lines.
+ */
+public class EmbeddedMetrics {
+    public static final String NAMESPACE = "AmazonConnectAgentlessCampaign";
+    public static final String COUNT = "Count";
+    public static final String MILLISECONDS = "Milliseconds";
+    public static final String BYTES = "Bytes";
+
+    private static final int MAX_VALUES = 100;
+
+    private final Map<String, String> dimensions;
+    private final Map<String, String> units = new LinkedHashMap<>();
+    private final Map<String, List<Double>> values = new LinkedHashMap<>();
+
+    public EmbeddedMetrics() {
+        this(Map.of());
+    }
+
+    public EmbeddedMetrics(Map<String, String> dimensions) {
+        this.dimensions = new LinkedHashMap<>(dimensions);
+    }
+
+    public EmbeddedMetrics put(String name, double value, String unit) {
+        units.putIfAbsent(name, unit);
+        values.computeIfAbsent(name, key -> new ArrayList<>()).add(value);
+        return this;
+    }
+
+    public boolean isEmpty() {
+        return values.isEmpty();
+    }
+
+    public void log(LambdaLogger logger) {
+        log(logger, System.currentTimeMillis());
+    }
+
+    // Data points of a past minute, CloudWatch takes timestamps up to two weeks old.
+    public void log(LambdaLogger logger, long timestampMillis) {
+        for (String line : toLines(timestampMillis)) {
+            logger.log(line);
+        }
+    }
+
+    // One JSON document per line, empty when nothing was put.
+    public List<String> toLines(long timestampMillis) {
+        List<String> lines = new ArrayList<>();
+        for (int offset = 0; ; offset += MAX_VALUES) {
+            StringBuilder metrics = new StringBuilder();
+            StringBuilder fields = new StringBuilder();
+            for (Map.Entry<String, List<Double>> metric : values.entrySet()) {
+                List<Double> list = metric.getValue();
+                if (offset >= list.size()) {
+                    continue;
+                }
+                List<Double> chunk = list.subList(offset, Math.min(list.size(), offset + MAX_VALUES));
+                metrics.append(metrics.length() > 0 ? "," : "")
+                        .append("{\"Name\":\"").append(metric.getKey()).append("\",\"Unit\":\"").append(units.get(metric.getKey())).append("\"}");
+                fields.append(",\"").append(metric.getKey()).append("\":").append(chunk.size() == 1 ? number(chunk.get(0)) : array(chunk));
+            }
+            if (metrics.length() == 0) {
+                return lines;
+            }
+            lines.add(document(timestampMillis, metrics, fields));
+        }
+    }
+
+    private String document(long timestampMillis, CharSequence metrics, CharSequence fields) {
+        StringBuilder names = new StringBuilder();
+        StringBuilder dimensionFields = new StringBuilder();
+        for (Map.Entry<String, String> dimension : dimensions.entrySet()) {
+            names.append(names.length() > 0 ? "," : "").append('"').append(dimension.getKey()).append('"');
+            dimensionFields.append(",\"").append(dimension.getKey()).append("\":\"").append(dimension.getValue()).append('"');
+        }
+        return "{\"_aws\":{\"Timestamp\":" + timestampMillis + ",\"CloudWatchMetrics\":[{\"Namespace\":\"" + NAMESPACE
+                + "\",\"Dimensions\":[[" + names + "]],\"Metrics\":[" + metrics + "]}]}" + dimensionFields + fields + "}";
+    }
+
+    private static String array(List<Double> chunk) {
+        StringBuilder array = new StringBuilder("[");
+        for (int i = 0; i < chunk.size(); i++) {
+            array.append(i > 0 ? "," : "").append(number(chunk.get(i)));
+        }
+        return array.append(']').toString();
+    }
+
+    private static String number(double value) {
+        return value == Math.rint(value) && Math.abs(value) < 1e15 ? Long.toString((long) value) : Double.toString(value);
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ */
+
+package com.amazonaws.lambda.outcome;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Running totals of one Outreach execution. They are kept in a single aggregate item of the
+ * execution table, keyed by the execution name and {@link #SORT_KEY}, so the progress of a
+ * campaign is read with one GetItem. A batch of outcomes is added with one transaction, which also
+ * flags the dial attempts it counts.
+ */
+public class CampaignCounters {
+    // Sort key of the aggregate item, never a valid phone number
+    public static final String SORT_KEY = "#campaign";
+
+    private long completed;
+    private long answered;
+    private long voicemail;
+    private long unanswered;
+    private long failed;
+    private long talkSeconds;
+
+    public void add(ContactOutcome outcome) {
+        completed++;
+        talkSeconds += outcome.getTalkSeconds();
+        switch (outcome.getDisposition()) {
+            case ANSWERED:
+                answered++;
+                break;
+            case VOICEMAIL:
+                voicemail++;
+                break;
+            case FAILED:
+                failed++;
+                break;
+            default:
+                unanswered++;
+        }
+    }
+
+    public boolean isEmpty() {
+        return completed == 0;
+    }
+
+    // Attribute name to increment, in the order they are written.
+    public Map<String, Long> toMap() {
+        Map<String, Long> counters = new LinkedHashMap<>();
+        counters.put("completed", completed);
+        counters.put("answered", answered);
+        counters.put("voicemail", voicemail);
+        counters.put("unanswered", unanswered);
+        counters.put("failed", failed);
+        counters.put("talkSeconds", talkSeconds);
+        return counters;
+    }
+
+    public long getCompleted() {
+        return completed;
+    }
+
+    public long getAnswered() {
+        return answered;
+    }
+
+    public long getVoicemail() {
+        return voicemail;
+    }
+
+    public long getUnanswered() {
+        return unanswered;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public long getTalkSeconds() {
+        return talkSeconds;
+    }
+}
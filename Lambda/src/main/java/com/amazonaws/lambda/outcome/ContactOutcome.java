@@ -0,0 +1,140 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ */
+
+package com.amazonaws.lambda.outcome;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Set;
+
+/**
+ * Final state of an outbound contact, read from the DISCONNECTED contact event of Amazon Connect.
+ * <p>
+ * The EventBridge rule of the stack flattens the event into one pipe separated record,
+ * contactId|initiationTimestamp|connectedToSystemTimestamp|disconnectTimestamp|disconnectReason|answeringMachineDetectionStatus,
+ * delivered as a JSON string. Fields missing from the event are empty or null.
+ */
+public class ContactOutcome {
+    static final int FIELDS = 6;
+
+    private static final Set<String> FAILED_DISCONNECT_REASONS = Set.of(
+            "TELECOM_PROBLEM", "OUTBOUND_DESTINATION_ENDPOINT_ERROR", "OUTBOUND_RESOURCE_ERROR",
+            "OUTBOUND_ATTEMPT_FAILED", "EXPIRED");
+
+    private final String contactId;
+    private final Instant initiatedAt;
+    private final Instant connectedAt;
+    private final Instant disconnectedAt;
+    private final String disconnectReason;
+    private final String amdStatus;
+
+    public ContactOutcome(String contactId, Instant initiatedAt, Instant connectedAt, Instant disconnectedAt,
+                          String disconnectReason, String amdStatus) {
+        this.contactId = contactId;
+        this.initiatedAt = initiatedAt;
+        this.connectedAt = connectedAt;
+        this.disconnectedAt = disconnectedAt;
+        this.disconnectReason = disconnectReason;
+        this.amdStatus = amdStatus;
+    }
+
+    // Returns null when the body is not a contact record, such a message is dropped rather than retried.
+    public static ContactOutcome parse(String body) {
+        if (body == null) {
+            return null;
+        }
+        String record = body.trim();
+        if (record.length() >= 2 && record.startsWith("\"") && record.endsWith("\"")) {
+            record = record.substring(1, record.length() - 1);
+        }
+        String[] fields = record.split("\\|", -1);
+        if (fields.length != FIELDS || value(fields[0]) == null) {
+            return null;
+        }
+        try {
+            return new ContactOutcome(fields[0].trim(), instant(fields[1]), instant(fields[2]), instant(fields[3]),
+                    value(fields[4]), value(fields[5]));
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    // The record as the EventBridge input transformer writes it, without the surrounding quotes.
+    public String toRecord() {
+        return String.join("|", contactId, text(initiatedAt), text(connectedAt), text(disconnectedAt),
+                text(disconnectReason), text(amdStatus));
+    }
+
+    // Answering machine detection decides when Connect reports it, else whether the flow was reached.
+    public Disposition getDisposition() {
+        if (amdStatus != null) {
+            if (amdStatus.startsWith("VOICEMAIL")) {
+                return Disposition.VOICEMAIL;
+            }
+            if ("HUMAN_ANSWERED".equals(amdStatus)) {
+                return Disposition.ANSWERED;
+            }
+            if (amdStatus.startsWith("SIT_TONE") || "FAX_MACHINE_DETECTED".equals(amdStatus) || "AMD_ERROR".equals(amdStatus)) {
+                return Disposition.FAILED;
+            }
+        }
+        if (connectedAt != null) {
+            return Disposition.ANSWERED;
+        }
+        return disconnectReason != null && FAILED_DISCONNECT_REASONS.contains(disconnectReason)
+                ? Disposition.FAILED : Disposition.UNANSWERED;
+    }
+
+    // Seconds the contact spent connected, 0 when it never was.
+    public long getTalkSeconds() {
+        if (connectedAt == null || disconnectedAt == null || disconnectedAt.isBefore(connectedAt)) {
+            return 0;
+        }
+        return Duration.between(connectedAt, disconnectedAt).getSeconds();
+    }
+
+    private static String value(String field) {
+        String value = field.trim();
+        return value.isEmpty() || "null".equals(value) ? null : value;
+    }
+
+    private static Instant instant(String field) {
+        String value = value(field);
+        return value == null ? null : Instant.parse(value);
+    }
+
+    private static String text(Object value) {
+        return value == null ? "" : value.toString();
+    }
+
+    public String getContactId() {
+        return contactId;
+    }
+
+    public Instant getInitiatedAt() {
+        return initiatedAt;
+    }
+
+    public Instant getConnectedAt() {
+        return connectedAt;
+    }
+
+    public Instant getDisconnectedAt() {
+        return disconnectedAt;
+    }
+
+    public String getDisconnectReason() {
+        return disconnectReason;
+    }
+
+    public String getAmdStatus() {
+        return amdStatus;
+    }
+
+    public enum Disposition {
+        ANSWERED, VOICEMAIL, UNANSWERED, FAILED
+    }
+}
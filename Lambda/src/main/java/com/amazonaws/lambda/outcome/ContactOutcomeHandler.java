@@ -0,0 +1,75 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ */
+
+package com.amazonaws.lambda.outcome;
+
+import com.amazonaws.lambda.metrics.EmbeddedMetrics;
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import software.amazon.awssdk.http.urlconnection.UrlConnectionHttpClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Invoked by the SQS event source with micro-batches of the contact events Amazon Connect sends to
+ * EventBridge when an outbound contact disconnects.
+ * <p>
+ * Input: the SQS event, {"Records": [{"messageId": "...", "body": "..."}, ...]}
+ * <p>
+ * Output: {"batchItemFailures": [{"itemIdentifier": "..."}, ...]}, the messages SQS delivers again.
+ * The outcomes of the batch and the StartOutboundVoiceContact latency of their attempts are published
+ * as {@link EmbeddedMetrics}. Their contacts are also published as ContactsDialed, dated to the minute
+ * they were dialed.
+ */
+public class ContactOutcomeHandler implements RequestHandler<Map<String, Object>, Map<String, Object>> {
+    private static final ContactOutcomeStore STORE = new DynamoDbContactOutcomeStore(DynamoDbClient.builder()
+            .httpClient(UrlConnectionHttpClient.create())
+            .build(), System.getenv("EXECUTION_TABLE_NAME"));
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> handleRequest(Map<String, Object> input, Context context) {
+        Map<String, String> messages = new LinkedHashMap<>();
+        for (Map<String, Object> record : (List<Map<String, Object>>) input.getOrDefault("Records", List.of())) {
+            messages.put(String.valueOf(record.get("messageId")), String.valueOf(record.get("body")));
+        }
+
+        ContactOutcomeProcessor processor = new ContactOutcomeProcessor(STORE);
+        List<String> failures = processor.process(messages);
+        context.getLogger().log(messages.size() + " contact events: " + processor.getRecorded() + " recorded, "
+                + processor.getDuplicates() + " duplicates, " + processor.getUnresolved() + " not dialed yet, "
+                + processor.getMalformed() + " malformed");
+
+        CampaignCounters totals = processor.getTotals();
+        EmbeddedMetrics metrics = new EmbeddedMetrics()
+                .put("ContactsCompleted", totals.getCompleted(), EmbeddedMetrics.COUNT)
+                .put("ContactsAnswered", totals.getAnswered(), EmbeddedMetrics.COUNT)
+                .put("ContactsVoicemail", totals.getVoicemail(), EmbeddedMetrics.COUNT)
+                .put("ContactsUnanswered", totals.getUnanswered(), EmbeddedMetrics.COUNT)
+                .put("ContactsFailed", totals.getFailed(), EmbeddedMetrics.COUNT)
+                .put("ContactEventsUnresolved", processor.getUnresolved(), EmbeddedMetrics.COUNT);
+        for (long latency : processor.getDialLatencies()) {
+            metrics.put("DialLatency", latency, EmbeddedMetrics.MILLISECONDS);
+        }
+        metrics.log(context.getLogger());
+        // Dated back to the dial, so the dial rate is charted when the contacts were dialed rather than when they ended
+        for (Map.Entry<Instant, Long> dialed : processor.getDialedByMinute().entrySet()) {
+            new EmbeddedMetrics()
+                    .put("ContactsDialed", dialed.getValue(), EmbeddedMetrics.COUNT)
+                    .log(context.getLogger(), dialed.getKey().toEpochMilli());
+        }
+
+        List<Map<String, Object>> batchItemFailures = new ArrayList<>();
+        for (String messageId : failures) {
+            batchItemFailures.add(Map.of("itemIdentifier", messageId));
+        }
+        return Map.of("batchItemFailures", batchItemFailures);
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ */
+
+package com.amazonaws.lambda.outcome;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Writes a micro-batch of contact outcomes back to their dial attempts and adds them to the
+ * counters of their campaigns, one counter update per campaign and batch.
+ * <p>
+ * The counter update flags the attempts it counts in the same transaction, so an outcome is counted
+ * exactly once: an event delivered twice is dropped once its attempt is counted, and an outcome
+ * recorded by a batch whose counter update failed is counted when the event is delivered again.
+ * Events of contacts whose dial attempt is not recorded yet and the events of a campaign whose
+ * counter update failed are returned as failures to be delivered again. Messages that are not
+ * contact records are dropped.
+ */
+public class ContactOutcomeProcessor {
+    // A transaction writes up to 100 items, the aggregate item and the attempts it counts
+    static final int COUNT_BATCH_SIZE = 99;
+
+    private final ContactOutcomeStore store;
+    private final CampaignCounters totals = new CampaignCounters();
+    private final List<Long> dialLatencies = new ArrayList<>();
+    private final Map<Instant, Long> dialedByMinute = new TreeMap<>();
+    private long recorded;
+    private long duplicates;
+    private long unresolved;
+    private long malformed;
+
+    public ContactOutcomeProcessor(ContactOutcomeStore store) {
+        this.store = store;
+    }
+
+    // Takes the message bodies by message id and returns the ids of the messages to deliver again.
+    public List<String> process(Map<String, String> messages) {
+        List<String> failures = new ArrayList<>();
+        Map<String, List<Recorded>> campaigns = new LinkedHashMap<>();
+        Set<String> contactIds = new HashSet<>();
+        for (Map.Entry<String, String> message : messages.entrySet()) {
+            ContactOutcome outcome = ContactOutcome.parse(message.getValue());
+            if (outcome == null) {
+                malformed++;
+                continue;
+            }
+            // The same event twice in a batch would flag its attempt twice in one transaction
+            if (!contactIds.add(outcome.getContactId())) {
+                duplicates++;
+                continue;
+            }
+            try {
+                DialAttempt attempt = store.find(outcome.getContactId());
+                if (attempt == null) {
+                    unresolved++;
+                    failures.add(message.getKey());
+                } else if (store.record(attempt, outcome)) {
+                    campaigns.computeIfAbsent(attempt.getTopExecutionId(), id -> new ArrayList<>())
+                            .add(new Recorded(message.getKey(), attempt, outcome));
+                } else {
+                    duplicates++;
+                }
+            } catch (RuntimeException e) {
+                failures.add(message.getKey());
+            }
+        }
+
+        for (Map.Entry<String, List<Recorded>> campaign : campaigns.entrySet()) {
+            List<Recorded> outcomes = campaign.getValue();
+            for (int from = 0; from < outcomes.size(); from += COUNT_BATCH_SIZE) {
+                count(campaign.getKey(), outcomes.subList(from, Math.min(outcomes.size(), from + COUNT_BATCH_SIZE)), failures);
+            }
+        }
+        return failures;
+    }
+
+    // The outcomes stay recorded when the update fails, their events are delivered again to count them.
+    private void count(String topExecutionId, List<Recorded> outcomes, List<String> failures) {
+        List<DialAttempt> attempts = new ArrayList<>();
+        CampaignCounters counters = new CampaignCounters();
+        for (Recorded outcome : outcomes) {
+            attempts.add(outcome.attempt);
+            counters.add(outcome.outcome);
+        }
+        try {
+            store.count(topExecutionId, attempts, counters);
+        } catch (RuntimeException e) {
+            for (Recorded outcome : outcomes) {
+                failures.add(outcome.messageId);
+            }
+            return;
+        }
+        for (Recorded outcome : outcomes) {
+            recorded++;
+            totals.add(outcome.outcome);
+            if (outcome.attempt.getDialLatencyMillis() >= 0) {
+                dialLatencies.add(outcome.attempt.getDialLatencyMillis());
+            }
+            if (outcome.outcome.getInitiatedAt() != null) {
+                dialedByMinute.merge(outcome.outcome.getInitiatedAt().truncatedTo(ChronoUnit.MINUTES), 1L, Long::sum);
+            }
+        }
+    }
+
+    // Counters of all the outcomes recorded by this processor.
+    public CampaignCounters getTotals() {
+        return totals;
+    }
+
+    public List<Long> getDialLatencies() {
+        return dialLatencies;
+    }
+
+    // Contacts counted by this processor by the minute Amazon Connect initiated them.
+    public Map<Instant, Long> getDialedByMinute() {
+        return dialedByMinute;
+    }
+
+    public long getRecorded() {
+        return recorded;
+    }
+
+    public long getDuplicates() {
+        return duplicates;
+    }
+
+    public long getUnresolved() {
+        return unresolved;
+    }
+
+    public long getMalformed() {
+        return malformed;
+    }
+
+    private static class Recorded {
+        private final String messageId;
+        private final DialAttempt attempt;
+        private final ContactOutcome outcome;
+
+        Recorded(String messageId, DialAttempt attempt, ContactOutcome outcome) {
+            this.messageId = messageId;
+            this.attempt = attempt;
+            this.outcome = outcome;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ */
+
+package com.amazonaws.lambda.outcome;
+
+import java.util.List;
+
+/**
+ * Dial attempts and campaign counters of the execution table.
+ */
+public interface ContactOutcomeStore {
+
+    // Returns null when no dial attempt holds the contact id (yet).
+    DialAttempt find(String contactId);
+
+    // Writes the outcome on the dial attempt unless it is already counted, returns false for a repeated event.
+    boolean record(DialAttempt attempt, ContactOutcome outcome);
+
+    // Increments the counters of the aggregate item of the Outreach execution and flags the attempts
+    // as counted, all or nothing. Fails when one of the attempts is already counted.
+    void count(String topExecutionId, List<DialAttempt> attempts, CampaignCounters counters);
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ */
+
+package com.amazonaws.lambda.outcome;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Key of a dial attempt item of the execution table and the Outreach execution it belongs to, with
+ * the times the StartOutboundVoiceContact state was entered and the attempt was recorded.
+ */
+public class DialAttempt {
+    private final String campaignExecutionId;
+    private final String phoneNumber;
+    private final String topExecutionId;
+    private final Instant dialedAt;
+    private final Instant attemptedAt;
+
+    public DialAttempt(String campaignExecutionId, String phoneNumber, String topExecutionId) {
+        this(campaignExecutionId, phoneNumber, topExecutionId, null, null);
+    }
+
+    public DialAttempt(String campaignExecutionId, String phoneNumber, String topExecutionId, Instant dialedAt, Instant attemptedAt) {
+        this.campaignExecutionId = campaignExecutionId;
+        this.phoneNumber = phoneNumber;
+        this.topExecutionId = topExecutionId;
+        this.dialedAt = dialedAt;
+        this.attemptedAt = attemptedAt;
+    }
+
+    // Attempts recorded before dialedAt was, or with an unreadable time, have no latency.
+    public static Instant instant(String value) {
+        try {
+            return value == null ? null : Instant.parse(value);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    // StartOutboundVoiceContact round trip as seen by the workflow, -1 when unknown.
+    public long getDialLatencyMillis() {
+        if (dialedAt == null || attemptedAt == null || attemptedAt.isBefore(dialedAt)) {
+            return -1;
+        }
+        return Duration.between(dialedAt, attemptedAt).toMillis();
+    }
+
+    public String getCampaignExecutionId() {
+        return campaignExecutionId;
+    }
+
+    public String getPhoneNumber() {
+        return phoneNumber;
+    }
+
+    public String getTopExecutionId() {
+        return topExecutionId;
+    }
+}
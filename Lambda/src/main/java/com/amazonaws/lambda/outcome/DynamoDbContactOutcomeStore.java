@@ -0,0 +1,127 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ */
+
+package com.amazonaws.lambda.outcome;
+
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItem;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsRequest;
+import software.amazon.awssdk.services.dynamodb.model.Update;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Contact outcome store backed by the execution table. Dial attempts are found through the
+ * contactId index, which projects the topExecutionId, dialedAt and attemptedAt of the attempt.
+ */
+public class DynamoDbContactOutcomeStore implements ContactOutcomeStore {
+    public static final String CONTACT_ID_INDEX = "contactId-index";
+
+    private final DynamoDbClient dynamoDb;
+    private final String tableName;
+
+    public DynamoDbContactOutcomeStore(DynamoDbClient dynamoDb, String tableName) {
+        this.dynamoDb = dynamoDb;
+        this.tableName = tableName;
+    }
+
+    @Override
+    public DialAttempt find(String contactId) {
+        List<Map<String, AttributeValue>> items = dynamoDb.query(QueryRequest.builder()
+                .tableName(tableName)
+                .indexName(CONTACT_ID_INDEX)
+                .keyConditionExpression("contactId = :contactId")
+                .expressionAttributeValues(Map.of(":contactId", AttributeValue.fromS(contactId)))
+                .limit(1)
+                .build()).items();
+        if (items.isEmpty()) {
+            return null;
+        }
+        Map<String, AttributeValue> item = items.get(0);
+        return new DialAttempt(item.get("campaignExecutionId").s(), item.get("phoneNumber").s(),
+                item.containsKey("topExecutionId") ? item.get("topExecutionId").s() : item.get("campaignExecutionId").s(),
+                DialAttempt.instant(item.containsKey("dialedAt") ? item.get("dialedAt").s() : null),
+                DialAttempt.instant(item.containsKey("attemptedAt") ? item.get("attemptedAt").s() : null));
+    }
+
+    @Override
+    public boolean record(DialAttempt attempt, ContactOutcome outcome) {
+        List<String> set = new ArrayList<>(List.of("outcome = :outcome", "talkSeconds = :talkSeconds", "completedAt = :completedAt"));
+        Map<String, AttributeValue> values = new HashMap<>();
+        values.put(":contactId", AttributeValue.fromS(outcome.getContactId()));
+        values.put(":outcome", AttributeValue.fromS(outcome.getDisposition().name()));
+        values.put(":talkSeconds", AttributeValue.fromN(Long.toString(outcome.getTalkSeconds())));
+        values.put(":completedAt", AttributeValue.fromS(String.valueOf(
+                outcome.getDisconnectedAt() != null ? outcome.getDisconnectedAt() : Instant.now())));
+        if (outcome.getDisconnectReason() != null) {
+            set.add("disconnectReason = :disconnectReason");
+            values.put(":disconnectReason", AttributeValue.fromS(outcome.getDisconnectReason()));
+        }
+        if (outcome.getAmdStatus() != null) {
+            set.add("amdStatus = :amdStatus");
+            values.put(":amdStatus", AttributeValue.fromS(outcome.getAmdStatus()));
+        }
+
+        try {
+            dynamoDb.updateItem(UpdateItemRequest.builder()
+                    .tableName(tableName)
+                    .key(Map.of(
+                            "campaignExecutionId", AttributeValue.fromS(attempt.getCampaignExecutionId()),
+                            "phoneNumber", AttributeValue.fromS(attempt.getPhoneNumber())))
+                    .updateExpression("SET " + String.join(", ", set))
+                    // A later attempt of the same number holds another contact id and keeps its own outcome.
+                    // An outcome recorded but not counted yet is written again, the event brings the same values.
+                    .conditionExpression("contactId = :contactId AND attribute_not_exists(counted)")
+                    .expressionAttributeValues(values)
+                    .build());
+            return true;
+        } catch (ConditionalCheckFailedException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public void count(String topExecutionId, List<DialAttempt> attempts, CampaignCounters counters) {
+        if (counters.isEmpty()) {
+            return;
+        }
+        List<String> add = new ArrayList<>();
+        Map<String, AttributeValue> values = new HashMap<>();
+        for (Map.Entry<String, Long> counter : counters.toMap().entrySet()) {
+            add.add(counter.getKey() + " :" + counter.getKey());
+            values.put(":" + counter.getKey(), AttributeValue.fromN(Long.toString(counter.getValue())));
+        }
+        values.put(":updatedAt", AttributeValue.fromS(Instant.now().toString()));
+        List<TransactWriteItem> items = new ArrayList<>();
+        items.add(TransactWriteItem.builder().update(Update.builder()
+                .tableName(tableName)
+                .key(Map.of(
+                        "campaignExecutionId", AttributeValue.fromS(topExecutionId),
+                        "phoneNumber", AttributeValue.fromS(CampaignCounters.SORT_KEY)))
+                .updateExpression("SET updatedAt = :updatedAt ADD " + String.join(", ", add))
+                .expressionAttributeValues(values)
+                .build()).build());
+        for (DialAttempt attempt : attempts) {
+            items.add(TransactWriteItem.builder().update(Update.builder()
+                    .tableName(tableName)
+                    .key(Map.of(
+                            "campaignExecutionId", AttributeValue.fromS(attempt.getCampaignExecutionId()),
+                            "phoneNumber", AttributeValue.fromS(attempt.getPhoneNumber())))
+                    .updateExpression("SET counted = :counted")
+                    .conditionExpression("attribute_exists(outcome) AND attribute_not_exists(counted)")
+                    .expressionAttributeValues(Map.of(":counted", AttributeValue.fromBool(true)))
+                    .build()).build());
+        }
+        dynamoDb.transactWriteItems(TransactWriteItemsRequest.builder().transactItems(items).build());
+    }
+}
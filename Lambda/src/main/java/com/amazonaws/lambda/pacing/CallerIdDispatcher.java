@@ -0,0 +1,187 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ */
+
+package com.amazonaws.lambda.pacing;
+
+import java.time.Instant;
+
+/**
+ * Spreads outbound calls over a {@link CallerIdPool}. Every source number has a token bucket of
+ * its own at the per-number rate, on top of the instance bucket. A call gets the candidate number
+ * with the earliest free slot and ties go to the least recently used number, so the aggregate
+ * rate grows with the size of the pool until the instance limits are reached.
+ * <p>
+ * Calls of a campaign also take a slot from the bucket of the campaign, paced at its fair share
+ * of that rate from the {@link CampaignScheduler}, so concurrent campaigns split the instance by
+ * weight instead of by the number of their children.
+ */
+public class CallerIdDispatcher {
+    private final DialPacer instancePacer;
+    private final DialPacer numberPacer;
+    private final CallerIdPool pool;
+    private final boolean localPresence;
+    private final CampaignScheduler campaigns;
+
+    public CallerIdDispatcher(DialPacer instancePacer, DialPacer numberPacer, CallerIdPool pool, boolean localPresence,
+                              CampaignScheduler campaigns) {
+        this.instancePacer = instancePacer;
+        this.numberPacer = numberPacer;
+        this.pool = pool;
+        this.localPresence = localPresence;
+        this.campaigns = campaigns;
+    }
+
+    // Reserves an instance slot, a campaign slot and a slot on the best source number for the destination.
+    // Calls without a campaignId only take the instance and number slots. When the call could not be placed
+    // before notAfterMillis, the end of the destination's calling window, nothing is kept reserved.
+    public Assignment acquire(String bucketId, String campaignId, String destination, long nowMillis, long notAfterMillis) {
+        if (nowMillis >= notAfterMillis) {
+            throw closed(notAfterMillis);
+        }
+        DialPacer campaignPacer = campaignPacer(campaignId, nowMillis);
+        String best = null;
+        long bestWait = Long.MAX_VALUE;
+        long bestUsedAt = Long.MAX_VALUE;
+        for (String number : pool.candidates(destination, localPresence)) {
+            TokenBucket current = numberPacer.peek(numberBucketId(bucketId, number));
+            long wait = current == null ? 0 : current.refill(numberPacer.getConfig(), nowMillis).take().waitMillis();
+            long usedAt = current == null ? Long.MIN_VALUE : current.getUpdatedAtMillis();
+            if (wait < bestWait || (wait == bestWait && usedAt < bestUsedAt)) {
+                best = number;
+                bestWait = wait;
+                bestUsedAt = usedAt;
+            }
+        }
+        long wait = Math.max(bestWait, instancePacer.waitMillis(bucketId, nowMillis, false));
+        if (campaignPacer != null) {
+            wait = Math.max(wait, campaignPacer.waitMillis(campaignBucketId(bucketId, campaignId), nowMillis, false));
+        }
+        if (nowMillis + wait > notAfterMillis) {
+            throw closed(notAfterMillis);
+        }
+
+        // Concurrent callers may pick the same number, the bucket then queues them behind each other
+        return reserve(bucketId, campaignId, campaignPacer, best, false, nowMillis, notAfterMillis);
+    }
+
+    // Backs off the instance and the source number that was throttled, the retry keeps that number. When the
+    // retry could not be placed before notAfterMillis nothing is kept reserved, a back-off already saved stays.
+    public Assignment throttled(String bucketId, String campaignId, String sourcePhoneNumber, long nowMillis, long notAfterMillis) {
+        if (nowMillis >= notAfterMillis) {
+            throw closed(notAfterMillis);
+        }
+        DialPacer campaignPacer = campaignPacer(campaignId, nowMillis);
+        String number = pool.getNumbers().contains(sourcePhoneNumber) ? sourcePhoneNumber : pool.getNumbers().get(0);
+        long wait = Math.max(instancePacer.waitMillis(bucketId, nowMillis, true),
+                numberPacer.waitMillis(numberBucketId(bucketId, number), nowMillis, true));
+        if (campaignPacer != null) {
+            wait = Math.max(wait, campaignPacer.waitMillis(campaignBucketId(bucketId, campaignId), nowMillis, false));
+        }
+        if (nowMillis + wait > notAfterMillis) {
+            throw closed(notAfterMillis);
+        }
+
+        return reserve(bucketId, campaignId, campaignPacer, number, true, nowMillis, notAfterMillis);
+    }
+
+    // Dial rate of the instance across the caller ID pool, the campaigns share it.
+    public double ceilingCallsPerSecond() {
+        return instancePacer.getConfig().ceilingCallsPerSecond(pool.size(), numberPacer.getConfig().getTargetCallsPerSecond());
+    }
+
+    // The pacer of the campaign's bucket at its share of the instance rate, null for calls without a campaign.
+    private DialPacer campaignPacer(String campaignId, long nowMillis) {
+        if (campaignId == null || campaignId.isEmpty()) {
+            return null;
+        }
+        if (campaigns.isPaused(campaignId, nowMillis)) {
+            throw new CampaignPausedException("Campaign " + campaignId + " is paused");
+        }
+        double callsPerSecond = ceilingCallsPerSecond() * campaigns.share(campaignId, nowMillis);
+        return instancePacer.withConfig(instancePacer.getConfig().perCampaign(callsPerSecond));
+    }
+
+    // Reserves the instance, number and campaign slots, each only if it falls before notAfterMillis. Concurrent
+    // callers may have taken the slots that were free when they were checked, the slots reserved before the
+    // one that came too late are then given back.
+    private Assignment reserve(String bucketId, String campaignId, DialPacer campaignPacer, String number, boolean throttled,
+                               long nowMillis, long notAfterMillis) {
+        String numberBucketId = numberBucketId(bucketId, number);
+        TokenBucket instance = throttled ? instancePacer.throttled(bucketId, nowMillis, notAfterMillis)
+                : instancePacer.acquire(bucketId, nowMillis, notAfterMillis);
+        if (instance == null) {
+            throw closed(notAfterMillis);
+        }
+        TokenBucket source = throttled ? numberPacer.throttled(numberBucketId, nowMillis, notAfterMillis)
+                : numberPacer.acquire(numberBucketId, nowMillis, notAfterMillis);
+        if (source == null) {
+            instancePacer.release(bucketId, nowMillis);
+            throw closed(notAfterMillis);
+        }
+        if (campaignPacer == null) {
+            return assign(number, instance, source, null);
+        }
+        TokenBucket campaign = campaignPacer.acquire(campaignBucketId(bucketId, campaignId), nowMillis, notAfterMillis);
+        if (campaign == null) {
+            instancePacer.release(bucketId, nowMillis);
+            numberPacer.release(numberBucketId, nowMillis);
+            throw closed(notAfterMillis);
+        }
+        campaigns.dialing(campaignId, nowMillis);
+        return assign(number, instance, source, campaign);
+    }
+
+    private static CallingWindowClosedException closed(long notAfterMillis) {
+        return new CallingWindowClosedException("The calling window closed at " + Instant.ofEpochMilli(notAfterMillis));
+    }
+
+    private static Assignment assign(String number, TokenBucket instance, TokenBucket source, TokenBucket campaign) {
+        long waitMillis = Math.max(instance.waitMillis(), source.waitMillis());
+        if (campaign == null) {
+            return new Assignment(number, waitMillis, instance.getCallsPerSecond());
+        }
+        return new Assignment(number, Math.max(waitMillis, campaign.waitMillis()),
+                Math.min(instance.getCallsPerSecond(), campaign.getCallsPerSecond()));
+    }
+
+    private static String campaignBucketId(String bucketId, String campaignId) {
+        return bucketId + "#campaign#" + campaignId;
+    }
+
+    private static String numberBucketId(String bucketId, String number) {
+        return bucketId + "#" + number;
+    }
+
+    public CallerIdPool getPool() {
+        return pool;
+    }
+
+    /**
+     * Source number of the next call and how long the call has to wait for both of its slots.
+     */
+    public static class Assignment {
+        private final String sourcePhoneNumber;
+        private final long waitMillis;
+        private final double callsPerSecond;
+
+        Assignment(String sourcePhoneNumber, long waitMillis, double callsPerSecond) {
+            this.sourcePhoneNumber = sourcePhoneNumber;
+            this.waitMillis = waitMillis;
+            this.callsPerSecond = callsPerSecond;
+        }
+
+        public String getSourcePhoneNumber() {
+            return sourcePhoneNumber;
+        }
+
+        public long getWaitMillis() {
+            return waitMillis;
+        }
+
+        public double getCallsPerSecond() {
+            return callsPerSecond;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ */
+
+package com.amazonaws.lambda.pacing;
+
+import com.amazonaws.lambda.contacts.PhoneNumbers;
+import com.amazonaws.lambda.contacts.TimeZones;
+
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Source phone numbers claimed for the Amazon Connect instance, in E.164. With local presence a
+ * destination is offered the numbers of its own area code, else of its own time zone, else all.
+ */
+public class CallerIdPool {
+    private final List<String> numbers;
+    private final List<Long> digits = new ArrayList<>();
+
+    public CallerIdPool(List<String> numbers) {
+        List<String> valid = new ArrayList<>();
+        for (String number : numbers) {
+            long normalized = PhoneNumbers.normalize(number, 1);
+            if (normalized == PhoneNumbers.INVALID) {
+                throw new IllegalArgumentException("Invalid source phone number " + number);
+            }
+            String formatted = PhoneNumbers.format(normalized);
+            if (!valid.contains(formatted)) {
+                valid.add(formatted);
+                digits.add(normalized);
+            }
+        }
+        if (valid.isEmpty()) {
+            throw new IllegalArgumentException("The caller ID pool needs at least one source phone number");
+        }
+        this.numbers = Collections.unmodifiableList(valid);
+    }
+
+    // Comma separated numbers, blank entries are skipped (numbers not claimed by the stack render as "").
+    public static CallerIdPool parse(String numbers) {
+        List<String> list = new ArrayList<>();
+        for (String number : numbers.split(",")) {
+            if (!number.isBlank()) {
+                list.add(number.trim());
+            }
+        }
+        return new CallerIdPool(list);
+    }
+
+    // Numbers the destination may be called from, the closest match first.
+    public List<String> candidates(String destination, boolean localPresence) {
+        long target = PhoneNumbers.normalize(destination, 1);
+        if (!localPresence || target == PhoneNumbers.INVALID) {
+            return numbers;
+        }
+        List<String> areaCode = new ArrayList<>();
+        List<String> timeZone = new ArrayList<>();
+        String targetAreaCode = areaCode(target);
+        ZoneId targetZone = TimeZones.of(target);
+        for (int i = 0; i < numbers.size(); i++) {
+            long source = digits.get(i);
+            if (targetAreaCode != null && targetAreaCode.equals(areaCode(source))) {
+                areaCode.add(numbers.get(i));
+            } else if (targetZone != null && Objects.equals(targetZone, TimeZones.of(source))) {
+                timeZone.add(numbers.get(i));
+            }
+        }
+        if (!areaCode.isEmpty()) {
+            return areaCode;
+        }
+        return timeZone.isEmpty() ? numbers : timeZone;
+    }
+
+    // NANP area code including the country code, e.g. "1206", null for other countries.
+    private static String areaCode(long digits) {
+        String number = Long.toString(digits);
+        return number.length() == 11 && number.charAt(0) == '1' ? number.substring(0, 4) : null;
+    }
+
+    public List<String> getNumbers() {
+        return numbers;
+    }
+
+    public int size() {
+        return numbers.size();
+    }
+}
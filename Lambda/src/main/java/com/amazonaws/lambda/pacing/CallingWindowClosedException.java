@@ -0,0 +1,19 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ */
+
+package com.amazonaws.lambda.pacing;
+
+/**
+ * The dial slot of a contact falls after the end of its calling window, or after the time an EXPRESS
+ * child can still dial. The Outreach Process catches it by its class name and records the contact as
+ * DEFERRED, for the next round of the pass to dial it.
+ */
+public class CallingWindowClosedException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public CallingWindowClosedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ */
+
+package com.amazonaws.lambda.pacing;
+
+/**
+ * Entry of the {@link CampaignRegistry}: the weight of the campaign in the fair share of the
+ * instance dial rate, whether it is paused, and when it last took a dial slot.
+ */
+public class Campaign {
+    public static final String ACTIVE = "ACTIVE";
+    public static final String PAUSED = "PAUSED";
+    public static final double DEFAULT_WEIGHT = 1;
+
+    private final String campaignId;
+    private final double weight;
+    private final boolean paused;
+    private final long lastDialAtMillis;
+
+    // Weights that are not positive fall back to the default weight.
+    public Campaign(String campaignId, double weight, boolean paused, long lastDialAtMillis) {
+        this.campaignId = campaignId;
+        this.weight = weight > 0 ? weight : DEFAULT_WEIGHT;
+        this.paused = paused;
+        this.lastDialAtMillis = lastDialAtMillis;
+    }
+
+    public Campaign dialedAt(long nowMillis) {
+        return new Campaign(campaignId, weight, paused, Math.max(lastDialAtMillis, nowMillis));
+    }
+
+    public String getCampaignId() {
+        return campaignId;
+    }
+
+    public double getWeight() {
+        return weight;
+    }
+
+    public boolean isPaused() {
+        return paused;
+    }
+
+    public long getLastDialAtMillis() {
+        return lastDialAtMillis;
+    }
+}
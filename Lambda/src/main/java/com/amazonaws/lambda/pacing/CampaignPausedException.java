@@ -0,0 +1,18 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ */
+
+package com.amazonaws.lambda.pacing;
+
+/**
+ * The campaign of the contact is paused in the campaign registry. The Outreach Process catches it
+ * by its class name and leaves the contact for the next redial pass instead of dialing it.
+ */
+public class CampaignPausedException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public CampaignPausedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,20 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ */
+
+package com.amazonaws.lambda.pacing;
+
+import java.util.List;
+
+/**
+ * Campaigns registered for the instance, read by the {@link CampaignScheduler}.
+ */
+public interface CampaignRegistry {
+
+    // Every registered campaign.
+    List<Campaign> load();
+
+    // Marks the campaign as dialing, registering it active with the default weight when it is not registered yet.
+    void dialing(String campaignId, long nowMillis);
+}
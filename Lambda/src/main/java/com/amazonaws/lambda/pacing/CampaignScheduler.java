@@ -0,0 +1,81 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ */
+
+package com.amazonaws.lambda.pacing;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Weighted fair share of the instance dial rate among the campaigns dialing on it. A campaign gets
+ * weight / (sum of the weights of the dialing campaigns), where a campaign is dialing while it took
+ * a dial slot within the last ACTIVE_MILLIS, so the rate of a finished or paused campaign goes back
+ * to the others. The registry is read at most every REFRESH_MILLIS and every execution environment
+ * marks its campaigns as dialing at most every HEARTBEAT_MILLIS, to keep the table off the dial path.
+ */
+public class CampaignScheduler {
+    static final long ACTIVE_MILLIS = 30_000;
+    static final long REFRESH_MILLIS = 5_000;
+    static final long HEARTBEAT_MILLIS = 10_000;
+
+    private final CampaignRegistry registry;
+    private final Map<String, Campaign> campaigns = new HashMap<>();
+    private final Map<String, Long> heartbeats = new HashMap<>();
+    private long loadedAtMillis;
+    private boolean loaded;
+
+    public CampaignScheduler(CampaignRegistry registry) {
+        this.registry = registry;
+    }
+
+    public synchronized boolean isPaused(String campaignId, long nowMillis) {
+        refresh(nowMillis);
+        Campaign campaign = campaigns.get(campaignId);
+        return campaign != null && campaign.isPaused();
+    }
+
+    // Records that the campaign takes a dial slot, it then counts in the shares of the other campaigns.
+    public synchronized void dialing(String campaignId, long nowMillis) {
+        Long heartbeat = heartbeats.get(campaignId);
+        if (heartbeat == null || nowMillis - heartbeat >= HEARTBEAT_MILLIS) {
+            registry.dialing(campaignId, nowMillis);
+            heartbeats.put(campaignId, nowMillis);
+        }
+        Campaign campaign = campaigns.get(campaignId);
+        campaigns.put(campaignId, campaign == null
+                ? new Campaign(campaignId, Campaign.DEFAULT_WEIGHT, false, nowMillis)
+                : campaign.dialedAt(nowMillis));
+    }
+
+    // Fraction of the instance dial rate the campaign gets, 1 when no other campaign is dialing.
+    public synchronized double share(String campaignId, long nowMillis) {
+        refresh(nowMillis);
+        Campaign own = campaigns.get(campaignId);
+        double weight = own == null ? Campaign.DEFAULT_WEIGHT : own.getWeight();
+        double total = weight;
+        for (Campaign campaign : campaigns.values()) {
+            if (!campaign.getCampaignId().equals(campaignId) && !campaign.isPaused()
+                    && nowMillis - campaign.getLastDialAtMillis() < ACTIVE_MILLIS) {
+                total += campaign.getWeight();
+            }
+        }
+        return weight / total;
+    }
+
+    private void refresh(long nowMillis) {
+        if (loaded && nowMillis - loadedAtMillis < REFRESH_MILLIS) {
+            return;
+        }
+        Map<String, Campaign> previous = new HashMap<>(campaigns);
+        campaigns.clear();
+        for (Campaign campaign : registry.load()) {
+            // Dial slots taken here since the last heartbeat are not in the table yet
+            Campaign local = previous.get(campaign.getCampaignId());
+            campaigns.put(campaign.getCampaignId(), local == null ? campaign : campaign.dialedAt(local.getLastDialAtMillis()));
+        }
+        loadedAtMillis = nowMillis;
+        loaded = true;
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ */
+
+package com.amazonaws.lambda.pacing;
+
+/**
+ * Hands out dial slots from a shared token bucket. Every call reserves the next free slot
+ * and returns how long the caller has to wait for it, so callers never poll.
+ */
+public class DialPacer {
+    private static final int MAX_ATTEMPTS = 20;
+
+    private final TokenBucketStore store;
+    private final PacingConfig config;
+
+    public DialPacer(TokenBucketStore store, PacingConfig config) {
+        this.store = store;
+        this.config = config;
+    }
+
+    // Reserves a slot for the next outbound call.
+    public TokenBucket acquire(String bucketId, long nowMillis) {
+        return reserve(bucketId, nowMillis, Long.MAX_VALUE, false);
+    }
+
+    // Reserves a slot for the next outbound call, or returns null without reserving anything when the slot
+    // would fall after notAfterMillis.
+    public TokenBucket acquire(String bucketId, long nowMillis, long notAfterMillis) {
+        return reserve(bucketId, nowMillis, notAfterMillis, false);
+    }
+
+    // Backs the rate off after StartOutboundVoiceContact was throttled and reserves a slot for the retry.
+    public TokenBucket throttled(String bucketId, long nowMillis) {
+        return reserve(bucketId, nowMillis, Long.MAX_VALUE, true);
+    }
+
+    // Backs the rate off and reserves a slot for the retry, or returns null without backing off or reserving
+    // anything when the slot would fall after notAfterMillis.
+    public TokenBucket throttled(String bucketId, long nowMillis, long notAfterMillis) {
+        return reserve(bucketId, nowMillis, notAfterMillis, true);
+    }
+
+    // Gives back a slot reserved for a call that will not be placed. Returns false when the bucket kept
+    // changing under the attempts, the token is then only earned back by the refill.
+    public boolean release(String bucketId, long nowMillis) {
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            TokenBucket current = store.load(bucketId);
+            if (current == null) {
+                return true;
+            }
+            if (store.save(current.refill(config, nowMillis).giveBack(config), current.getVersion())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // The stored state of the bucket, null when it was never used. Nothing is reserved.
+    public TokenBucket peek(String bucketId) {
+        return store.load(bucketId);
+    }
+
+    // How long the caller would wait for a slot reserved now. Nothing is reserved.
+    public long waitMillis(String bucketId, long nowMillis, boolean throttled) {
+        TokenBucket current = store.load(bucketId);
+        return next(current == null ? TokenBucket.full(bucketId, config, nowMillis) : current, nowMillis, throttled).waitMillis();
+    }
+
+    private TokenBucket reserve(String bucketId, long nowMillis, long notAfterMillis, boolean throttled) {
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            TokenBucket current = store.load(bucketId);
+            if (current == null) {
+                current = TokenBucket.full(bucketId, config, nowMillis);
+            }
+
+            TokenBucket next = next(current, nowMillis, throttled);
+            if (nowMillis + next.waitMillis() > notAfterMillis) {
+                return null;
+            }
+            if (store.save(next, current.getVersion())) {
+                return next;
+            }
+        }
+        throw new IllegalStateException("Could not reserve a dial slot on bucket " + bucketId + " after " + MAX_ATTEMPTS + " attempts");
+    }
+
+    private TokenBucket next(TokenBucket current, long nowMillis, boolean throttled) {
+        TokenBucket next = current.refill(config, nowMillis);
+        if (throttled) {
+            next = next.penalize(config, nowMillis);
+        }
+        return next.take();
+    }
+
+    // A pacer on the same store with other limits.
+    public DialPacer withConfig(PacingConfig config) {
+        return new DialPacer(store, config);
+    }
+
+    public PacingConfig getConfig() {
+        return config;
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ */
+
+package com.amazonaws.lambda.pacing;
+
+import com.amazonaws.lambda.metrics.EmbeddedMetrics;
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import software.amazon.awssdk.http.urlconnection.UrlConnectionHttpClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+
+import java.util.Map;
+
+/**
+ * Invoked by the Outreach Process before every StartOutboundVoiceContact call.
+ * <p>
+ * Input: {"action": "ACQUIRE" | "THROTTLED", "bucketId": "...", "campaignId": "...", "destination": "...",
+ * "sourcePhoneNumber": "...", "notAfter": "...", "startTime": "...", "executionType": "EXPRESS" | "STANDARD"},
+ * sourcePhoneNumber being the number that was throttled and startTime the start of the child execution.
+ * <p>
+ * Output: {"waitSeconds": n, "callsPerSecond": r, "sourcePhoneNumber": "..."}, the caller ID picked
+ * by the {@link CallerIdDispatcher}. The sub-second part of the wait is slept here, the whole
+ * seconds are left to the Wait state so the Lambda is not billed for them, see {@link DialPacingProcessor}.
+ * When the slot falls after notAfter, the end of the contact's calling window, or too late for an
+ * EXPRESS child to dial, a {@link CallingWindowClosedException} is thrown instead, and a {@link CampaignPausedException}
+ * when the campaign is paused in the campaign registry.
+ * Every dial slot handed out, also per campaign, and every throttled call is published as {@link EmbeddedMetrics}.
+ */
+public class DialPacingHandler implements RequestHandler<Map<String, Object>, Map<String, Object>> {
+    private static final DynamoDbClient DYNAMO_DB = DynamoDbClient.builder()
+            .httpClient(UrlConnectionHttpClient.create())
+            .build();
+    private static final TokenBucketStore STORE = new DynamoDbTokenBucketStore(DYNAMO_DB, System.getenv("PACING_TABLE_NAME"));
+    private static final PacingConfig CONFIG = PacingConfig.fromEnvironment();
+    private static final CallerIdDispatcher DISPATCHER = new CallerIdDispatcher(
+            new DialPacer(STORE, CONFIG),
+            new DialPacer(STORE, CONFIG.perCallerId(Double.parseDouble(System.getenv("CALLER_ID_CALLS_PER_SECOND")))),
+            CallerIdPool.parse(System.getenv("SOURCE_PHONE_NUMBERS")),
+            Boolean.parseBoolean(System.getenv("CALLER_ID_LOCAL_PRESENCE")),
+            new CampaignScheduler(new DynamoDbCampaignRegistry(DYNAMO_DB, System.getenv("CAMPAIGNS_TABLE_NAME"))));
+
+    private static final DialPacingProcessor PROCESSOR = new DialPacingProcessor(DISPATCHER, System::currentTimeMillis,
+            DialPacingHandler::sleep);
+
+    @Override
+    public Map<String, Object> handleRequest(Map<String, Object> input, Context context) {
+        String action = String.valueOf(input.getOrDefault("action", "ACQUIRE"));
+        if ("THROTTLED".equals(action)) {
+            context.getLogger().log("StartOutboundVoiceContact throttled on bucket " + input.get("bucketId") + " from "
+                    + input.get("sourcePhoneNumber"));
+        }
+        CallerIdDispatcher.Assignment assignment = PROCESSOR.process(input);
+        if ("THROTTLED".equals(action)) {
+            new EmbeddedMetrics().put("DialThrottles", 1, EmbeddedMetrics.COUNT).log(context.getLogger());
+        } else {
+            new EmbeddedMetrics()
+                    .put("DialSlots", 1, EmbeddedMetrics.COUNT)
+                    .put("DialSlotWait", assignment.getWaitMillis(), EmbeddedMetrics.MILLISECONDS)
+                    .log(context.getLogger());
+            if (input.get("campaignId") != null) {
+                new EmbeddedMetrics(Map.of("CampaignId", input.get("campaignId").toString()))
+                        .put("DialSlots", 1, EmbeddedMetrics.COUNT)
+                        .log(context.getLogger());
+            }
+        }
+        return DialPacingProcessor.toMap(assignment);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ */
+
+package com.amazonaws.lambda.pacing;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.function.LongConsumer;
+import java.util.function.LongSupplier;
+
+/**
+ * The request of the {@link DialPacingHandler} on a given clock: hands out the dial slot through the
+ * {@link CallerIdDispatcher}, which keeps nothing reserved when the slot would fall after notAfter, and
+ * sleeps the sub-second part of the wait, leaving the whole seconds to the state machine.
+ * <p>
+ * Step Functions stops an EXPRESS child execution after 5 minutes. With executionType EXPRESS the
+ * slot must also fall within {@link #EXPRESS_DIAL_MILLIS} of the child's startTime, so the contacts
+ * the child cannot dial in time are refused like after their calling window and recorded for later.
+ */
+public class DialPacingProcessor {
+    // Leaves the dial and the write of its attempt 30 seconds before the child is stopped
+    public static final long EXPRESS_DIAL_MILLIS = 270_000;
+
+    private final CallerIdDispatcher dispatcher;
+    private final LongSupplier clock;
+    private final LongConsumer sleeper;
+
+    // The clock returns epoch milliseconds, the sleeper blocks for the given milliseconds.
+    public DialPacingProcessor(CallerIdDispatcher dispatcher, LongSupplier clock, LongConsumer sleeper) {
+        this.dispatcher = dispatcher;
+        this.clock = clock;
+        this.sleeper = sleeper;
+    }
+
+    public CallerIdDispatcher.Assignment process(Map<String, Object> input) {
+        String action = String.valueOf(input.getOrDefault("action", "ACQUIRE"));
+        Object bucketId = input.get("bucketId");
+        if (bucketId == null) {
+            throw new IllegalArgumentException("bucketId is required");
+        }
+        String campaignId = input.get("campaignId") == null ? null : input.get("campaignId").toString();
+
+        // Without a notAfter the call can wait for its slot as long as it takes
+        long notAfterMillis = input.get("notAfter") == null ? Long.MAX_VALUE : Instant.parse(input.get("notAfter").toString()).toEpochMilli();
+        if ("EXPRESS".equals(input.get("executionType")) && input.get("startTime") != null) {
+            notAfterMillis = Math.min(notAfterMillis, Instant.parse(input.get("startTime").toString()).toEpochMilli() + EXPRESS_DIAL_MILLIS);
+        }
+        CallerIdDispatcher.Assignment assignment;
+        if ("THROTTLED".equals(action)) {
+            assignment = dispatcher.throttled(bucketId.toString(), campaignId, String.valueOf(input.get("sourcePhoneNumber")),
+                    clock.getAsLong(), notAfterMillis);
+        } else if ("ACQUIRE".equals(action)) {
+            assignment = dispatcher.acquire(bucketId.toString(), campaignId, String.valueOf(input.getOrDefault("destination", "")),
+                    clock.getAsLong(), notAfterMillis);
+        } else {
+            throw new IllegalArgumentException("Unknown action " + action);
+        }
+
+        sleeper.accept(assignment.getWaitMillis() % 1000);
+        return assignment;
+    }
+
+    // The state machine's view of the assignment.
+    public static Map<String, Object> toMap(CallerIdDispatcher.Assignment assignment) {
+        return Map.of(
+                "waitSeconds", assignment.getWaitMillis() / 1000,
+                "callsPerSecond", assignment.getCallsPerSecond(),
+                "sourcePhoneNumber", assignment.getSourcePhoneNumber());
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ */
+
+package com.amazonaws.lambda.pacing;
+
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Campaign registry backed by the campaigns DynamoDB table, one item per campaignId with weight,
+ * campaignStatus (ACTIVE or PAUSED) and lastDialAt in epoch milliseconds.
+ */
+public class DynamoDbCampaignRegistry implements CampaignRegistry {
+    private final DynamoDbClient dynamoDb;
+    private final String tableName;
+
+    public DynamoDbCampaignRegistry(DynamoDbClient dynamoDb, String tableName) {
+        this.dynamoDb = dynamoDb;
+        this.tableName = tableName;
+    }
+
+    @Override
+    public List<Campaign> load() {
+        List<Campaign> campaigns = new ArrayList<>();
+        for (ScanResponse page : dynamoDb.scanPaginator(ScanRequest.builder().tableName(tableName).build())) {
+            for (Map<String, AttributeValue> item : page.items()) {
+                campaigns.add(new Campaign(item.get("campaignId").s(),
+                        item.containsKey("weight") ? Double.parseDouble(item.get("weight").n()) : Campaign.DEFAULT_WEIGHT,
+                        item.containsKey("campaignStatus") && Campaign.PAUSED.equals(item.get("campaignStatus").s()),
+                        item.containsKey("lastDialAt") ? Long.parseLong(item.get("lastDialAt").n()) : 0));
+            }
+        }
+        return campaigns;
+    }
+
+    @Override
+    public void dialing(String campaignId, long nowMillis) {
+        dynamoDb.updateItem(UpdateItemRequest.builder()
+                .tableName(tableName)
+                .key(Map.of("campaignId", AttributeValue.fromS(campaignId)))
+                .updateExpression("SET lastDialAt = :now, weight = if_not_exists(weight, :weight), "
+                        + "campaignStatus = if_not_exists(campaignStatus, :active)")
+                .expressionAttributeValues(Map.of(
+                        ":now", AttributeValue.fromN(Long.toString(nowMillis)),
+                        ":weight", AttributeValue.fromN(Double.toString(Campaign.DEFAULT_WEIGHT)),
+                        ":active", AttributeValue.fromS(Campaign.ACTIVE)))
+                .build());
+    }
+}
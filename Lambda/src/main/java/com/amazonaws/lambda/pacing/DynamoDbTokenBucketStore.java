@@ -0,0 +1,71 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ */
+
+package com.amazonaws.lambda.pacing;
+
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+
+import java.util.Map;
+
+/**
+ * Token bucket store backed by the pacing DynamoDB table, one item per bucket.
+ */
+public class DynamoDbTokenBucketStore implements TokenBucketStore {
+    private final DynamoDbClient dynamoDb;
+    private final String tableName;
+
+    public DynamoDbTokenBucketStore(DynamoDbClient dynamoDb, String tableName) {
+        this.dynamoDb = dynamoDb;
+        this.tableName = tableName;
+    }
+
+    @Override
+    public TokenBucket load(String bucketId) {
+        Map<String, AttributeValue> item = dynamoDb.getItem(GetItemRequest.builder()
+                .tableName(tableName)
+                .key(Map.of("bucketId", AttributeValue.fromS(bucketId)))
+                .consistentRead(true)
+                .build()).item();
+        if (item == null || item.isEmpty()) {
+            return null;
+        }
+        return new TokenBucket(bucketId,
+                Double.parseDouble(item.get("tokens").n()),
+                Double.parseDouble(item.get("callsPerSecond").n()),
+                Long.parseLong(item.get("updatedAt").n()),
+                Long.parseLong(item.get("coolDownUntil").n()),
+                Long.parseLong(item.get("version").n()));
+    }
+
+    @Override
+    public boolean save(TokenBucket bucket, long expectedVersion) {
+        PutItemRequest.Builder request = PutItemRequest.builder()
+                .tableName(tableName)
+                .item(Map.of(
+                        "bucketId", AttributeValue.fromS(bucket.getBucketId()),
+                        "tokens", AttributeValue.fromN(Double.toString(bucket.getTokens())),
+                        "callsPerSecond", AttributeValue.fromN(Double.toString(bucket.getCallsPerSecond())),
+                        "updatedAt", AttributeValue.fromN(Long.toString(bucket.getUpdatedAtMillis())),
+                        "coolDownUntil", AttributeValue.fromN(Long.toString(bucket.getCoolDownUntilMillis())),
+                        "version", AttributeValue.fromN(Long.toString(bucket.getVersion()))));
+        if (expectedVersion == 0) {
+            request.conditionExpression("attribute_not_exists(bucketId)");
+        } else {
+            request.conditionExpression("version = :expected")
+                    .expressionAttributeValues(Map.of(":expected", AttributeValue.fromN(Long.toString(expectedVersion))));
+        }
+
+        try {
+            dynamoDb.putItem(request.build());
+            return true;
+        } catch (ConditionalCheckFailedException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ */
+
+package com.amazonaws.lambda.pacing;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Token bucket store kept in memory, used by the {@link PacingSimulator}.
+ */
+public class InMemoryTokenBucketStore implements TokenBucketStore {
+    private final Map<String, TokenBucket> buckets = new HashMap<>();
+
+    @Override
+    public synchronized TokenBucket load(String bucketId) {
+        return buckets.get(bucketId);
+    }
+
+    @Override
+    public synchronized boolean save(TokenBucket bucket, long expectedVersion) {
+        TokenBucket current = buckets.get(bucket.getBucketId());
+        long currentVersion = current == null ? 0 : current.getVersion();
+        if (currentVersion != expectedVersion) {
+            return false;
+        }
+        buckets.put(bucket.getBucketId(), bucket);
+        return true;
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ */
+
+package com.amazonaws.lambda.pacing;
+
+/**
+ * Limits enforced by the {@link DialPacer}.
+ */
+public class PacingConfig {
+    private final double targetCallsPerSecond;
+    private final int maxConcurrentContacts;
+    private final double averageContactSeconds;
+    private final double throttleDecreaseFactor;
+    private final double recoverySeconds;
+    private final long throttleCoolDownMillis;
+
+    public PacingConfig(double targetCallsPerSecond, int maxConcurrentContacts, double averageContactSeconds) {
+        this(targetCallsPerSecond, maxConcurrentContacts, averageContactSeconds, 0.5, 60, 2000);
+    }
+
+    public PacingConfig(double targetCallsPerSecond, int maxConcurrentContacts, double averageContactSeconds,
+                        double throttleDecreaseFactor, double recoverySeconds, long throttleCoolDownMillis) {
+        if (targetCallsPerSecond <= 0 || maxConcurrentContacts <= 0 || averageContactSeconds <= 0) {
+            throw new IllegalArgumentException("Pacing limits must be greater than zero");
+        }
+        this.targetCallsPerSecond = targetCallsPerSecond;
+        this.maxConcurrentContacts = maxConcurrentContacts;
+        this.averageContactSeconds = averageContactSeconds;
+        this.throttleDecreaseFactor = throttleDecreaseFactor;
+        this.recoverySeconds = recoverySeconds;
+        this.throttleCoolDownMillis = throttleCoolDownMillis;
+    }
+
+    public static PacingConfig fromEnvironment() {
+        return new PacingConfig(
+                Double.parseDouble(System.getenv("TARGET_CALLS_PER_SECOND")),
+                Integer.parseInt(System.getenv("MAX_CONCURRENT_CONTACTS")),
+                Double.parseDouble(System.getenv("AVERAGE_CONTACT_SECONDS")));
+    }
+
+    // Limits of a single source number of the caller ID pool, the instance limits still apply on top.
+    public PacingConfig perCallerId(double callsPerSecond) {
+        return new PacingConfig(callsPerSecond, maxConcurrentContacts, averageContactSeconds,
+                throttleDecreaseFactor, recoverySeconds, throttleCoolDownMillis);
+    }
+
+    // Limits of a campaign's fair share of the instance. Its bucket is never throttled, so it follows
+    // a change of the share within a second instead of recovering over recoverySeconds.
+    public PacingConfig perCampaign(double callsPerSecond) {
+        return new PacingConfig(callsPerSecond, maxConcurrentContacts, averageContactSeconds,
+                throttleDecreaseFactor, 1, throttleCoolDownMillis);
+    }
+
+    // Highest rate allowed by both limits. By Little's law the active contacts average
+    // rate x duration, so the concurrency limit caps the rate at maxConcurrent / duration.
+    public double ceilingCallsPerSecond() {
+        return Math.min(targetCallsPerSecond, maxConcurrentContacts / averageContactSeconds);
+    }
+
+    // Highest rate of a caller ID pool, every source number adds its own rate up to the instance ceiling.
+    public double ceilingCallsPerSecond(int callerIds, double callsPerSecondPerCallerId) {
+        return Math.min(ceilingCallsPerSecond(), callerIds * perCallerId(callsPerSecondPerCallerId).ceilingCallsPerSecond());
+    }
+
+    // Lowest rate the pacer backs off to, so a throttled bucket keeps probing the quota.
+    public double floorCallsPerSecond() {
+        return ceilingCallsPerSecond() / 20;
+    }
+
+    // Tokens the bucket can hold, i.e. the largest burst released at once.
+    public double burstCapacity() {
+        return Math.max(1, Math.floor(ceilingCallsPerSecond()));
+    }
+
+    public double getTargetCallsPerSecond() {
+        return targetCallsPerSecond;
+    }
+
+    public int getMaxConcurrentContacts() {
+        return maxConcurrentContacts;
+    }
+
+    public double getAverageContactSeconds() {
+        return averageContactSeconds;
+    }
+
+    public double getThrottleDecreaseFactor() {
+        return throttleDecreaseFactor;
+    }
+
+    public double getRecoverySeconds() {
+        return recoverySeconds;
+    }
+
+    public long getThrottleCoolDownMillis() {
+        return throttleCoolDownMillis;
+    }
+}
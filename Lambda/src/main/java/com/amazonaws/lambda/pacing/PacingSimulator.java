@@ -0,0 +1,193 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ */
+
+package com.amazonaws.lambda.pacing;
+
+import java.util.PriorityQueue;
+import java.util.Random;
+
+/**
+ * Local discrete-event simulation of the Outreach Process dialing through the {@link DialPacer}.
+ * <p>
+ * Workers (distributed map children) join in bursts and dial contacts back to back. A simulated
+ * Connect instance enforces its own API rate and concurrent call quota and throttles everything
+ * above it. Halfway through the run the instance quota drops to half the target for two minutes,
+ * as if another workload shared the instance, to show the pacer backing off and recovering.
+ * <p>
+ * Usage: PacingSimulator [targetCallsPerSecond] [maxConcurrentContacts] [averageContactSeconds] [workers] [durationSeconds]
+ */
+public class PacingSimulator {
+    private static final String BUCKET_ID = "simulated-instance";
+    private static final long TASK_LATENCY_MILLIS = 150;
+    private static final long REPORT_WINDOW_MILLIS = 30_000;
+
+    public static void main(String[] args) {
+        double targetCallsPerSecond = args.length > 0 ? Double.parseDouble(args[0]) : 5;
+        int maxConcurrentContacts = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        double averageContactSeconds = args.length > 2 ? Double.parseDouble(args[2]) : 30;
+        int workers = args.length > 3 ? Integer.parseInt(args[3]) : 40;
+        long durationMillis = (args.length > 4 ? Long.parseLong(args[4]) : 900) * 1000;
+
+        PacingConfig config = new PacingConfig(targetCallsPerSecond, maxConcurrentContacts, averageContactSeconds);
+        new PacingSimulator(config, workers, durationMillis).run();
+    }
+
+    private final PacingConfig config;
+    private final int workers;
+    private final long durationMillis;
+    private final DialPacer pacer;
+    private final SimulatedConnect connect;
+    private final Random random = new Random(42);
+    private final PriorityQueue<Event> events = new PriorityQueue<>();
+
+    private long windowStart;
+    private int windowDials;
+    private int windowThrottles;
+    private int windowMaxActive;
+    private long totalDials;
+    private long totalThrottles;
+    private double pacerRate;
+
+    public PacingSimulator(PacingConfig config, int workers, long durationMillis) {
+        this.config = config;
+        this.workers = workers;
+        this.durationMillis = durationMillis;
+        this.pacer = new DialPacer(new InMemoryTokenBucketStore(), config);
+        this.connect = new SimulatedConnect(config.getTargetCallsPerSecond(), config.getMaxConcurrentContacts());
+    }
+
+    public void run() {
+        // Workers join in four bursts, the first quarter all at once.
+        for (int worker = 0; worker < workers; worker++) {
+            long joinAt = (worker % 4) * 45_000L;
+            events.add(new Event(joinAt, EventType.ACQUIRE));
+        }
+        long degradedFrom = durationMillis / 2;
+        long degradedUntil = degradedFrom + 120_000;
+
+        System.out.printf("Target %.2f calls/sec, max %d concurrent contacts, %.0f sec average contact -> ceiling %.2f calls/sec%n",
+                config.getTargetCallsPerSecond(), config.getMaxConcurrentContacts(), config.getAverageContactSeconds(),
+                config.ceilingCallsPerSecond());
+        System.out.printf("Connect quota drops to %.2f calls/sec between %ds and %ds%n%n",
+                config.getTargetCallsPerSecond() / 2, degradedFrom / 1000, degradedUntil / 1000);
+        System.out.printf("%8s %12s %12s %12s %14s%n", "time(s)", "calls/sec", "throttles", "max active", "pacer rate");
+
+        long steadyDials = 0;
+        long steadyMillis = 0;
+        while (!events.isEmpty()) {
+            Event event = events.poll();
+            if (event.at >= durationMillis) {
+                break;
+            }
+            while (event.at >= windowStart + REPORT_WINDOW_MILLIS) {
+                boolean steady = windowStart >= 180_000 && (windowStart + REPORT_WINDOW_MILLIS <= degradedFrom || windowStart >= degradedUntil + 60_000);
+                if (steady) {
+                    steadyDials += windowDials;
+                    steadyMillis += REPORT_WINDOW_MILLIS;
+                }
+                report();
+            }
+            connect.setCallsPerSecond(event.at >= degradedFrom && event.at < degradedUntil
+                    ? config.getTargetCallsPerSecond() / 2 : config.getTargetCallsPerSecond());
+
+            switch (event.type) {
+                case ACQUIRE:
+                    events.add(new Event(event.at + reserve(pacer.acquire(BUCKET_ID, event.at)), EventType.DIAL));
+                    break;
+                case DIAL:
+                    if (connect.startContact(event.at)) {
+                        windowDials++;
+                        totalDials++;
+                        windowMaxActive = Math.max(windowMaxActive, connect.active);
+                        long contactMillis = (long) (-Math.log(1 - random.nextDouble()) * config.getAverageContactSeconds() * 1000);
+                        events.add(new Event(event.at + contactMillis, EventType.HANG_UP));
+                        events.add(new Event(event.at + TASK_LATENCY_MILLIS, EventType.ACQUIRE));
+                    } else {
+                        windowThrottles++;
+                        totalThrottles++;
+                        events.add(new Event(event.at + TASK_LATENCY_MILLIS + reserve(pacer.throttled(BUCKET_ID, event.at)), EventType.DIAL));
+                    }
+                    break;
+                case HANG_UP:
+                    connect.active--;
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown event " + event.type);
+            }
+        }
+
+        double steadyRate = steadyMillis == 0 ? 0 : steadyDials * 1000.0 / steadyMillis;
+        System.out.printf("%nDialed %d contacts, %d throttled attempts (%.2f%%)%n", totalDials, totalThrottles,
+                totalDials == 0 ? 0 : totalThrottles * 100.0 / (totalDials + totalThrottles));
+        System.out.printf("Steady state rate %.2f calls/sec, %.1f%% of the %.2f calls/sec ceiling%n", steadyRate,
+                steadyRate * 100 / config.ceilingCallsPerSecond(), config.ceilingCallsPerSecond());
+    }
+
+    private long reserve(TokenBucket bucket) {
+        pacerRate = bucket.getCallsPerSecond();
+        return bucket.waitMillis();
+    }
+
+    private void report() {
+        System.out.printf("%8d %12.2f %12d %12d %14.2f%n", (windowStart + REPORT_WINDOW_MILLIS) / 1000,
+                windowDials * 1000.0 / REPORT_WINDOW_MILLIS, windowThrottles, windowMaxActive, pacerRate);
+        windowStart += REPORT_WINDOW_MILLIS;
+        windowDials = 0;
+        windowThrottles = 0;
+        windowMaxActive = connect.active;
+    }
+
+    private enum EventType {
+        ACQUIRE, DIAL, HANG_UP
+    }
+
+    private static class Event implements Comparable<Event> {
+        private static long sequence;
+
+        private final long at;
+        private final EventType type;
+        private final long order = sequence++;
+
+        Event(long at, EventType type) {
+            this.at = at;
+            this.type = type;
+        }
+
+        @Override
+        public int compareTo(Event other) {
+            return at != other.at ? Long.compare(at, other.at) : Long.compare(order, other.order);
+        }
+    }
+
+    // Stand-in for the Connect instance quotas: StartOutboundVoiceContact rate and concurrent active calls.
+    private static class SimulatedConnect {
+        private final int maxActive;
+        private double callsPerSecond;
+        private double tokens;
+        private long updatedAt;
+        private int active;
+
+        SimulatedConnect(double callsPerSecond, int maxActive) {
+            this.callsPerSecond = callsPerSecond;
+            this.maxActive = maxActive;
+            this.tokens = Math.max(1, callsPerSecond);
+        }
+
+        void setCallsPerSecond(double callsPerSecond) {
+            this.callsPerSecond = callsPerSecond;
+        }
+
+        boolean startContact(long now) {
+            tokens = Math.min(Math.max(1, callsPerSecond), tokens + callsPerSecond * (now - updatedAt) / 1000.0);
+            updatedAt = now;
+            if (tokens < 1 || active >= maxActive) {
+                return false;
+            }
+            tokens--;
+            active++;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ */
+
+package com.amazonaws.lambda.pacing;
+
+/**
+ * Immutable state of a dial token bucket. Tokens go negative when callers reserve
+ * future slots, the debt is the time the next caller has to wait.
+ */
+public class TokenBucket {
+    private final String bucketId;
+    private final double tokens;
+    private final double callsPerSecond;
+    private final long updatedAtMillis;
+    private final long coolDownUntilMillis;
+    private final long version;
+
+    public TokenBucket(String bucketId, double tokens, double callsPerSecond, long updatedAtMillis,
+                       long coolDownUntilMillis, long version) {
+        this.bucketId = bucketId;
+        this.tokens = tokens;
+        this.callsPerSecond = callsPerSecond;
+        this.updatedAtMillis = updatedAtMillis;
+        this.coolDownUntilMillis = coolDownUntilMillis;
+        this.version = version;
+    }
+
+    // New buckets start full and at the ceiling rate, version 0 marks them as not stored yet.
+    public static TokenBucket full(String bucketId, PacingConfig config, long nowMillis) {
+        return new TokenBucket(bucketId, config.burstCapacity(), config.ceilingCallsPerSecond(), nowMillis, 0, 0);
+    }
+
+    // Adds the tokens earned since the last update and recovers the rate linearly towards the ceiling.
+    public TokenBucket refill(PacingConfig config, long nowMillis) {
+        double elapsedSeconds = Math.max(0, nowMillis - updatedAtMillis) / 1000.0;
+        double ceiling = config.ceilingCallsPerSecond();
+        double rate = Math.min(ceiling, callsPerSecond + ceiling * elapsedSeconds / config.getRecoverySeconds());
+        double refilled = Math.min(config.burstCapacity(), tokens + callsPerSecond * elapsedSeconds);
+        return new TokenBucket(bucketId, rescaleDebt(refilled, rate), rate, Math.max(nowMillis, updatedAtMillis),
+                coolDownUntilMillis, version);
+    }
+
+    // Multiplicative decrease after a throttling error, any saved up burst is dropped. Slots
+    // reserved before the decrease were handed out at the old rate and may still be throttled,
+    // so further throttles only cost the caller a new slot until those slots have been served.
+    public TokenBucket penalize(PacingConfig config, long nowMillis) {
+        if (nowMillis < coolDownUntilMillis) {
+            return this;
+        }
+        double rate = Math.max(config.floorCallsPerSecond(), callsPerSecond * config.getThrottleDecreaseFactor());
+        double debt = Math.min(tokens, 0);
+        long coolDownMillis = Math.max(config.getThrottleCoolDownMillis(), (long) Math.ceil(-debt / callsPerSecond * 1000));
+        return new TokenBucket(bucketId, rescaleDebt(debt, rate), rate, updatedAtMillis, nowMillis + coolDownMillis, version);
+    }
+
+    // Debt is kept in tokens, so it has to follow rate changes or slots already reserved
+    // at the old rate would overlap with the ones reserved at the new rate.
+    private double rescaleDebt(double newTokens, double newCallsPerSecond) {
+        return newTokens >= 0 ? newTokens : newTokens * newCallsPerSecond / callsPerSecond;
+    }
+
+    public TokenBucket take() {
+        return new TokenBucket(bucketId, tokens - 1, callsPerSecond, updatedAtMillis, coolDownUntilMillis, version + 1);
+    }
+
+    // Returns a token taken for a slot that will not be used, without going over the burst capacity.
+    public TokenBucket giveBack(PacingConfig config) {
+        return new TokenBucket(bucketId, Math.min(config.burstCapacity(), tokens + 1), callsPerSecond, updatedAtMillis,
+                coolDownUntilMillis, version + 1);
+    }
+
+    // Milliseconds until the last reserved token is earned.
+    public long waitMillis() {
+        return tokens >= 0 ? 0 : (long) Math.ceil(-tokens / callsPerSecond * 1000);
+    }
+
+    public String getBucketId() {
+        return bucketId;
+    }
+
+    public double getTokens() {
+        return tokens;
+    }
+
+    public double getCallsPerSecond() {
+        return callsPerSecond;
+    }
+
+    public long getUpdatedAtMillis() {
+        return updatedAtMillis;
+    }
+
+    public long getCoolDownUntilMillis() {
+        return coolDownUntilMillis;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+}
@@ -0,0 +1,18 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ */
+
+package com.amazonaws.lambda.pacing;
+
+/**
+ * Persists token buckets with optimistic locking on the bucket version.
+ */
+public interface TokenBucketStore {
+
+    // Returns null when the bucket was never stored.
+    TokenBucket load(String bucketId);
+
+    // Stores the bucket only if the stored version still equals expectedVersion (0 for a new bucket).
+    boolean save(TokenBucket bucket, long expectedVersion);
+}
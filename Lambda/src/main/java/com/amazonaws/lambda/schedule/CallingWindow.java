@@ -0,0 +1,61 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ */
+
+package com.amazonaws.lambda.schedule;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+
+/**
+ * Daily calling window, in the local time of each destination. An end before the start spans midnight.
+ */
+public class CallingWindow {
+    private final LocalTime start;
+    private final LocalTime end;
+
+    public CallingWindow(LocalTime start, LocalTime end) {
+        if (start.equals(end)) {
+            throw new IllegalArgumentException("The calling window must not be empty");
+        }
+        this.start = start;
+        this.end = end;
+    }
+
+    // Accepts HH:mm, HH:mm:ss and the HH:mm:ss.SSSZ form of the Outreach configuration, always as local time.
+    public static CallingWindow parse(String start, String end) {
+        return new CallingWindow(localTime(start), localTime(end));
+    }
+
+    // Opening and closing instant of the first window in the zone that closes after the given instant.
+    public Instant[] next(Instant after, ZoneId zone) {
+        LocalDate date = after.atZone(zone).toLocalDate().minusDays(1);
+        for (int day = 0; day < 3; day++, date = date.plusDays(1)) {
+            Instant opens = date.atTime(start).atZone(zone).toInstant();
+            Instant closes = (end.isAfter(start) ? date : date.plusDays(1)).atTime(end).atZone(zone).toInstant();
+            if (closes.isAfter(after)) {
+                return new Instant[]{opens, closes};
+            }
+        }
+        throw new IllegalStateException("No calling window after " + after + " in " + zone);
+    }
+
+    private static LocalTime localTime(String value) {
+        String time = value.trim();
+        if (time.endsWith("Z")) {
+            time = time.substring(0, time.length() - 1);
+        }
+        return LocalTime.parse(time);
+    }
+
+    public LocalTime getStart() {
+        return start;
+    }
+
+    public LocalTime getEnd() {
+        return end;
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ */
+
+package com.amazonaws.lambda.schedule;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+/**
+ * Reads the contacts recorded under a redialKey from the redialKey index of the execution table for
+ * the {@link RedialPlannerHandler}. The index is eventually consistent, so an attempt written just
+ * before the planner runs may be missing from it. Every Map child adds the contacts it records to
+ * the count item of the key, which is read with a consistent read, and the index is queried again
+ * with a backoff until it returns that many contacts or the queries run out.
+ */
+public class RedialIndexReader {
+    // Sort key of the count item, its partition key is the redialKey
+    public static final String COUNT_SORT_KEY = "#redial";
+    // Six queries over about 15 seconds
+    static final int MAX_QUERIES = 6;
+    static final long FIRST_BACKOFF_MILLIS = 500;
+
+    private final Index index;
+    private final LongConsumer sleeper;
+
+    // The sleeper blocks for the given milliseconds.
+    public RedialIndexReader(Index index, LongConsumer sleeper) {
+        this.index = index;
+        this.sleeper = sleeper;
+    }
+
+    // Adds the contacts of the redialKey to the planner and returns how many of the recorded contacts
+    // the index still did not return after the last query.
+    public long read(String redialKey, WavePlanner planner) {
+        long recorded = index.recorded(redialKey);
+        Map<String, Contact> contacts = new LinkedHashMap<>();
+        long backoffMillis = FIRST_BACKOFF_MILLIS;
+        for (int query = 1; ; query++) {
+            index.query(redialKey, contact -> contacts.put(contact.getKey(), contact));
+            if (contacts.size() >= recorded || query == MAX_QUERIES) {
+                break;
+            }
+            sleeper.accept(backoffMillis);
+            backoffMillis *= 2;
+        }
+        for (Contact contact : contacts.values()) {
+            planner.add(contact.getPhoneNumber(), contact.getUserLanguage(), contact.getTimeZone());
+        }
+        return Math.max(0, recorded - contacts.size());
+    }
+
+    /**
+     * The count items and the redialKey index of the execution table.
+     */
+    public interface Index {
+
+        // The contacts of the count item of the redialKey, read with a consistent read, 0 when there is no item.
+        long recorded(String redialKey);
+
+        // Every contact of the redialKey in the index.
+        void query(String redialKey, Consumer<Contact> consumer);
+    }
+
+    /**
+     * A contact of the index, its key is the primary key of its attempt.
+     */
+    public static class Contact {
+        private final String key;
+        private final String phoneNumber;
+        private final String userLanguage;
+        private final String timeZone;
+
+        public Contact(String key, String phoneNumber, String userLanguage, String timeZone) {
+            this.key = key;
+            this.phoneNumber = phoneNumber;
+            this.userLanguage = userLanguage;
+            this.timeZone = timeZone;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public String getPhoneNumber() {
+            return phoneNumber;
+        }
+
+        public String getUserLanguage() {
+            return userLanguage;
+        }
+
+        public String getTimeZone() {
+            return timeZone;
+        }
+    }
+}
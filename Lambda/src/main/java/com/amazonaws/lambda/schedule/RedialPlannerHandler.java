@@ -0,0 +1,116 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ */
+
+package com.amazonaws.lambda.schedule;
+
+import com.amazonaws.lambda.metrics.EmbeddedMetrics;
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.http.urlconnection.UrlConnectionHttpClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+import software.amazon.awssdk.services.dynamodb.model.ReturnConsumedCapacity;
+import software.amazon.awssdk.services.s3.S3Client;
+
+import java.util.Map;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.function.Consumer;
+
+/**
+ * Invoked by the Outreach Process before every redial pass to plan the contacts whose dial failed
+ * with a transient error in the previous pass, and after every round of a pass to plan the contacts
+ * deferred in that round, with redialKey "&lt;execution&gt;#n#round".
+ * <p>
+ * Input: {"bucket": "...", "keyPrefix": "outreach/&lt;execution&gt;/redial-n/", "redialKey": "&lt;execution&gt;#n",
+ * "pageSize": n, "startTime": "...", "businessHourStartTime": "08:00", "businessHourEndTime": "17:00",
+ * "businessHourTimeZone": "US/Pacific"}
+ * <p>
+ * The failed attempts are read from the redialKey index of the execution table, which holds only the
+ * attempts recorded for a redial, by a {@link RedialIndexReader}, and planned in their original zones
+ * like the {@link WavePlannerHandler} plans the campaign. Output: the {@link WavePlan} of the pass.
+ */
+public class RedialPlannerHandler implements RequestHandler<Map<String, Object>, Map<String, Object>> {
+    private static final String REDIAL_INDEX = "redialKey-index";
+    private static final S3Client S3 = S3Client.builder()
+            .httpClient(UrlConnectionHttpClient.create())
+            .build();
+    private static final DynamoDbClient DYNAMO_DB = DynamoDbClient.builder()
+            .httpClient(UrlConnectionHttpClient.create())
+            .build();
+    private static final String EXECUTION_TABLE_NAME = System.getenv("EXECUTION_TABLE_NAME");
+
+    @Override
+    public Map<String, Object> handleRequest(Map<String, Object> input, Context context) {
+        String bucket = String.valueOf(input.get("bucket"));
+        String redialKey = String.valueOf(input.get("redialKey"));
+        WavePlanner planner = WavePlanner.fromInput(input,
+                (key, json) -> S3.putObject(request -> request.bucket(bucket).key(key).contentType("application/json"),
+                        RequestBody.fromString(json)));
+
+        DoubleAdder capacityUnits = new DoubleAdder();
+        long missing = new RedialIndexReader(new RedialIndexReader.Index() {
+            @Override
+            public long recorded(String key) {
+                GetItemResponse response = DYNAMO_DB.getItem(request -> request
+                        .tableName(EXECUTION_TABLE_NAME)
+                        .key(Map.of("campaignExecutionId", AttributeValue.fromS(key),
+                                "phoneNumber", AttributeValue.fromS(RedialIndexReader.COUNT_SORT_KEY)))
+                        .consistentRead(true)
+                        .returnConsumedCapacity(ReturnConsumedCapacity.TOTAL));
+                if (response.consumedCapacity() != null) {
+                    capacityUnits.add(response.consumedCapacity().capacityUnits());
+                }
+                return response.item().containsKey("contacts") ? Long.parseLong(response.item().get("contacts").n()) : 0;
+            }
+
+            @Override
+            public void query(String key, Consumer<RedialIndexReader.Contact> consumer) {
+                QueryRequest query = QueryRequest.builder()
+                        .tableName(EXECUTION_TABLE_NAME)
+                        .indexName(REDIAL_INDEX)
+                        .keyConditionExpression("redialKey = :redialKey")
+                        .expressionAttributeValues(Map.of(":redialKey", AttributeValue.fromS(key)))
+                        .returnConsumedCapacity(ReturnConsumedCapacity.TOTAL)
+                        .build();
+                for (QueryResponse page : DYNAMO_DB.queryPaginator(query)) {
+                    if (page.consumedCapacity() != null) {
+                        capacityUnits.add(page.consumedCapacity().capacityUnits());
+                    }
+                    for (Map<String, AttributeValue> item : page.items()) {
+                        consumer.accept(new RedialIndexReader.Contact(
+                                item.get("campaignExecutionId").s() + "|" + item.get("phoneNumber").s(),
+                                item.get("phoneNumber").s(),
+                                item.containsKey("userLanguage") ? item.get("userLanguage").s() : "",
+                                item.containsKey("timeZone") ? item.get("timeZone").s() : null));
+                    }
+                }
+            }
+        }, RedialPlannerHandler::sleep).read(redialKey, planner);
+
+        WavePlan plan = planner.finish();
+        context.getLogger().log("Redial " + redialKey + ": " + plan.getContacts() + " contacts in "
+                + plan.getZones().size() + " time zones" + (missing > 0 ? ", " + missing + " recorded contacts not indexed yet" : ""));
+        new EmbeddedMetrics()
+                .put("RedialContacts", plan.getContacts(), EmbeddedMetrics.COUNT)
+                .log(context.getLogger());
+        new EmbeddedMetrics(Map.of("Operation", "RedialQuery"))
+                .put("ConsumedReadCapacity", capacityUnits.sum(), EmbeddedMetrics.COUNT)
+                .log(context.getLogger());
+        return plan.toMap();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ */
+
+package com.amazonaws.lambda.schedule;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Contact pages released together by the {@link WaveScheduler}, each with its zone and the end of
+ * the zone's calling window, or how long to wait when no zone with pages left is open. Contacts
+ * of zones whose window closed before they were released count as carried over to the next window.
+ */
+public class Wave {
+    private final List<String> pageKeys = new ArrayList<>();
+    private final List<String> zones = new ArrayList<>();
+    private final List<Instant> notAfter = new ArrayList<>();
+    private int number = -1;
+    private long contacts;
+    private long waitSeconds;
+    private long carriedOver;
+    private boolean done;
+
+    void add(String pageKey, String zone, Instant closesAt, long pageContacts) {
+        pageKeys.add(pageKey);
+        zones.add(zone);
+        notAfter.add(closesAt);
+        contacts += pageContacts;
+    }
+
+    void number(int number) {
+        this.number = number;
+    }
+
+    void waitFor(long seconds) {
+        this.waitSeconds = seconds;
+    }
+
+    void carriedOver(long contacts) {
+        this.carriedOver = contacts;
+    }
+
+    void done() {
+        this.done = true;
+    }
+
+    // The wave manifest read by the distributed map's ItemReader.
+    public String toJson() {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < pageKeys.size(); i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"Key\":\"").append(pageKeys.get(i)).append("\",\"Zone\":\"").append(zones.get(i))
+                    .append("\",\"NotAfter\":\"").append(notAfter.get(i)).append("\"}");
+        }
+        return json.append(']').toString();
+    }
+
+    // The state machine's view of the wave, together with the updated plan.
+    public Map<String, Object> toMap(WavePlan plan, String manifestKey) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("plan", plan.toMap());
+        result.put("done", done);
+        result.put("pages", pageKeys.size());
+        result.put("contacts", contacts);
+        result.put("manifestKey", manifestKey);
+        result.put("waitSeconds", waitSeconds);
+        result.put("carriedOver", carriedOver);
+        return result;
+    }
+
+    // Sequence number of the wave within the execution, -1 when no page was released.
+    public int getNumber() {
+        return number;
+    }
+
+    public List<String> getPageKeys() {
+        return pageKeys;
+    }
+
+    public List<Instant> getNotAfter() {
+        return notAfter;
+    }
+
+    public long getContacts() {
+        return contacts;
+    }
+
+    public long getWaitSeconds() {
+        return waitSeconds;
+    }
+
+    public long getCarriedOver() {
+        return carriedOver;
+    }
+
+    public boolean isDone() {
+        return done;
+    }
+}
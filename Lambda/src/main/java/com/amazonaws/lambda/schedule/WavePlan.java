@@ -0,0 +1,181 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ */
+
+package com.amazonaws.lambda.schedule;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Contact pages of an Outreach execution grouped by destination time zone, with the calling window
+ * of every zone and how far each zone has been released. The plan travels in the state machine
+ * payload between waves, it holds one small entry per zone and not the contacts themselves.
+ */
+public class WavePlan {
+    private final String keyPrefix;
+    private final int pageSize;
+    private final CallingWindow window;
+    private final List<Zone> zones = new ArrayList<>();
+    private int waves;
+
+    // Plans of executions started before the window was kept in the plan have no window.
+    public WavePlan(String keyPrefix, int pageSize, CallingWindow window) {
+        this.keyPrefix = keyPrefix;
+        this.pageSize = pageSize;
+        this.window = window;
+    }
+
+    void addZone(Zone zone) {
+        zones.add(zone);
+    }
+
+    int nextWave() {
+        return waves++;
+    }
+
+    public long getContacts() {
+        long contacts = 0;
+        for (Zone zone : zones) {
+            contacts += zone.contacts;
+        }
+        return contacts;
+    }
+
+    public Map<String, Object> toMap() {
+        List<Map<String, Object>> zoneMaps = new ArrayList<>();
+        for (Zone zone : zones) {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("zone", zone.zone);
+            map.put("keyPrefix", zone.keyPrefix);
+            map.put("pages", zone.pages);
+            map.put("contacts", zone.contacts);
+            map.put("nextPage", zone.nextPage);
+            map.put("opensAt", zone.opensAt.toString());
+            map.put("closesAt", zone.closesAt.toString());
+            zoneMaps.add(map);
+        }
+        Map<String, Object> plan = new LinkedHashMap<>();
+        plan.put("keyPrefix", keyPrefix);
+        plan.put("pageSize", pageSize);
+        if (window != null) {
+            plan.put("windowStart", window.getStart().toString());
+            plan.put("windowEnd", window.getEnd().toString());
+        }
+        plan.put("waves", waves);
+        plan.put("contacts", getContacts());
+        plan.put("zones", zoneMaps);
+        return plan;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static WavePlan fromMap(Map<String, Object> map) {
+        CallingWindow window = map.containsKey("windowStart")
+                ? CallingWindow.parse(String.valueOf(map.get("windowStart")), String.valueOf(map.get("windowEnd"))) : null;
+        WavePlan plan = new WavePlan(String.valueOf(map.get("keyPrefix")), number(map.get("pageSize")).intValue(), window);
+        plan.waves = number(map.getOrDefault("waves", 0)).intValue();
+        for (Map<String, Object> zone : (List<Map<String, Object>>) map.get("zones")) {
+            Zone entry = new Zone(String.valueOf(zone.get("zone")), String.valueOf(zone.get("keyPrefix")),
+                    number(zone.get("pages")).intValue(), number(zone.get("contacts")).longValue(),
+                    Instant.parse(String.valueOf(zone.get("opensAt"))), Instant.parse(String.valueOf(zone.get("closesAt"))));
+            entry.nextPage = number(zone.get("nextPage")).intValue();
+            plan.addZone(entry);
+        }
+        return plan;
+    }
+
+    private static Number number(Object value) {
+        return value instanceof Number ? (Number) value : Double.valueOf(String.valueOf(value));
+    }
+
+    public String getKeyPrefix() {
+        return keyPrefix;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public List<Zone> getZones() {
+        return zones;
+    }
+
+    public CallingWindow getWindow() {
+        return window;
+    }
+
+    /**
+     * Pages of one time zone, page i is stored at keyPrefix + "page-" + i + ".json".
+     */
+    public static class Zone {
+        private final String zone;
+        private final String keyPrefix;
+        private final int pages;
+        private final long contacts;
+        private Instant opensAt;
+        private Instant closesAt;
+        private int nextPage;
+
+        Zone(String zone, String keyPrefix, int pages, long contacts, Instant opensAt, Instant closesAt) {
+            this.zone = zone;
+            this.keyPrefix = keyPrefix;
+            this.pages = pages;
+            this.contacts = contacts;
+            this.opensAt = opensAt;
+            this.closesAt = closesAt;
+        }
+
+        String pageKey(int page) {
+            return keyPrefix + "page-" + page + ".json";
+        }
+
+        // Every page is full except the last one.
+        long pageContacts(int page, int pageSize) {
+            return Math.min(pageSize, contacts - (long) page * pageSize);
+        }
+
+        long remainingContacts(int pageSize) {
+            return nextPage >= pages ? 0 : contacts - (long) nextPage * pageSize;
+        }
+
+        void released() {
+            nextPage++;
+        }
+
+        // Moves the zone to its first calling window closing after the given instant.
+        void nextWindow(CallingWindow window, Instant after) {
+            Instant[] next = window.next(after, ZoneId.of(zone));
+            opensAt = next[0];
+            closesAt = next[1];
+        }
+
+        public String getZone() {
+            return zone;
+        }
+
+        public int getPages() {
+            return pages;
+        }
+
+        public long getContacts() {
+            return contacts;
+        }
+
+        public int getNextPage() {
+            return nextPage;
+        }
+
+        public Instant getOpensAt() {
+            return opensAt;
+        }
+
+        public Instant getClosesAt() {
+            return closesAt;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ */
+
+package com.amazonaws.lambda.schedule;
+
+import com.amazonaws.lambda.contacts.PhoneNumbers;
+import com.amazonaws.lambda.contacts.TimeZones;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Groups the contacts of a campaign by destination time zone into pages of DynamoDB JSON items,
+ * the format the Outreach child workflows read, and builds the {@link WavePlan} of the execution.
+ * A contact's zone is its timeZone attribute, else the zone of its number, else the default zone.
+ * <p>
+ * Contacts can be added from several threads, every full page is written as soon as it fills up.
+ */
+public class WavePlanner {
+    private final String keyPrefix;
+    private final int pageSize;
+    private final ZoneId defaultZone;
+    private final CallingWindow window;
+    private final Instant start;
+    private final PageOutput output;
+    private final Map<ZoneId, ZonePages> zones = new ConcurrentHashMap<>();
+
+    public WavePlanner(String keyPrefix, int pageSize, ZoneId defaultZone, CallingWindow window, Instant start, PageOutput output) {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("pageSize must be at least 1");
+        }
+        this.keyPrefix = keyPrefix;
+        this.pageSize = pageSize;
+        this.defaultZone = defaultZone;
+        this.window = window;
+        this.start = start;
+        this.output = output;
+    }
+
+    // The planner of a WavePlannerHandler or RedialPlannerHandler request: keyPrefix, pageSize, startTime
+    // and the businessHour settings of the campaign.
+    public static WavePlanner fromInput(Map<String, Object> input, PageOutput output) {
+        ZoneId defaultZone = TimeZones.parse(String.valueOf(input.getOrDefault("businessHourTimeZone", "")));
+        if (defaultZone == null) {
+            throw new IllegalArgumentException("Invalid businessHourTimeZone " + input.get("businessHourTimeZone"));
+        }
+        return new WavePlanner(String.valueOf(input.get("keyPrefix")),
+                Integer.parseInt(String.valueOf(input.getOrDefault("pageSize", "250"))),
+                defaultZone,
+                CallingWindow.parse(String.valueOf(input.get("businessHourStartTime")), String.valueOf(input.get("businessHourEndTime"))),
+                Instant.parse(String.valueOf(input.get("startTime"))),
+                output);
+    }
+
+    public void add(String phoneNumber, String userLanguage, String timeZone) {
+        ZoneId zone = TimeZones.parse(timeZone);
+        if (zone == null) {
+            zone = TimeZones.of(PhoneNumbers.normalize(phoneNumber, 1));
+        }
+        if (zone == null) {
+            zone = defaultZone;
+        }
+        ZonePages pages = zones.computeIfAbsent(zone, id -> new ZonePages(keyPrefix + "zones/" + id.getId().replace('/', '_') + "/"));
+        String item = "{\"phoneNumber\":{\"S\":\"" + escape(phoneNumber) + "\"},\"userLanguage\":{\"S\":\"" + escape(userLanguage) + "\"}}";
+
+        List<String> full;
+        int page;
+        synchronized (pages) {
+            pages.items.add(item);
+            pages.contacts++;
+            if (pages.items.size() < pageSize) {
+                return;
+            }
+            full = pages.items;
+            pages.items = new ArrayList<>(pageSize);
+            page = pages.pages++;
+        }
+        write(pages, page, full);
+    }
+
+    // Writes the last page of every zone and returns the plan, zones in order of their calling windows.
+    public WavePlan finish() {
+        List<WavePlan.Zone> ordered = new ArrayList<>();
+        for (Map.Entry<ZoneId, ZonePages> entry : zones.entrySet()) {
+            ZonePages pages = entry.getValue();
+            if (!pages.items.isEmpty()) {
+                write(pages, pages.pages++, pages.items);
+                pages.items = new ArrayList<>();
+            }
+            Instant[] next = window.next(start, entry.getKey());
+            ordered.add(new WavePlan.Zone(entry.getKey().getId(), pages.keyPrefix,
+                    pages.pages, pages.contacts, next[0], next[1]));
+        }
+        ordered.sort(Comparator.comparing(WavePlan.Zone::getClosesAt).thenComparing(WavePlan.Zone::getZone));
+        WavePlan plan = new WavePlan(keyPrefix, pageSize, window);
+        ordered.forEach(plan::addZone);
+        return plan;
+    }
+
+    private void write(ZonePages pages, int page, List<String> items) {
+        output.write(pages.keyPrefix + "page-" + page + ".json", "[" + String.join(",", items) + "]");
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+    /**
+     * Destination of the contact pages, S3 in the Lambda function.
+     */
+    public interface PageOutput {
+        void write(String key, String json);
+    }
+
+    private static class ZonePages {
+        private final String keyPrefix;
+        private List<String> items = new ArrayList<>();
+        private int pages;
+        private long contacts;
+
+        ZonePages(String keyPrefix) {
+            this.keyPrefix = keyPrefix;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ */
+
+package com.amazonaws.lambda.schedule;
+
+import com.amazonaws.lambda.contacts.ContactKeys;
+import com.amazonaws.lambda.metrics.EmbeddedMetrics;
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.http.urlconnection.UrlConnectionHttpClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.ReturnConsumedCapacity;
+import software.amazon.awssdk.services.s3.S3Client;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.DoubleAdder;
+
+/**
+ * Invoked once per Outreach execution to export the campaign's contacts grouped by time zone.
+ * <p>
+ * Input: {"bucket": "...", "keyPrefix": "outreach/&lt;execution&gt;/", "campaignId": "...", "keyShards": n,
+ * "pageSize": n, "startTime": "...", "businessHourStartTime": "08:00", "businessHourEndTime": "17:00",
+ * "businessHourTimeZone": "US/Pacific"}
+ * <p>
+ * Every key shard of the campaign is queried in parallel and the pages of every zone are written
+ * under keyPrefix. Output: the {@link WavePlan}, handed to the {@link WaveSchedulerHandler} wave after wave.
+ * The read capacity the queries consumed is published as {@link EmbeddedMetrics}.
+ */
+public class WavePlannerHandler implements RequestHandler<Map<String, Object>, Map<String, Object>> {
+    private static final S3Client S3 = S3Client.builder()
+            .httpClient(UrlConnectionHttpClient.create())
+            .build();
+    private static final DynamoDbClient DYNAMO_DB = DynamoDbClient.builder()
+            .httpClient(UrlConnectionHttpClient.create())
+            .build();
+    private static final String CONTACTS_TABLE_NAME = System.getenv("CONTACTS_TABLE_NAME");
+
+    @Override
+    public Map<String, Object> handleRequest(Map<String, Object> input, Context context) {
+        String bucket = String.valueOf(input.get("bucket"));
+        ContactKeys keys = new ContactKeys(String.valueOf(input.get("campaignId")),
+                Integer.parseInt(String.valueOf(input.getOrDefault("keyShards", "1"))));
+        WavePlanner planner = WavePlanner.fromInput(input,
+                (key, json) -> S3.putObject(request -> request.bucket(bucket).key(key).contentType("application/json"),
+                        RequestBody.fromString(json)));
+
+        DoubleAdder capacityUnits = new DoubleAdder();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(keys.getKeyShards(), 16));
+        try {
+            List<Future<?>> shards = new ArrayList<>();
+            for (int shard = 0; shard < keys.getKeyShards(); shard++) {
+                QueryRequest query = QueryRequest.builder()
+                        .tableName(CONTACTS_TABLE_NAME)
+                        .keyConditionExpression("campaignShard = :campaignShard")
+                        .expressionAttributeValues(Map.of(":campaignShard", AttributeValue.fromS(keys.partitionKey(shard))))
+                        .projectionExpression("phoneNumber, userLanguage, timeZone")
+                        .returnConsumedCapacity(ReturnConsumedCapacity.TOTAL)
+                        .build();
+                shards.add(executor.submit(() -> DYNAMO_DB.queryPaginator(query).forEach(page -> {
+                    if (page.consumedCapacity() != null) {
+                        capacityUnits.add(page.consumedCapacity().capacityUnits());
+                    }
+                    page.items().forEach(item -> planner.add(
+                            item.get("phoneNumber").s(),
+                            item.containsKey("userLanguage") ? item.get("userLanguage").s() : "",
+                            item.containsKey("timeZone") ? item.get("timeZone").s() : null));
+                })));
+            }
+            for (Future<?> shard : shards) {
+                shard.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Could not query campaign " + keys.getCampaignId(), e.getCause());
+        } finally {
+            executor.shutdown();
+        }
+
+        WavePlan plan = planner.finish();
+        context.getLogger().log("Campaign " + keys.getCampaignId() + ": " + plan.getContacts() + " contacts in "
+                + plan.getZones().size() + " time zones");
+        new EmbeddedMetrics(Map.of("Operation", "ContactQuery"))
+                .put("ConsumedReadCapacity", capacityUnits.sum(), EmbeddedMetrics.COUNT)
+                .log(context.getLogger());
+        return plan.toMap();
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ */
+
+package com.amazonaws.lambda.schedule;
+
+import com.amazonaws.lambda.pacing.CampaignScheduler;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Releases the pages of a {@link WavePlan} in waves sized to what the dial rate gets through in
+ * one wave. Only zones inside their calling window are released, earliest closing window first,
+ * and a zone never gets more contacts than can be dialed before it closes; the rest of the wave
+ * goes to the other open zones, so the capacity of closed or exhausted zones is never left idle.
+ * <p>
+ * Zones whose window closed with pages left are carried over to their next calling window, the
+ * execution keeps waiting for it. When no zone is open the wave says how long to wait.
+ */
+public class WaveScheduler {
+    private final double callsPerSecond;
+    private final Duration waveLength;
+
+    public WaveScheduler(double callsPerSecond, Duration waveLength) {
+        if (callsPerSecond <= 0 || waveLength.isZero() || waveLength.isNegative()) {
+            throw new IllegalArgumentException("The dial rate and the wave length must be greater than zero");
+        }
+        this.callsPerSecond = callsPerSecond;
+        this.waveLength = waveLength;
+    }
+
+    // The WaveSchedulerHandler request: releases the next wave of the plan at the campaign's share of the dial
+    // rate, writes the manifest of its pages with the output and returns the state machine's view of the wave.
+    @SuppressWarnings("unchecked")
+    public static Map<String, Object> schedule(Map<String, Object> input, double callsPerSecond, CampaignScheduler campaigns,
+                                               WavePlanner.PageOutput output) {
+        WavePlan plan = WavePlan.fromMap((Map<String, Object>) input.get("plan"));
+        Instant now = Instant.parse(String.valueOf(input.get("now")));
+        double share = input.get("campaignId") == null ? 1 : campaigns.share(input.get("campaignId").toString(), now.toEpochMilli());
+        WaveScheduler scheduler = new WaveScheduler(callsPerSecond * share,
+                Duration.ofMinutes(Long.parseLong(String.valueOf(input.getOrDefault("waveMinutes", "15")))));
+
+        Wave wave = scheduler.next(plan, now);
+        String manifestKey = "";
+        if (!wave.getPageKeys().isEmpty()) {
+            manifestKey = plan.getKeyPrefix() + "wave-" + wave.getNumber() + ".json";
+            output.write(manifestKey, wave.toJson());
+        }
+        Map<String, Object> result = wave.toMap(plan, manifestKey);
+        result.put("expiresAt", now.plus(Duration.ofDays(Long.parseLong(String.valueOf(input.getOrDefault("retentionDays", "30")))))
+                .getEpochSecond());
+        return result;
+    }
+
+    public Wave next(WavePlan plan, Instant now) {
+        Wave wave = new Wave();
+        List<WavePlan.Zone> open = new ArrayList<>();
+        Instant nextOpening = null;
+        long carriedOver = 0;
+        for (WavePlan.Zone zone : plan.getZones()) {
+            long remaining = zone.remainingContacts(plan.getPageSize());
+            if (remaining == 0) {
+                continue;
+            }
+            if (!now.isBefore(zone.getClosesAt())) {
+                carriedOver += remaining;
+                if (plan.getWindow() == null) {
+                    continue;
+                }
+                zone.nextWindow(plan.getWindow(), now);
+            }
+            if (now.isBefore(zone.getOpensAt())) {
+                nextOpening = nextOpening == null || zone.getOpensAt().isBefore(nextOpening) ? zone.getOpensAt() : nextOpening;
+            } else {
+                open.add(zone);
+            }
+        }
+        wave.carriedOver(carriedOver);
+
+        if (open.isEmpty()) {
+            if (nextOpening == null) {
+                wave.done();
+            } else {
+                wave.waitFor(Math.max(1, (Duration.between(now, nextOpening).toMillis() + 999) / 1000));
+            }
+            return wave;
+        }
+
+        open.sort(Comparator.comparing(WavePlan.Zone::getClosesAt));
+        double capacity = callsPerSecond * waveLength.toMillis() / 1000.0;
+        long released = 0;
+        for (WavePlan.Zone zone : open) {
+            // The pages of earlier closing zones are dialed first, so a zone's limit includes them
+            double limit = Math.min(capacity, callsPerSecond * Duration.between(now, zone.getClosesAt()).toMillis() / 1000.0);
+            while (zone.getNextPage() < zone.getPages()) {
+                long pageContacts = zone.pageContacts(zone.getNextPage(), plan.getPageSize());
+                // A page always goes out when the wave would otherwise be empty
+                if (released + pageContacts > limit && released > 0) {
+                    break;
+                }
+                wave.add(zone.pageKey(zone.getNextPage()), zone.getZone(), zone.getClosesAt(), pageContacts);
+                zone.released();
+                released += pageContacts;
+            }
+        }
+        wave.number(plan.nextWave());
+        return wave;
+    }
+
+    public double getCallsPerSecond() {
+        return callsPerSecond;
+    }
+
+    public Duration getWaveLength() {
+        return waveLength;
+    }
+}
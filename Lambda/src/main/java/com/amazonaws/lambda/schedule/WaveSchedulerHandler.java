@@ -0,0 +1,57 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ */
+
+package com.amazonaws.lambda.schedule;
+
+import com.amazonaws.lambda.pacing.CallerIdPool;
+import com.amazonaws.lambda.pacing.CampaignScheduler;
+import com.amazonaws.lambda.pacing.DynamoDbCampaignRegistry;
+import com.amazonaws.lambda.pacing.PacingConfig;
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.http.urlconnection.UrlConnectionHttpClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.s3.S3Client;
+
+import java.util.Map;
+
+/**
+ * Invoked by the Outreach Process before every wave.
+ * <p>
+ * Input: {"bucket": "...", "plan": {...}, "now": "...", "waveMinutes": n, "campaignId": "...", "retentionDays": n}
+ * <p>
+ * Output: {"plan": {...}, "done": false, "pages": n, "contacts": n, "manifestKey": "...", "waitSeconds": n,
+ * "carriedOver": n, "expiresAt": n}. When pages were released their keys are written to manifestKey for the
+ * distributed map, otherwise the state machine waits waitSeconds for the next calling window, or ends when done.
+ * The dial attempts of the wave are written with expiresAt, retentionDays from now in epoch seconds, the TTL
+ * attribute of the execution table.
+ * The wave is sized with the dial rate of the pacing configuration across the caller ID pool, times the
+ * fair share of the campaign among the campaigns dialing at the moment.
+ */
+public class WaveSchedulerHandler implements RequestHandler<Map<String, Object>, Map<String, Object>> {
+    private static final S3Client S3 = S3Client.builder()
+            .httpClient(UrlConnectionHttpClient.create())
+            .build();
+    private static final double CALLS_PER_SECOND = PacingConfig.fromEnvironment().ceilingCallsPerSecond(
+            CallerIdPool.parse(System.getenv("SOURCE_PHONE_NUMBERS")).size(),
+            Double.parseDouble(System.getenv("CALLER_ID_CALLS_PER_SECOND")));
+    private static final CampaignScheduler CAMPAIGNS = new CampaignScheduler(new DynamoDbCampaignRegistry(DynamoDbClient.builder()
+            .httpClient(UrlConnectionHttpClient.create())
+            .build(), System.getenv("CAMPAIGNS_TABLE_NAME")));
+
+    @Override
+    public Map<String, Object> handleRequest(Map<String, Object> input, Context context) {
+        String bucket = String.valueOf(input.get("bucket"));
+        Map<String, Object> result = WaveScheduler.schedule(input, CALLS_PER_SECOND, CAMPAIGNS,
+                (key, json) -> S3.putObject(request -> request.bucket(bucket).key(key).contentType("application/json"),
+                        RequestBody.fromString(json)));
+        if (!"".equals(result.get("manifestKey"))) {
+            context.getLogger().log("Wave " + result.get("manifestKey") + ": " + result.get("contacts") + " contacts in "
+                    + result.get("pages") + " pages");
+        }
+        return result;
+    }
+}
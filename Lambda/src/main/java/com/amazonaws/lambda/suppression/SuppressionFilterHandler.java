@@ -0,0 +1,48 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ */
+
+package com.amazonaws.lambda.suppression;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import software.amazon.awssdk.http.urlconnection.UrlConnectionHttpClient;
+import software.amazon.awssdk.services.s3.S3Client;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Invoked by every Outreach child workflow to drop suppressed contacts from its page before dialing.
+ * <p>
+ * Input: {"bucket": "...", "indexKey": "...", "items": [{"phoneNumber": {"S": "+1..."}, ...}]}
+ * <p>
+ * Output: {"items": [...], "suppressed": n} with the items in their original order. The index is
+ * loaded once per execution environment and kept for the following invocations.
+ */
+public class SuppressionFilterHandler implements RequestHandler<Map<String, Object>, Map<String, Object>> {
+    private static final S3Client S3 = S3Client.builder()
+            .httpClient(UrlConnectionHttpClient.create())
+            .build();
+
+    private static final int DEFAULT_COUNTRY_CODE = Integer.parseInt(System.getenv().getOrDefault("DEFAULT_COUNTRY_CODE", "1"));
+
+    private static String loadedKey;
+    private static SuppressionIndex loadedIndex;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> handleRequest(Map<String, Object> input, Context context) {
+        SuppressionIndex index = index(String.valueOf(input.get("bucket")), String.valueOf(input.get("indexKey")));
+        return index.filter((List<Map<String, Object>>) input.get("items"), DEFAULT_COUNTRY_CODE);
+    }
+
+    private static synchronized SuppressionIndex index(String bucket, String indexKey) {
+        if (!indexKey.equals(loadedKey)) {
+            loadedIndex = SuppressionIndex.fromBytes(S3.getObjectAsBytes(request -> request.bucket(bucket).key(indexKey)).asByteArray());
+            loadedKey = indexKey;
+        }
+        return loadedIndex;
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ */
+
+package com.amazonaws.lambda.suppression;
+
+import com.amazonaws.lambda.contacts.PhoneNumbers;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Phone numbers that must not be dialed, as a sorted array of their E.164 digits. Takes 8 bytes
+ * per number in memory and in its serialized form, and a lookup is a binary search (about 24
+ * comparisons for 10 million numbers).
+ */
+public class SuppressionIndex {
+    private static final int MAGIC = 0x53555031;
+
+    private final long[] numbers;
+
+    // The numbers must be sorted and unique.
+    SuppressionIndex(long[] numbers) {
+        this.numbers = numbers;
+    }
+
+    public boolean contains(long phoneNumber) {
+        return Arrays.binarySearch(numbers, phoneNumber) >= 0;
+    }
+
+    // Numbers that cannot be normalized are never suppressed, they fail when dialed anyway.
+    // National numbers are read with the country code the index was built with.
+    public boolean contains(String phoneNumber, int defaultCountryCode) {
+        long digits = PhoneNumbers.normalize(phoneNumber, defaultCountryCode);
+        return digits != PhoneNumbers.INVALID && contains(digits);
+    }
+
+    // The SuppressionFilterHandler's output for a page of DynamoDB JSON items: the items not suppressed,
+    // in their original order, and how many were.
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> filter(List<Map<String, Object>> items, int defaultCountryCode) {
+        List<Map<String, Object>> kept = new ArrayList<>(items.size());
+        for (Map<String, Object> item : items) {
+            Map<String, Object> phoneNumber = (Map<String, Object>) item.get("phoneNumber");
+            if (phoneNumber == null || !contains(String.valueOf(phoneNumber.get("S")), defaultCountryCode)) {
+                kept.add(item);
+            }
+        }
+        return Map.of("items", kept, "suppressed", items.size() - kept.size());
+    }
+
+    public int size() {
+        return numbers.length;
+    }
+
+    public byte[] toBytes() {
+        ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES * 2 + numbers.length * Long.BYTES);
+        buffer.putInt(MAGIC).putInt(numbers.length);
+        buffer.asLongBuffer().put(numbers);
+        return buffer.array();
+    }
+
+    public static SuppressionIndex fromBytes(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        if (buffer.getInt() != MAGIC) {
+            throw new IllegalArgumentException("Not a suppression index");
+        }
+        long[] numbers = new long[buffer.getInt()];
+        buffer.asLongBuffer().get(numbers);
+        return new SuppressionIndex(numbers);
+    }
+}
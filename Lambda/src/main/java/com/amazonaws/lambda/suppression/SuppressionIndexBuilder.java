@@ -0,0 +1,109 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ */
+
+package com.amazonaws.lambda.suppression;
+
+import com.amazonaws.lambda.contacts.CsvReader;
+import com.amazonaws.lambda.contacts.LongHashSet;
+import com.amazonaws.lambda.contacts.PhoneNumbers;
+
+import java.io.IOException;
+import java.nio.channels.ReadableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects suppressed numbers from do-not-call lists and previous dial attempts. Lists are CSV
+ * files streamed from a channel, read from their PhoneNumber column or their first column, with
+ * or without a header row.
+ */
+public class SuppressionIndexBuilder {
+    private final int defaultCountryCode;
+    private final LongHashSet numbers;
+    private long listNumbers;
+    private long dialedNumbers;
+    private long invalidNumbers;
+
+    public SuppressionIndexBuilder(int defaultCountryCode, int expectedNumbers) {
+        this.defaultCountryCode = defaultCountryCode;
+        this.numbers = new LongHashSet(expectedNumbers);
+    }
+
+    public void addList(ReadableByteChannel list) throws IOException {
+        CsvReader reader = new CsvReader(list);
+        List<String> fields = new ArrayList<>();
+        int column = 0;
+        boolean first = true;
+        while (reader.next(fields)) {
+            if (first) {
+                first = false;
+                int header = header(fields);
+                if (header >= 0) {
+                    column = header;
+                    continue;
+                }
+            }
+            if (column >= fields.size() || fields.get(column).isBlank()) {
+                continue;
+            }
+            if (add(fields.get(column))) {
+                listNumbers++;
+            }
+        }
+    }
+
+    // Adds a number found in the execution table.
+    public void addDialed(String phoneNumber) {
+        if (add(phoneNumber)) {
+            dialedNumbers++;
+        }
+    }
+
+    public SuppressionIndex build() {
+        return new SuppressionIndex(numbers.toSortedArray());
+    }
+
+    // The SuppressionIndexBuilderHandler's output once the index is written to indexKey.
+    public Map<String, Object> toMap(String indexKey, SuppressionIndex index) {
+        return Map.of(
+                "indexKey", indexKey,
+                "numbers", index.size(),
+                "listNumbers", listNumbers,
+                "dialedNumbers", dialedNumbers,
+                "invalidNumbers", invalidNumbers);
+    }
+
+    private boolean add(String phoneNumber) {
+        long digits = PhoneNumbers.normalize(phoneNumber, defaultCountryCode);
+        if (digits == PhoneNumbers.INVALID) {
+            invalidNumbers++;
+            return false;
+        }
+        return numbers.add(digits);
+    }
+
+    private int header(List<String> fields) {
+        for (int i = 0; i < fields.size(); i++) {
+            if (fields.get(i).replace("\uFEFF", "").trim().equalsIgnoreCase("PhoneNumber")) {
+                return i;
+            }
+        }
+        // A first row holding a valid number is data, anything else is taken as a header naming other columns
+        return PhoneNumbers.normalize(fields.get(0), defaultCountryCode) == PhoneNumbers.INVALID ? 0 : -1;
+    }
+
+    public long getListNumbers() {
+        return listNumbers;
+    }
+
+    public long getDialedNumbers() {
+        return dialedNumbers;
+    }
+
+    public long getInvalidNumbers() {
+        return invalidNumbers;
+    }
+}
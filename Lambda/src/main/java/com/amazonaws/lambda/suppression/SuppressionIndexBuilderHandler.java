@@ -0,0 +1,134 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ */
+
+package com.amazonaws.lambda.suppression;
+
+import com.amazonaws.lambda.metrics.EmbeddedMetrics;
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.http.urlconnection.UrlConnectionHttpClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ReturnConsumedCapacity;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.S3Object;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.DoubleAdder;
+
+/**
+ * Invoked once per Outreach execution, before the contacts are exported, to build the suppression index.
+ * <p>
+ * Input: {"bucket": "...", "listPrefix": "suppression/", "indexKey": "...", "recentlyDialedDays": n}
+ * <p>
+ * Every file under listPrefix is read as a do-not-call list, and every number dialed in the last
+ * recentlyDialedDays days is taken from the execution table. The index is written to indexKey and
+ * loaded from there by the {@link SuppressionFilterHandler}. The read capacity the scan consumed is
+ * published as {@link EmbeddedMetrics}.
+ */
+public class SuppressionIndexBuilderHandler implements RequestHandler<Map<String, Object>, Map<String, Object>> {
+    private static final S3Client S3 = S3Client.builder()
+            .httpClient(UrlConnectionHttpClient.create())
+            .build();
+    private static final DynamoDbClient DYNAMO_DB = DynamoDbClient.builder()
+            .httpClient(UrlConnectionHttpClient.create())
+            .build();
+    private static final String EXECUTION_TABLE_NAME = System.getenv("EXECUTION_TABLE_NAME");
+    private static final int DEFAULT_COUNTRY_CODE = Integer.parseInt(System.getenv().getOrDefault("DEFAULT_COUNTRY_CODE", "1"));
+    private static final int SCAN_SEGMENTS = 4;
+
+    @Override
+    public Map<String, Object> handleRequest(Map<String, Object> input, Context context) {
+        String bucket = String.valueOf(input.get("bucket"));
+        String listPrefix = String.valueOf(input.getOrDefault("listPrefix", "suppression/"));
+        String indexKey = String.valueOf(input.get("indexKey"));
+        int recentlyDialedDays = Integer.parseInt(String.valueOf(input.getOrDefault("recentlyDialedDays", "0")));
+
+        SuppressionIndexBuilder builder = new SuppressionIndexBuilder(DEFAULT_COUNTRY_CODE, 1 << 16);
+        int lists = 0;
+        for (S3Object list : S3.listObjectsV2Paginator(request -> request.bucket(bucket).prefix(listPrefix)).contents()) {
+            if (list.key().endsWith("/")) {
+                continue;
+            }
+            try (ResponseInputStream<GetObjectResponse> body = S3.getObject(request -> request.bucket(bucket).key(list.key()))) {
+                builder.addList(Channels.newChannel(body));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            lists++;
+        }
+        if (recentlyDialedDays > 0) {
+            double capacityUnits = addRecentlyDialed(builder, Instant.now().minus(Duration.ofDays(recentlyDialedDays)));
+            new EmbeddedMetrics(Map.of("Operation", "SuppressionScan"))
+                    .put("ConsumedReadCapacity", capacityUnits, EmbeddedMetrics.COUNT)
+                    .log(context.getLogger());
+        }
+
+        SuppressionIndex index = builder.build();
+        S3.putObject(request -> request.bucket(bucket).key(indexKey).contentType("application/octet-stream"),
+                RequestBody.fromBytes(index.toBytes()));
+        context.getLogger().log("Suppression index " + indexKey + ": " + index.size() + " numbers from " + lists
+                + " lists and the dial attempts of the last " + recentlyDialedDays + " days");
+
+        return builder.toMap(indexKey, index);
+    }
+
+    // Parallel scan of the execution table for numbers successfully dialed since the given time,
+    // returns the read capacity units the scan consumed.
+    private static double addRecentlyDialed(SuppressionIndexBuilder builder, Instant since) {
+        DoubleAdder capacityUnits = new DoubleAdder();
+        ExecutorService executor = Executors.newFixedThreadPool(SCAN_SEGMENTS);
+        try {
+            List<Future<?>> segments = new ArrayList<>();
+            for (int segment = 0; segment < SCAN_SEGMENTS; segment++) {
+                ScanRequest scan = ScanRequest.builder()
+                        .tableName(EXECUTION_TABLE_NAME)
+                        .segment(segment)
+                        .totalSegments(SCAN_SEGMENTS)
+                        .projectionExpression("phoneNumber")
+                        .filterExpression("attemptedAt >= :since AND attemptStatus = :dialed")
+                        .expressionAttributeValues(Map.of(
+                                ":since", AttributeValue.fromS(since.toString()),
+                                ":dialed", AttributeValue.fromS("DIALED")))
+                        .returnConsumedCapacity(ReturnConsumedCapacity.TOTAL)
+                        .build();
+                segments.add(executor.submit(() -> DYNAMO_DB.scanPaginator(scan).forEach(page -> {
+                    if (page.consumedCapacity() != null) {
+                        capacityUnits.add(page.consumedCapacity().capacityUnits());
+                    }
+                    synchronized (builder) {
+                        page.items().forEach(item -> builder.addDialed(item.get("phoneNumber").s()));
+                    }
+                })));
+            }
+            for (Future<?> segment : segments) {
+                segment.get();
+            }
+            return capacityUnits.sum();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Could not scan " + EXECUTION_TABLE_NAME, e.getCause());
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ */
+
+package com.amazonaws.lambda.contacts;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+public class CsvReaderTest {
+
+    @Test
+    public void readsQuotedFieldsWithCommasQuotesAndLineBreaks() throws IOException {
+        List<List<String>> records = read("PhoneNumber,Note\n+12065550100,\"a, \"\"quoted\"\"\nnote\"\n+12065550101,\"\"\n");
+
+        assertEquals(List.of(
+                List.of("PhoneNumber", "Note"),
+                List.of("+12065550100", "a, \"quoted\"\nnote"),
+                List.of("+12065550101", "")), records);
+    }
+
+    @Test
+    public void readsCrlfLineEndingsAndALastRecordWithoutLineEnding() throws IOException {
+        List<List<String>> records = read("PhoneNumber,UserLang\r\n+12065550100,en_US\r\n+12065550101,es_US");
+
+        assertEquals(List.of(
+                List.of("PhoneNumber", "UserLang"),
+                List.of("+12065550100", "en_US"),
+                List.of("+12065550101", "es_US")), records);
+    }
+
+    @Test
+    public void dropsTheByteOrderMark() throws IOException {
+        List<List<String>> records = read("\uFEFFPhoneNumber,UserLang\r\n+12065550100,en_US\r\n");
+
+        assertEquals(List.of("PhoneNumber", "UserLang"), records.get(0));
+        assertEquals(2, records.size());
+    }
+
+    @Test
+    public void readsAnEscapedQuoteSplitAcrossChunks() throws IOException {
+        // The opening quote and the filler end on the first quote of the escape, the last char of the chunk
+        String filler = "x".repeat(CsvReader.CHUNK_BYTES - 2);
+        List<List<String>> records = read("\"" + filler + "\"\"tail\",next\n");
+
+        assertEquals(List.of(List.of(filler + "\"tail", "next")), records);
+    }
+
+    @Test
+    public void readsAClosingQuoteAtTheEndOfAChunk() throws IOException {
+        String filler = "x".repeat(CsvReader.CHUNK_BYTES - 2);
+        List<List<String>> records = read("\"" + filler + "\",next\n");
+
+        assertEquals(List.of(List.of(filler, "next")), records);
+    }
+
+    @Test
+    public void readsACrlfSplitAcrossChunks() throws IOException {
+        String filler = "x".repeat(CsvReader.CHUNK_BYTES - 1);
+        List<List<String>> records = read(filler + "\r\nnext\r\n");
+
+        assertEquals(List.of(List.of(filler), List.of("next")), records);
+    }
+
+    private static List<List<String>> read(String csv) throws IOException {
+        CsvReader reader = new CsvReader(channel(csv.getBytes(StandardCharsets.UTF_8)));
+        List<List<String>> records = new ArrayList<>();
+        List<String> fields = new ArrayList<>();
+        while (reader.next(fields)) {
+            records.add(new ArrayList<>(fields));
+        }
+        assertFalse(reader.next(fields));
+        return records;
+    }
+
+    // Fills the reader's buffer on every read, so its chunks end exactly every CHUNK_BYTES bytes.
+    private static ReadableByteChannel channel(byte[] bytes) {
+        ByteBuffer source = ByteBuffer.wrap(bytes);
+        return new ReadableByteChannel() {
+            @Override
+            public int read(ByteBuffer target) {
+                if (!source.hasRemaining()) {
+                    return -1;
+                }
+                int read = Math.min(source.remaining(), target.remaining());
+                ByteBuffer slice = source.slice();
+                slice.limit(read);
+                target.put(slice);
+                source.position(source.position() + read);
+                return read;
+            }
+
+            @Override
+            public boolean isOpen() {
+                return true;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ */
+
+package com.amazonaws.lambda.contacts;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LongHashSetTest {
+    private static final int COUNT = 100_000;
+
+    @Test
+    public void growsPastItsInitialCapacity() {
+        LongHashSet set = new LongHashSet(16);
+        long initialBytes = set.memoryBytes();
+        for (int i = 0; i < COUNT; i++) {
+            assertTrue(set.add(12065550000L + i * 7L));
+        }
+
+        assertEquals(COUNT, set.size());
+        assertTrue(set.memoryBytes() > initialBytes);
+        for (int i = 0; i < COUNT; i++) {
+            assertTrue(set.contains(12065550000L + i * 7L));
+            assertFalse(set.add(12065550000L + i * 7L));
+        }
+        assertFalse(set.contains(12065550001L));
+        assertEquals(COUNT, set.size());
+    }
+
+    @Test
+    public void returnsTheValuesSorted() {
+        LongHashSet set = new LongHashSet(4);
+        for (long value : new long[]{442079460958L, 12065550100L, 33612345678L}) {
+            set.add(value);
+        }
+
+        long[] values = set.toSortedArray();
+        assertEquals(3, values.length);
+        assertEquals(12065550100L, values[0]);
+        assertEquals(33612345678L, values[1]);
+        assertEquals(442079460958L, values[2]);
+    }
+
+    @Test
+    public void holdsPositiveValuesOnly() {
+        LongHashSet set = new LongHashSet(16);
+
+        assertThrows(IllegalArgumentException.class, () -> set.add(0));
+        assertThrows(IllegalArgumentException.class, () -> set.add(PhoneNumbers.INVALID));
+        assertFalse(set.contains(0));
+        assertFalse(set.contains(PhoneNumbers.INVALID));
+    }
+}
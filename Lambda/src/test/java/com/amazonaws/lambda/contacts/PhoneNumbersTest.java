@@ -0,0 +1,75 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ */
+
+package com.amazonaws.lambda.contacts;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class PhoneNumbersTest {
+
+    @Test
+    public void keepsInternationalNumbers() {
+        assertEquals(12065550100L, PhoneNumbers.normalize("+1 (206) 555-0100", 44));
+        assertEquals(442079460958L, PhoneNumbers.normalize("+44 20 7946 0958", 1));
+    }
+
+    @Test
+    public void readsThe00PrefixAsInternational() {
+        assertEquals(442079460958L, PhoneNumbers.normalize("0044 20 7946 0958", 1));
+        assertEquals(12065550100L, PhoneNumbers.normalize("001-206-555-0100", 44));
+    }
+
+    @Test
+    public void replacesTheTrunkPrefixWithTheDefaultCountryCode() {
+        assertEquals(442079460958L, PhoneNumbers.normalize("020 7946 0958", 44));
+        assertEquals(33612345678L, PhoneNumbers.normalize("06.12.34.56.78", 33));
+    }
+
+    @Test
+    public void takesNorthAmericanNumbersWithOrWithoutTheLeading1() {
+        assertEquals(12065550100L, PhoneNumbers.normalize("(206) 555-0100", 1));
+        assertEquals(12065550100L, PhoneNumbers.normalize("1 206 555 0100", 1));
+    }
+
+    @Test
+    public void rejectsInvalidNorthAmericanNumbers() {
+        // Area codes and exchanges cannot start with 0 or 1
+        assertEquals(PhoneNumbers.INVALID, PhoneNumbers.normalize("+1 106 555 0100", 1));
+        assertEquals(PhoneNumbers.INVALID, PhoneNumbers.normalize("+1 206 155 0100", 1));
+        assertEquals(PhoneNumbers.INVALID, PhoneNumbers.normalize("+1 206 555 010", 1));
+        assertEquals(PhoneNumbers.INVALID, PhoneNumbers.normalize("+1 206 555 01000", 1));
+    }
+
+    @Test
+    public void rejectsNationalNumbersThatAreNotNorthAmerican() {
+        // Nine digits, eleven digits without the leading 1, and a trunk prefix North America does not have
+        assertEquals(PhoneNumbers.INVALID, PhoneNumbers.normalize("206555010", 1));
+        assertEquals(PhoneNumbers.INVALID, PhoneNumbers.normalize("22065550100", 1));
+        assertEquals(PhoneNumbers.INVALID, PhoneNumbers.normalize("020 7946 0958", 1));
+    }
+
+    @Test
+    public void checksTheLengthOfOtherNationalNumbers() {
+        assertEquals(PhoneNumbers.INVALID, PhoneNumbers.normalize("020 79", 44));
+        assertEquals(PhoneNumbers.INVALID, PhoneNumbers.normalize("020 7946 0958 1234 5", 44));
+        // An unprefixed number is national even when it starts with another country code
+        assertEquals(33442079460958L, PhoneNumbers.normalize("44 20 7946 0958", 33));
+    }
+
+    @Test
+    public void rejectsMalformedNumbers() {
+        assertEquals(PhoneNumbers.INVALID, PhoneNumbers.normalize("", 1));
+        assertEquals(PhoneNumbers.INVALID, PhoneNumbers.normalize("206-555-CALL", 1));
+        assertEquals(PhoneNumbers.INVALID, PhoneNumbers.normalize("+44 20 7946 0958 1234 5", 1));
+        assertEquals(PhoneNumbers.INVALID, PhoneNumbers.normalize("20+6 555 0100", 1));
+    }
+
+    @Test
+    public void formatsAsE164() {
+        assertEquals("+12065550100", PhoneNumbers.format(12065550100L));
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: MIT-0
+ */
+
+package com.amazonaws.lambda.pacing;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class CallerIdDispatcherTest {
+    private static final String INSTANCE = "instance-1";
+    private static final String SOURCE = "+18005550100";
+    private static final String NUMBER_BUCKET = INSTANCE + "#" + SOURCE;
+    private static final String CAMPAIGN_BUCKET = INSTANCE + "#campaign#spring";
+    private static final long NOW = 1_700_000_000_000L;
+    private static final PacingConfig CONFIG = new PacingConfig(10, 1000, 30);
+
+    @Test
+    public void givesTheSlotsBackWhenAConcurrentCallTookTheCampaignSlot() {
+        InMemoryTokenBucketStore store = new InMemoryTokenBucketStore();
+        CallerIdDispatcher dispatcher = dispatcher(new RacingStore(store));
+
+        assertThrows(CallingWindowClosedException.class,
+                () -> dispatcher.acquire(INSTANCE, "spring", "+12065550100", NOW, NOW + 5_000));
+
+        // Full buckets again, as if the call had never asked for a slot
+        assertEquals(CONFIG.burstCapacity(), store.load(INSTANCE).getTokens());
+        assertEquals(CONFIG.perCallerId(5).burstCapacity(), store.load(NUMBER_BUCKET).getTokens());
+    }
+
+    @Test
+    public void keepsTheSlotsWhenTheyAllFallBeforeNotAfter() {
+        InMemoryTokenBucketStore store = new InMemoryTokenBucketStore();
+        CallerIdDispatcher.Assignment assignment = dispatcher(store).acquire(INSTANCE, "spring", "+12065550100", NOW, NOW + 5_000);
+
+        assertEquals(SOURCE, assignment.getSourcePhoneNumber());
+        assertEquals(0, assignment.getWaitMillis());
+        assertEquals(CONFIG.burstCapacity() - 1, store.load(INSTANCE).getTokens());
+        assertEquals(CONFIG.perCallerId(5).burstCapacity() - 1, store.load(NUMBER_BUCKET).getTokens());
+    }
+
+    private static CallerIdDispatcher dispatcher(TokenBucketStore store) {
+        CampaignRegistry registry = new CampaignRegistry() {
+            @Override
+            public List<Campaign> load() {
+                return List.of();
+            }
+
+            @Override
+            public void dialing(String campaignId, long nowMillis) {
+            }
+        };
+        return new CallerIdDispatcher(new DialPacer(store, CONFIG), new DialPacer(store, CONFIG.perCallerId(5)),
+                new CallerIdPool(List.of(SOURCE)), false, new CampaignScheduler(registry));
+    }
+
+    // Another call reserves a minute of campaign slots between the check of the campaign bucket and its reservation.
+    private static class RacingStore implements TokenBucketStore {
+        private final TokenBucketStore store;
+        private boolean raced;
+
+        RacingStore(TokenBucketStore store) {
+            this.store = store;
+        }
+
+        @Override
+        public TokenBucket load(String bucketId) {
+            return store.load(bucketId);
+        }
+
+        @Override
+        public boolean save(TokenBucket bucket, long expectedVersion) {
+            if (CAMPAIGN_BUCKET.equals(bucket.getBucketId()) && !raced) {
+                raced = true;
+                store.save(new TokenBucket(CAMPAIGN_BUCKET, -bucket.getCallsPerSecond() * 60, bucket.getCallsPerSecond(), NOW, 0, 1), 0);
+            }
+            return store.save(bucket, expectedVersion);
+        }
+    }
+}